@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+File firstType = new File( basedir,'target/generated-sources/jaxb/com/example/first/FirstType.java' )
+assert firstType.exists()
+
+File secondType = new File( basedir,'target/generated-sources/jaxb/com/example/second/SecondType.java' )
+assert secondType.exists()
+
+File episode = new File( basedir,'target/generated-sources/jaxb/META-INF/sun-jaxb.episode' )
+assert episode.exists()
+assert episode.text.contains( 'com.example.first.FirstType' )
+assert episode.text.contains( 'com.example.second.SecondType' )
+
+File buildLog = new File( basedir, 'build.log' )
+assert buildLog.text.contains( 'Compiling 2 independent groups of sources' )
+
+File firstTypeCompiled = new File( basedir,'target/classes/com/example/first/FirstType.class' )
+assert firstTypeCompiled.exists()
+File secondTypeCompiled = new File( basedir,'target/classes/com/example/second/SecondType.class' )
+assert secondTypeCompiled.exists()
@@ -19,6 +19,7 @@ package org.codehaus.mojo.jaxb2;
  * under the License.
  */
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -29,23 +30,34 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.cache.BuildCache;
 import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderBuilder;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
+import org.codehaus.mojo.jaxb2.shared.staleness.StalenessManifest;
+import org.codehaus.mojo.jaxb2.shared.staging.OutputStaging;
 import org.codehaus.mojo.jaxb2.shared.version.DependencyInfo;
 import org.codehaus.mojo.jaxb2.shared.version.DependsFileParser;
+import org.codehaus.mojo.jaxb2.shared.watch.DirectoryWatcher;
+import org.codehaus.plexus.util.FileUtils;
 import org.sonatype.plexus.build.incremental.BuildContext;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 /**
@@ -85,12 +97,8 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
 
     static {
 
-        // The standard exclude filters contain simple, exclude pattern filters.
-        final List<Filter<File>> tmp = new ArrayList<Filter<File>>();
-        tmp.add(new PatternFileFilter(Arrays.asList(STANDARD_EXCLUDE_SUFFIXES), true));
-
         // Make STANDARD_EXCLUDE_FILTERS be unmodifiable.
-        STANDARD_EXCLUDE_FILTERS = (List<Filter<File>>) Collections.unmodifiableList(tmp);
+        STANDARD_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardExcludeFilters(null));
     }
 
     /**
@@ -115,6 +123,12 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     @Parameter(defaultValue = "${mojoExecution}", readonly = true)
     private MojoExecution execution;
 
+    /**
+     * The active Maven session, used as the scope of cached tool ClassLoaders and canonical paths.
+     */
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
     /**
      * <p>The directory where the staleFile is found.
      * The staleFile assists in determining if re-generation of JAXB build products is required.</p>
@@ -145,6 +159,99 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     @Parameter(defaultValue = "${project.build.sourceEncoding}")
     private String encoding;
 
+    /**
+     * <p>If {@code true}, the files generated by this execution are stored in a local, content-addressed build
+     * cache, and restored from it instead of running XJC or SchemaGen whenever an identical generation has been
+     * performed before. The cache key is a digest of the content of all sources, XJB and catalog files, the
+     * effective tool arguments, the plugin version and the JAR files on the tool classpath (which may hold
+     * episode files).</p>
+     * <p>Only executions which clear their output directory before generating files are stored in the cache.</p>
+     *
+     * @see #buildCacheDirectory
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.buildCache", defaultValue = "false")
+    protected boolean buildCache;
+
+    /**
+     * <p>The root directory of the local build cache, used if {@code buildCache} is {@code true}.
+     * The cache directory can be shared between projects and concurrent builds on the same machine.</p>
+     *
+     * @see #buildCache
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.buildCacheDirectory", defaultValue = "${user.home}/.m2/jaxb2-cache")
+    protected File buildCacheDirectory;
+
+    /**
+     * <p>If {@code true}, files restored from the build cache are hard-linked from the cache entry (where the
+     * file system permits it) rather than copied. Hard-linked files keep the modification timestamp of the
+     * cache entry, and must be treated as read-only: don't enable hard links if any later build step (or IDE)
+     * modifies generated files in place, since such modifications would also corrupt the cache entry.</p>
+     *
+     * @see #buildCache
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.buildCacheHardLinks", defaultValue = "false")
+    protected boolean buildCacheHardLinks;
+
+    /**
+     * <p>The maximum number of remote (i.e. non-file) sources which are probed concurrently when checking if
+     * re-generation is required. Remote sources are probed using conditional requests, whose validators
+     * (ETag and modification timestamp) are recorded in the staleFile. Values less than 2 imply probing
+     * remote sources one at a time.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.stalenessCheckThreads", defaultValue = "8")
+    protected int stalenessCheckThreads;
+
+    /**
+     * <p>The files produced by each execution are recorded in the staleFile, and verified before skipping
+     * re-generation; deleted or truncated generated files imply that re-generation is required. By default,
+     * generated files are verified by their existence and size only. If {@code true}, the content digest of
+     * each generated file is recorded as well, and verified for generated files whose modification timestamp
+     * has changed.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.verifyOutputDigests", defaultValue = "false")
+    protected boolean verifyOutputDigests;
+
+    /**
+     * <p>If {@code true}, generated files are written to a staging directory (next to the staleFile) rather than
+     * directly into the output directory. After a successful execution, only staged files whose content differs
+     * from the corresponding file within the output directory are moved into the output directory, and files
+     * generated by an earlier execution but not by this one are deleted. Unchanged generated files retain their
+     * modification timestamps, implying that incremental compilers and IDEs need not recompile them.</p>
+     * <p>XJC writes a "Generated on" timestamp into the header comment of each generated Java file (unless
+     * {@code noGeneratedHeaderComments} is {@code true}), and into its {@code @Generated} annotations (if
+     * {@code addGeneratedAnnotation} is {@code true}). These timestamps are disregarded when comparing generated
+     * Java files: a single differing line within the leading comment block, and differing {@code date}
+     * attributes of {@code @Generated} annotations, do not imply that a generated Java file has changed.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.writeIfChanged", defaultValue = "false")
+    protected boolean writeIfChanged;
+
+    /**
+     * <p>If {@code true}, the ClassLoaders (and classpath arguments) synthesized for XJC and SchemaGen are cached
+     * for the duration of the Maven session, and re-used by all executions (within all modules) whose tool
+     * classpath holds the same entries with unchanged sizes and modification timestamps. This avoids re-opening
+     * JARs and re-defining classes for each execution. Don't enable the cache if classes within directories
+     * on the tool classpath are modified between executions within the same session.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.classLoaderCache", defaultValue = "false")
+    protected boolean classLoaderCache;
+
+    // Internal state
+    private StalenessManifest stalenessManifest;
+    private OutputStaging outputStaging;
+    private List<URL> resolvedSources;
+
     /**
      * The Plexus BuildContext is used to identify files or directories modified since last build,
      * implying functionality used to define if java generation must be performed again.
@@ -169,49 +276,94 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         return getInjectedObject(execution, "execution");
     }
 
+    /**
+     * Creates a ThreadContextClassLoaderBuilder for the tool (XJC or SchemaGen) fired by this AbstractJaxbMojo,
+     * re-using cached ClassLoaders within the active Maven session if {@code classLoaderCache} is {@code true}.
+     * Watching AbstractJaxbMojos always re-use their ClassLoaders between re-executions.
+     *
+     * @return A ThreadContextClassLoaderBuilder using the ClassLoader of this AbstractJaxbMojo as parent.
+     */
+    protected final ThreadContextClassLoaderBuilder createClassLoaderBuilder() {
+
+        Object cacheScope = null;
+        if (classLoaderCache) {
+            cacheScope = session;
+        } else if (isWatching()) {
+            cacheScope = this;
+        }
+
+        // All done.
+        return ThreadContextClassLoaderBuilder.createFor(getClass(), getLog()).withCacheScope(cacheScope);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public final void execute() throws MojoExecutionException, MojoFailureException {
 
-        // 0) Get the log and its relevant level
-        final Log log = getLog();
-        final boolean isDebugEnabled = log.isDebugEnabled();
-        final boolean isInfoEnabled = log.isInfoEnabled();
-
-        // 1) Should we skip execution?
-        if (shouldExecutionBeSkipped()) {
+        executeOnce();
 
-            if (isDebugEnabled) {
-                log.debug("Skipping execution, as instructed.");
-            }
-            return;
-        }
-
-        // 2) Printout relevant version information.
-        if (isDebugEnabled) {
-            logPluginAndJaxbDependencyInfo();
+        // Re-execute whenever sources change?
+        if (isWatching() && !shouldExecutionBeSkipped()) {
+            watchAndReExecute();
         }
+    }
 
-        // 3) Are generated files stale?
-        if (isReGenerationRequired()) {
+    /**
+     * Override this method to make this AbstractJaxbMojo keep running after its first execution, watching the
+     * directories retrieved from {@link #getWatchedDirectories()} and re-executing whenever files within them
+     * are changed. Re-executions are subject to the normal staleness check.
+     *
+     * @return {@code true} if this AbstractJaxbMojo should watch its sources. This default implementation
+     * returns {@code false}.
+     */
+    protected boolean isWatching() {
+        return false;
+    }
 
-            if (performExecution()) {
+    /**
+     * Override this method to change the time to wait for further changes before a watching AbstractJaxbMojo
+     * is re-executed.
+     *
+     * @return The number of milliseconds without further changes required before re-executing.
+     * This default implementation returns 250.
+     * @see #isWatching()
+     */
+    protected long getWatchDebounceMillis() {
+        return 250L;
+    }
 
-                // As instructed by the performExecution() method, update
-                // the timestamp of the stale File.
-                updateStaleFileTimestamp();
+    /**
+     * Retrieves the directories watched for changes by a watching AbstractJaxbMojo. This default implementation
+     * returns the directories holding the sources of this AbstractJaxbMojo.
+     *
+     * @return A non-null List holding the directories to watch.
+     * @see #isWatching()
+     */
+    protected List<File> getWatchedDirectories() {
 
-                // Hack to support M2E
-                buildContext.refresh(getOutputDirectory());
+        final List<File> toReturn = new ArrayList<File>();
+        for (URL current : getSources()) {
+            if ("file".equalsIgnoreCase(current.getProtocol())) {
 
-            } else if (isInfoEnabled) {
-                log.info("Not updating staleFile timestamp as instructed.");
+                final File directory = FileSystemUtilities.getFileFor(current, getEncoding(false)).getParentFile();
+                if (directory != null && !toReturn.contains(directory)) {
+                    toReturn.add(directory);
+                }
             }
-        } else if (isInfoEnabled) {
-            log.info("No changes detected in schema or binding files - skipping JAXB generation.");
         }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Discards the sources resolved by this AbstractJaxbMojo, implying that they are resolved again when
+     * next retrieved. Invoked before each re-execution of a watching AbstractJaxbMojo.
+     */
+    protected synchronized void discardResolvedSources() {
+        resolvedSources = null;
     }
 
     /**
@@ -231,7 +383,7 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
      * <p>Implement this method to perform this Mojo's execution.
      * This method will only be called if {@code !shouldExecutionBeSkipped() && isReGenerationRequired()}.</p>
      *
-     * @return {@code true} if the timestamp of the stale file should be updated.
+     * @return {@code true} if the stale file should be updated.
      * @throws MojoExecutionException if an unexpected problem occurs.
      *                                Throwing this exception causes a "BUILD ERROR" message to be displayed.
      * @throws MojoFailureException   if an expected problem (such as a compilation failure) occurs.
@@ -240,13 +392,33 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     protected abstract boolean performExecution() throws MojoExecutionException, MojoFailureException;
 
     /**
-     * Override this method to acquire a List holding all URLs to the sources which this
+     * Override this method to resolve a List holding all URLs to the sources which this
      * AbstractJaxbMojo should use to produce its output (XSDs files for AbstractXsdGeneratorMojos and
-     * Java Source Code for AbstractJavaGeneratorMojos).
+     * Java Source Code for AbstractJavaGeneratorMojos). This method is invoked at most once per execution;
+     * use {@link #getSources()} to retrieve the resolved sources.
      *
      * @return A non-null List holding URLs to sources used by this AbstractJaxbMojo to produce its output.
      */
-    protected abstract List<URL> getSources();
+    protected abstract List<URL> resolveSources();
+
+    /**
+     * Retrieves the sources which this AbstractJaxbMojo should use to produce its output. The sources are
+     * resolved (i.e. the file system is walked and filtered) once per execution, and the resulting snapshot
+     * is shared by the staleness check, the tool invocation and all other phases of the execution.
+     *
+     * @return A non-null, unmodifiable List holding URLs to sources used by this AbstractJaxbMojo to produce
+     * its output.
+     * @see #resolveSources()
+     */
+    protected final synchronized List<URL> getSources() {
+
+        if (resolvedSources == null) {
+            resolvedSources = Collections.unmodifiableList(new ArrayList<URL>(resolveSources()));
+        }
+
+        // All done.
+        return resolvedSources;
+    }
 
     /**
      * Retrieves the directory where the generated files should be written to.
@@ -255,6 +427,41 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
      */
     protected abstract File getOutputDirectory();
 
+    /**
+     * Retrieves the directory into which the tool (XJC or SchemaGen) should write its generated files.
+     * This is the output directory unless {@code writeIfChanged} is {@code true}, in which case it is a
+     * staging directory whose changed files are published into the output directory after the execution.
+     *
+     * @return the directory into which generated files should be written during {@link #performExecution()}.
+     */
+    protected final File getGenerationDirectory() {
+        return outputStaging == null ? getOutputDirectory() : outputStaging.getStagingDirectory();
+    }
+
+    /**
+     * Notifies the BuildContext that the generated files were updated. Files generated into a staging
+     * directory are refreshed individually when published, implying that this method does nothing in
+     * that case.
+     */
+    protected final void refreshGeneratedFiles() {
+        if (outputStaging == null) {
+            getBuildContext().refresh(getOutputDirectory());
+        }
+    }
+
+    /**
+     * Override this method to indicate that all files within the output directory are generated by this
+     * AbstractJaxbMojo, implying that the output directory is cleared before generating files into it.
+     * When {@code writeIfChanged} is {@code true}, this implies that all files within the output directory
+     * which were not generated by the current execution are deleted. Otherwise, only files generated by the
+     * previous execution are deleted unless re-generated.
+     *
+     * @return {@code true} if the output directory is cleared before generating files. The default is false.
+     */
+    protected boolean isOutputDirectoryCleared() {
+        return false;
+    }
+
     /**
      * Retrieves the configured List of paths from which this AbstractJaxbMojo and its internal toolset
      * (XJC or SchemaGen) should read bytecode classes.
@@ -334,6 +541,223 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         return new File(staleFileDirectory, staleFileName);
     }
 
+    /**
+     * <p>Checks if re-generation is required by comparing the content of the supplied inputs and the effective
+     * tool arguments with the staleness manifest persisted in the staleFile by the previous successful execution.
+     * Re-generation is required if:</p>
+     * <ol>
+     * <li>The staleFile does not exist, or does not contain a valid staleness manifest.</li>
+     * <li>The effective tool arguments differ from the ones recorded in the staleFile.</li>
+     * <li>Any input was added, removed or has a content digest differing from the one recorded in the staleFile.
+     * Inputs whose modification timestamp changed while their content did not (such as after a fresh checkout
+     * or a {@code touch}) do not imply that re-generation is required.</li>
+     * <li>Any dependency recorded in the staleFile (see {@link #recordDependencies(Collection)}) was removed
+     * or has a content digest differing from the one recorded in the staleFile.</li>
+     * </ol>
+     * <p>The resulting staleness manifest is written to the staleFile after a successful execution.</p>
+     *
+     * @param inputs    URLs to all resources whose content defines the result of this AbstractJaxbMojo's execution.
+     * @param arguments The effective tool arguments, which - in addition to the inputs - define the result of
+     *                  this AbstractJaxbMojo's execution.
+     * @return {@code true} if re-generation is required.
+     * @see StalenessManifest
+     */
+    protected final boolean isStale(final List<URL> inputs, final List<String> arguments) {
+
+        // Check sanity
+        Validate.notNull(inputs, "inputs");
+        Validate.notNull(arguments, "arguments");
+
+        final File staleFile = getStaleFile();
+        final String debugPrefix = "StaleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]";
+        final StalenessManifest previous = StalenessManifest.read(staleFile);
+        final StalenessManifest current = new StalenessManifest(arguments);
+
+        try {
+            current.addResources(inputs, previous, stalenessCheckThreads);
+        } catch (IOException e) {
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not fingerprint inputs. Re-generation required.", e);
+            }
+
+            // Can't determine if the inputs are unchanged.
+            // Re-generate to be on the safe side.
+            stalenessManifest = null;
+            return true;
+        }
+
+        // Re-fingerprint the dependencies recorded by the previous execution.
+        // Dependencies which could not be read are reported as removed.
+        if (previous != null) {
+            for (String currentDependency : previous.getDependencies().keySet()) {
+                try {
+                    current.addDependency(new URL(currentDependency), previous);
+                } catch (IOException e) {
+
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug("Could not fingerprint dependency [" + currentDependency + "]", e);
+                    }
+                }
+            }
+        }
+
+        // Remember the manifest, to write it into the staleFile after a successful execution.
+        stalenessManifest = current;
+
+        final List<String> differences = current.getDifferences(previous);
+        if (differences.isEmpty()) {
+
+            // Generated files which were deleted or modified must be re-generated.
+            current.copyOutputs(previous);
+            differences.addAll(previous.getOutputDifferences(getOutputDirectory(), verifyOutputDigests));
+        }
+
+        if (differences.isEmpty()) {
+
+            // Update the recorded timestamps, to avoid re-calculating digests for touched but unchanged inputs.
+            if (!current.getResources().equals(previous.getResources())
+                    || !current.getDependencies().equals(previous.getDependencies())) {
+                updateStaleFile();
+            }
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug(debugPrefix + " matches the content of all " + inputs.size() + " inputs.");
+            }
+            return false;
+        }
+
+        if (getLog().isDebugEnabled()) {
+
+            final StringBuilder builder = new StringBuilder();
+            builder.append(debugPrefix + " differs from current inputs. Re-generation required.\n");
+            for (String currentDifference : differences) {
+                builder.append("  ").append(currentDifference).append("\n");
+            }
+            getLog().debug(builder.toString().replace("\n", NEWLINE));
+        }
+
+        // All done.
+        return true;
+    }
+
+    /**
+     * Records the resources on which the inputs of this AbstractJaxbMojo's execution depend, replacing any
+     * dependencies recorded earlier. The recorded dependencies are persisted in the staleFile after a successful
+     * execution, and are re-fingerprinted by {@link #isStale(List, List)} during subsequent builds. Hence, changes
+     * to dependencies are detected without re-resolving them unless re-generation is actually performed.
+     * This method does nothing unless {@link #isStale(List, List)} could fingerprint all inputs.
+     *
+     * @param dependencies URLs to all resources on which the inputs depend (such as XSDs reached through
+     *                     {@code xs:include} or {@code xs:import}), excluding the inputs themselves.
+     */
+    protected final void recordDependencies(final Collection<URL> dependencies) {
+
+        // Check sanity
+        Validate.notNull(dependencies, "dependencies");
+
+        if (stalenessManifest == null) {
+            return;
+        }
+
+        final StalenessManifest previous = StalenessManifest.read(getStaleFile());
+        stalenessManifest.clearDependencies();
+        try {
+            for (URL current : dependencies) {
+                stalenessManifest.addDependency(current, previous);
+            }
+        } catch (IOException e) {
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not fingerprint dependencies. Re-generation will be required.", e);
+            }
+
+            // Write an empty manifest after execution, to ensure re-generation next time.
+            stalenessManifest = null;
+        }
+    }
+
+    /**
+     * Restores the content of the supplied output directory from the build cache, provided that the build cache
+     * is enabled and holds an entry for the inputs and arguments given to the latest staleness check.
+     *
+     * @param outputDirectory The directory into which cached files should be restored.
+     * @param clearOutputDir  if {@code true}, the output directory is cleared before restoring files into it.
+     * @return {@code true} if the output directory was restored from the build cache, implying that the tool
+     * (XJC or SchemaGen) does not need to run.
+     * @throws MojoExecutionException if the output directory could not be created or cleared.
+     * @see #buildCache
+     */
+    protected final boolean restoreFromBuildCache(final File outputDirectory, final boolean clearOutputDir)
+            throws MojoExecutionException {
+
+        final String key = getBuildCacheKey();
+        if (key == null) {
+            return false;
+        }
+
+        final BuildCache cache = new BuildCache(buildCacheDirectory, buildCacheHardLinks, getLog());
+        if (!cache.getEntryDirectory(key).isDirectory()) {
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Build cache miss for key [" + key + "]");
+            }
+            return false;
+        }
+
+        FileSystemUtilities.createDirectory(outputDirectory, clearOutputDir);
+        try {
+            return cache.restore(key, outputDirectory);
+        } catch (IOException e) {
+
+            // Ensure that we don't leave a partially restored output directory behind.
+            getLog().warn("Could not restore files from build cache. Generating files instead.", e);
+            FileSystemUtilities.createDirectory(outputDirectory, true);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the content of the supplied output directory in the build cache, provided that the build cache
+     * is enabled and the latest staleness check could fingerprint all inputs.
+     *
+     * @param outputDirectory The directory holding the files generated by the tool (XJC or SchemaGen).
+     * @see #buildCache
+     */
+    protected final void storeInBuildCache(final File outputDirectory) {
+
+        final String key = getBuildCacheKey();
+        if (key != null) {
+            try {
+                new BuildCache(buildCacheDirectory, false, getLog()).store(key, outputDirectory);
+            } catch (IOException e) {
+                getLog().warn("Could not store generated files in build cache.", e);
+            }
+        }
+    }
+
+    /**
+     * Creates a List holding new instances of the standard exclude Filters, followed by the supplied Filter.
+     * As Filters hold the Log with which they are initialized, each execution should initialize Filters of
+     * its own rather than the standard Filter Lists, which are shared by all executions.
+     *
+     * @param additionalFilter A Filter appended to the standard exclude Filters, or {@code null}.
+     * @return A new List of uninitialized Filters.
+     * @since 2.2
+     */
+    protected static List<Filter<File>> createStandardExcludeFilters(final Filter<File> additionalFilter) {
+
+        // The standard exclude filters contain simple, exclude pattern filters.
+        final List<Filter<File>> toReturn = new ArrayList<Filter<File>>();
+        toReturn.add(new PatternFileFilter(Arrays.asList(STANDARD_EXCLUDE_SUFFIXES), true));
+        if (additionalFilter != null) {
+            toReturn.add(additionalFilter);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
     /**
      * <p>The algorithm for finding the encoding to use is as follows (where the first non-null value found
      * is used for encoding):</p>
@@ -393,7 +817,7 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         Validate.notEmpty(effectiveEpisodeFileName, "effectiveEpisodeFileName");
 
         // Use the standard episode location
-        final File generatedMetaInfDirectory = new File(getOutputDirectory(), "META-INF");
+        final File generatedMetaInfDirectory = new File(getGenerationDirectory(), "META-INF");
 
         if (!generatedMetaInfDirectory.exists()) {
 
@@ -413,6 +837,146 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     // Private helpers
     //
 
+    private void executeOnce() throws MojoExecutionException, MojoFailureException {
+
+        // 0) Get the log and its relevant level
+        final Log log = getLog();
+        final boolean isDebugEnabled = log.isDebugEnabled();
+        final boolean isInfoEnabled = log.isInfoEnabled();
+
+        // 1) Should we skip execution?
+        if (shouldExecutionBeSkipped()) {
+
+            if (isDebugEnabled) {
+                log.debug("Skipping execution, as instructed.");
+            }
+            return;
+        }
+
+        // 2) Printout relevant version information.
+        if (isDebugEnabled) {
+            logPluginAndJaxbDependencyInfo();
+        }
+
+        // Canonical paths are cached for the duration of the Maven session.
+        if (session != null) {
+            FileSystemUtilities.setCanonicalPathCacheScope(session);
+        }
+
+        // 3) Are generated files stale?
+        if (isReGenerationRequired()) {
+
+            if (writeIfChanged) {
+                outputStaging = createOutputStaging();
+            }
+
+            try {
+
+                final Map<String, String> outputsBeforeExecution = outputStaging == null
+                        ? getOutputFileMetadata()
+                        : null;
+                if (performExecution()) {
+
+                    // As instructed by the performExecution() method, update
+                    // the staleness manifest within the stale File.
+                    if (outputStaging == null) {
+
+                        recordOutputs(getProducedOutputs(outputsBeforeExecution));
+                        updateStaleFile();
+
+                        // Hack to support M2E
+                        buildContext.refresh(getOutputDirectory());
+
+                    } else {
+
+                        // Move changed files into the output directory, and notify the
+                        // BuildContext about the files which were actually changed.
+                        publishStagedOutputs();
+                        recordOutputs(outputStaging.getStagedFiles());
+                        updateStaleFile();
+
+                        for (File current : outputStaging.getChangedFiles()) {
+                            buildContext.refresh(current);
+                        }
+                    }
+
+                } else if (isInfoEnabled) {
+                    log.info("Not updating staleFile as instructed.");
+                }
+            } finally {
+
+                if (outputStaging != null) {
+                    try {
+                        FileUtils.deleteDirectory(outputStaging.getStagingDirectory());
+                    } catch (IOException e) {
+                        log.warn("Could not delete staging directory ["
+                                + FileSystemUtilities.getCanonicalPath(outputStaging.getStagingDirectory()) + "]");
+                    }
+                    outputStaging = null;
+                }
+            }
+        } else if (isInfoEnabled) {
+            log.info("No changes detected in schema or binding files - skipping JAXB generation.");
+        }
+
+        if (isDebugEnabled) {
+            log.debug("Canonical path cache: " + FileSystemUtilities.getCanonicalPathCacheHits() + " hits, "
+                    + FileSystemUtilities.getCanonicalPathCacheMisses() + " misses.");
+        }
+    }
+
+    private void watchAndReExecute() throws MojoExecutionException {
+
+        final Log log = getLog();
+        DirectoryWatcher watcher = null;
+
+        try {
+
+            watcher = new DirectoryWatcher(log);
+            while (!Thread.currentThread().isInterrupted()) {
+
+                watcher.register(getWatchedDirectories());
+                if (log.isInfoEnabled()) {
+                    log.info("Watching " + watcher.getNumberOfWatchedDirectories()
+                            + " directories for changes. Press Ctrl-C to stop.");
+                }
+
+                final SortedSet<File> changedFiles = watcher.awaitChanges(getWatchDebounceMillis());
+                if (log.isInfoEnabled()) {
+                    log.info("Detected " + changedFiles.size() + " changed files - re-executing.");
+                }
+
+                // Resolve the sources anew, as files may have been added or removed.
+                discardResolvedSources();
+
+                try {
+                    executeOnce();
+                } catch (MojoExecutionException e) {
+                    log.error("Re-execution failed. Watching for further changes.", e);
+                } catch (MojoFailureException e) {
+                    log.error("Re-execution failed. Watching for further changes.", e);
+                }
+            }
+
+        } catch (InterruptedException e) {
+
+            // Stop watching, as instructed.
+            Thread.currentThread().interrupt();
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not watch directories for changes", e);
+        } finally {
+
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    log.warn("Could not close directory watcher: " + e.getMessage());
+                }
+            }
+        }
+    }
+
     private void logPluginAndJaxbDependencyInfo() {
 
         if (getLog().isDebugEnabled()) {
@@ -462,6 +1026,90 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         }
     }
 
+    private String getBuildCacheKey() {
+
+        // The build cache can only be used if we know the fingerprints of all inputs.
+        if (!buildCache || stalenessManifest == null) {
+            return null;
+        }
+
+        final List<String> keyParts = new ArrayList<String>();
+        try {
+
+            final SortedMap<String, String> versionMap = DependsFileParser.getVersionMap(OWN_ARTIFACT_ID);
+            keyParts.add(versionMap.get(DependsFileParser.OWN_VERSION_KEY));
+            keyParts.add(versionMap.get(DependsFileParser.BUILDTIME_KEY));
+            keyParts.add(getClass().getName());
+
+            // Use paths relative to the basedir, to share cache entries between checkouts in different locations.
+            final URI basedirURI = FileSystemUtilities.getCanonicalFile(getProject().getBasedir()).toURI();
+            for (String current : stalenessManifest.getArguments()) {
+
+                // Arguments may hold several paths, such as classpaths.
+                final StringBuilder builder = new StringBuilder();
+                for (String currentPath : current.split(Pattern.quote(File.pathSeparator), -1)) {
+                    builder.append(builder.length() == 0 ? "" : File.pathSeparator)
+                            .append(relativizeToBasedir(currentPath, basedirURI));
+                }
+                keyParts.add(builder.toString());
+            }
+            for (Map.Entry<String, StalenessManifest.Fingerprint> current
+                    : stalenessManifest.getResources().entrySet()) {
+                keyParts.add(relativizeToBasedir(current.getKey(), basedirURI)
+                        + "=" + current.getValue().getDigest());
+            }
+            for (Map.Entry<String, StalenessManifest.Fingerprint> current
+                    : stalenessManifest.getDependencies().entrySet()) {
+                keyParts.add("dependency:" + relativizeToBasedir(current.getKey(), basedirURI)
+                        + "=" + current.getValue().getDigest());
+            }
+
+            // JARs on the tool classpath may contain episode files.
+            for (String current : getClasspath()) {
+                final File classPathElement = new File(current);
+                if (classPathElement.isFile()) {
+                    keyParts.add(current + "=" + classPathElement.length() + "," + classPathElement.lastModified());
+                }
+            }
+
+        } catch (Exception e) {
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not synthesize build cache key. Not using build cache.", e);
+            }
+            return null;
+        }
+
+        // All done.
+        return BuildCache.createKey(keyParts);
+    }
+
+    private static String relativizeToBasedir(final String pathOrURL, final URI basedirURI) {
+
+        File file = null;
+        if (pathOrURL.regionMatches(true, 0, "file:", 0, "file:".length())) {
+            try {
+                file = new File(new URI(pathOrURL));
+            } catch (Exception e) {
+                // Not a hierarchical file URI; use it as is.
+            }
+        } else if (pathOrURL.length() > 0 && new File(pathOrURL).isAbsolute()) {
+            file = new File(pathOrURL);
+        }
+
+        if (file != null) {
+
+            // Compare URIs rather than path strings, since the separators of URLs and native paths differ.
+            final URI relativeURI = basedirURI.relativize(FileSystemUtilities.getCanonicalFile(file).toURI());
+            if (!relativeURI.isAbsolute()) {
+                return "${basedir}/" + relativeURI.getPath();
+            }
+        }
+
+        // All done.
+        return pathOrURL;
+    }
+
     private <T> T getInjectedObject(final T objectOrNull, final String objectName) {
 
         if (objectOrNull == null) {
@@ -472,29 +1120,146 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         return objectOrNull;
     }
 
-    private void updateStaleFileTimestamp() throws MojoExecutionException {
+    private OutputStaging createOutputStaging() throws MojoExecutionException {
 
         final File staleFile = getStaleFile();
-        if (!staleFile.exists()) {
+        final OutputStaging toReturn = new OutputStaging(
+                new File(staleFile.getParentFile(), staleFile.getName() + "-staging"),
+                getOutputDirectory(),
+                getLog());
+
+        try {
+            toReturn.prepare();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not create staging directory ["
+                    + FileSystemUtilities.getCanonicalPath(toReturn.getStagingDirectory()) + "]", e);
+        }
 
-            // Ensure that the staleFileDirectory exists
-            FileSystemUtilities.createDirectory(staleFile.getParentFile(), false);
+        // All done.
+        return toReturn;
+    }
 
-            try {
-                staleFile.createNewFile();
+    private void publishStagedOutputs() throws MojoExecutionException {
 
-                if (getLog().isDebugEnabled()) {
-                    getLog().debug("Created staleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]");
+        // Files generated by the previous execution are stale unless staged again.
+        Collection<String> staleCandidates = null;
+        if (!isOutputDirectoryCleared()) {
+
+            final StalenessManifest previous = StalenessManifest.read(getStaleFile());
+            staleCandidates = previous == null
+                    ? Collections.<String>emptyList()
+                    : previous.getOutputs().keySet();
+        }
+
+        try {
+            outputStaging.publish(staleCandidates);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not publish staged files into ["
+                    + FileSystemUtilities.getCanonicalPath(getOutputDirectory()) + "]", e);
+        }
+    }
+
+    private Set<String> getProducedOutputs(final Map<String, String> outputsBeforeExecution) {
+
+        // Files created or modified by this execution.
+        final Set<String> toReturn = new TreeSet<String>();
+        for (Map.Entry<String, File> current : getOutputFiles().entrySet()) {
+
+            final String metadataBefore = outputsBeforeExecution.get(current.getKey());
+            if (metadataBefore == null || !metadataBefore.equals(getMetadata(current.getValue()))) {
+                toReturn.add(current.getKey());
+            }
+        }
+        return toReturn;
+    }
+
+    private void recordOutputs(final Set<String> producedOutputs) {
+
+        if (stalenessManifest == null) {
+            return;
+        }
+
+        // Record the files produced by this execution.
+        stalenessManifest.clearOutputs();
+        try {
+            for (String current : producedOutputs) {
+
+                final File outputFile = new File(getOutputDirectory(), current.replace('/', File.separatorChar));
+                if (outputFile.isFile()) {
+                    stalenessManifest.addOutput(current, outputFile, verifyOutputDigests);
+                }
+            }
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Recorded " + stalenessManifest.getOutputs().size() + " generated files.");
+            }
+        } catch (IOException e) {
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not fingerprint generated files.", e);
+            }
+            stalenessManifest.clearOutputs();
+        }
+    }
+
+    private Map<String, String> getOutputFileMetadata() {
+
+        final Map<String, String> toReturn = new HashMap<String, String>();
+        for (Map.Entry<String, File> current : getOutputFiles().entrySet()) {
+            toReturn.put(current.getKey(), getMetadata(current.getValue()));
+        }
+        return toReturn;
+    }
+
+    private SortedMap<String, File> getOutputFiles() {
+
+        final SortedMap<String, File> toReturn = new TreeMap<String, File>();
+        final File outputDirectory = getOutputDirectory();
+        if (outputDirectory != null) {
+            addOutputFiles(outputDirectory, "", toReturn);
+        }
+        return toReturn;
+    }
+
+    private static void addOutputFiles(final File directory,
+                                       final String relativePath,
+                                       final SortedMap<String, File> outputFiles) {
+
+        final File[] children = directory.listFiles();
+        if (children != null) {
+            for (File current : children) {
+
+                final String currentPath = relativePath + current.getName();
+                if (current.isDirectory()) {
+                    addOutputFiles(current, currentPath + "/", outputFiles);
+                } else {
+                    outputFiles.put(currentPath, current);
                 }
-            } catch (IOException e) {
-                throw new MojoExecutionException("Could not create staleFile.", e);
             }
+        }
+    }
+
+    private static String getMetadata(final File file) {
+        return file.length() + "," + file.lastModified();
+    }
+
+    private void updateStaleFile() {
 
-        } else {
-            if (!staleFile.setLastModified(System.currentTimeMillis())) {
-                getLog().warn("Failed updating modification time of staleFile ["
-                        + FileSystemUtilities.getCanonicalPath(staleFile) + "]");
+        final File staleFile = getStaleFile();
+        final StalenessManifest toWrite = stalenessManifest == null
+                ? new StalenessManifest(Collections.<String>emptyList())
+                : stalenessManifest;
+
+        try {
+
+            // An empty manifest is treated as stale, implying that re-generation is performed next time.
+            toWrite.write(staleFile);
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Updated staleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]");
             }
+        } catch (IOException e) {
+            getLog().warn("Failed updating staleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]", e);
         }
     }
 
@@ -28,21 +28,55 @@ import org.apache.maven.settings.Proxy;
 import org.apache.maven.settings.Settings;
 import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
 import org.codehaus.mojo.jaxb2.NoSchemasException;
+import org.codehaus.mojo.jaxb2.javageneration.worker.XjcWorkerClient;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.arguments.ArgumentBuilder;
+import org.codehaus.mojo.jaxb2.shared.catalog.JarSchemaCache;
+import org.codehaus.mojo.jaxb2.shared.catalog.SchemaMirror;
+import org.codehaus.mojo.jaxb2.shared.catalog.XmlCatalog;
 import org.codehaus.mojo.jaxb2.shared.environment.ToolExecutionEnvironment;
-import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderBuilder;
+import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderHolder;
 import org.codehaus.mojo.jaxb2.shared.environment.logging.LoggingHandlerEnvironmentFacet;
+import org.codehaus.mojo.jaxb2.shared.staleness.SchemaDependencyResolver;
+import org.codehaus.mojo.jaxb2.shared.staleness.StalenessManifest;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
 import java.io.File;
-import java.io.FileWriter;
-import java.net.HttpURLConnection;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.JarURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * <p>Abstract superclass for Mojos generating Java source or binaries from XML schema(s) by invoking the JAXB XJC
@@ -57,6 +91,12 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
 
     private static final int XJC_COMPLETED_OK = 0;
 
+    /**
+     * Serializes XJC runs within this JVM, since the ToolExecutionEnvironment of each run alters the JVM-wide
+     * logging setup.
+     */
+    private static final Object IN_PROCESS_XJC_LOCK = new Object();
+
     /**
      * <p>Corresponding XJC parameter: {@code catalog}.</p>
      * <p>Specify catalog files to resolve external entity references.
@@ -267,6 +307,150 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
     @Parameter
     protected String xsdPathWithinArtifact;
 
+    /**
+     * <p>If {@code true}, XJC is run within a long-lived worker JVM instead of within the Maven JVM. The worker
+     * is started on demand and shared by all executions - within the same or subsequent builds - which use an
+     * identical plugin and project classpath, implying that XJC runs on already loaded and JIT-compiled classes
+     * for all but the first execution. This is mainly useful for builds holding many modules which run XJC.</p>
+     * <p>If the worker cannot be started or communicated with, XJC is run within the Maven JVM instead.</p>
+     * <p>The worker does not share the JVM options of the Maven JVM. System properties affecting how XJC
+     * parses and resolves schemas - such as {@code javax.xml.*}, {@code jdk.xml.*} and the {@code http.*},
+     * {@code https.*}, {@code ftp.*} and {@code socksProxy*} proxy settings - are forwarded to the worker when it
+     * is started, except for passwords. Workers are not shared by executions with different forwarded properties.
+     * Other JVM options (such as memory settings) are not forwarded.</p>
+     *
+     * @see #xjcWorkerDirectory
+     * @see #xjcWorkerIdleTimeout
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.xjcWorker", defaultValue = "false")
+    protected boolean xjcWorker;
+
+    /**
+     * <p>The directory holding the registry, lock and log files of XJC worker JVMs,
+     * used if {@code xjcWorker} is {@code true}.</p>
+     *
+     * @see #xjcWorker
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.xjcWorkerDirectory", defaultValue = "${user.home}/.m2/jaxb2-workers")
+    protected File xjcWorkerDirectory;
+
+    /**
+     * <p>The number of seconds an XJC worker JVM may be idle before terminating,
+     * used if {@code xjcWorker} is {@code true}.</p>
+     *
+     * @see #xjcWorker
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.xjcWorkerIdleTimeout", defaultValue = "1800")
+    protected int xjcWorkerIdleTimeout;
+
+    /**
+     * <p>If {@code true}, remote resources (such as XSDs, WSDLs and DTDs) referenced by the sources are fetched
+     * into a plugin-managed, on-disk schema mirror before XJC is fired. Resources already mirrored are only
+     * transferred again if their ETag or modification timestamp changed. XJC reads the mirrored copies
+     * through a generated catalog, which is supplied in addition to the {@code catalog} parameter
+     * (whose entries take precedence).</p>
+     *
+     * @see #schemaMirrorDirectory
+     * @see #offline
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.schemaMirror", defaultValue = "false")
+    protected boolean schemaMirror;
+
+    /**
+     * <p>The root directory of the schema mirror, used if {@code schemaMirror} or {@code offline} is
+     * {@code true}. The mirror directory can be shared between projects and concurrent builds on the
+     * same machine.</p>
+     *
+     * @see #schemaMirror
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.schemaMirrorDirectory", defaultValue = "${user.home}/.m2/jaxb2-schema-mirror")
+    protected File schemaMirrorDirectory;
+
+    /**
+     * <p>If {@code true}, remote resources are served only from the schema mirror, and never fetched from the
+     * network. This yields fast and deterministic builds on machines lacking network access, provided that the
+     * resources were mirrored by an earlier (online) build. Implies {@code schemaMirror}. This is not implied
+     * by the Maven offline mode ({@code mvn -o}), as the XJC arguments of builds using the schema mirror differ
+     * from the ones of builds not using it; use {@code -Djaxb2.offline=true} to serve remote resources from the
+     * mirror in offline builds.</p>
+     *
+     * @see #schemaMirror
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.offline", defaultValue = "false")
+    protected boolean offline;
+
+    /**
+     * <p>If {@code true}, sources and referenced resources hosted within JAR files (i.e. {@code jar:} URLs) are
+     * read from extracted copies within the {@code jarSchemaCacheDirectory}. Each JAR is indexed once, and all its
+     * schema resources are extracted into a directory keyed by the path, size and modification timestamp of the
+     * JAR. XJC is supplied {@code file:} URLs to the extracted copies, instead of re-opening the JAR for each
+     * resource.</p>
+     *
+     * @see #jarSchemaCacheDirectory
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.jarSchemaCache", defaultValue = "false")
+    protected boolean jarSchemaCache;
+
+    /**
+     * <p>The root directory into which schema resources hosted within JAR files are extracted, if
+     * {@code jarSchemaCache} is {@code true}. The directory can be shared between projects and concurrent
+     * builds on the same machine.</p>
+     *
+     * @see #jarSchemaCache
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.jarSchemaCacheDirectory", defaultValue = "${user.home}/.m2/jaxb2-jar-schemas")
+    protected File jarSchemaCacheDirectory;
+
+    /**
+     * <p>The maximum number of independent groups of sources which are compiled concurrently, each by a separate
+     * XJC invocation running on its own thread within its own tool execution environment. Sources belong to the
+     * same group if their transitive closures of included or imported resources intersect, if they hold schemas
+     * with the same target namespace, or if they are related through a binding (XJB) file. Binding files not
+     * referring to any source are supplied to all groups.</p>
+     * <p>The files generated by all groups are merged into the output directory; the build fails if two groups
+     * generate different files with the same path (such as classes bound to the same package). Episode files
+     * generated by each group are merged into a single episode file.</p>
+     * <p>Values less than 2 imply that all sources are compiled by a single XJC invocation, as are all sources
+     * if the {@code packageName} parameter is given.</p>
+     * <p>Groups are only compiled concurrently if {@code xjcWorker} is {@code true}; XJC invocations within the
+     * Maven JVM alter its JVM-wide logging setup, and are therefore run one at a time. Note that an
+     * {@code xjcWorker} JVM compiles one group at a time as well.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.sourceGroupThreads", defaultValue = "1")
+    protected int sourceGroupThreads;
+
+    /**
+     * <p>If {@code true}, the sources are partitioned by target namespace, and each partition is compiled by a
+     * separate XJC invocation in namespace dependency order (i.e. imported namespaces are compiled before the
+     * namespaces importing them). Each invocation generates an episode file, and the episode files of all earlier
+     * partitions are supplied as bindings to later ones, implying that classes are only generated once. The peak
+     * memory used by XJC hence scales with the largest partition rather than with all sources. Namespaces which
+     * import each other are compiled within the same partition.</p>
+     * <p>Binding files join the partitions of the namespaces they refer to, and binding files not referring to
+     * any source are supplied to all partitions. If {@code generateEpisode} is {@code true}, the episode files
+     * of all partitions are merged into a single episode file. Takes precedence over {@code sourceGroupThreads},
+     * and is ignored if the {@code packageName} parameter is given.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.partitionByNamespace", defaultValue = "false")
+    protected boolean partitionByNamespace;
+
+    // Internal state
+    private List<File> resolvedSourceXJBs;
+    private XjcWorkerClient xjcWorkerClient;
+    private boolean xjcWorkerClientResolved;
+
     /**
      * <p>Java generation is required if any of the file products is outdated/stale.</p>
      * {@inheritDoc}
@@ -275,75 +459,61 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
     protected boolean isReGenerationRequired() {
 
         //
-        // Use the stale flag method to identify if we should re-generate the java source code from the supplied
+        // Use the staleness manifest to identify if we should re-generate the java source code from the supplied
         // Xml Schema. Basically, we should regenerate the JAXB code if:
         //
-        // a) The staleFile does not exist
-        // b) The staleFile exists and is older than one of the sources (XSD or XJB files).
-        //    "Older" is determined by comparing the modification timestamp of the staleFile and the source files.
+        // a) The staleFile does not exist, or does not contain a valid staleness manifest.
+        // b) The content of any source XSD, XJB or catalog file differs from the one recorded in the staleFile.
+        // c) The content of any XSD transitively included or imported by the sources (as recorded in the
+        //    staleFile during the previous generation) differs from the one recorded in the staleFile.
+        // d) The effective XJC arguments differ from the ones recorded in the staleFile.
         //
-        final File staleFile = getStaleFile();
-        final String debugPrefix = "StaleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]";
-
-        boolean stale = !staleFile.exists();
-        if (stale) {
-            getLog().debug(debugPrefix + " not found. JAXB (re-)generation required.");
-        } else {
-
-            final List<URL> sourceXSDs = getSources();
-            final List<File> sourceXJBs = getSourceXJBs();
-
-            if (getLog().isDebugEnabled()) {
-                getLog().debug(debugPrefix + " found. Checking timestamps on source XSD and XJB "
-                        + "files to determine if JAXB (re-)generation is required.");
-            }
-
-            final long staleFileLastModified = staleFile.lastModified();
-            for (URL current : sourceXSDs) {
-
-                final URLConnection sourceXsdConnection;
-                try {
-                    sourceXsdConnection = current.openConnection();
-                    sourceXsdConnection.connect();
-                } catch (Exception e) {
-
-                    // Can't determine if the staleFile is younger than this sourceXSD.
-                    // Re-generate to be on the safe side.
-                    stale = true;
-                    break;
-                }
+        final List<URL> inputs = new ArrayList<URL>();
+        for (URL current : getSources()) {
+
+            // When offline, remote sources are fingerprinted using their mirrored copies.
+            // Sources within JAR files are fingerprinted within the JAR, i.e. without extracting them.
+            final File mirroredFile = offline && !"file".equalsIgnoreCase(current.getProtocol())
+                    ? createSchemaMirror().getMirroredFile(current)
+                    : null;
+            inputs.add(mirroredFile != null && mirroredFile.isFile()
+                    ? FileSystemUtilities.getUrlFor(mirroredFile)
+                    : current);
+        }
+        for (File current : getSourceXJBs()) {
+            inputs.add(FileSystemUtilities.getUrlFor(current));
+        }
+        if (catalog != null) {
+            inputs.add(FileSystemUtilities.getUrlFor(catalog));
+        }
 
-                try {
-                    if (sourceXsdConnection.getLastModified() > staleFileLastModified) {
+        final List<String> xjcArguments;
+        try {
 
-                        if (getLog().isDebugEnabled()) {
-                            getLog().debug(current.toString() + " is newer than the stale flag file.");
-                        }
-                        stale = true;
-                    }
-                } finally {
-                    if (sourceXsdConnection instanceof HttpURLConnection) {
-                        ((HttpURLConnection) sourceXsdConnection).disconnect();
-                    }
-                }
+            final StringBuilder classPath = new StringBuilder();
+            for (String current : getClasspath()) {
+                classPath.append(classPath.length() == 0 ? "" : File.pathSeparator).append(current);
             }
 
-            for (File current : sourceXJBs) {
-                if (current.lastModified() > staleFileLastModified) {
-
-                    if (getLog().isDebugEnabled()) {
-                        getLog().debug(FileSystemUtilities.getCanonicalPath(current)
-                                + " is newer than the stale flag file.");
-                    }
+            xjcArguments = Arrays.asList(getXjcArguments(classPath.toString(), STANDARD_EPISODE_FILENAME, true));
+        } catch (Exception e) {
 
-                    stale = true;
-                    break;
-                }
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not synthesize XJC arguments. JAXB (re-)generation required.", e);
             }
+            return true;
         }
 
         // All done.
-        return stale;
+        return isStale(inputs, xjcArguments);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isOutputDirectoryCleared() {
+        return clearOutputDir;
     }
 
     /**
@@ -356,58 +526,95 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
 
         try {
 
-            // Setup the Tool's execution environment
-            ToolExecutionEnvironment environment = null;
-            try {
+            // Record the include/import closure of the sources, to detect changes within it during later builds.
+            // Fetch remote resources into the schema mirror while resolving, and expose them to XJC.
+            final SchemaMirror mirror = schemaMirror || offline ? createSchemaMirror() : null;
+            final SchemaDependencyResolver dependencyResolver = new SchemaDependencyResolver(
+                    getXmlCatalog(), mirror, createJarSchemaCache(), getLog());
+            recordDependencies(getSchemaDependencies(dependencyResolver, mirror));
 
-                // Create the ToolExecutionEnvironment
-                environment = new ToolExecutionEnvironment(getLog(),
-                        ThreadContextClassLoaderBuilder.createFor(this.getClass(), getLog()).addPaths(getClasspath()),
-                        LoggingHandlerEnvironmentFacet.create(getLog(), getClass(), getEncoding(false)));
-                environment.setup();
+            // Restore the generated sources from the build cache, or fire XJC to generate them.
+            if (restoreFromBuildCache(getGenerationDirectory(), clearOutputDir)) {
 
-                // Compile the XJC arguments
-                final String[] xjcArguments = getXjcArguments(
-                        environment.getClassPathAsArgument(),
-                        STANDARD_EPISODE_FILENAME);
+                // Indicate that the output directory was updated.
+                refreshGeneratedFiles();
 
-                // Ensure that the outputDirectory exists, but only clear it if does not already
-                FileSystemUtilities.createDirectory(getOutputDirectory(), clearOutputDir);
+                // Update the staleFile.
+                updateStaleFileTimestamp = true;
 
-                // Do we need to re-create the episode file's parent directory.
-                final boolean reCreateEpisodeFileParentDirectory = generateEpisode && clearOutputDir;
-                if (reCreateEpisodeFileParentDirectory) {
-                    getEpisodeFile(STANDARD_EPISODE_FILENAME);
-                }
+            } else {
+
+                // Partition the sources into groups which can be compiled separately, if permitted.
+                final List<SourceGroup> sourceGroups = getSourceGroups(dependencyResolver);
+                if (sourceGroups.size() > 1 && !partitionByNamespace) {
+
+                    // Ensure that the outputDirectory exists, but only clear it if does not already
+                    FileSystemUtilities.createDirectory(getGenerationDirectory(), clearOutputDir);
+
+                    // Fire XJC once for each group, each within its own environment, and merge their generated files.
+                    runXjc(sourceGroups);
+
+                } else {
+
+                    // Setup the Tool's execution environment
+                    ToolExecutionEnvironment environment = null;
+                    try {
+
+                        // Create the ToolExecutionEnvironment
+                        environment = new ToolExecutionEnvironment(getLog(),
+                                createClassLoaderBuilder().addPaths(getClasspath()),
+                                LoggingHandlerEnvironmentFacet.create(getLog(), getClass(), getEncoding(false)));
+                        environment.setup();
+
+                        if (sourceGroups.size() > 1) {
+
+                            // Ensure that the outputDirectory exists, but only clear it if does not already
+                            FileSystemUtilities.createDirectory(getGenerationDirectory(), clearOutputDir);
+
+                            // Fire XJC once for each namespace partition, in dependency order.
+                            runXjcPartitioned(sourceGroups, environment.getClassPathAsArgument());
+
+                        } else {
+
+                            // Compile the XJC arguments
+                            final String[] xjcArguments = getXjcArguments(
+                                    environment.getClassPathAsArgument(),
+                                    STANDARD_EPISODE_FILENAME,
+                                    false);
 
-                // Fire XJC
-                if (XJC_COMPLETED_OK != Driver.run(xjcArguments, new XjcLogAdapter(getLog()))) {
+                            // Ensure that the outputDirectory exists, but only clear it if does not already
+                            FileSystemUtilities.createDirectory(getGenerationDirectory(), clearOutputDir);
 
-                    final StringBuilder errorMsgBuilder = new StringBuilder();
-                    errorMsgBuilder.append("\n+=================== [XJC Error]\n");
-                    errorMsgBuilder.append("|\n");
+                            // Do we need to re-create the episode file's parent directory.
+                            final boolean reCreateEpisodeFileParentDirectory = generateEpisode && clearOutputDir;
+                            if (reCreateEpisodeFileParentDirectory) {
+                                getEpisodeFile(STANDARD_EPISODE_FILENAME);
+                            }
 
-                    final List<URL> sourceXSDs = getSources();
-                    for (int i = 0; i < sourceXSDs.size(); i++) {
-                        errorMsgBuilder.append("| " + i + ": ").append(sourceXSDs.get(i).toString()).append("\n");
+                            // Fire XJC
+                            if (XJC_COMPLETED_OK != runXjc(xjcArguments)) {
+                                throw createXjcError(getSources());
+                            }
+                        }
+
+                    } finally {
+
+                        if (environment != null) {
+                            environment.restore();
+                        }
                     }
+                }
 
-                    errorMsgBuilder.append("|\n");
-                    errorMsgBuilder.append("+=================== [End XJC Error]\n");
-                    throw new MojoExecutionException(errorMsgBuilder.toString());
+                // Store the generated sources in the build cache, unless they may be mixed with older files.
+                if (clearOutputDir) {
+                    storeInBuildCache(getGenerationDirectory());
                 }
 
                 // Indicate that the output directory was updated.
-                getBuildContext().refresh(getOutputDirectory());
+                refreshGeneratedFiles();
 
                 // Update the modification timestamp of the staleFile.
                 updateStaleFileTimestamp = true;
-
-            } finally {
-
-                if (environment != null) {
-                    environment.restore();
-                }
             }
 
             // Add the generated source root to the project, enabling tooling and other plugins to see them.
@@ -420,39 +627,10 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
                 final File targetXsdDirectory = new File(buildOutputDirectory, xsdPathWithinArtifact);
                 FileUtils.forceMkdir(targetXsdDirectory);
 
-                for (URL current : getSources()) {
-
-                    String fileName = null;
-                    if ("file".equalsIgnoreCase(current.getProtocol())) {
-                        fileName = new File(current.getPath()).getName();
-                    } else if ("jar".equalsIgnoreCase(current.getProtocol())) {
-
-                        // Typical JAR path
-                        // jar:file:/path/to/aJar.jar!/some/path/xsd/aResource.xsd
-                        final int bangIndex = current.toString().indexOf("!");
-                        if (bangIndex == -1) {
-                            throw new MojoExecutionException("Illegal JAR URL [" + current.toString()
-                                    + "]: lacks a '!'");
-                        }
-
-                        final String internalPath = current.toString().substring(bangIndex + 1);
-                        fileName = new File(internalPath).getName();
-                    } else {
-                        throw new MojoExecutionException("Could not extract FileName from URL [" + current + "]");
-                    }
-
-                    final File targetFile = new File(targetXsdDirectory, fileName);
-                    if (targetFile.exists()) {
-
-                        // TODO: Should we throw an exception here instead?
-                        getLog().warn("File [" + FileSystemUtilities.getCanonicalPath(targetFile)
-                                + "] already exists. Not copying XSD file [" + current.getPath() + "] to it.");
-                    }
-                    IOUtil.copy(current.openStream(), new FileWriter(targetFile));
+                // Refresh the BuildContext for all XSDs actually copied.
+                for (File current : copySourcesToArtifact(targetXsdDirectory)) {
+                    getBuildContext().refresh(current);
                 }
-
-                // Refresh the BuildContext
-                getBuildContext().refresh(targetXsdDirectory);
             }
         } catch (MojoExecutionException e) {
             throw e;
@@ -477,15 +655,71 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
      * @see #sourceType
      */
     @Override
-    protected abstract List<URL> getSources();
+    protected abstract List<URL> resolveSources();
 
     /**
-     * Override this method to retrieve a list of Files to all XJB files for which this
-     * AbstractJavaGeneratorMojo should generate Java files.
+     * Override this method to resolve a list of Files to all XJB files for which this
+     * AbstractJavaGeneratorMojo should generate Java files. This method is invoked at most once per
+     * execution; use {@link #getSourceXJBs()} to retrieve the resolved binding files.
      *
      * @return A non-null List holding binding files.
      */
-    protected abstract List<File> getSourceXJBs();
+    protected abstract List<File> resolveSourceXJBs();
+
+    /**
+     * Retrieves the XJB files for which this AbstractJavaGeneratorMojo should generate Java files.
+     * The binding files are resolved once per execution, and the resulting snapshot is shared by all
+     * phases of the execution.
+     *
+     * @return A non-null, unmodifiable List holding binding files.
+     * @see #resolveSourceXJBs()
+     */
+    protected final synchronized List<File> getSourceXJBs() {
+
+        if (resolvedSourceXJBs == null) {
+            resolvedSourceXJBs = Collections.unmodifiableList(new ArrayList<File>(resolveSourceXJBs()));
+        }
+
+        // All done.
+        return resolvedSourceXJBs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected synchronized void discardResolvedSources() {
+
+        super.discardResolvedSources();
+        resolvedSourceXJBs = null;
+    }
+
+    /**
+     * Retrieves the directories holding the sources, the XJB files and the catalog file of this
+     * AbstractJavaGeneratorMojo.
+     *
+     * @return A non-null List holding the directories to watch.
+     */
+    @Override
+    protected List<File> getWatchedDirectories() {
+
+        final List<File> toReturn = super.getWatchedDirectories();
+
+        final List<File> files = new ArrayList<File>(getSourceXJBs());
+        if (catalog != null) {
+            files.add(catalog);
+        }
+        for (File current : files) {
+
+            final File directory = current.getAbsoluteFile().getParentFile();
+            if (directory != null && !toReturn.contains(directory)) {
+                toReturn.add(directory);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
 
     /**
      * Adds any directories containing the generated XJC classes to the appropriate Project compilation sources;
@@ -506,6 +740,642 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
     // Private helpers
     //
 
+    private XmlCatalog getXmlCatalog() {
+
+        // Resolve schema references through the catalog, as XJC does.
+        XmlCatalog toReturn = null;
+        if (catalog != null) {
+            try {
+                toReturn = XmlCatalog.read(FileSystemUtilities.getUrlFor(catalog));
+            } catch (IOException e) {
+                getLog().warn("Could not read catalog [" + FileSystemUtilities.getCanonicalPath(catalog)
+                        + "]. Schema dependencies are resolved without it.", e);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private Set<URL> getSchemaDependencies(final SchemaDependencyResolver resolver, final SchemaMirror mirrorOrNull)
+            throws IOException {
+
+        final List<URL> roots = new ArrayList<URL>(getSources());
+        for (File current : getSourceXJBs()) {
+            roots.add(FileSystemUtilities.getUrlFor(current));
+        }
+
+        final Set<URL> toReturn = resolver.resolve(roots).keySet();
+        if (mirrorOrNull != null) {
+            mirrorOrNull.writeCatalog(getSchemaMirrorCatalog());
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<SourceGroup> getSourceGroups(final SchemaDependencyResolver resolver) {
+
+        final List<SourceGroup> toReturn = new ArrayList<SourceGroup>();
+        if (!partitionByNamespace && sourceGroupThreads < 2) {
+            return toReturn;
+        }
+        if (packageName != null) {
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Not partitioning sources, since all classes are generated into package ["
+                        + packageName + "]");
+            }
+            return toReturn;
+        }
+
+        final List<URL> roots = new ArrayList<URL>(getSources());
+        final Map<String, File> sourceXJBs = new HashMap<String, File>();
+        for (File current : getSourceXJBs()) {
+
+            final URL xjbUrl = FileSystemUtilities.getUrlFor(current);
+            sourceXJBs.put(xjbUrl.toString(), current);
+            roots.add(xjbUrl);
+        }
+
+        // Binding files not referring to any source end up within groups of their own.
+        // Such binding files (typically holding global bindings) apply to all groups.
+        final List<File> globalXJBs = new ArrayList<File>();
+        final List<List<URL>> partitions = partitionByNamespace
+                ? resolver.partitionByNamespace(roots)
+                : resolver.partition(roots);
+        for (List<URL> current : partitions) {
+
+            final SourceGroup group = new SourceGroup();
+            for (URL currentRoot : current) {
+
+                final File currentXJB = sourceXJBs.get(currentRoot.toString());
+                if (currentXJB == null) {
+                    group.sources.add(currentRoot);
+                } else {
+                    group.sourceXJBs.add(currentXJB);
+                }
+            }
+
+            if (group.sources.isEmpty()) {
+                globalXJBs.addAll(group.sourceXJBs);
+            } else {
+                toReturn.add(group);
+            }
+        }
+
+        for (SourceGroup current : toReturn) {
+            current.sourceXJBs.addAll(globalXJBs);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<File> copySourcesToArtifact(final File targetXsdDirectory) throws MojoExecutionException {
+
+        // Map each target file name to its source XSD. As before, later sources overwrite earlier ones.
+        final String encoding = getEncoding(false);
+        final Map<String, URL> fileNameToSource = new LinkedHashMap<String, URL>();
+        for (URL current : getSources()) {
+
+            final String fileName = getFileName(current, encoding);
+            final URL previousSource = fileNameToSource.remove(fileName);
+            if (previousSource != null) {
+
+                // Failing the build would break existing projects relying on the latter XSD being copied.
+                getLog().warn("XSD files [" + previousSource + "] and [" + current + "] share the file name ["
+                        + fileName + "]. Copying only the latter.");
+            }
+            fileNameToSource.put(fileName, current);
+        }
+
+        if (fileNameToSource.isEmpty()) {
+            return new ArrayList<File>();
+        }
+
+        // Copy the XSDs in parallel, reading each JAR through a single JarFile.
+        final Map<File, JarFile> jarFiles = new HashMap<File, JarFile>();
+        final int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), fileNameToSource.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+
+            final List<Future<File>> results = new ArrayList<Future<File>>();
+            for (Map.Entry<String, URL> current : fileNameToSource.entrySet()) {
+
+                final URL source = current.getValue();
+                final File targetFile = new File(targetXsdDirectory, current.getKey());
+                final JarFile jarFileOrNull = "jar".equalsIgnoreCase(source.getProtocol())
+                        ? getJarFile(source, encoding, jarFiles)
+                        : null;
+
+                results.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        return copySource(source, jarFileOrNull, encoding, targetFile) ? targetFile : null;
+                    }
+                }));
+            }
+
+            final List<File> toReturn = new ArrayList<File>();
+            for (Future<File> current : results) {
+                try {
+
+                    final File copiedFile = current.get();
+                    if (copiedFile != null) {
+                        toReturn.add(copiedFile);
+                    }
+                } catch (ExecutionException e) {
+                    throw new MojoExecutionException("Could not copy XSD file into ["
+                            + FileSystemUtilities.getCanonicalPath(targetXsdDirectory) + "]", e.getCause());
+                }
+            }
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Copied " + toReturn.size() + " of " + fileNameToSource.size()
+                        + " XSD files into [" + FileSystemUtilities.getCanonicalPath(targetXsdDirectory)
+                        + "]; the others were unchanged.");
+            }
+
+            // All done.
+            return toReturn;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while copying XSD files.", e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not open JAR holding XSD files.", e);
+        } finally {
+
+            executor.shutdownNow();
+            for (JarFile current : jarFiles.values()) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    getLog().debug("Could not close JarFile [" + current.getName() + "]", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the (decoded) file name of the supplied source XSD. Package-private for testing.
+     *
+     * @param source   The URL to the source XSD; a file or jar URL.
+     * @param encoding The encoding used to decode file URLs.
+     * @return The file name of the source XSD, i.e. the last segment of its path.
+     * @throws MojoExecutionException if the source was neither a file nor a jar URL.
+     */
+    static String getFileName(final URL source, final String encoding) throws MojoExecutionException {
+
+        if ("file".equalsIgnoreCase(source.getProtocol())) {
+            return FileSystemUtilities.getFileFor(source, encoding).getName();
+        } else if ("jar".equalsIgnoreCase(source.getProtocol())) {
+
+            // Typical JAR path
+            // jar:file:/path/to/aJar.jar!/some/path/xsd/aResource.xsd
+            String entryName = null;
+            try {
+                entryName = ((JarURLConnection) source.openConnection()).getEntryName();
+            } catch (IOException e) {
+                throw new MojoExecutionException("Illegal JAR URL [" + source + "]", e);
+            }
+
+            if (entryName == null) {
+                throw new MojoExecutionException("Illegal JAR URL [" + source + "]: lacks an entry name.");
+            }
+            return new File(entryName).getName();
+        }
+
+        throw new MojoExecutionException("Could not extract FileName from URL [" + source + "]");
+    }
+
+    private static JarFile getJarFile(final URL jarUrl, final String encoding, final Map<File, JarFile> jarFiles)
+            throws IOException {
+
+        final URL jarFileUrl = ((JarURLConnection) jarUrl.openConnection()).getJarFileURL();
+        final File jarFile = FileSystemUtilities.getFileFor(jarFileUrl, encoding);
+
+        JarFile toReturn = jarFiles.get(jarFile);
+        if (toReturn == null) {
+            toReturn = new JarFile(jarFile);
+            jarFiles.put(jarFile, toReturn);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Copies the binary content of a source XSD to the supplied target File, unless the target File already
+     * holds identical content. Package-private for testing.
+     *
+     * @param source        The URL to the source XSD; a file or jar URL.
+     * @param jarFileOrNull The JarFile holding the source XSD, or {@code null} for file URLs.
+     * @param encoding      The encoding used to decode file URLs.
+     * @param targetFile    The File to which the source XSD should be copied.
+     * @return {@code true} if the targetFile was written, and {@code false} if it was unchanged.
+     * @throws IOException if the source XSD could not be read or the targetFile not written.
+     */
+    static boolean copySource(final URL source,
+                              final JarFile jarFileOrNull,
+                              final String encoding,
+                              final File targetFile) throws IOException {
+
+        if (jarFileOrNull == null) {
+
+            // Binary copy, which the JDK delegates to the operating system where possible.
+            final File sourceFile = FileSystemUtilities.getFileFor(source, encoding);
+            if (targetFile.isFile() && targetFile.length() == sourceFile.length()
+                    && hasSameDigest(new FileInputStream(sourceFile), targetFile)) {
+                return false;
+            }
+
+            Files.copy(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        } else {
+
+            final String entryName = ((JarURLConnection) source.openConnection()).getEntryName();
+            final JarEntry entry = entryName == null ? null : jarFileOrNull.getJarEntry(entryName);
+            if (entry == null) {
+                throw new IOException("No entry [" + entryName + "] within JAR [" + jarFileOrNull.getName() + "]");
+            }
+
+            if (targetFile.isFile() && (entry.getSize() == -1 || entry.getSize() == targetFile.length())
+                    && hasSameDigest(jarFileOrNull.getInputStream(entry), targetFile)) {
+                return false;
+            }
+
+            final InputStream in = jarFileOrNull.getInputStream(entry);
+            try {
+                Files.copy(in, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                in.close();
+            }
+        }
+
+        // All done.
+        return true;
+    }
+
+    private static boolean hasSameDigest(final InputStream sourceStream, final File targetFile) throws IOException {
+        return StalenessManifest.digest(sourceStream).equals(
+                StalenessManifest.digest(new FileInputStream(targetFile)));
+    }
+
+    private void runXjc(final List<SourceGroup> sourceGroups) throws Exception {
+
+        // XJC runs within this JVM alter the JVM-wide logging setup, and must therefore not overlap.
+        final boolean inProcess = !xjcWorker || getXjcWorkerClient() == null;
+        final int numThreads = inProcess ? 1 : Math.min(sourceGroupThreads, sourceGroups.size());
+        if (getLog().isInfoEnabled()) {
+            getLog().info("Compiling " + sourceGroups.size() + " independent groups of sources using "
+                    + numThreads + " threads.");
+        }
+
+        // All groups share the classpath argument, which does not depend on the thread synthesizing it.
+        final String classPath;
+        final ThreadContextClassLoaderHolder holder = createClassLoaderBuilder().addPaths(getClasspath())
+                .buildAndSet();
+        try {
+            classPath = holder.getClassPathAsArgument();
+        } finally {
+            holder.restoreClassLoaderAndReleaseThread();
+        }
+
+        // Each group generates its files into a directory of its own, merged into the output directory afterwards.
+        final File staleFile = getStaleFile();
+        final File groupsDirectory = new File(staleFile.getParentFile(), staleFile.getName() + "-groups");
+        FileSystemUtilities.createDirectory(groupsDirectory, true);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+
+            final List<Future<File>> results = new ArrayList<Future<File>>();
+            for (int i = 0; i < sourceGroups.size(); i++) {
+
+                final SourceGroup currentGroup = sourceGroups.get(i);
+                final File groupDirectory = new File(groupsDirectory, "" + i);
+                results.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        runXjc(currentGroup, groupDirectory, classPath);
+                        return groupDirectory;
+                    }
+                }));
+            }
+
+            final List<File> groupDirectories = new ArrayList<File>();
+            for (Future<File> current : results) {
+                try {
+                    groupDirectories.add(current.get());
+                } catch (ExecutionException e) {
+
+                    if (e.getCause() instanceof MojoExecutionException) {
+                        throw (MojoExecutionException) e.getCause();
+                    }
+                    throw new MojoExecutionException("Could not compile group of sources.", e.getCause());
+                }
+            }
+
+            mergeSourceGroupOutputs(groupDirectories);
+
+        } finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(groupsDirectory);
+        }
+    }
+
+    private void runXjcPartitioned(final List<SourceGroup> partitions, final String classPath) throws Exception {
+
+        if (getLog().isInfoEnabled()) {
+            getLog().info("Compiling " + partitions.size() + " namespace partitions in dependency order.");
+        }
+
+        final File staleFile = getStaleFile();
+        final File partitionsDirectory = new File(staleFile.getParentFile(), staleFile.getName() + "-partitions");
+        FileSystemUtilities.createDirectory(partitionsDirectory, true);
+
+        try {
+
+            final List<File> episodeFiles = new ArrayList<File>();
+            for (int i = 0; i < partitions.size(); i++) {
+
+                // The episodes of earlier partitions prevent their classes from being generated again.
+                final SourceGroup currentPartition = partitions.get(i);
+                final List<File> bindings = new ArrayList<File>(currentPartition.sourceXJBs);
+                bindings.addAll(episodeFiles);
+
+                final File episodeFile = new File(partitionsDirectory, i + ".episode");
+                final String[] xjcArguments = getXjcArguments(classPath,
+                        getGenerationDirectory(),
+                        episodeFile,
+                        currentPartition.sources,
+                        bindings,
+                        false);
+
+                if (XJC_COMPLETED_OK != runXjc(xjcArguments)) {
+                    throw createXjcError(currentPartition.sources);
+                }
+                episodeFiles.add(episodeFile);
+            }
+
+            if (generateEpisode) {
+                mergeEpisodeFiles(episodeFiles, getEpisodeFile(STANDARD_EPISODE_FILENAME));
+            }
+
+        } finally {
+            FileUtils.deleteDirectory(partitionsDirectory);
+        }
+    }
+
+    private void runXjc(final SourceGroup sourceGroup, final File groupDirectory, final String classPath)
+            throws Exception {
+
+        FileSystemUtilities.createDirectory(groupDirectory, true);
+
+        File episodeFile = null;
+        if (generateEpisode) {
+            episodeFile = new File(new File(groupDirectory, "META-INF"), STANDARD_EPISODE_FILENAME);
+            FileSystemUtilities.createDirectory(episodeFile.getParentFile(), false);
+        }
+
+        final String[] xjcArguments = getXjcArguments(classPath,
+                groupDirectory,
+                episodeFile,
+                sourceGroup.sources,
+                sourceGroup.sourceXJBs,
+                false);
+
+        // Groups are only compiled concurrently within XJC workers.
+        Integer exitCode = runXjcInWorker(xjcArguments);
+        if (exitCode == null) {
+
+            // Each group is compiled within its own, isolated ToolExecutionEnvironment.
+            synchronized (IN_PROCESS_XJC_LOCK) {
+
+                final ToolExecutionEnvironment environment = new ToolExecutionEnvironment(getLog(),
+                        createClassLoaderBuilder().addPaths(getClasspath()),
+                        LoggingHandlerEnvironmentFacet.create(getLog(), getClass(), getEncoding(false)));
+                environment.setup();
+
+                try {
+                    exitCode = Driver.run(xjcArguments, new XjcLogAdapter(getLog()));
+                } finally {
+                    environment.restore();
+                }
+            }
+        }
+
+        if (XJC_COMPLETED_OK != exitCode) {
+            throw createXjcError(sourceGroup.sources);
+        }
+    }
+
+    private void mergeSourceGroupOutputs(final List<File> groupDirectories) throws Exception {
+
+        final String episodePath = new File("META-INF", STANDARD_EPISODE_FILENAME).getPath();
+        final Map<String, Integer> generatedBy = new HashMap<String, Integer>();
+        final List<File> episodeFiles = new ArrayList<File>();
+        final SortedSet<String> conflicts = new TreeSet<String>();
+
+        for (int i = 0; i < groupDirectories.size(); i++) {
+
+            final File groupDirectory = groupDirectories.get(i);
+            for (File current : FileSystemUtilities.resolveRecursively(
+                    Arrays.asList(groupDirectory), null, getLog())) {
+
+                final String relativePath = FileSystemUtilities.relativize(
+                        FileSystemUtilities.getCanonicalPath(current), groupDirectory);
+                if (relativePath.equals(episodePath)) {
+                    episodeFiles.add(current);
+                    continue;
+                }
+
+                // Files generated by several groups must be identical.
+                final File target = new File(getGenerationDirectory(), relativePath);
+                final Integer previousGroup = generatedBy.get(relativePath);
+                if (previousGroup == null) {
+
+                    generatedBy.put(relativePath, i);
+                    FileSystemUtilities.createDirectory(target.getParentFile(), false);
+                    Files.move(current.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+                } else if (!FileUtils.contentEquals(current, target)) {
+                    conflicts.add(relativePath + " (groups " + previousGroup + " and " + i + ")");
+                }
+            }
+        }
+
+        if (!conflicts.isEmpty()) {
+
+            final StringBuilder builder = new StringBuilder("Independent groups of sources generated conflicting "
+                    + "files. Bind them to different packages, or set sourceGroupThreads to 1.\n");
+            for (String current : conflicts) {
+                builder.append("  ").append(current).append("\n");
+            }
+            throw new MojoExecutionException(builder.toString());
+        }
+
+        if (!episodeFiles.isEmpty()) {
+            mergeEpisodeFiles(episodeFiles, getEpisodeFile(STANDARD_EPISODE_FILENAME));
+        }
+
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("Merged " + generatedBy.size() + " files generated by " + groupDirectories.size()
+                    + " groups of sources.");
+        }
+    }
+
+    private static void mergeEpisodeFiles(final List<File> episodeFiles, final File target) throws Exception {
+
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final DocumentBuilder builder = factory.newDocumentBuilder();
+
+        // Append the schema bindings of all other episodes to the first one.
+        final Document merged = builder.parse(episodeFiles.get(0));
+        for (File current : episodeFiles.subList(1, episodeFiles.size())) {
+
+            final Element root = builder.parse(current).getDocumentElement();
+            for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    merged.getDocumentElement().appendChild(merged.importNode(child, true));
+                }
+            }
+        }
+
+        TransformerFactory.newInstance().newTransformer().transform(
+                new DOMSource(merged), new StreamResult(target));
+    }
+
+    private MojoExecutionException createXjcError(final List<URL> sourceXSDs) {
+
+        final StringBuilder errorMsgBuilder = new StringBuilder();
+        errorMsgBuilder.append("\n+=================== [XJC Error]\n");
+        errorMsgBuilder.append("|\n");
+
+        for (int i = 0; i < sourceXSDs.size(); i++) {
+            errorMsgBuilder.append("| " + i + ": ").append(sourceXSDs.get(i).toString()).append("\n");
+        }
+
+        errorMsgBuilder.append("|\n");
+        errorMsgBuilder.append("+=================== [End XJC Error]\n");
+        return new MojoExecutionException(errorMsgBuilder.toString());
+    }
+
+    private SchemaMirror createSchemaMirror() {
+
+        final Proxy activeProxy = settings == null ? null : settings.getActiveProxy();
+        final java.net.Proxy proxy = activeProxy == null
+                ? null
+                : new java.net.Proxy(java.net.Proxy.Type.HTTP,
+                new InetSocketAddress(activeProxy.getHost(), activeProxy.getPort()));
+
+        // All done.
+        return new SchemaMirror(schemaMirrorDirectory, offline, proxy,
+                activeProxy == null ? null : activeProxy.getUsername(),
+                activeProxy == null ? null : activeProxy.getPassword(),
+                getLog());
+    }
+
+    private JarSchemaCache createJarSchemaCache() {
+        return jarSchemaCache ? new JarSchemaCache(jarSchemaCacheDirectory, getLog()) : null;
+    }
+
+    private URL localize(final URL source, final boolean forStalenessCheck) throws MojoExecutionException {
+
+        if (!jarSchemaCache || !"jar".equalsIgnoreCase(source.getProtocol())) {
+            return source;
+        }
+
+        try {
+
+            // Don't extract JARs before knowing that XJC will be fired.
+            if (forStalenessCheck) {
+                final File localFile = createJarSchemaCache().getLocalFileLocation(source);
+                return localFile == null ? source : FileSystemUtilities.getUrlFor(localFile);
+            }
+
+            // All done.
+            return createJarSchemaCache().localize(source);
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not extract [" + source + "] into the JAR schema cache.", e);
+        }
+    }
+
+    private File getSchemaMirrorCatalog() {
+        final File staleFile = getStaleFile();
+        return new File(staleFile.getParentFile(), staleFile.getName() + "-mirrorCatalog.xml");
+    }
+
+    private int runXjc(final String[] xjcArguments) throws Exception {
+
+        final Integer exitCode = runXjcInWorker(xjcArguments);
+
+        // All done.
+        return exitCode != null ? exitCode : Driver.run(xjcArguments, new XjcLogAdapter(getLog()));
+    }
+
+    /**
+     * Runs XJC within the XjcWorker of this execution, if the {@code xjcWorker} parameter is {@code true}.
+     *
+     * @param xjcArguments The XJC arguments.
+     * @return The XJC exit code, or {@code null} if XJC should be run within this JVM instead.
+     * @throws Exception if the project classpath could not be resolved, or XJC failed within the worker.
+     */
+    private Integer runXjcInWorker(final String[] xjcArguments) throws Exception {
+
+        final XjcWorkerClient client = xjcWorker ? getXjcWorkerClient() : null;
+        if (client != null) {
+            try {
+                return client.run(xjcArguments, new XjcLogAdapter(getLog()));
+            } catch (IOException e) {
+                if (getLog().isWarnEnabled()) {
+                    getLog().warn("Could not use XJC worker (" + e.getMessage() + "). Running XJC in-process.");
+                }
+            }
+        }
+
+        // All done.
+        return null;
+    }
+
+    /**
+     * Retrieves the XjcWorkerClient used by all XJC runs of this execution, implying that the worker classpath
+     * and its fingerprint are only synthesized once even if several source groups are compiled (in parallel).
+     *
+     * @return The XjcWorkerClient of this execution, or {@code null} if the worker classpath cannot be synthesized.
+     * @throws MojoExecutionException if the project classpath could not be resolved.
+     */
+    private synchronized XjcWorkerClient getXjcWorkerClient() throws MojoExecutionException {
+
+        if (!xjcWorkerClientResolved) {
+
+            // The worker requires the plugin's own classpath, holding XJC, as well as the project classpath.
+            final ClassLoader pluginClassLoader = getClass().getClassLoader();
+            if (pluginClassLoader instanceof URLClassLoader) {
+
+                final List<URL> workerClassPath = new ArrayList<URL>(
+                        Arrays.asList(((URLClassLoader) pluginClassLoader).getURLs()));
+                for (String current : getClasspath()) {
+                    workerClassPath.add(FileSystemUtilities.getUrlFor(new File(current)));
+                }
+
+                xjcWorkerClient = new XjcWorkerClient(xjcWorkerDirectory, workerClassPath, xjcWorkerIdleTimeout,
+                        getLog());
+            } else if (getLog().isWarnEnabled()) {
+                getLog().warn("Cannot synthesize the XJC worker classpath. Running XJC in-process.");
+            }
+
+            xjcWorkerClientResolved = true;
+        }
+
+        // All done.
+        return xjcWorkerClient;
+    }
+
     private void addResourceDirectory(final File directoryOrNull) {
 
         if (directoryOrNull != null) {
@@ -522,7 +1392,34 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
         }
     }
 
-    private String[] getXjcArguments(final String classPath, final String episodeFileNameOrNull)
+    private String[] getXjcArguments(final String classPath,
+                                     final String episodeFileNameOrNull,
+                                     final boolean forStalenessCheck)
+            throws MojoExecutionException, NoSchemasException {
+
+        // Don't create the episode file's parent directory when only checking staleness.
+        File episodeFile = null;
+        if (generateEpisode) {
+            episodeFile = forStalenessCheck
+                    ? new File(new File(getOutputDirectory(), "META-INF"), episodeFileNameOrNull)
+                    : getEpisodeFile(episodeFileNameOrNull);
+        }
+
+        // All done.
+        return getXjcArguments(classPath,
+                forStalenessCheck ? getOutputDirectory() : getGenerationDirectory(),
+                episodeFile,
+                getSources(),
+                getSourceXJBs(),
+                forStalenessCheck);
+    }
+
+    private String[] getXjcArguments(final String classPath,
+                                     final File outputDirectory,
+                                     final File episodeFileOrNull,
+                                     final List<URL> sourceXSDs,
+                                     final List<File> sourceXJBs,
+                                     final boolean forStalenessCheck)
             throws MojoExecutionException, NoSchemasException {
 
         final ArgumentBuilder builder = new ArgumentBuilder();
@@ -541,60 +1438,81 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
 
         // Add all arguments on the form '-argumentName argumentValue'
         // (i.e. in 2 separate elements of the returned String[])
-        builder.withNamedArgument("httpproxy", getProxyString(settings.getActiveProxy()));
-        builder.withNamedArgument("encoding", getEncoding(true));
+        // The proxy does not affect the generated code, and its password should not end up in the staleFile.
+        if (!forStalenessCheck) {
+            builder.withNamedArgument("httpproxy", getProxyString(settings.getActiveProxy()));
+        }
+        builder.withNamedArgument("encoding", getEncoding(!forStalenessCheck));
         builder.withNamedArgument("p", packageName);
         builder.withNamedArgument("target", target);
-        builder.withNamedArgument("d", getOutputDirectory().getAbsolutePath());
+        builder.withNamedArgument("d", outputDirectory.getAbsolutePath());
         builder.withNamedArgument("classpath", classPath);
 
-        if (generateEpisode) {
+        if (episodeFileOrNull != null) {
 
             // We must use the -extension flag for the episode to work.
             if (!extension) {
 
-                if (getLog().isInfoEnabled()) {
+                if (!forStalenessCheck && getLog().isInfoEnabled()) {
                     getLog().info("Adding 'extension' flag to XJC arguments, since the 'generateEpisode' argument is "
                             + "given. (XJCs 'episode' argument requires that the 'extension' argument is provided).");
                 }
                 builder.withFlag(true, "extension");
             }
 
-            final File episodeFile = getEpisodeFile(episodeFileNameOrNull);
-            builder.withNamedArgument("episode", FileSystemUtilities.getCanonicalPath(episodeFile));
+            builder.withNamedArgument("episode", FileSystemUtilities.getCanonicalPath(episodeFileOrNull));
         }
         if (catalog != null) {
             builder.withNamedArgument("catalog", FileSystemUtilities.getCanonicalPath(catalog));
         }
+        if (schemaMirror || offline) {
+
+            // XJC consults the catalogs in order, implying that the user's catalog takes precedence.
+            // The mirror catalog is always given (even if empty), to keep the arguments stable between builds.
+            builder.withNamedArgument("catalog", FileSystemUtilities.getCanonicalPath(getSchemaMirrorCatalog()));
+        }
 
         if (arguments != null) {
-            builder.withPreCompiledArguments(arguments);
+
+            // The XJC worker does not share our working directory, and hence requires absolute paths.
+            builder.withPreCompiledArguments(xjcWorker
+                    ? XjcWorkerClient.resolveRelativePaths(arguments, getProject().getBasedir())
+                    : arguments);
         }
 
-        for (File current : getSourceXJBs()) {
+        for (File current : sourceXJBs) {
 
             // Shorten the argument if possible.
-            final String strippedXjbPath = FileSystemUtilities.relativize(
-                    current.getAbsolutePath(), getProject().getBasedir());
+            // The XJC worker does not share our working directory, and hence requires absolute paths.
+            final String strippedXjbPath = xjcWorker
+                    ? current.getAbsolutePath()
+                    : FileSystemUtilities.relativize(current.getAbsolutePath(), getProject().getBasedir());
 
             // Each XJB must be given as a separate argument.
             builder.withNamedArgument("-b", strippedXjbPath);
         }
 
-        final List<URL> sourceXSDs = getSources();
         if (sourceXSDs.isEmpty()) {
 
             // If we have no XSDs, we are not going to be able to run XJC.
-            getLog().warn("No XSD files found. Please check your plugin configuration.");
+            if (!forStalenessCheck) {
+                getLog().warn("No XSD files found. Please check your plugin configuration.");
+            }
             throw new NoSchemasException();
 
         } else {
 
             final List<String> unwrappedSourceXSDs = new ArrayList<String>();
-            for (URL current : sourceXSDs) {
+            for (URL sourceXSD : sourceXSDs) {
+
+                // Supply XJC with extracted copies of sources hosted within JAR files.
+                final URL current = localize(sourceXSD, forStalenessCheck);
 
                 // Shorten the argument if possible.
-                if ("file".equalsIgnoreCase(current.getProtocol())) {
+                if ("file".equalsIgnoreCase(current.getProtocol()) && xjcWorker) {
+                    unwrappedSourceXSDs.add(FileSystemUtilities.getFileFor(current, getEncoding(false))
+                            .getAbsolutePath());
+                } else if ("file".equalsIgnoreCase(current.getProtocol())) {
                     unwrappedSourceXSDs.add(FileSystemUtilities.relativize(
                             current.getPath(),
                             getProject().getBasedir()));
@@ -607,7 +1525,7 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
         }
 
         // All done.
-        return logAndReturnToolArguments(builder.build(), "XJC");
+        return forStalenessCheck ? builder.build() : logAndReturnToolArguments(builder.build(), "XJC");
     }
 
     private String getProxyString(final Proxy activeProxy) {
@@ -642,4 +1560,15 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
         // All done.
         return proxyBuilder.toString();
     }
+
+    /**
+     * A group of sources (and the binding files applying to them) which can be compiled
+     * independently of all other sources.
+     */
+    private static class SourceGroup {
+
+        // Internal state
+        private final List<URL> sources = new ArrayList<URL>();
+        private final List<File> sourceXJBs = new ArrayList<File>();
+    }
 }
@@ -26,7 +26,6 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
-import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.Filters;
@@ -34,7 +33,6 @@ import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
 
 import java.io.File;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -54,7 +52,7 @@ import java.util.List;
 @Mojo(name = "testXjc",
         defaultPhase = LifecyclePhase.GENERATE_TEST_SOURCES,
         requiresDependencyResolution = ResolutionScope.TEST,
-        threadSafe = false)
+        threadSafe = true)
 public class TestXjcMojo extends AbstractJavaGeneratorMojo {
 
     /**
@@ -89,16 +87,8 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
     public static final List<Filter<File>> STANDARD_TEST_XJB_EXCLUDE_FILTERS;
 
     static {
-
-        final List<Filter<File>> xjbTemp = new ArrayList<Filter<File>>();
-        xjbTemp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        xjbTemp.add(new PatternFileFilter(Arrays.asList("\\.xsd"), true));
-        STANDARD_TEST_XJB_EXCLUDE_FILTERS = Collections.unmodifiableList(xjbTemp);
-
-        final List<Filter<File>> xsdTemp = new ArrayList<Filter<File>>();
-        xsdTemp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        xsdTemp.add(new PatternFileFilter(Arrays.asList("\\.xjb"), true));
-        STANDARD_TEST_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(xsdTemp);
+        STANDARD_TEST_XJB_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardXjbExcludeFilters());
+        STANDARD_TEST_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardSourceExcludeFilters());
     }
 
     /**
@@ -236,10 +226,10 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
      * {@inheritDoc}
      */
     @Override
-    protected List<URL> getSources() {
+    protected List<URL> resolveSources() {
 
         final List<Filter<File>> excludePatterns = testSourceExcludeFilters == null
-                ? STANDARD_TEST_SOURCE_EXCLUDE_FILTERS
+                ? createStandardSourceExcludeFilters()
                 : testSourceExcludeFilters;
         Filters.initialize(getLog(), excludePatterns);
 
@@ -257,10 +247,10 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
      * {@inheritDoc}
      */
     @Override
-    protected List<File> getSourceXJBs() {
+    protected List<File> resolveSourceXJBs() {
 
         final List<Filter<File>> excludePatterns = testXjbExcludeFilters == null
-                ? STANDARD_TEST_XJB_EXCLUDE_FILTERS
+                ? createStandardXjbExcludeFilters()
                 : testXjbExcludeFilters;
         Filters.initialize(getLog(), excludePatterns);
 
@@ -316,4 +306,16 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
     protected void addResource(final Resource resource) {
         getProject().addTestResource(resource);
     }
+
+    //
+    // Private helpers
+    //
+
+    private static List<Filter<File>> createStandardSourceExcludeFilters() {
+        return createStandardExcludeFilters(new PatternFileFilter(Arrays.asList("\\.xjb"), true));
+    }
+
+    private static List<Filter<File>> createStandardXjbExcludeFilters() {
+        return createStandardExcludeFilters(new PatternFileFilter(Arrays.asList("\\.xsd"), true));
+    }
 }
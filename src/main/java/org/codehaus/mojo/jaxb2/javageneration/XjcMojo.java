@@ -26,7 +26,6 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
-import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.Filters;
@@ -34,7 +33,6 @@ import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
 
 import java.io.File;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -52,7 +50,7 @@ import java.util.List;
  * @see <a href="https://jaxb.java.net/">The JAXB Reference Implementation</a>
  */
 @Mojo(name = "xjc",
-        threadSafe = false,
+        threadSafe = true,
         defaultPhase = LifecyclePhase.GENERATE_SOURCES,
         requiresDependencyResolution = ResolutionScope.COMPILE)
 public class XjcMojo extends AbstractJavaGeneratorMojo {
@@ -89,16 +87,8 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
     public static final List<Filter<File>> STANDARD_XJB_EXCLUDE_FILTERS;
 
     static {
-
-        final List<Filter<File>> xjbTemp = new ArrayList<Filter<File>>();
-        xjbTemp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        xjbTemp.add(new PatternFileFilter(Arrays.asList("\\.xsd"), true));
-        STANDARD_XJB_EXCLUDE_FILTERS = Collections.unmodifiableList(xjbTemp);
-
-        final List<Filter<File>> xsdTemp = new ArrayList<Filter<File>>();
-        xsdTemp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        xsdTemp.add(new PatternFileFilter(Arrays.asList("\\.xjb"), true));
-        STANDARD_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(xsdTemp);
+        STANDARD_XJB_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardXjbExcludeFilters());
+        STANDARD_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardSourceExcludeFilters());
     }
 
     /**
@@ -251,10 +241,10 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
      * {@inheritDoc}
      */
     @Override
-    protected List<URL> getSources() {
+    protected List<URL> resolveSources() {
 
         final List<Filter<File>> excludePatterns = xjcSourceExcludeFilters == null
-                ? STANDARD_SOURCE_EXCLUDE_FILTERS
+                ? createStandardSourceExcludeFilters()
                 : xjcSourceExcludeFilters;
         Filters.initialize(getLog(), excludePatterns);
 
@@ -271,10 +261,10 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
      * {@inheritDoc}
      */
     @Override
-    protected List<File> getSourceXJBs() {
+    protected List<File> resolveSourceXJBs() {
 
         final List<Filter<File>> excludePatterns = xjbExcludeFilters == null
-                ? STANDARD_XJB_EXCLUDE_FILTERS
+                ? createStandardXjbExcludeFilters()
                 : xjbExcludeFilters;
         Filters.initialize(getLog(), excludePatterns);
 
@@ -330,4 +320,16 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
     protected void addResource(final Resource resource) {
         getProject().addResource(resource);
     }
+
+    //
+    // Private helpers
+    //
+
+    private static List<Filter<File>> createStandardSourceExcludeFilters() {
+        return createStandardExcludeFilters(new PatternFileFilter(Arrays.asList("\\.xjb"), true));
+    }
+
+    private static List<Filter<File>> createStandardXjbExcludeFilters() {
+        return createStandardExcludeFilters(new PatternFileFilter(Arrays.asList("\\.xsd"), true));
+    }
 }
@@ -0,0 +1,66 @@
+package org.codehaus.mojo.jaxb2.javageneration;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * <p>Mojo that generates Java source code from XML schema(s) exactly like the {@code xjc} goal, and then keeps
+ * running: the directories holding the XSD, XJB and catalog files are watched for changes, and the Java
+ * source code is re-generated whenever they change. Intended to be run from the command line during
+ * schema development, as in {@code mvn jaxb2:watch}.</p>
+ * <p>Re-executions are subject to the normal staleness check, and re-use the ClassLoader synthesized for XJC
+ * by the first execution. Configuration parameters are identical to the ones of the {@code xjc} goal.</p>
+ *
+ * @since 2.2
+ */
+@Mojo(name = "watch",
+        threadSafe = true,
+        requiresDependencyResolution = ResolutionScope.COMPILE)
+public class XjcWatchMojo extends XjcMojo {
+
+    /**
+     * <p>The number of milliseconds without further changes to wait for after a change is detected, before
+     * re-generating the Java source code. Prevents re-generating for each file within a burst of changes,
+     * such as when several files are saved at once.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(property = "jaxb2.watch.debounce", defaultValue = "250")
+    protected long watchDebounce;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isWatching() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long getWatchDebounceMillis() {
+        return watchDebounce;
+    }
+}
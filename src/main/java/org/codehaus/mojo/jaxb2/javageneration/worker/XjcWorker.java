@@ -0,0 +1,307 @@
+package org.codehaus.mojo.jaxb2.javageneration.worker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.sun.tools.xjc.Driver;
+import com.sun.tools.xjc.XJCListener;
+import org.xml.sax.SAXParseException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+/**
+ * <p>Long-lived worker JVM running XJC on behalf of plugin executions, implying that the XJC, XSOM and
+ * CodeModel classes are loaded and JIT-compiled once rather than once per execution. The worker is started
+ * by the XjcWorkerClient with a classpath holding the plugin and its XJC dependencies as well as the classpath
+ * of the project, and is shared by all executions (within any build) using an identical classpath.</p>
+ * <p>The worker listens on a loopback socket, and publishes its port and a random access token in a registry
+ * file readable only by its owner. Requests are processed one at a time, since XJC is not designed for
+ * concurrent use. The worker terminates when it has been idle for the given timeout.</p>
+ *
+ * @since 2.2
+ */
+public final class XjcWorker {
+
+    /**
+     * Registry file property holding the port on which the worker listens.
+     */
+    static final String PORT_KEY = "port";
+
+    /**
+     * Registry file property holding the token which must prefix all requests.
+     */
+    static final String TOKEN_KEY = "token";
+
+    // Internal state
+    private static final int TOKEN_LENGTH = 16;
+    private File registryFile;
+    private ServerSocket serverSocket;
+    private String token;
+
+    private XjcWorker(final File registryFile, final int idleTimeoutSeconds) throws IOException {
+
+        // Assign internal state
+        this.registryFile = registryFile;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.serverSocket.setSoTimeout(idleTimeoutSeconds * 1000);
+
+        final byte[] tokenBytes = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(tokenBytes);
+        final StringBuilder builder = new StringBuilder();
+        for (byte current : tokenBytes) {
+            builder.append(String.format("%02x", current & 0xFF));
+        }
+        this.token = builder.toString();
+    }
+
+    /**
+     * Starts an XjcWorker, which terminates when idle for the supplied timeout.
+     *
+     * @param args Two arguments: the path to the registry file to write, and the idle timeout in seconds.
+     * @throws Exception if the XjcWorker could not be started.
+     */
+    public static void main(final String[] args) throws Exception {
+
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: XjcWorker <registryFile> <idleTimeoutSeconds>");
+        }
+
+        final XjcWorker worker = new XjcWorker(new File(args[0]), Integer.parseInt(args[1]));
+        try {
+            worker.publish();
+            worker.serve();
+        } finally {
+            worker.unpublish();
+        }
+
+        // Terminate any lingering non-daemon threads started by XJC.
+        System.exit(0);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void publish() throws IOException {
+
+        final Properties props = new Properties();
+        props.setProperty(PORT_KEY, String.valueOf(serverSocket.getLocalPort()));
+        props.setProperty(TOKEN_KEY, token);
+
+        // Write the registry file to a temporary file readable only by its owner, and move it into place.
+        final File temporaryFile = new File(registryFile.getPath() + ".tmp");
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+        try {
+            temporaryFile.setReadable(false, false);
+            temporaryFile.setReadable(true, true);
+            props.store(out, "jaxb2-maven-plugin XJC worker");
+        } finally {
+            out.close();
+        }
+
+        try {
+            Files.move(temporaryFile.toPath(), registryFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), registryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void unpublish() throws IOException {
+
+        try {
+            serverSocket.close();
+        } finally {
+
+            // Don't delete the registry file of another worker which replaced us.
+            if (token.equals(readRegistry(registryFile).getProperty(TOKEN_KEY))) {
+                Files.deleteIfExists(registryFile.toPath());
+            }
+        }
+    }
+
+    private void serve() throws IOException {
+
+        while (true) {
+
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+
+                // Idle for too long.
+                return;
+            }
+
+            try {
+                handle(socket);
+            } catch (IOException e) {
+
+                // The client disconnected prematurely, and cannot be notified. Proceed with the next request.
+            } finally {
+                socket.close();
+            }
+        }
+    }
+
+    private void handle(final Socket socket) throws IOException {
+
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        // Reject requests not holding our token.
+        if (!token.equals(XjcWorkerProtocol.readString(in))) {
+            return;
+        }
+
+        final String[] arguments = new String[in.readInt()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = XjcWorkerProtocol.readString(in);
+        }
+
+        int exitCode;
+        try {
+            exitCode = Driver.run(arguments, new ForwardingListener(out));
+        } catch (Throwable e) {
+
+            final StringWriter stackTrace = new StringWriter();
+            e.printStackTrace(new PrintWriter(stackTrace));
+
+            out.writeByte(XjcWorkerProtocol.EXCEPTION);
+            XjcWorkerProtocol.writeString(out, stackTrace.toString());
+            exitCode = XjcWorkerProtocol.EXCEPTION_EXIT_CODE;
+        }
+
+        out.writeByte(XjcWorkerProtocol.EXIT_CODE);
+        out.writeInt(exitCode);
+        out.flush();
+    }
+
+    /**
+     * Reads the supplied registry file.
+     *
+     * @param registryFile The registry file to read.
+     * @return The properties within the registry file, which are empty if the file could not be read.
+     */
+    static Properties readRegistry(final File registryFile) {
+
+        final Properties toReturn = new Properties();
+        try {
+            final InputStream in = new FileInputStream(registryFile);
+            try {
+                toReturn.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // Ignore this; an empty Properties is returned.
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * XJCListener forwarding all XJC events to the requesting XjcWorkerClient.
+     */
+    static class ForwardingListener extends XJCListener {
+
+        // Internal state
+        private DataOutputStream out;
+
+        ForwardingListener(final DataOutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void generatedFile(final String fileName, final int current, final int total) {
+            try {
+                out.writeByte(XjcWorkerProtocol.GENERATED_FILE);
+                XjcWorkerProtocol.writeString(out, fileName);
+                out.writeInt(current);
+                out.writeInt(total);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not forward XJC event.", e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void error(final SAXParseException exception) {
+            forward(XjcWorkerProtocol.ERROR, exception);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void fatalError(final SAXParseException exception) {
+            forward(XjcWorkerProtocol.FATAL_ERROR, exception);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void warning(final SAXParseException exception) {
+            forward(XjcWorkerProtocol.WARNING, exception);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void info(final SAXParseException exception) {
+            forward(XjcWorkerProtocol.INFO, exception);
+        }
+
+        private void forward(final byte eventType, final SAXParseException exception) {
+            try {
+                XjcWorkerProtocol.writeParseEvent(out, eventType, exception);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not forward XJC event.", e);
+            }
+        }
+    }
+}
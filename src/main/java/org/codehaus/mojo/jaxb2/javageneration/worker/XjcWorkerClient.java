@@ -0,0 +1,441 @@
+package org.codehaus.mojo.jaxb2.javageneration.worker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.sun.tools.xjc.XJCListener;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.cache.BuildCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Client running XJC within a long-lived XjcWorker JVM. Workers are identified by a fingerprint of their
+ * Java runtime, forwarded system properties and classpath, including the size and modification timestamp of each
+ * classpath entry, so rebuilt JARs or class directories are never served by a worker running stale code. Workers
+ * are started on demand (by the first client not finding a live worker with the required fingerprint) within the
+ * supplied worker directory. Hence, all executions - within a single build or subsequent builds - using identical
+ * classpaths share a single, warm worker.</p>
+ *
+ * @see XjcWorker
+ * @since 2.2
+ */
+public class XjcWorkerClient {
+
+    // Internal state
+    private static final Object LAUNCH_LOCK = new Object();
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int STARTUP_TIMEOUT_MILLIS = 60000;
+    private static final int STARTUP_POLL_MILLIS = 100;
+    private static final Pattern URL_SCHEME = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.\\-]+:.*");
+
+    /**
+     * XJC options whose value is a single path.
+     */
+    private static final List<String> PATH_OPTIONS =
+            Arrays.asList("-b", "-catalog", "-d", "-episode", "-httpproxyfile");
+
+    /**
+     * XJC options whose value is a list of paths, separated by the platform path separator.
+     */
+    private static final List<String> PATH_LIST_OPTIONS = Arrays.asList("-classpath", "-cp");
+
+    /**
+     * XJC options whose value is not a path.
+     */
+    private static final List<String> VALUE_OPTIONS =
+            Arrays.asList("-encoding", "-httpproxy", "-p", "-proxy", "-target");
+
+    /**
+     * Prefixes of the system properties forwarded to the worker JVM, since they affect how XJC parses
+     * and resolves schemas (such as {@code javax.xml.accessExternalSchema} or the proxy settings).
+     */
+    private static final List<String> FORWARDED_PROPERTY_PREFIXES = Arrays.asList(
+            "com.sun.tools.xjc.", "com.sun.xml.bind.", "ftp.", "http.", "https.", "java.net.useSystemProxies",
+            "javax.xml.", "jdk.xml.", "socksProxy");
+
+    private File workerDirectory;
+    private List<URL> classPath;
+    private SortedMap<String, String> systemProperties;
+    private int idleTimeoutSeconds;
+    private String fingerprint;
+    private Log log;
+
+    /**
+     * Creates an XjcWorkerClient using workers with the supplied classpath.
+     *
+     * @param workerDirectory    The directory holding registry, lock and log files of all workers.
+     * @param classPath          The classpath of the worker JVM, holding the plugin and its XJC dependencies as
+     *                           well as any project classpath elements required by XJC (such as plugins and
+     *                           episode files).
+     * @param idleTimeoutSeconds The number of seconds a started worker may be idle before terminating.
+     * @param log                The active Maven Log.
+     */
+    public XjcWorkerClient(final File workerDirectory,
+                           final List<URL> classPath,
+                           final int idleTimeoutSeconds,
+                           final Log log) {
+
+        // Check sanity
+        Validate.notNull(workerDirectory, "workerDirectory");
+        Validate.notNull(classPath, "classPath");
+        Validate.isTrue(idleTimeoutSeconds > 0, "idleTimeoutSeconds must be positive.");
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.workerDirectory = workerDirectory;
+        this.classPath = classPath;
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+        this.log = log;
+        this.systemProperties = getForwardedSystemProperties();
+
+        final List<String> fingerprintParts = new ArrayList<String>();
+        fingerprintParts.add(System.getProperty("java.home"));
+        for (Map.Entry<String, String> current : systemProperties.entrySet()) {
+            fingerprintParts.add(current.getKey() + "=" + current.getValue());
+        }
+        for (URL current : classPath) {
+
+            final StringBuilder builder = new StringBuilder(current.toString());
+            if ("file".equalsIgnoreCase(current.getProtocol())) {
+                final File file = FileSystemUtilities.getFileFor(current, "UTF-8");
+                builder.append("@").append(file.length()).append(",").append(getLastModified(file));
+            }
+            fingerprintParts.add(builder.toString());
+        }
+        this.fingerprint = BuildCache.createKey(fingerprintParts);
+    }
+
+    /**
+     * Runs XJC with the supplied arguments within a worker JVM, starting the worker if required.
+     * All paths within the supplied arguments must be absolute, since the worker does not share
+     * the working directory of this JVM.
+     *
+     * @param arguments The XJC arguments.
+     * @param listener  The XJCListener receiving all XJC events.
+     * @return The XJC exit code.
+     * @throws IOException           if the worker could not be started or communicated with.
+     * @throws IllegalStateException if XJC threw an exception within the worker.
+     * @see #resolveRelativePaths(List, File)
+     */
+    public int run(final String[] arguments, final XJCListener listener) throws IOException, IllegalStateException {
+
+        // Check sanity
+        Validate.notNull(arguments, "arguments");
+        Validate.notNull(listener, "listener");
+
+        final Properties registry = new Properties();
+        final Socket socket = connect(registry);
+        try {
+
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            XjcWorkerProtocol.writeString(out, registry.getProperty(XjcWorker.TOKEN_KEY));
+            out.writeInt(arguments.length);
+            for (String current : arguments) {
+                XjcWorkerProtocol.writeString(out, current);
+            }
+            out.flush();
+
+            // All done.
+            return XjcWorkerProtocol.readResponse(
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream())), listener);
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * <p>Resolves all relative paths within the supplied XJC arguments against the given base directory.
+     * Relative paths are the values of path-valued XJC options (such as {@code -b} or {@code -classpath})
+     * and the sources, i.e. arguments which are neither options, option values nor URLs.
+     * All other arguments are returned unchanged.</p>
+     * <p>This is required for arguments sent to an XjcWorker, since the worker does not share the working
+     * directory of this JVM.</p>
+     *
+     * @param arguments     The XJC arguments.
+     * @param baseDirectory The directory against which relative paths should be resolved.
+     * @return The XJC arguments, holding absolute paths only.
+     */
+    public static List<String> resolveRelativePaths(final List<String> arguments, final File baseDirectory) {
+
+        // Check sanity
+        Validate.notNull(arguments, "arguments");
+        Validate.notNull(baseDirectory, "baseDirectory");
+
+        final List<String> toReturn = new ArrayList<String>();
+        String option = null;
+        for (String current : arguments) {
+
+            if (current == null || VALUE_OPTIONS.contains(option)) {
+                toReturn.add(current);
+            } else if (PATH_OPTIONS.contains(option)) {
+                toReturn.add(resolve(current, baseDirectory));
+            } else if (PATH_LIST_OPTIONS.contains(option)) {
+
+                final StringBuilder builder = new StringBuilder();
+                for (String currentPath : current.split(Pattern.quote(File.pathSeparator))) {
+                    if (builder.length() > 0) {
+                        builder.append(File.pathSeparator);
+                    }
+                    builder.append(currentPath.isEmpty() ? currentPath : resolve(currentPath, baseDirectory));
+                }
+                toReturn.add(builder.toString());
+
+            } else if (current.startsWith("-")) {
+
+                // The value of the option (if any) is handled by the next iteration.
+                toReturn.add(current);
+                option = current;
+                continue;
+
+            } else if (URL_SCHEME.matcher(current).matches()) {
+                toReturn.add(current);
+            } else {
+                toReturn.add(resolve(current, baseDirectory));
+            }
+
+            option = null;
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * @return The fingerprint identifying the worker used by this XjcWorkerClient.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private Socket connect(final Properties registry) throws IOException {
+
+        if (!workerDirectory.isDirectory() && !workerDirectory.mkdirs() && !workerDirectory.isDirectory()) {
+            throw new IOException("Could not create directory ["
+                    + FileSystemUtilities.getCanonicalPath(workerDirectory) + "]");
+        }
+
+        final File registryFile = new File(workerDirectory, fingerprint + ".properties");
+
+        // Serialize worker startup between threads of this JVM, and between JVMs.
+        synchronized (LAUNCH_LOCK) {
+
+            final File lockFilePath = new File(workerDirectory, fingerprint + ".lock");
+            final RandomAccessFile lockFile = new RandomAccessFile(lockFilePath, "rw");
+            try {
+                final FileLock lock = lockFile.getChannel().lock();
+                try {
+
+                    Socket toReturn = tryConnect(registryFile, registry);
+                    if (toReturn == null) {
+
+                        final Process worker = launch(registryFile);
+                        final long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+                        while (toReturn == null && System.currentTimeMillis() < deadline) {
+
+                            if (hasTerminated(worker)) {
+                                throw new IOException("XJC worker terminated during startup. See ["
+                                        + FileSystemUtilities.getCanonicalPath(getLogFile()) + "]");
+                            }
+
+                            sleep();
+                            toReturn = tryConnect(registryFile, registry);
+                        }
+
+                        if (toReturn == null) {
+                            worker.destroy();
+                            throw new IOException("XJC worker did not start within "
+                                    + (STARTUP_TIMEOUT_MILLIS / 1000) + " seconds.");
+                        }
+                    }
+
+                    // All done.
+                    return toReturn;
+
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                lockFile.close();
+            }
+        }
+    }
+
+    private Socket tryConnect(final File registryFile, final Properties registry) {
+
+        if (!registryFile.isFile()) {
+            return null;
+        }
+
+        registry.clear();
+        registry.putAll(XjcWorker.readRegistry(registryFile));
+        final String port = registry.getProperty(XjcWorker.PORT_KEY);
+        if (port == null || registry.getProperty(XjcWorker.TOKEN_KEY) == null) {
+            return null;
+        }
+
+        final Socket toReturn = new Socket();
+        try {
+            toReturn.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port)),
+                    CONNECT_TIMEOUT_MILLIS);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Connected to XJC worker [" + fingerprint + "] on port " + port);
+            }
+            return toReturn;
+
+        } catch (IOException e) {
+
+            // The worker is gone; remove its stale registry file.
+            try {
+                toReturn.close();
+            } catch (IOException ignored) {
+                // Ignore this
+            }
+            registryFile.delete();
+            return null;
+        } catch (NumberFormatException e) {
+            registryFile.delete();
+            return null;
+        }
+    }
+
+    private Process launch(final File registryFile) throws IOException {
+
+        final StringBuilder classPathArgument = new StringBuilder();
+        for (URL current : classPath) {
+            if (classPathArgument.length() > 0) {
+                classPathArgument.append(File.pathSeparator);
+            }
+            classPathArgument.append(FileSystemUtilities.getFileFor(current, "UTF-8").getAbsolutePath());
+        }
+
+        final String javaExecutable = System.getProperty("java.home") + File.separator + "bin" + File.separator
+                + "java";
+        final List<String> command = new ArrayList<String>();
+        command.add(javaExecutable);
+        for (Map.Entry<String, String> current : systemProperties.entrySet()) {
+            command.add("-D" + current.getKey() + "=" + current.getValue());
+        }
+        command.add("-cp");
+        command.add(classPathArgument.toString());
+        command.add(XjcWorker.class.getName());
+        command.add(registryFile.getAbsolutePath());
+        command.add(String.valueOf(idleTimeoutSeconds));
+
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(workerDirectory);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.appendTo(getLogFile()));
+
+        if (log.isInfoEnabled()) {
+            log.info("Starting XJC worker [" + fingerprint + "]");
+        }
+        return builder.start();
+    }
+
+    private static String resolve(final String path, final File baseDirectory) {
+        final File file = new File(path);
+        return file.isAbsolute() ? path : new File(baseDirectory, path).getAbsolutePath();
+    }
+
+    private File getLogFile() {
+        return new File(workerDirectory, fingerprint + ".log");
+    }
+
+    private static SortedMap<String, String> getForwardedSystemProperties() {
+
+        final SortedMap<String, String> toReturn = new TreeMap<String, String>();
+        for (String current : System.getProperties().stringPropertyNames()) {
+
+            // Passwords would be visible within the command line of the worker; use the httpproxy argument instead.
+            if (current.toLowerCase().contains("password")) {
+                continue;
+            }
+
+            for (String currentPrefix : FORWARDED_PROPERTY_PREFIXES) {
+                if (current.startsWith(currentPrefix)) {
+                    toReturn.put(current, System.getProperty(current));
+                    break;
+                }
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static long getLastModified(final File fileOrDirectory) {
+
+        // Class directories (such as target/classes of a reactor module) change when any contained file changes.
+        long toReturn = fileOrDirectory.lastModified();
+        final File[] children = fileOrDirectory.isDirectory() ? fileOrDirectory.listFiles() : null;
+        if (children != null) {
+            for (File current : children) {
+                toReturn = Math.max(toReturn, getLastModified(current));
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static boolean hasTerminated(final Process process) {
+        try {
+            process.exitValue();
+            return true;
+        } catch (IllegalThreadStateException e) {
+            return false;
+        }
+    }
+
+    private static void sleep() throws IOException {
+        try {
+            Thread.sleep(STARTUP_POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the XJC worker to start.", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.codehaus.mojo.jaxb2.javageneration.worker;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.sun.tools.xjc.XJCListener;
+import org.xml.sax.SAXParseException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * <p>Wire protocol between the XjcWorkerClient and the XjcWorker. A request consists of the worker token and
+ * the XJC arguments. The response consists of any number of XJC events, terminated by the XJC exit code.
+ * All strings are written as their length followed by their UTF-8 encoded bytes, permitting arguments
+ * (such as long classpaths) exceeding the 64 kB limit of {@code DataOutput.writeUTF}.</p>
+ *
+ * @since 2.2
+ */
+final class XjcWorkerProtocol {
+
+    /**
+     * Event type for {@code XJCListener.generatedFile}.
+     */
+    static final byte GENERATED_FILE = 'F';
+
+    /**
+     * Event type for {@code XJCListener.error}.
+     */
+    static final byte ERROR = 'E';
+
+    /**
+     * Event type for {@code XJCListener.fatalError}.
+     */
+    static final byte FATAL_ERROR = 'X';
+
+    /**
+     * Event type for {@code XJCListener.warning}.
+     */
+    static final byte WARNING = 'W';
+
+    /**
+     * Event type for {@code XJCListener.info}.
+     */
+    static final byte INFO = 'I';
+
+    /**
+     * Event type for an exception thrown by XJC, holding its stack trace.
+     */
+    static final byte EXCEPTION = 'T';
+
+    /**
+     * Event type for the XJC exit code, which terminates the response.
+     */
+    static final byte EXIT_CODE = 'R';
+
+    /**
+     * Exit code sent when XJC threw an exception.
+     */
+    static final int EXCEPTION_EXIT_CODE = -1;
+
+    /*
+     * Hide constructor for utility classes.
+     */
+    private XjcWorkerProtocol() {
+        // Do nothing
+    }
+
+    /**
+     * Writes the supplied (nullable) string to the given stream.
+     *
+     * @param out    The stream to write to.
+     * @param string The string to write, or {@code null}.
+     * @throws IOException if the string could not be written.
+     */
+    static void writeString(final DataOutputStream out, final String string) throws IOException {
+
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = string.getBytes("UTF-8");
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a (nullable) string, as written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in The stream to read from.
+     * @return The string read, or {@code null}.
+     * @throws IOException if the string could not be read.
+     */
+    static String readString(final DataInputStream in) throws IOException {
+
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /**
+     * Writes an XJC SAXParseException event.
+     *
+     * @param out       The stream to write to.
+     * @param eventType One of {@link #ERROR}, {@link #FATAL_ERROR}, {@link #WARNING} and {@link #INFO}.
+     * @param exception The SAXParseException received by the XJCListener.
+     * @throws IOException if the event could not be written.
+     */
+    static void writeParseEvent(final DataOutputStream out,
+                                final byte eventType,
+                                final SAXParseException exception) throws IOException {
+
+        out.writeByte(eventType);
+        writeString(out, exception.getMessage());
+        writeString(out, exception.getPublicId());
+        writeString(out, exception.getSystemId());
+        out.writeInt(exception.getLineNumber());
+        out.writeInt(exception.getColumnNumber());
+    }
+
+    /**
+     * Reads the XJC events of a response, delegating each to the supplied XJCListener.
+     *
+     * @param in       The stream to read from.
+     * @param listener The XJCListener receiving all XJC events.
+     * @return The XJC exit code.
+     * @throws IOException           if the response could not be read.
+     * @throws IllegalStateException if XJC threw an exception within the worker JVM.
+     */
+    static int readResponse(final DataInputStream in, final XJCListener listener)
+            throws IOException, IllegalStateException {
+
+        String exceptionStackTrace = null;
+        while (true) {
+
+            final byte eventType = in.readByte();
+            switch (eventType) {
+
+                case GENERATED_FILE:
+                    listener.generatedFile(readString(in), in.readInt(), in.readInt());
+                    break;
+
+                case ERROR:
+                    listener.error(readParseException(in));
+                    break;
+
+                case FATAL_ERROR:
+                    listener.fatalError(readParseException(in));
+                    break;
+
+                case WARNING:
+                    listener.warning(readParseException(in));
+                    break;
+
+                case INFO:
+                    listener.info(readParseException(in));
+                    break;
+
+                case EXCEPTION:
+                    exceptionStackTrace = readString(in);
+                    break;
+
+                case EXIT_CODE:
+                    final int exitCode = in.readInt();
+                    if (exceptionStackTrace != null) {
+                        throw new IllegalStateException("XJC failed within the worker JVM: " + exceptionStackTrace);
+                    }
+                    return exitCode;
+
+                default:
+                    throw new IOException("Unknown XJC worker event type [" + eventType + "]");
+            }
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static SAXParseException readParseException(final DataInputStream in) throws IOException {
+
+        final String message = readString(in);
+        final String publicId = readString(in);
+        final String systemId = readString(in);
+        final int lineNumber = in.readInt();
+        final int columnNumber = in.readInt();
+
+        return new SAXParseException(message, publicId, systemId, lineNumber, columnNumber);
+    }
+}
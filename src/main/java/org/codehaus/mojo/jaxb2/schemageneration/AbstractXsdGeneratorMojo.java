@@ -20,18 +20,15 @@ package org.codehaus.mojo.jaxb2.schemageneration;
  */
 
 import com.sun.tools.jxc.SchemaGenerator;
-import com.thoughtworks.qdox.JavaProjectBuilder;
-import com.thoughtworks.qdox.model.JavaClass;
-import com.thoughtworks.qdox.model.JavaSource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.PostProcessingMode;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.DefaultJavaDocRenderer;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocExtractor;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocRenderer;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.SimpleNamespaceResolver;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.arguments.ArgumentBuilder;
@@ -45,9 +42,7 @@ import org.codehaus.plexus.util.FileUtils;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -95,18 +90,13 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
     public static final List<Filter<File>> CLASS_INCLUDE_FILTERS;
 
     static {
-
-        final List<Filter<File>> schemagenTmp = new ArrayList<Filter<File>>();
-        schemagenTmp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        schemagenTmp.add(new PatternFileFilter(Arrays.asList("\\.java", "\\.scala", "\\.mdo"), false));
-        STANDARD_BYTECODE_EXCLUDE_FILTERS = Collections.unmodifiableList(schemagenTmp);
-
-        CLASS_INCLUDE_FILTERS = new ArrayList<Filter<File>>();
-        CLASS_INCLUDE_FILTERS.add(new PatternFileFilter(Arrays.asList("\\.class"), true));
+        STANDARD_BYTECODE_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardBytecodeExcludeFilters());
+        CLASS_INCLUDE_FILTERS = createClassIncludeFilters();
     }
 
     // Internal state
     private static final int SCHEMAGEN_COMPLETED_OK = 0;
+    private static final String JAVADOC_CACHE_DIRECTORY = "javadoc-cache";
 
     /**
      * <p>A List holding desired schema mappings, each of which binds a schema namespace URI to its desired prefix
@@ -179,6 +169,35 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
     @Parameter
     protected JavaDocRenderer javaDocRenderer;
 
+    /**
+     * <p>Defines how the XSD files generated by the SchemaGenerator are post-processed, i.e. how JavaDoc is
+     * injected as XML documentation annotations and how the configured transformSchemas are applied.
+     * Permitted values are:</p>
+     * <dl>
+     * <dt>DOM</dt>
+     * <dd>Each generated XSD file is parsed into a DOM model, processed and written as pretty-printed XML.</dd>
+     * <dt>STREAMING</dt>
+     * <dd>Each generated XSD file is streamed through the post-processing, without building a DOM model.
+     * Use this mode for very large generated XSD files, as the memory required does not grow with the
+     * size of the XSD file. The formatting of the generated XSD file is retained.</dd>
+     * </dl>
+     *
+     * @see org.codehaus.mojo.jaxb2.schemageneration.postprocessing.PostProcessingMode
+     * @since 2.2
+     */
+    @Parameter(defaultValue = "DOM")
+    protected PostProcessingMode postProcessingMode;
+
+    /**
+     * <p>The maximum number of generated XSD files which are post-processed concurrently.
+     * Values less than 1 imply using one thread per available processor. Note that a custom
+     * {@code javaDocRenderer} must be thread-safe if more than one thread is used.</p>
+     *
+     * @since 2.2
+     */
+    @Parameter(defaultValue = "1")
+    protected int postProcessingThreads;
+
     /**
      * <p>Removes all files from the output directory before running SchemaGenerator.</p>
      *
@@ -217,65 +236,70 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
     protected boolean isReGenerationRequired() {
 
         //
-        // Use the stale flag method to identify if we should re-generate the XSDs from the sources.
+        // Use the staleness manifest to identify if we should re-generate the XSDs from the sources.
         // Basically, we should re-generate the XSDs if:
         //
-        // a) The staleFile does not exist
-        // b) The staleFile exists and is older than one of the sources (Java or XJB files).
-        //    "Older" is determined by comparing the modification timestamp of the staleFile and the source files.
+        // a) The staleFile does not exist, or does not contain a valid staleness manifest.
+        // b) The content of any Java source file differs from the one recorded in the staleFile.
+        // c) The effective SchemaGen arguments or post-processing configuration differ
+        //    from the ones recorded in the staleFile.
         //
-        final File staleFile = getStaleFile();
-        final String debugPrefix = "StaleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]";
-
-        boolean stale = !staleFile.exists();
-        if (stale) {
-            getLog().debug(debugPrefix + " not found. XML Schema (re-)generation required.");
-        } else {
-
-            final List<URL> sources = getSources();
-
-            if (getLog().isDebugEnabled()) {
-                getLog().debug(debugPrefix + " found. Checking timestamps on source Java "
-                        + "files to determine if XML Schema (re-)generation is required.");
+        final List<URL> inputs = new ArrayList<URL>();
+        final List<File> sourceFilesAndDirectories = new ArrayList<File>();
+        for (URL current : getSources()) {
+            if ("file".equalsIgnoreCase(current.getProtocol())) {
+                sourceFilesAndDirectories.add(FileSystemUtilities.getFileFor(current, getEncoding(false)));
+            } else {
+                inputs.add(current);
             }
+        }
+        for (File current : FileSystemUtilities.resolveRecursively(sourceFilesAndDirectories, null, getLog())) {
+            inputs.add(FileSystemUtilities.getUrlFor(current));
+        }
 
-            final long staleFileLastModified = staleFile.lastModified();
-            for (URL current : sources) {
+        final List<String> schemaGenArguments;
+        try {
 
-                final URLConnection sourceFileConnection;
-                try {
-                    sourceFileConnection = current.openConnection();
-                    sourceFileConnection.connect();
-                } catch (Exception e) {
+            final List<String> classPathElements = new ArrayList<String>(getClasspath());
+            classPathElements.addAll(getProject().getCompileSourceRoots());
 
-                    if (getLog().isDebugEnabled()) {
-                        getLog().debug("Could not open a sourceFileConnection to [" + current + "]", e);
-                    }
+            final StringBuilder classPath = new StringBuilder();
+            for (String current : classPathElements) {
+                classPath.append(classPath.length() == 0 ? "" : File.pathSeparator).append(current);
+            }
 
-                    // Can't determine if the staleFile is younger than this source.
-                    // Re-generate to be on the safe side.
-                    stale = true;
-                    break;
-                }
+            schemaGenArguments = new ArrayList<String>(Arrays.asList(
+                    getSchemaGenArguments(classPath.toString(), STANDARD_EPISODE_FILENAME, null, null)));
+        } catch (MojoExecutionException e) {
 
-                try {
-                    if (sourceFileConnection.getLastModified() > staleFileLastModified) {
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not synthesize SchemaGen arguments. XML Schema (re-)generation required.", e);
+            }
+            return true;
+        }
 
-                        if (getLog().isDebugEnabled()) {
-                            getLog().debug(current.toString() + " is newer than the stale flag file.");
-                        }
-                        stale = true;
-                    }
-                } finally {
-                    if (sourceFileConnection instanceof HttpURLConnection) {
-                        ((HttpURLConnection) sourceFileConnection).disconnect();
-                    }
-                }
+        // The post-processing configuration also defines the resulting XSDs.
+        schemaGenArguments.add("createJavaDocAnnotations=" + createJavaDocAnnotations);
+        schemaGenArguments.add("javaDocRenderer=" + (javaDocRenderer == null
+                ? STANDARD_JAVADOC_RENDERER.getClass().getName()
+                : javaDocRenderer.getClass().getName()));
+        schemaGenArguments.add("postProcessingMode=" + postProcessingMode);
+        if (transformSchemas != null) {
+            for (TransformSchema current : transformSchemas) {
+                schemaGenArguments.add("transformSchema=" + current);
             }
         }
 
         // All done.
-        return stale;
+        return isStale(inputs, schemaGenArguments);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isOutputDirectoryCleared() {
+        return clearOutputDir;
     }
 
     /**
@@ -289,9 +313,16 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
 
         try {
 
+            // Restore the generated (and post-processed) XSDs from the build cache, if possible.
+            if (restoreFromBuildCache(getGenerationDirectory(), clearOutputDir)) {
+
+                // Indicate that the output directory was updated.
+                refreshGeneratedFiles();
+                return true;
+            }
+
             // Configure the ThreadContextClassLoaderBuilder, to enable synthesizing a correct ClassPath for the tool.
-            final ThreadContextClassLoaderBuilder classLoaderBuilder = ThreadContextClassLoaderBuilder
-                    .createFor(this.getClass(), getLog())
+            final ThreadContextClassLoaderBuilder classLoaderBuilder = createClassLoaderBuilder()
                     .addPaths(getClasspath())
                     .addPaths(getProject().getCompileSourceRoots());
 
@@ -305,16 +336,30 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             // Setup the environment.
             environment.setup();
 
-            // Compile the SchemaGen arguments
+            // Compile the SchemaGen arguments, parsing the Java sources once into a model which is
+            // re-used when extracting JavaDoc during XSD post-processing. The JavaDoc extracted from
+            // unchanged sources is retrieved from the cache instead of being parsed again.
             final List<URL> sources = getSources();
+            final List<File> sourceFolders = new ArrayList<File>();
+            for (String current : getProject().getCompileSourceRoots()) {
+                final File currentFolder = new File(current);
+                if (currentFolder.isDirectory()) {
+                    sourceFolders.add(currentFolder);
+                }
+            }
+            final JavaDocExtractor sourceModel = new JavaDocExtractor(getLog(),
+                    new File(staleFileDirectory, JAVADOC_CACHE_DIRECTORY),
+                    sourceFolders,
+                    getEncoding(true));
             final String[] schemaGenArguments = getSchemaGenArguments(
                     environment.getClassPathAsArgument(),
                     STANDARD_EPISODE_FILENAME,
-                    sources);
+                    sources,
+                    sourceModel);
 
             // Ensure that the outputDirectory and workDirectory exists.
             // Clear them if configured to do so.
-            FileSystemUtilities.createDirectory(getOutputDirectory(), clearOutputDir);
+            FileSystemUtilities.createDirectory(getGenerationDirectory(), clearOutputDir);
             FileSystemUtilities.createDirectory(getWorkDirectory(), clearOutputDir);
 
             // Do we need to re-create the episode file's parent directory.
@@ -353,7 +398,7 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
 
                     // Get the path to the current file
                     final String currentPath = FileSystemUtilities.getCanonicalPath(current.getAbsoluteFile());
-                    final File target = new File(getOutputDirectory(),
+                    final File target = new File(getGenerationDirectory(),
                             FileSystemUtilities.relativize(currentPath, getWorkDirectory()));
 
                     // Copy the file to the same relative structure within the output directory.
@@ -362,7 +407,8 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                 }
 
                 //
-                // The XSD post-processing should be applied in the following order:
+                // The XSD post-processing is applied in a single pass over each generated XSD,
+                // in the following order:
                 //
                 // 1. [XsdAnnotationProcessor]:         Inject JavaDoc annotations.
                 // 2. [ChangeNamespacePrefixProcessor]: Change namespace prefixes within XSDs.
@@ -372,70 +418,35 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                 final boolean performPostProcessing = createJavaDocAnnotations || transformSchemas != null;
                 if (performPostProcessing) {
 
-                    // Map the XML Namespaces to their respective XML URIs (and reverse)
-                    // The keys are the generated 'vanilla' XSD file names.
-                    final Map<String, SimpleNamespaceResolver> resolverMap =
-                            XsdGeneratorHelper.getFileNameToResolverMap(getOutputDirectory());
-
+                    SearchableDocumentation javaDocs = null;
                     if (createJavaDocAnnotations) {
 
                         if (getLog().isInfoEnabled()) {
                             getLog().info("XSD post-processing: Adding JavaDoc annotations in generated XSDs.");
                         }
 
-                        // Resolve the sources
-                        final List<File> fileSources = new ArrayList<File>();
-                        for (URL current : sources) {
-                            if ("file".equalsIgnoreCase(current.getProtocol())) {
-                                final File toAdd = new File(current.getPath());
-                                if (toAdd.exists()) {
-                                    fileSources.add(toAdd);
-                                } else {
-                                    if (getLog().isWarnEnabled()) {
-                                        getLog().warn("Ignoring URL [" + current + "] as it is a nonexistent file.");
-                                    }
-                                }
-                            }
-                        }
-
-                        final List<File> files = FileSystemUtilities.resolveRecursively(
-                                fileSources, null, getLog());
-
-                        // Acquire JavaDocs
-                        final JavaDocExtractor extractor = new JavaDocExtractor(getLog()).addSourceFiles(files);
-                        final SearchableDocumentation javaDocs = extractor.process();
-
-                        // Modify the 'vanilla' generated XSDs by inserting the JavaDoc as annotations
-                        final JavaDocRenderer renderer = javaDocRenderer == null
-                                ? STANDARD_JAVADOC_RENDERER
-                                : javaDocRenderer;
-                        final int numProcessedFiles = XsdGeneratorHelper.insertJavaDocAsAnnotations(getLog(),
-                                getOutputDirectory(),
-                                javaDocs,
-                                renderer);
-
-                        if (getLog().isDebugEnabled()) {
-                            getLog().info("XSD post-processing: " + numProcessedFiles + " files processed.");
-                        }
+                        // Acquire JavaDocs from the Java sources parsed when compiling the SchemaGen arguments.
+                        javaDocs = sourceModel.process();
                     }
 
-                    if (transformSchemas != null) {
+                    if (transformSchemas != null && getLog().isInfoEnabled()) {
+                        getLog().info("XSD post-processing: Renaming and converting XSDs.");
+                    }
 
-                        if (getLog().isInfoEnabled()) {
-                            getLog().info("XSD post-processing: Renaming and converting XSDs.");
-                        }
+                    // Modify the 'vanilla' generated XSDs, and rename them as requested.
+                    final JavaDocRenderer renderer = javaDocRenderer == null
+                            ? STANDARD_JAVADOC_RENDERER
+                            : javaDocRenderer;
+                    final int numProcessedFiles = XsdGeneratorHelper.postProcessGeneratedSchemas(getLog(),
+                            getGenerationDirectory(),
+                            javaDocs,
+                            renderer,
+                            transformSchemas,
+                            postProcessingMode == null ? PostProcessingMode.DOM : postProcessingMode,
+                            postProcessingThreads);
 
-                        // Transform all namespace prefixes as requested.
-                        XsdGeneratorHelper.replaceNamespacePrefixes(resolverMap,
-                                transformSchemas,
-                                getLog(),
-                                getOutputDirectory());
-
-                        // Rename all generated schema files as requested.
-                        XsdGeneratorHelper.renameGeneratedSchemaFiles(resolverMap,
-                                transformSchemas,
-                                getLog(),
-                                getOutputDirectory());
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug("XSD post-processing: " + numProcessedFiles + " files processed.");
                     }
                 }
 
@@ -448,8 +459,13 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                 printSchemaGenCommandAndThrowException(projectBasedirPath, sources, schemaGenArguments, -1, e);
             }
 
+            // Store the generated XSDs in the build cache, unless they may be mixed with older files.
+            if (clearOutputDir) {
+                storeInBuildCache(getGenerationDirectory());
+            }
+
             // Indicate that the output directory was updated.
-            getBuildContext().refresh(getOutputDirectory());
+            refreshGeneratedFiles();
 
             // Update the modification timestamp of the staleFile.
             updateStaleFileTimestamp = true;
@@ -490,17 +506,41 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
      * @return A non-null List holding URLs to sources for the XSD generation.
      */
     @Override
-    protected abstract List<URL> getSources();
+    protected abstract List<URL> resolveSources();
+
+    /**
+     * Creates a List holding new instances of the standard exclude Filters for compiled bytecode, as found in
+     * {@link #STANDARD_BYTECODE_EXCLUDE_FILTERS}.
+     *
+     * @return A new List of uninitialized Filters.
+     * @since 2.2
+     */
+    protected static List<Filter<File>> createStandardBytecodeExcludeFilters() {
+        return createStandardExcludeFilters(
+                new PatternFileFilter(Arrays.asList("\\.java", "\\.scala", "\\.mdo"), false));
+    }
 
     //
     // Private helpers
     //
 
+    private static List<Filter<File>> createClassIncludeFilters() {
+
+        final List<Filter<File>> toReturn = new ArrayList<Filter<File>>();
+        toReturn.add(new PatternFileFilter(Arrays.asList("\\.class"), true));
+        return toReturn;
+    }
+
     private String[] getSchemaGenArguments(final String classPath,
                                            final String episodeFileNameOrNull,
-                                           final List<URL> sources)
+                                           final List<URL> sourcesOrNull,
+                                           final JavaDocExtractor sourceModelOrNull)
             throws MojoExecutionException {
 
+        // The SchemaGen arguments are synthesized without sources when checking staleness,
+        // since the sources are fingerprinted separately.
+        final boolean forStalenessCheck = sourcesOrNull == null;
+
         final ArgumentBuilder builder = new ArgumentBuilder();
 
         // Add all flags on the form '-flagName'
@@ -508,15 +548,23 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
 
         // Add all arguments on the form '-argumentName argumentValue'
         // (i.e. in 2 separate elements of the returned String[])
-        builder.withNamedArgument("encoding", getEncoding(true));
+        builder.withNamedArgument("encoding", getEncoding(!forStalenessCheck));
         builder.withNamedArgument("d", getWorkDirectory().getAbsolutePath());
         builder.withNamedArgument("classpath", classPath);
 
         if (episodeFileNameOrNull != null) {
-            final File episodeFile = getEpisodeFile(episodeFileNameOrNull);
+
+            // Don't create the episode file's parent directory when only checking staleness.
+            final File episodeFile = forStalenessCheck
+                    ? new File(new File(getOutputDirectory(), "META-INF"), episodeFileNameOrNull)
+                    : getEpisodeFile(episodeFileNameOrNull);
             builder.withNamedArgument("episode", FileSystemUtilities.getCanonicalPath(episodeFile));
         }
 
+        if (forStalenessCheck) {
+            return builder.build();
+        }
+
         try {
 
             //
@@ -537,7 +585,7 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             //
             // The jaxb2-maven-plugin uses these two methods in the order given.
             //
-            builder.withPreCompiledArguments(getSchemaGeneratorSourceFiles(sources));
+            builder.withPreCompiledArguments(getSchemaGeneratorSourceFiles(sourcesOrNull, sourceModelOrNull));
         } catch (IOException e) {
             throw new MojoExecutionException("Could not compile source paths for the SchemaGenerator", e);
         }
@@ -566,14 +614,17 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
      * </dl>
      * <p>The jaxb2-maven-plugin uses these two methods in the order given</p>
      *
-     * @param sources The compiled sources (as calculated from the local project's
-     *                source paths, {@code getSources()}).
+     * @param sources     The compiled sources (as calculated from the local project's
+     *                    source paths, {@code getSources()}).
+     * @param sourceModel The JavaDocExtractor to which all Java sources are added, and from which their class
+     *                    names are read. Re-used to extract JavaDoc, implying that the sources are parsed once.
      * @return A sorted List holding all sources to be used by the SchemaGenerator. According to the SchemaGenerator
      * documentation, the order in which the source arguments are provided is irrelevant.
      * The sources are to be rendered as the final (open-ended) argument to the schemagen execution.
      * @see #getSources()
      */
-    private List<String> getSchemaGeneratorSourceFiles(final List<URL> sources)
+    private List<String> getSchemaGeneratorSourceFiles(final List<URL> sources,
+                                                       final JavaDocExtractor sourceModel)
             throws IOException, MojoExecutionException {
 
         final SortedMap<String, String> className2SourcePath = new TreeMap<String, String>();
@@ -581,9 +632,19 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
         final File userDir = new File(System.getProperty("user.dir"));
 
         // 1) Find/add all sources available in the compilation unit.
+        final List<File> sourceCodeFiles = new ArrayList<File>();
         for (URL current : sources) {
+            sourceCodeFiles.add(FileSystemUtilities.getFileFor(current, getEncoding(false)));
+        }
 
-            final File sourceCodeFile = FileSystemUtilities.getFileFor(current, getEncoding(false));
+        // Parse all sources, to find the Java class(es) within each source.
+        try {
+            sourceModel.addSourceFiles(sourceCodeFiles);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Could not parse Java sources", e);
+        }
+
+        for (File sourceCodeFile : sourceCodeFiles) {
 
             // Calculate the relative path for the current source
             final String relativePath = FileSystemUtilities.relativize(
@@ -599,25 +660,16 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                         + ". (baseDir: " + FileSystemUtilities.getCanonicalPath(baseDir) + "]");
             }
 
-            // Find the Java class(es) within the source.
-            final JavaProjectBuilder builder = new JavaProjectBuilder();
-            builder.addSource(sourceCodeFile);
-            builder.setEncoding(getEncoding(true));
-
             // Map any found FQCN to the relativized path of its source file.
-            for (JavaSource currentJavaSource : builder.getSources()) {
-                for (JavaClass currentJavaClass : currentJavaSource.getClasses()) {
-
-                    final String className = currentJavaClass.getFullyQualifiedName();
-                    if (className2SourcePath.containsKey(className)) {
-                        if (getLog().isWarnEnabled()) {
-                            getLog().warn("Already mapped. Source class [" + className + "] within ["
-                                    + className2SourcePath.get(className)
-                                    + "]. Not overwriting with [" + relativePath + "]");
-                        }
-                    } else {
-                        className2SourcePath.put(className, relativePath);
+            for (String className : sourceModel.getClassNames(sourceCodeFile)) {
+                if (className2SourcePath.containsKey(className)) {
+                    if (getLog().isWarnEnabled()) {
+                        getLog().warn("Already mapped. Source class [" + className + "] within ["
+                                + className2SourcePath.get(className)
+                                + "]. Not overwriting with [" + relativePath + "]");
                     }
+                } else {
+                    className2SourcePath.put(className, relativePath);
                 }
             }
         }
@@ -637,7 +689,8 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             getLog().debug(" (compiled ClassName) --> " + current.toExternalForm());
         }
 
-        Filters.initialize(getLog(), CLASS_INCLUDE_FILTERS);
+        final List<Filter<File>> classIncludeFilters = createClassIncludeFilters();
+        Filters.initialize(getLog(), classIncludeFilters);
 
         final List<URL> classPathURLs = new ArrayList<URL>();
         for (String current : getClasspath()) {
@@ -662,7 +715,7 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                 for(File currentResolvedFile : FileSystemUtilities.resolveRecursively(
                         Arrays.asList(currentFile), null, getLog())) {
 
-                    if(Filters.matchAtLeastOnce(currentResolvedFile, CLASS_INCLUDE_FILTERS)) {
+                    if(Filters.matchAtLeastOnce(currentResolvedFile, classIncludeFilters)) {
                         byteCodeFiles.add(currentResolvedFile);
                     }
                 }
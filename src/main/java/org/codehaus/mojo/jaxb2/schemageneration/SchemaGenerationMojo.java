@@ -25,7 +25,6 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
-import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.Filters;
@@ -33,7 +32,6 @@ import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
 
 import java.io.File;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -68,11 +66,7 @@ public class SchemaGenerationMojo extends AbstractXsdGeneratorMojo {
     public static final List<Filter<File>> STANDARD_SOURCE_EXCLUDE_FILTERS;
 
     static {
-
-        final List<Filter<File>> srcTemp = new ArrayList<Filter<File>>();
-        srcTemp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        srcTemp.add(new PatternFileFilter(Arrays.asList("\\.xjb", "\\.xsd", "\\.properties"), true));
-        STANDARD_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(srcTemp);
+        STANDARD_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardSourceExcludeFilters());
     }
 
     /**
@@ -168,7 +162,7 @@ public class SchemaGenerationMojo extends AbstractXsdGeneratorMojo {
     protected List<URL> getCompiledClassNames() {
 
         List<Filter<File>> excludeFilters = schemaSourceExcludeFilters == null
-                ? STANDARD_BYTECODE_EXCLUDE_FILTERS
+                ? createStandardBytecodeExcludeFilters()
                 : schemaSourceExcludeFilters;
         Filters.initialize(getLog(), excludeFilters);
 
@@ -189,7 +183,7 @@ public class SchemaGenerationMojo extends AbstractXsdGeneratorMojo {
      * {@inheritDoc}
      */
     @Override
-    protected List<URL> getSources() {
+    protected List<URL> resolveSources() {
 
         /*
         // TODO: Add source-classified Artifacts in classpath?
@@ -199,7 +193,7 @@ public class SchemaGenerationMojo extends AbstractXsdGeneratorMojo {
         */
 
         final List<Filter<File>> sourceExcludes = schemaSourceExcludeFilters == null
-                ? STANDARD_SOURCE_EXCLUDE_FILTERS
+                ? createStandardSourceExcludeFilters()
                 : schemaSourceExcludeFilters;
         Filters.initialize(getLog(), sourceExcludes);
 
@@ -253,4 +247,13 @@ public class SchemaGenerationMojo extends AbstractXsdGeneratorMojo {
     protected File getWorkDirectory() {
         return workDirectory;
     }
+
+    //
+    // Private helpers
+    //
+
+    private static List<Filter<File>> createStandardSourceExcludeFilters() {
+        return createStandardExcludeFilters(
+                new PatternFileFilter(Arrays.asList("\\.xjb", "\\.xsd", "\\.properties"), true));
+    }
 }
@@ -25,7 +25,6 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
-import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.Filters;
@@ -33,7 +32,6 @@ import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
 
 import java.io.File;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -68,11 +66,7 @@ public class TestSchemaGenerationMojo extends AbstractXsdGeneratorMojo {
     public static final List<Filter<File>> STANDARD_TEST_SOURCE_EXCLUDE_FILTERS;
 
     static {
-
-        final List<Filter<File>> testSrcTemp = new ArrayList<Filter<File>>();
-        testSrcTemp.addAll(AbstractJaxbMojo.STANDARD_EXCLUDE_FILTERS);
-        testSrcTemp.add(new PatternFileFilter(Arrays.asList("\\.xjb", "\\.xsd", "\\.properties"), true));
-        STANDARD_TEST_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(testSrcTemp);
+        STANDARD_TEST_SOURCE_EXCLUDE_FILTERS = Collections.unmodifiableList(createStandardSourceExcludeFilters());
     }
 
     /**
@@ -167,7 +161,7 @@ public class TestSchemaGenerationMojo extends AbstractXsdGeneratorMojo {
     protected List<URL> getCompiledClassNames() {
 
         final List<Filter<File>> excludeFilters = testSchemaSourceExcludeFilters == null
-                ? STANDARD_BYTECODE_EXCLUDE_FILTERS
+                ? createStandardBytecodeExcludeFilters()
                 : testSchemaSourceExcludeFilters;
         Filters.initialize(getLog(), excludeFilters);
 
@@ -205,10 +199,10 @@ public class TestSchemaGenerationMojo extends AbstractXsdGeneratorMojo {
      * {@inheritDoc}
      */
     @Override
-    protected List<URL> getSources() {
+    protected List<URL> resolveSources() {
 
         final List<Filter<File>> excludeFilters = testSchemaSourceExcludeFilters == null
-                ? STANDARD_TEST_SOURCE_EXCLUDE_FILTERS
+                ? createStandardSourceExcludeFilters()
                 : testSchemaSourceExcludeFilters;
         Filters.initialize(getLog(), excludeFilters);
 
@@ -244,4 +238,13 @@ public class TestSchemaGenerationMojo extends AbstractXsdGeneratorMojo {
     protected File getWorkDirectory() {
         return testWorkDirectory;
     }
+
+    //
+    // Private helpers
+    //
+
+    private static List<Filter<File>> createStandardSourceExcludeFilters() {
+        return createStandardExcludeFilters(
+                new PatternFileFilter(Arrays.asList("\\.xjb", "\\.xsd", "\\.properties"), true));
+    }
 }
@@ -22,6 +22,8 @@ package org.codehaus.mojo.jaxb2.schemageneration;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.NodeProcessor;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.PostProcessingMode;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.StreamingSchemaProcessor;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocRenderer;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.XsdAnnotationProcessor;
@@ -40,9 +42,12 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -58,9 +63,16 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Utility class holding algorithms used when generating XSD schema.
@@ -187,183 +199,265 @@ public final class XsdGeneratorHelper {
     }
 
     /**
-     * Inserts XML documentation annotations into all generated XSD files found within the
-     * supplied outputDir.
+     * <p>Post-processes all generated XSD files found within the supplied outputDir, parsing and writing each
+     * file only once. Each parsed document is processed by an ordered chain of NodeProcessors:</p>
+     * <ol>
+     * <li><strong>XsdAnnotationProcessor</strong>: Injects JavaDoc as XML documentation annotations,
+     * provided that the docs argument is non-null.</li>
+     * <li><strong>ChangeNamespacePrefixProcessor</strong>: Changes namespace prefixes as instructed by the
+     * configured TransformSchemas.</li>
+     * <li><strong>ChangeFilenameProcessor</strong>: Changes schemaLocation attributes as instructed by the
+     * configured TransformSchemas.</li>
+     * </ol>
+     * <p>Finally, the generated schema files are renamed as instructed by the configured TransformSchemas.
+     * Namespace prefix and file name transformations are only applied to XSD files directly within
+     * the outputDir. In {@link PostProcessingMode#STREAMING} mode, the same transformations are performed by a
+     * StreamingSchemaProcessor, without building any DOM model.</p>
+     * <p>As the processing of each XSD file is independent of all other XSD files, files may be processed
+     * concurrently. Log output is emitted in file order when all files are processed, irrespective of
+     * the number of threads used; the supplied JavaDocRenderer must therefore be thread-safe.</p>
      *
-     * @param log       A Maven Log.
-     * @param outputDir The outputDir, where generated XSD files are found.
-     * @param docs      The SearchableDocumentation for the source files within the compilation unit.
-     * @param renderer  The JavaDocRenderer used to convert JavaDoc annotations into XML documentation annotations.
+     * @param log                        The active Maven Log.
+     * @param outputDir                  The outputDir, where generated XSD files are found.
+     * @param docs                       The SearchableDocumentation for the source files within the compilation
+     *                                   unit, or {@code null} if no JavaDoc annotations should be inserted.
+     * @param renderer                   The JavaDocRenderer used to convert JavaDoc annotations into XML
+     *                                   documentation annotations. Ignored if docs is {@code null}.
+     * @param configuredTransformSchemas The Schema instances read from the configuration of this plugin, or
+     *                                   {@code null} if no namespace prefix or file name transformations
+     *                                   should be done.
+     * @param mode                       The PostProcessingMode defining how each XSD file is processed.
+     * @param numThreads                 The maximum number of XSD files processed concurrently. Values less than 1
+     *                                   imply using one thread per available processor.
      * @return The number of processed XSDs.
+     * @throws MojoExecutionException If a namespace prefix replacement could not be done.
+     * @since 2.2
      */
-    public static int insertJavaDocAsAnnotations(final Log log,
-                                                 final File outputDir,
-                                                 final SearchableDocumentation docs,
-                                                 final JavaDocRenderer renderer) {
+    public static int postProcessGeneratedSchemas(final Log log,
+                                                  final File outputDir,
+                                                  final SearchableDocumentation docs,
+                                                  final JavaDocRenderer renderer,
+                                                  final List<TransformSchema> configuredTransformSchemas,
+                                                  final PostProcessingMode mode,
+                                                  final int numThreads)
+            throws MojoExecutionException {
 
         // Check sanity
-        Validate.notNull(docs, "docs");
         Validate.notNull(log, "log");
         Validate.notNull(outputDir, "outputDir");
+        Validate.notNull(mode, "mode");
         Validate.isTrue(outputDir.isDirectory(), "'outputDir' must be a Directory.");
-        Validate.notNull(renderer, "renderer");
 
-        int processedXSDs = 0;
-        final List<File> foundFiles = new ArrayList<File>();
-        addRecursively(foundFiles, RECURSIVE_XSD_FILTER, outputDir);
+        final List<File> foundFiles = FileSystemUtilities.walkFileTree(outputDir, RECURSIVE_XSD_FILTER, log);
 
-        if (foundFiles.size() > 0) {
+        if (foundFiles.isEmpty()) {
+            if (log.isWarnEnabled()) {
+                log.warn("Found no generated 'vanilla' XSD files to process under ["
+                        + FileSystemUtilities.getCanonicalPath(outputDir) + "]. Aborting processing.");
+            }
+            return 0;
+        }
 
-            // Create the processor.
-            final XsdAnnotationProcessor processor = new XsdAnnotationProcessor(docs, renderer);
+        // Create the processors shared by all files.
+        XsdAnnotationProcessor annotationProcessor = null;
+        if (docs != null) {
+            Validate.notNull(renderer, "renderer");
+            annotationProcessor = new XsdAnnotationProcessor(docs, renderer);
+        }
 
-            for (File current : foundFiles) {
+        final Map<String, String> namespaceUriToDesiredFilenameMap = new TreeMap<String, String>();
+        NodeProcessor filenameProcessor = null;
+        if (configuredTransformSchemas != null) {
+            for (TransformSchema current : configuredTransformSchemas) {
+                if (StringUtils.isNotEmpty(current.getToFile())) {
+                    namespaceUriToDesiredFilenameMap.put(current.getUri(), current.getToFile());
+                }
+            }
+            filenameProcessor = new ChangeFilenameProcessor(namespaceUriToDesiredFilenameMap);
+        }
 
-                // Create an XSD document from the current File.
-                final Document generatedSchemaFileDocument = parseXmlToDocument(current);
+        // Create one PostProcessingTask per found file.
+        final List<PostProcessingTask> tasks = new ArrayList<PostProcessingTask>();
+        for (File current : foundFiles) {
+            tasks.add(new PostProcessingTask(current,
+                    outputDir,
+                    annotationProcessor,
+                    filenameProcessor,
+                    namespaceUriToDesiredFilenameMap,
+                    configuredTransformSchemas,
+                    mode));
+        }
 
-                // Replace all namespace prefixes within the provided document.
-                process(generatedSchemaFileDocument.getFirstChild(), true, processor);
-                processedXSDs++;
+        final int effectiveNumThreads = Math.min(tasks.size(),
+                numThreads < 1 ? Runtime.getRuntime().availableProcessors() : numThreads);
+        if (effectiveNumThreads <= 1) {
+            for (PostProcessingTask current : tasks) {
+                current.call();
+            }
+        } else {
 
-                // Overwrite the vanilla file.
-                savePrettyPrintedDocument(generatedSchemaFileDocument, current);
+            if (log.isDebugEnabled()) {
+                log.debug("Post-processing " + tasks.size() + " XSD files using " + effectiveNumThreads
+                        + " threads.");
             }
 
-        } else {
-            if (log.isWarnEnabled()) {
-                log.warn("Found no generated 'vanilla' XSD files to process under ["
-                        + FileSystemUtilities.getCanonicalPath(outputDir) + "]. Aborting processing.");
+            final ExecutorService executor = Executors.newFixedThreadPool(effectiveNumThreads);
+            try {
+                for (Future<PostProcessingTask> current : executor.invokeAll(tasks)) {
+                    try {
+                        current.get();
+                    } catch (ExecutionException e) {
+
+                        // Re-throw the failure of the first failing file.
+                        final Throwable cause = e.getCause();
+                        if (cause instanceof MojoExecutionException) {
+                            throw (MojoExecutionException) cause;
+                        } else if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        throw new MojoExecutionException("Could not post-process generated XSD files.", cause);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while post-processing generated XSD files.", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Emit the log output in file order, and collect all files to rename.
+        final Map<File, File> renamedFiles = new TreeMap<File, File>();
+        for (PostProcessingTask current : tasks) {
+
+            if (current.aborted && log.isWarnEnabled()) {
+                log.warn("SimpleNamespaceResolver contained no localNamespaceURI; aborting rename.");
+            }
+
+            if (log.isDebugEnabled()) {
+                for (String currentMessage : current.debugMessages) {
+                    log.debug(currentMessage);
+                }
+            }
+
+            if (current.renamedFile != null) {
+                renamedFiles.put(current.schemaFile, current.renamedFile);
+            }
+        }
+
+        // Now, rename the actual files.
+        for (Map.Entry<File, File> current : renamedFiles.entrySet()) {
+
+            final File originalFile = current.getKey();
+            final File renamedFile = current.getValue();
+            final String renameResult = (originalFile.renameTo(renamedFile) ? "Success " : "Failure ");
+
+            if (log.isDebugEnabled()) {
+                log.debug(renameResult + "renaming [" + originalFile.getAbsolutePath() + "] to ["
+                        + renamedFile + "]");
             }
         }
 
         // All done.
-        return processedXSDs;
+        return foundFiles.size();
+    }
+
+    /**
+     * Inserts XML documentation annotations into all generated XSD files found within the
+     * supplied outputDir.
+     *
+     * @param log       A Maven Log.
+     * @param outputDir The outputDir, where generated XSD files are found.
+     * @param docs      The SearchableDocumentation for the source files within the compilation unit.
+     * @param renderer  The JavaDocRenderer used to convert JavaDoc annotations into XML documentation annotations.
+     * @return The number of processed XSDs.
+     * @deprecated Use {@link #postProcessGeneratedSchemas(Log, File, SearchableDocumentation, JavaDocRenderer, List,
+     * PostProcessingMode, int)}, which performs all post-processing of each generated XSD file in a single pass.
+     */
+    @Deprecated
+    public static int insertJavaDocAsAnnotations(final Log log,
+                                                 final File outputDir,
+                                                 final SearchableDocumentation docs,
+                                                 final JavaDocRenderer renderer) {
+
+        // Check sanity
+        Validate.notNull(docs, "docs");
+        Validate.notNull(renderer, "renderer");
+
+        try {
+            return postProcessGeneratedSchemas(log, outputDir, docs, renderer, null, PostProcessingMode.DOM, 1);
+        } catch (MojoExecutionException e) {
+
+            // Only namespace prefix replacements can fail, and none are done here.
+            throw new IllegalStateException("Could not insert JavaDoc annotations into generated XSD files.", e);
+        }
     }
 
     /**
      * Replaces all namespaces within generated schema files, as instructed by the configured Schema instances.
      *
-     * @param resolverMap                The map relating generated schema file name to SimpleNamespaceResolver instances.
+     * @param resolverMap                Ignored; the namespaces of each generated schema file are resolved as it
+     *                                   is processed.
      * @param configuredTransformSchemas The Schema instances read from the configuration of this plugin.
      * @param mavenLog                   The active Log.
      * @param schemaDirectory            The directory where all generated schema files reside.
      * @throws MojoExecutionException If the namespace replacement could not be done.
+     * @deprecated Use {@link #postProcessGeneratedSchemas(Log, File, SearchableDocumentation, JavaDocRenderer, List,
+     * PostProcessingMode, int)}, which performs all post-processing of each generated XSD file in a single pass.
      */
+    @Deprecated
     public static void replaceNamespacePrefixes(final Map<String, SimpleNamespaceResolver> resolverMap,
                                                 final List<TransformSchema> configuredTransformSchemas,
                                                 final Log mavenLog,
                                                 final File schemaDirectory)
             throws MojoExecutionException {
 
-        if (mavenLog.isDebugEnabled()) {
-            mavenLog.debug("Got resolverMap.keySet() [generated filenames]: " + resolverMap.keySet());
-        }
-
-        for (SimpleNamespaceResolver currentResolver : resolverMap.values()) {
-            File generatedSchemaFile = new File(schemaDirectory, currentResolver.getSourceFilename());
-            Document generatedSchemaFileDocument = null;
-
-            for (TransformSchema currentTransformSchema : configuredTransformSchemas) {
-                // Should we alter the namespace prefix as instructed by the current schema?
-                final String newPrefix = currentTransformSchema.getToPrefix();
-                final String currentUri = currentTransformSchema.getUri();
-
-                if (StringUtils.isNotEmpty(newPrefix)) {
-                    // Find the old/current prefix of the namespace for the current schema uri.
-                    final String oldPrefix = currentResolver.getNamespaceURI2PrefixMap().get(currentUri);
-
-                    if (StringUtils.isNotEmpty(oldPrefix)) {
-                        // Can we perform the prefix substitution?
-                        validatePrefixSubstitutionIsPossible(oldPrefix, newPrefix, currentResolver);
-
-                        if (mavenLog.isDebugEnabled()) {
-                            mavenLog.debug("Subtituting namespace prefix [" + oldPrefix + "] with [" + newPrefix
-                                    + "] in file [" + currentResolver.getSourceFilename() + "].");
-                        }
-
-                        // Get the Document of the current schema file.
-                        if (generatedSchemaFileDocument == null) {
-                            generatedSchemaFileDocument = parseXmlToDocument(generatedSchemaFile);
-                        }
-
-                        // Replace all namespace prefixes within the provided document.
-                        process(generatedSchemaFileDocument.getFirstChild(), true,
-                                new ChangeNamespacePrefixProcessor(oldPrefix, newPrefix));
-                    }
-                }
-            }
+        // Check sanity
+        Validate.notNull(configuredTransformSchemas, "configuredTransformSchemas");
 
-            if (generatedSchemaFileDocument != null) {
-                // Overwrite the generatedSchemaFile with the content of the generatedSchemaFileDocument.
-                mavenLog.debug("Overwriting file [" + currentResolver.getSourceFilename() + "] with content ["
-                        + getHumanReadableXml(generatedSchemaFileDocument) + "]");
-                savePrettyPrintedDocument(generatedSchemaFileDocument, generatedSchemaFile);
-            } else {
-                mavenLog.debug("No namespace prefix changes to generated schema file ["
-                        + generatedSchemaFile.getName() + "]");
-            }
+        // Only replace namespace prefixes; don't rename any files.
+        final List<TransformSchema> prefixTransforms = new ArrayList<TransformSchema>();
+        for (TransformSchema current : configuredTransformSchemas) {
+            prefixTransforms.add(new TransformSchema(current.getUri(), current.getToPrefix(), null));
         }
+
+        postProcessGeneratedSchemas(mavenLog, schemaDirectory, null, null, prefixTransforms,
+                PostProcessingMode.DOM, 1);
     }
 
     /**
      * Updates all schemaLocation attributes within the generated schema files to match the 'file' properties within the
      * Schemas read from the plugin configuration. After that, the files are physically renamed.
      *
-     * @param resolverMap                The map relating generated schema file name to SimpleNamespaceResolver instances.
+     * @param resolverMap                Ignored; the namespaces of each generated schema file are resolved as it
+     *                                   is processed.
      * @param configuredTransformSchemas The Schema instances read from the configuration of this plugin.
      * @param mavenLog                   The active Log.
      * @param schemaDirectory            The directory where all generated schema files reside.
+     * @deprecated Use {@link #postProcessGeneratedSchemas(Log, File, SearchableDocumentation, JavaDocRenderer, List,
+     * PostProcessingMode, int)}, which performs all post-processing of each generated XSD file in a single pass.
      */
+    @Deprecated
     public static void renameGeneratedSchemaFiles(final Map<String, SimpleNamespaceResolver> resolverMap,
                                                   final List<TransformSchema> configuredTransformSchemas,
                                                   final Log mavenLog, final File schemaDirectory) {
-        // Create the map relating namespace URI to desired filenames.
-        Map<String, String> namespaceUriToDesiredFilenameMap = new TreeMap<String, String>();
-        for (TransformSchema current : configuredTransformSchemas) {
-            if (StringUtils.isNotEmpty(current.getToFile())) {
-                namespaceUriToDesiredFilenameMap.put(current.getUri(), current.getToFile());
-            }
-        }
-
-        // Replace the schemaLocation values to correspond to the new filenames
-        for (SimpleNamespaceResolver currentResolver : resolverMap.values()) {
-            File generatedSchemaFile = new File(schemaDirectory, currentResolver.getSourceFilename());
-            Document generatedSchemaFileDocument = parseXmlToDocument(generatedSchemaFile);
 
-            // Replace all namespace prefixes within the provided document.
-            process(generatedSchemaFileDocument.getFirstChild(), true,
-                    new ChangeFilenameProcessor(namespaceUriToDesiredFilenameMap));
+        // Check sanity
+        Validate.notNull(configuredTransformSchemas, "configuredTransformSchemas");
 
-            // Overwrite the generatedSchemaFile with the content of the generatedSchemaFileDocument.
-            if (mavenLog.isDebugEnabled()) {
-                mavenLog.debug("Changed schemaLocation entries within [" + currentResolver.getSourceFilename() + "]. "
-                        + "Result: [" + getHumanReadableXml(generatedSchemaFileDocument) + "]");
-            }
-            savePrettyPrintedDocument(generatedSchemaFileDocument, generatedSchemaFile);
+        // Only rename files; don't replace any namespace prefixes.
+        final List<TransformSchema> fileTransforms = new ArrayList<TransformSchema>();
+        for (TransformSchema current : configuredTransformSchemas) {
+            fileTransforms.add(new TransformSchema(current.getUri(), null, current.getToFile()));
         }
 
-        // Now, rename the actual files.
-        for (SimpleNamespaceResolver currentResolver : resolverMap.values()) {
-            final String localNamespaceURI = currentResolver.getLocalNamespaceURI();
-
-            if (StringUtils.isEmpty(localNamespaceURI)) {
-                mavenLog.warn("SimpleNamespaceResolver contained no localNamespaceURI; aborting rename.");
-                continue;
-            }
-
-            final String newFilename = namespaceUriToDesiredFilenameMap.get(localNamespaceURI);
-            final File originalFile = new File(schemaDirectory, currentResolver.getSourceFilename());
-
-            if (StringUtils.isNotEmpty(newFilename)) {
-                File renamedFile = FileUtils.resolveFile(schemaDirectory, newFilename);
-                String renameResult = (originalFile.renameTo(renamedFile) ? "Success " : "Failure ");
+        try {
+            postProcessGeneratedSchemas(mavenLog, schemaDirectory, null, null, fileTransforms,
+                    PostProcessingMode.DOM, 1);
+        } catch (MojoExecutionException e) {
 
-                if (mavenLog.isDebugEnabled()) {
-                    String suffix = "renaming [" + originalFile.getAbsolutePath() + "] to [" + renamedFile + "]";
-                    mavenLog.debug(renameResult + suffix);
-                }
-            }
+            // Only namespace prefix replacements can fail, and none are done here.
+            throw new IllegalStateException("Could not rename generated XSD files.", e);
         }
     }
 
@@ -412,43 +506,73 @@ public final class XsdGeneratorHelper {
      * @return A DOM Document created from the contents of the provided stream.
      */
     public static Document parseXmlStream(final Reader xmlStream) {
+        return parseXmlStream(xmlStream, newDocumentBuilder());
+    }
+
+    /**
+     * Converts the provided DOM Node to a pretty-printed XML-formatted string.
+     *
+     * @param node The Node whose children should be converted to a String.
+     * @return a pretty-printed XML-formatted string.
+     */
+    protected static String getHumanReadableXml(final Node node) {
+        return getHumanReadableXml(node, newTransformer());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static DocumentBuilder newDocumentBuilder() {
 
-        // Build a DOM model of the provided xmlFileStream.
         final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
 
         try {
-            return factory.newDocumentBuilder().parse(new InputSource(xmlStream));
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create DocumentBuilder", e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            synchronized (FACTORY) {
+                return FACTORY.newTransformer();
+            }
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Could not create Transformer", e);
+        }
+    }
+
+    private static Document parseXmlStream(final Reader xmlStream, final DocumentBuilder builder) {
+
+        // Build a DOM model of the provided xmlFileStream.
+        try {
+            return builder.parse(new InputSource(xmlStream));
         } catch (Exception e) {
             throw new IllegalArgumentException("Could not acquire DOM Document", e);
+        } finally {
+            builder.reset();
         }
     }
 
-    /**
-     * Converts the provided DOM Node to a pretty-printed XML-formatted string.
-     *
-     * @param node The Node whose children should be converted to a String.
-     * @return a pretty-printed XML-formatted string.
-     */
-    protected static String getHumanReadableXml(final Node node) {
+    private static String getHumanReadableXml(final Node node, final Transformer transformer) {
         StringWriter toReturn = new StringWriter();
 
         try {
-            Transformer transformer = FACTORY.newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
             transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
             transformer.transform(new DOMSource(node), new StreamResult(toReturn));
         } catch (TransformerException e) {
             throw new IllegalStateException("Could not transform node [" + node.getNodeName() + "] to XML", e);
+        } finally {
+            transformer.reset();
         }
 
         return toReturn.toString();
     }
 
-    //
-    // Private helpers
-    //
-
     private static String getDuplicationErrorMessage(final String propertyName, final String propertyValue,
                                                      final int firstIndex, final int currentIndex) {
         return MISCONFIG + "Duplicate '" + propertyName + "' property with value [" + propertyValue
@@ -481,14 +605,15 @@ public final class XsdGeneratorHelper {
      * Creates a Document from parsing the XML within the provided xmlFile.
      *
      * @param xmlFile The XML file to be parsed.
+     * @param builder The DocumentBuilder used to parse the xmlFile.
      * @return The Document corresponding to the xmlFile.
      */
-    private static Document parseXmlToDocument(final File xmlFile) {
+    private static Document parseXmlToDocument(final File xmlFile, final DocumentBuilder builder) {
         Document result = null;
         Reader reader = null;
         try {
             reader = new FileReader(xmlFile);
-            result = parseXmlStream(reader);
+            result = parseXmlStream(reader, builder);
         } catch (FileNotFoundException e) {
             // This should never happen...
         } finally {
@@ -498,11 +623,13 @@ public final class XsdGeneratorHelper {
         return result;
     }
 
-    private static void savePrettyPrintedDocument(final Document toSave, final File targetFile) {
+    private static void savePrettyPrintedDocument(final Document toSave,
+                                                  final File targetFile,
+                                                  final Transformer transformer) {
         Writer out = null;
         try {
             out = new BufferedWriter(new FileWriter(targetFile));
-            out.write(getHumanReadableXml(toSave.getFirstChild()));
+            out.write(getHumanReadableXml(toSave.getFirstChild(), transformer));
         } catch (IOException e) {
             throw new IllegalStateException("Could not write to file [" + targetFile.getAbsolutePath() + "]", e);
         } finally {
@@ -510,23 +637,131 @@ public final class XsdGeneratorHelper {
         }
     }
 
-    private static void addRecursively(final List<File> toPopulate,
-                                       final FileFilter fileFilter,
-                                       final File aDir) {
+    /**
+     * Callable post-processing a single generated XSD file. Log messages are collected rather than
+     * emitted, to permit emitting them in a deterministic order when all files are processed.
+     */
+    private static final class PostProcessingTask implements Callable<PostProcessingTask> {
+
+        // Internal state
+        private final File schemaFile;
+        private final File outputDir;
+        private final XsdAnnotationProcessor annotationProcessor;
+        private final NodeProcessor filenameProcessor;
+        private final Map<String, String> namespaceUriToDesiredFilenameMap;
+        private final List<TransformSchema> configuredTransformSchemas;
+        private final PostProcessingMode mode;
+        private final List<String> debugMessages = new ArrayList<String>();
+        private File renamedFile;
+        private boolean aborted;
+
+        PostProcessingTask(final File schemaFile,
+                           final File outputDir,
+                           final XsdAnnotationProcessor annotationProcessor,
+                           final NodeProcessor filenameProcessor,
+                           final Map<String, String> namespaceUriToDesiredFilenameMap,
+                           final List<TransformSchema> configuredTransformSchemas,
+                           final PostProcessingMode mode) {
+            this.schemaFile = schemaFile;
+            this.outputDir = outputDir;
+            this.annotationProcessor = annotationProcessor;
+            this.filenameProcessor = filenameProcessor;
+            this.namespaceUriToDesiredFilenameMap = namespaceUriToDesiredFilenameMap;
+            this.configuredTransformSchemas = configuredTransformSchemas;
+            this.mode = mode;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public PostProcessingTask call() throws MojoExecutionException {
 
-        // Check sanity
-        Validate.notNull(toPopulate, "toPopulate");
-        Validate.notNull(fileFilter, "fileFilter");
-        Validate.notNull(aDir, "aDir");
+            final boolean streaming = mode == PostProcessingMode.STREAMING;
+
+            // Parse the generated schema file once, unless streaming.
+            // DocumentBuilders are not thread-safe, so each task uses its own.
+            final Document generatedSchemaFileDocument = streaming
+                    ? null
+                    : parseXmlToDocument(schemaFile, newDocumentBuilder());
+
+            final Map<String, String> oldToNewPrefixMap = new LinkedHashMap<String, String>();
+            final boolean transformCurrentFile = filenameProcessor != null
+                    && outputDir.equals(schemaFile.getParentFile());
+            if (transformCurrentFile) {
+
+                // Resolve the namespaces of the 'vanilla' document, before modifying it.
+                final SimpleNamespaceResolver currentResolver = streaming
+                        ? StreamingSchemaProcessor.getNamespaceResolver(schemaFile)
+                        : new SimpleNamespaceResolver(schemaFile.getName(), generatedSchemaFileDocument);
+
+                for (TransformSchema currentTransformSchema : configuredTransformSchemas) {
+
+                    // Should we alter the namespace prefix as instructed by the current schema?
+                    final String newPrefix = currentTransformSchema.getToPrefix();
+                    final String oldPrefix = currentResolver.getNamespaceURI2PrefixMap().get(
+                            currentTransformSchema.getUri());
 
-        // Add all matching files.
-        for (File current : aDir.listFiles(fileFilter)) {
+                    if (StringUtils.isNotEmpty(newPrefix) && StringUtils.isNotEmpty(oldPrefix)) {
 
-            if (current.isFile()) {
-                toPopulate.add(current);
-            } else if (current.isDirectory()) {
-                addRecursively(toPopulate, fileFilter, current);
+                        // Can we perform the prefix substitution?
+                        validatePrefixSubstitutionIsPossible(oldPrefix, newPrefix, currentResolver);
+
+                        debugMessages.add("Subtituting namespace prefix [" + oldPrefix + "] with [" + newPrefix
+                                + "] in file [" + currentResolver.getSourceFilename() + "].");
+                        oldToNewPrefixMap.put(oldPrefix, newPrefix);
+                    }
+                }
+
+                // Should the current file be renamed?
+                final String localNamespaceURI = currentResolver.getLocalNamespaceURI();
+                if (StringUtils.isEmpty(localNamespaceURI)) {
+                    aborted = true;
+                } else {
+
+                    final String newFilename = namespaceUriToDesiredFilenameMap.get(localNamespaceURI);
+                    if (StringUtils.isNotEmpty(newFilename)) {
+                        renamedFile = FileUtils.resolveFile(outputDir, newFilename);
+                    }
+                }
+            }
+
+            if (streaming) {
+
+                // Transform the events of the current file, and write the result once.
+                final Map<String, String> filenameMap = transformCurrentFile
+                        ? namespaceUriToDesiredFilenameMap
+                        : Collections.<String, String>emptyMap();
+                new StreamingSchemaProcessor(annotationProcessor, oldToNewPrefixMap, filenameMap).process(schemaFile);
+
+                debugMessages.add("Streamed [" + schemaFile.getName() + "] through post-processing.");
+            } else {
+
+                // Synthesize the ordered chain of NodeProcessors for the current file.
+                final List<NodeProcessor> processors = new ArrayList<NodeProcessor>();
+                if (annotationProcessor != null) {
+                    processors.add(annotationProcessor);
+                }
+                for (Map.Entry<String, String> currentSubstitution : oldToNewPrefixMap.entrySet()) {
+                    processors.add(new ChangeNamespacePrefixProcessor(currentSubstitution.getKey(),
+                            currentSubstitution.getValue()));
+                }
+                if (transformCurrentFile) {
+                    processors.add(filenameProcessor);
+                }
+
+                // Apply all NodeProcessors in order, and write the result once.
+                for (NodeProcessor currentProcessor : processors) {
+                    process(generatedSchemaFileDocument.getFirstChild(), true, currentProcessor);
+                }
+                savePrettyPrintedDocument(generatedSchemaFileDocument, schemaFile, newTransformer());
+
+                debugMessages.add("Applied " + processors.size() + " NodeProcessors to ["
+                        + schemaFile.getName() + "]");
             }
+
+            // All done.
+            return this;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The algorithm used to post-process XSD files generated by the JAXB SchemaGenerator.
+ *
+ * @since 2.2
+ */
+public enum PostProcessingMode {
+
+    /**
+     * <p>Parses each generated XSD file into a DOM Document, which is processed by an ordered chain of
+     * NodeProcessors and then written as pretty-printed XML. This is the standard mode, but the memory
+     * required is several times the size of the processed XSD file.</p>
+     */
+    DOM,
+
+    /**
+     * <p>Streams each generated XSD file from an XMLEventReader to an XMLEventWriter, transforming events on the
+     * fly. Memory usage is independent of the size of the processed XSD file, which makes this mode suitable for
+     * very large generated schemas. The formatting of the generated XSD file is retained, rather than being
+     * re-indented.</p>
+     *
+     * @see StreamingSchemaProcessor
+     */
+    STREAMING
+}
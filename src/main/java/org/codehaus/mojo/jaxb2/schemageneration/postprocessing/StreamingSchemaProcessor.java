@@ -0,0 +1,464 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.XsdAnnotationProcessor;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.SimpleNamespaceResolver;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.plexus.util.IOUtil;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Streaming post-processor for generated XSD files, which reads XML events from an XMLEventReader and
+ * writes (possibly transformed) events to an XMLEventWriter. No DOM model is built, implying that memory
+ * usage is independent of the size of the processed XSD file. The StreamingSchemaProcessor performs the
+ * same transformations as the corresponding NodeProcessors:</p>
+ * <dl>
+ * <dt>Documentation injection</dt>
+ * <dd>As done by the XsdAnnotationProcessor, an xs:annotation holding an xs:documentation element is
+ * injected as the first child of each complexType, element or attribute for which JavaDoc was found.</dd>
+ * <dt>Namespace prefix substitution</dt>
+ * <dd>As done by the ChangeNamespacePrefixProcessor, namespace definitions, element and attribute prefixes and
+ * prefixed values within ref, type and extension base attributes are altered from an old to a new prefix.</dd>
+ * <dt>Filename substitution</dt>
+ * <dd>As done by the ChangeFilenameProcessor, schemaLocation attributes within xs:import elements are
+ * altered to the desired new filename of the imported namespace.</dd>
+ * </dl>
+ * <p>Unlike the DOM-based post-processing, the formatting of the processed XSD file is retained; injected
+ * documentation annotations are indented relative to the element into which they are injected.</p>
+ *
+ * @see PostProcessingMode#STREAMING
+ * @since 2.2
+ */
+public class StreamingSchemaProcessor {
+
+    // Constants
+    private static final String ENCODING = "UTF-8";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String INDENTATION = "    ";
+    private static final String COMPLEX_TYPE = "complexType";
+    private static final String NAME = "name";
+    private static final String REFERENCE = "ref";
+    private static final String TYPE = "type";
+    private static final String EXTENSION = "extension";
+    private static final String EXTENSION_BASE = "base";
+    private static final String IMPORT = "import";
+    private static final String NAMESPACE = "namespace";
+    private static final String SCHEMA_LOCATION = "schemaLocation";
+    private static final String CDATA_END = "]]>";
+
+    // Internal state
+    private XsdAnnotationProcessor annotationProcessor;
+    private Map<String, String> oldToNewPrefixMap;
+    private Map<String, String> namespaceUriToNewFilenameMap;
+    private XMLInputFactory inputFactory;
+    private XMLOutputFactory outputFactory;
+    private XMLEventFactory eventFactory;
+
+    /**
+     * Creates a new StreamingSchemaProcessor performing the supplied transformations.
+     *
+     * @param annotationProcessor          The XsdAnnotationProcessor used to find the documentation to inject,
+     *                                     or {@code null} if no documentation should be injected.
+     * @param oldToNewPrefixMap            A non-null map relating old namespace prefixes [key] to new namespace
+     *                                     prefixes [value].
+     * @param namespaceUriToNewFilenameMap A non-null map relating namespace URIs [key] to new/desired
+     *                                     schema filenames [value].
+     */
+    public StreamingSchemaProcessor(final XsdAnnotationProcessor annotationProcessor,
+                                    final Map<String, String> oldToNewPrefixMap,
+                                    final Map<String, String> namespaceUriToNewFilenameMap) {
+
+        // Check sanity
+        Validate.notNull(oldToNewPrefixMap, "oldToNewPrefixMap");
+        Validate.notNull(namespaceUriToNewFilenameMap, "namespaceUriToNewFilenameMap");
+
+        // Assign internal state
+        this.annotationProcessor = annotationProcessor;
+        this.oldToNewPrefixMap = oldToNewPrefixMap;
+        this.namespaceUriToNewFilenameMap = namespaceUriToNewFilenameMap;
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.outputFactory = XMLOutputFactory.newInstance();
+        this.eventFactory = XMLEventFactory.newInstance();
+    }
+
+    /**
+     * Creates a SimpleNamespaceResolver for the supplied XML file, by streaming through its content.
+     *
+     * @param xmlFile The XML file from which to collect namespace data, should not be null.
+     * @return A SimpleNamespaceResolver holding the namespace data of the supplied xmlFile.
+     */
+    public static SimpleNamespaceResolver getNamespaceResolver(final File xmlFile) {
+
+        // Check sanity
+        Validate.notNull(xmlFile, "xmlFile");
+
+        InputStream in = null;
+        XMLStreamReader reader = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(xmlFile));
+            reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+            return new SimpleNamespaceResolver(xmlFile.getName(), reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File [" + xmlFile + "] could not be read.", e);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Could not read namespaces from [" + xmlFile + "]", e);
+        } finally {
+            closeQuietly(reader);
+            IOUtil.close(in);
+        }
+    }
+
+    /**
+     * Transforms the supplied XSD file in place. The transformed result is written to a temporary
+     * file, which replaces the supplied XSD file when the transformation is complete.
+     *
+     * @param xsdFile The XSD file to transform.
+     */
+    public void process(final File xsdFile) {
+
+        // Check sanity
+        Validate.notNull(xsdFile, "xsdFile");
+
+        final File temporaryFile = new File(xsdFile.getParentFile(), xsdFile.getName() + TEMPORARY_SUFFIX);
+        InputStream in = null;
+        OutputStream out = null;
+        try {
+
+            in = new BufferedInputStream(new FileInputStream(xsdFile));
+            out = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+            process(in, out);
+
+            // Close the streams before replacing the XSD file.
+            out.close();
+            out = null;
+            in.close();
+            in = null;
+
+            Files.move(temporaryFile.toPath(), xsdFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not post-process file [" + xsdFile.getAbsolutePath() + "]", e);
+        } finally {
+            IOUtil.close(out);
+            IOUtil.close(in);
+
+            if (temporaryFile.exists() && !temporaryFile.delete()) {
+                temporaryFile.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Reads an XSD document from the supplied InputStream, and writes the transformed XSD document to the
+     * supplied OutputStream using UTF-8 encoding. Neither stream is closed.
+     *
+     * @param in  The InputStream from which the XSD document is read.
+     * @param out The OutputStream to which the transformed XSD document is written.
+     * @throws XMLStreamException if the XSD document could not be read or written.
+     */
+    public void process(final InputStream in, final OutputStream out) throws XMLStreamException {
+
+        // Check sanity
+        Validate.notNull(in, "in");
+        Validate.notNull(out, "out");
+
+        final XMLEventReader reader = inputFactory.createXMLEventReader(in);
+        final XMLEventWriter writer = outputFactory.createXMLEventWriter(out, ENCODING);
+
+        // The names of the closest enclosing complexType elements; null for anonymous complexTypes.
+        final LinkedList<String> complexTypeNames = new LinkedList<String>();
+        String currentIndentation = "";
+        String pendingEndIndentation = null;
+
+        try {
+            while (reader.hasNext()) {
+
+                final XMLEvent event = reader.nextEvent();
+
+                // Should the end tag of an element whose only child is an injected annotation be indented?
+                if (pendingEndIndentation != null && event.isEndElement()) {
+                    writer.add(eventFactory.createCharacters("\n" + pendingEndIndentation));
+                }
+                pendingEndIndentation = null;
+
+                if (event.isStartDocument()) {
+
+                    // Re-declare the encoding, as the output is always written using UTF-8.
+                    final StartDocument startDocument = (StartDocument) event;
+                    writer.add(startDocument.standaloneSet()
+                            ? eventFactory.createStartDocument(ENCODING, startDocument.getVersion(),
+                            startDocument.isStandalone())
+                            : eventFactory.createStartDocument(ENCODING, startDocument.getVersion()));
+                    writer.add(eventFactory.createCharacters("\n"));
+
+                } else if (event.isStartElement()) {
+
+                    final StartElement startElement = event.asStartElement();
+                    final String localName = startElement.getName().getLocalPart();
+                    writer.add(transform(startElement));
+
+                    // Inject any documentation as the first child of the current element.
+                    if (annotationProcessor != null) {
+
+                        final Attribute nameAttribute = startElement.getAttributeByName(new QName(NAME));
+                        final String documentation = annotationProcessor.getDocumentation(localName,
+                                nameAttribute == null ? null : nameAttribute.getValue(),
+                                complexTypeNames.isEmpty() ? null : complexTypeNames.getFirst());
+
+                        if (documentation != null) {
+                            writeAnnotation(writer, documentation, currentIndentation + INDENTATION);
+                            pendingEndIndentation = currentIndentation;
+                        }
+                    }
+
+                    if (COMPLEX_TYPE.equalsIgnoreCase(localName)) {
+                        final Attribute nameAttribute = startElement.getAttributeByName(new QName(NAME));
+                        complexTypeNames.addFirst(nameAttribute == null ? null : nameAttribute.getValue().trim());
+                    }
+
+                } else if (event.isEndElement()) {
+
+                    final EndElement endElement = event.asEndElement();
+                    if (COMPLEX_TYPE.equalsIgnoreCase(endElement.getName().getLocalPart())
+                            && !complexTypeNames.isEmpty()) {
+                        complexTypeNames.removeFirst();
+                    }
+                    writer.add(transform(endElement));
+
+                } else {
+
+                    // Track the indentation of the coming element.
+                    if (event.isCharacters() && event.asCharacters().isWhiteSpace()) {
+                        final String whitespace = event.asCharacters().getData();
+                        final int lastNewline = whitespace.lastIndexOf('\n');
+                        if (lastNewline != -1) {
+                            currentIndentation = whitespace.substring(lastNewline + 1);
+                        }
+                    }
+
+                    // Terminate the last line of the document.
+                    if (event.isEndDocument()) {
+                        writer.add(eventFactory.createCharacters("\n"));
+                    }
+
+                    writer.add(event);
+                }
+            }
+
+            writer.flush();
+
+        } finally {
+            closeQuietly(writer);
+            closeQuietly(reader);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private StartElement transform(final StartElement startElement) {
+
+        final QName elementName = startElement.getName();
+        final boolean isSchemaElement = XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(elementName.getNamespaceURI());
+
+        // Transform all attributes.
+        final List<Attribute> attributes = new ArrayList<Attribute>();
+        for (Iterator<?> it = startElement.getAttributes(); it.hasNext(); ) {
+
+            final Attribute current = (Attribute) it.next();
+            final QName attributeName = current.getName();
+            String value = current.getValue();
+
+            final boolean isPrefixedValue = REFERENCE.equals(attributeName.getLocalPart())
+                    || TYPE.equals(attributeName.getLocalPart())
+                    || (isSchemaElement
+                    && EXTENSION.equalsIgnoreCase(elementName.getLocalPart())
+                    && EXTENSION_BASE.equalsIgnoreCase(attributeName.getLocalPart()));
+
+            if (isPrefixedValue && attributeName.getPrefix().isEmpty()) {
+
+                // Alter the prefix of any ref="oldPrefix:something" values.
+                final int colonIndex = value.indexOf(":");
+                if (colonIndex > 0) {
+                    final String newPrefix = oldToNewPrefixMap.get(value.substring(0, colonIndex));
+                    if (newPrefix != null) {
+                        value = newPrefix + value.substring(colonIndex);
+                    }
+                }
+            } else if (isSchemaElement
+                    && IMPORT.equalsIgnoreCase(elementName.getLocalPart())
+                    && SCHEMA_LOCATION.equals(attributeName.getLocalPart())) {
+
+                // Alter the schemaLocation of imports of known namespaces.
+                final Attribute namespaceAttribute = startElement.getAttributeByName(new QName(NAMESPACE));
+                final String newFilename = namespaceAttribute == null
+                        ? null
+                        : namespaceUriToNewFilenameMap.get(namespaceAttribute.getValue());
+                if (newFilename != null) {
+                    value = newFilename;
+                }
+            }
+
+            attributes.add(eventFactory.createAttribute(transform(attributeName), value));
+        }
+
+        // Transform all namespace definitions.
+        final List<Namespace> namespaces = transform(startElement.getNamespaces());
+
+        // All done.
+        return eventFactory.createStartElement(transform(elementName), attributes.iterator(), namespaces.iterator());
+    }
+
+    private EndElement transform(final EndElement endElement) {
+        return eventFactory.createEndElement(transform(endElement.getName()),
+                transform(endElement.getNamespaces()).iterator());
+    }
+
+    private List<Namespace> transform(final Iterator<?> namespaces) {
+
+        final List<Namespace> toReturn = new ArrayList<Namespace>();
+        while (namespaces.hasNext()) {
+
+            final Namespace current = (Namespace) namespaces.next();
+            final String newPrefix = current.isDefaultNamespaceDeclaration()
+                    ? null
+                    : oldToNewPrefixMap.get(current.getPrefix());
+
+            toReturn.add(newPrefix == null
+                    ? current
+                    : eventFactory.createNamespace(newPrefix, current.getNamespaceURI()));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private QName transform(final QName name) {
+
+        final String newPrefix = oldToNewPrefixMap.get(name.getPrefix());
+        return newPrefix == null ? name : new QName(name.getNamespaceURI(), name.getLocalPart(), newPrefix);
+    }
+
+    /**
+     * Writes the supplied documentation as an annotation on the form
+     * <pre>
+     *     <code>
+     *         &lt;xs:annotation&gt;
+     *             &lt;xs:documentation&gt;&lt;![CDATA[documentation]]&gt;&lt;/xs:documentation&gt;
+     *         &lt;/xs:annotation&gt;
+     *     </code>
+     * </pre>
+     * ... where the "xs" namespace prefix maps to "http://www.w3.org/2001/XMLSchema".
+     *
+     * @param writer        The active XMLEventWriter.
+     * @param documentation The rendered documentation to write.
+     * @param indentation   The indentation of the annotation element.
+     * @throws XMLStreamException if the annotation could not be written.
+     */
+    private void writeAnnotation(final XMLEventWriter writer,
+                                 final String documentation,
+                                 final String indentation) throws XMLStreamException {
+
+        final QName annotation = transform(new QName(XMLConstants.W3C_XML_SCHEMA_NS_URI,
+                XsdAnnotationProcessor.ANNOTATION_ELEMENT_NAME,
+                XsdAnnotationProcessor.XSD_SCHEMA_NAMESPACE_PREFIX));
+        final QName docElement = transform(new QName(XMLConstants.W3C_XML_SCHEMA_NS_URI,
+                XsdAnnotationProcessor.DOCUMENTATION_ELEMENT_NAME,
+                XsdAnnotationProcessor.XSD_SCHEMA_NAMESPACE_PREFIX));
+        final Iterator<Attribute> noAttributes = Collections.<Attribute>emptyList().iterator();
+        final Iterator<Namespace> noNamespaces = Collections.<Namespace>emptyList().iterator();
+
+        writer.add(eventFactory.createCharacters("\n" + indentation));
+        writer.add(eventFactory.createStartElement(annotation, noAttributes, noNamespaces));
+        writer.add(eventFactory.createCharacters("\n" + indentation + INDENTATION));
+        writer.add(eventFactory.createStartElement(docElement, noAttributes, noNamespaces));
+
+        // A CDATA section cannot contain its own end marker; split it into several sections if required.
+        String remainder = documentation;
+        for (int index = remainder.indexOf(CDATA_END); index != -1; index = remainder.indexOf(CDATA_END)) {
+            writer.add(eventFactory.createCData(remainder.substring(0, index + 2)));
+            remainder = remainder.substring(index + 2);
+        }
+        writer.add(eventFactory.createCData(remainder));
+
+        writer.add(eventFactory.createEndElement(docElement, noNamespaces));
+        writer.add(eventFactory.createCharacters("\n" + indentation));
+        writer.add(eventFactory.createEndElement(annotation, noNamespaces));
+    }
+
+    private static void closeQuietly(final XMLEventReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // Ignore this
+        }
+    }
+
+    private static void closeQuietly(final XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // Ignore this
+            }
+        }
+    }
+
+    private static void closeQuietly(final XMLEventWriter writer) {
+        try {
+            writer.close();
+        } catch (XMLStreamException e) {
+            // Ignore this
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.FieldLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.PackageLocation;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * <p>Cache holding the JavaDoc extracted from individual Java source files, keyed by the content digest
+ * of each source file. Each cache entry is a properties file holding the SortableLocations and JavaDocData
+ * extracted from one source file, in the order they were extracted. Hence, unchanged source files need not
+ * be parsed again to extract their JavaDoc.</p>
+ * <p>All entries read or written by a JavaDocCache are remembered, permitting removal of all other
+ * (i.e. obsolete) entries from the cache directory using {@link #prune()}.</p>
+ *
+ * @since 2.2
+ */
+class JavaDocCache {
+
+    /**
+     * The version of the persisted cache entry format.
+     * Cache entries written in another format are ignored.
+     */
+    static final String FORMAT_VERSION = "1";
+
+    // Internal state
+    private static final String VERSION_KEY = "cache.version";
+    private static final String ENTRY_PREFIX = "entry.";
+    private static final String TYPE = ".type";
+    private static final String PACKAGE = ".package";
+    private static final String CLASS = ".class";
+    private static final String MEMBER = ".member";
+    private static final String PARAMETERS = ".parameters";
+    private static final String COMMENT = ".comment";
+    private static final String TAG = ".tag.";
+    private static final String ENTRY_SUFFIX = ".properties";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private File cacheDirectory;
+    private Set<String> usedDigests;
+
+    /**
+     * Creates a JavaDocCache storing its entries within the supplied directory.
+     *
+     * @param cacheDirectory The directory holding all cache entries. Created when the first entry is written.
+     */
+    JavaDocCache(final File cacheDirectory) {
+
+        // Check sanity
+        Validate.notNull(cacheDirectory, "cacheDirectory");
+
+        // Assign internal state
+        this.cacheDirectory = cacheDirectory;
+        this.usedDigests = Collections.synchronizedSet(new HashSet<String>());
+    }
+
+    /**
+     * Reads the JavaDoc extracted from a source file with the supplied content digest.
+     *
+     * @param digest The content digest of a Java source file.
+     * @return The SortableLocations and JavaDocData extracted from the source file, in extraction order,
+     * or {@code null} if no valid cache entry was found.
+     */
+    List<Map.Entry<SortableLocation, JavaDocData>> read(final String digest) {
+
+        final File entryFile = getEntryFile(digest);
+        if (!entryFile.isFile()) {
+            return null;
+        }
+        usedDigests.add(digest);
+
+        final Properties props = new Properties();
+        try {
+            final InputStream in = new BufferedInputStream(new FileInputStream(entryFile));
+            try {
+                props.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        if (!FORMAT_VERSION.equals(props.getProperty(VERSION_KEY))) {
+            return null;
+        }
+
+        final List<Map.Entry<SortableLocation, JavaDocData>> toReturn
+                = new ArrayList<Map.Entry<SortableLocation, JavaDocData>>();
+        for (int i = 0; props.getProperty(ENTRY_PREFIX + padIndex(i) + TYPE) != null; i++) {
+
+            final String prefix = ENTRY_PREFIX + padIndex(i);
+            final String type = props.getProperty(prefix + TYPE);
+            final String packageName = props.getProperty(prefix + PACKAGE, "");
+            final String className = props.getProperty(prefix + CLASS);
+            final String memberName = props.getProperty(prefix + MEMBER);
+
+            final SortableLocation location;
+            if (PackageLocation.class.getSimpleName().equals(type)) {
+                location = new PackageLocation(packageName);
+            } else if (ClassLocation.class.getSimpleName().equals(type)) {
+                location = new ClassLocation(packageName, className);
+            } else if (FieldLocation.class.getSimpleName().equals(type)) {
+                location = new FieldLocation(packageName, className, memberName);
+            } else if (MethodLocation.class.getSimpleName().equals(type)) {
+                location = new MethodLocation(packageName, className, memberName,
+                        props.getProperty(prefix + PARAMETERS));
+            } else {
+                return null;
+            }
+
+            // Collect all JavaDoc tags of the current entry.
+            final SortedMap<String, String> tag2ValueMap = new TreeMap<String, String>();
+            for (String current : props.stringPropertyNames()) {
+                if (current.startsWith(prefix + TAG)) {
+                    tag2ValueMap.put(current.substring((prefix + TAG).length()), props.getProperty(current));
+                }
+            }
+
+            final JavaDocData javaDocData = new JavaDocData(props.getProperty(prefix + COMMENT), tag2ValueMap);
+            toReturn.add(new AbstractMap.SimpleImmutableEntry<SortableLocation, JavaDocData>(location, javaDocData));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Writes the JavaDoc extracted from a source file with the supplied content digest. The entry is written to
+     * a temporary file, which is then moved into place, implying that concurrent readers never find partially
+     * written entries.
+     *
+     * @param digest  The content digest of a Java source file.
+     * @param entries The SortableLocations and JavaDocData extracted from the source file, in extraction order.
+     * @throws IOException if the cache entry could not be written.
+     */
+    void write(final String digest, final List<Map.Entry<SortableLocation, JavaDocData>> entries)
+            throws IOException {
+
+        usedDigests.add(digest);
+        final Properties props = new Properties();
+        props.setProperty(VERSION_KEY, FORMAT_VERSION);
+
+        for (int i = 0; i < entries.size(); i++) {
+
+            final String prefix = ENTRY_PREFIX + padIndex(i);
+            final SortableLocation location = entries.get(i).getKey();
+            final JavaDocData javaDocData = entries.get(i).getValue();
+
+            props.setProperty(prefix + TYPE, location.getClass().getSimpleName());
+            props.setProperty(prefix + PACKAGE, ((PackageLocation) location).getPackageName());
+            if (location instanceof ClassLocation) {
+                props.setProperty(prefix + CLASS, ((ClassLocation) location).getClassName());
+            }
+            if (location instanceof FieldLocation) {
+                props.setProperty(prefix + MEMBER, ((FieldLocation) location).getMemberName());
+            }
+            if (location instanceof MethodLocation) {
+                props.setProperty(prefix + PARAMETERS, ((MethodLocation) location).getParametersAsString());
+            }
+
+            props.setProperty(prefix + COMMENT, javaDocData.getComment());
+            for (Map.Entry<String, String> current : javaDocData.getTag2ValueMap().entrySet()) {
+                props.setProperty(prefix + TAG + current.getKey(), current.getValue());
+            }
+        }
+
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs() && !cacheDirectory.isDirectory()) {
+            throw new IOException("Could not create directory ["
+                    + FileSystemUtilities.getCanonicalPath(cacheDirectory) + "]");
+        }
+
+        final File entryFile = getEntryFile(digest);
+        final File temporaryFile = new File(cacheDirectory,
+                digest + "." + Thread.currentThread().getId() + TEMPORARY_SUFFIX);
+        try {
+            final OutputStream out = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+            try {
+                props.store(out, "jaxb2-maven-plugin JavaDoc cache entry");
+            } finally {
+                out.close();
+            }
+
+            try {
+                Files.move(temporaryFile.toPath(), entryFile.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile.toPath(), entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Deletes all cache entries which were neither read nor written by this JavaDocCache.
+     *
+     * @return The number of deleted cache entries.
+     */
+    int prune() {
+
+        final File[] entryFiles = cacheDirectory.listFiles();
+        if (entryFiles == null) {
+            return 0;
+        }
+
+        int toReturn = 0;
+        for (File current : entryFiles) {
+
+            final String fileName = current.getName();
+            if (fileName.endsWith(ENTRY_SUFFIX)
+                    && !usedDigests.contains(fileName.substring(0, fileName.length() - ENTRY_SUFFIX.length()))
+                    && current.delete()) {
+                toReturn++;
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private File getEntryFile(final String digest) {
+        return new File(cacheDirectory, digest + ENTRY_SUFFIX);
+    }
+
+    private static String padIndex(final int index) {
+        return String.format("%06d", index);
+    }
+}
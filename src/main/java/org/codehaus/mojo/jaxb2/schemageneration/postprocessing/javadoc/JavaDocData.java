@@ -78,6 +78,27 @@ public class JavaDocData {
         }
     }
 
+    /**
+     * Creates a JavaDocData for a particular entry with the supplied JavaDoc comment and already parsed tags.
+     *
+     * @param comment      The actual comment in the JavaDoc. Null values are replaced with the value
+     *                     {@code NO_COMMENT}, to ensure that the {@code getComment() } method does not return
+     *                     null values.
+     * @param tag2ValueMap The names and values of all JavaDoc tags, as returned by {@link #getTag2ValueMap()}.
+     *                     Can be null or empty.
+     * @since 2.2
+     */
+    public JavaDocData(final String comment, final SortedMap<String, String> tag2ValueMap) {
+
+        // Assign internal state
+        this.comment = comment == null ? NO_COMMENT : comment;
+        this.tag2ValueMap = new TreeMap<String, String>();
+
+        if (tag2ValueMap != null) {
+            this.tag2ValueMap.putAll(tag2ValueMap);
+        }
+    }
+
     /**
      * Retrieves the comment/text in the JavaDoc structure, minus the names and values of any given JavaDoc tags.
      *
@@ -33,17 +33,28 @@ import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.PackageLocation;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.cache.BuildCache;
+import org.codehaus.mojo.jaxb2.shared.staleness.StalenessManifest;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Collection;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * <p>The schemagen tool operates on compiled bytecode, where JavaDoc comments are not present.
@@ -58,7 +69,11 @@ import java.util.TreeMap;
 public class JavaDocExtractor {
 
     // Internal state
-    private JavaProjectBuilder builder;
+    private List<List<Map.Entry<SortableLocation, JavaDocData>>> extractedSources;
+    private Map<File, List<Map.Entry<SortableLocation, JavaDocData>>> file2ExtractedSource;
+    private JavaDocCache cache;
+    private List<File> sourceFolders;
+    private String encoding;
     private Log log;
 
     /**
@@ -67,17 +82,45 @@ public class JavaDocExtractor {
      * @param log A non-null Log.
      */
     public JavaDocExtractor(final Log log) {
+        this(log, null, Collections.<File>emptyList(), null);
+    }
+
+    /**
+     * <p>Creates a JavaDocExtractor wrapping the supplied Maven Log, and caching the JavaDoc extracted from each
+     * source within the supplied directory. Sources whose content is unchanged since a previous extraction
+     * are not parsed again, unless the set of added sources has changed.</p>
+     * <p>Each source is parsed separately. Types referenced by a source are therefore resolved against the
+     * supplied source folders, which should hold all sources of the compilation unit; otherwise, types
+     * declared in other sources may not be fully qualified within the extracted MethodLocations.</p>
+     *
+     * @param log                  A non-null Log.
+     * @param cacheDirectoryOrNull The directory holding cached JavaDoc, or {@code null} to disable caching.
+     * @param sourceFolders        The root directories of the Java sources to add, such as the compile
+     *                             source roots of the active project.
+     * @param encodingOrNull       The encoding of the Java sources, or {@code null} to use the platform encoding.
+     * @since 2.2
+     */
+    public JavaDocExtractor(final Log log,
+                            final File cacheDirectoryOrNull,
+                            final List<File> sourceFolders,
+                            final String encodingOrNull) {
 
         // Check sanity
         Validate.notNull(log, "log");
+        Validate.notNull(sourceFolders, "sourceFolders");
 
         // Create internal state
         this.log = log;
-        this.builder = new JavaProjectBuilder();
+        this.sourceFolders = new ArrayList<File>(sourceFolders);
+        this.encoding = encodingOrNull;
+        this.extractedSources = new ArrayList<List<Map.Entry<SortableLocation, JavaDocData>>>();
+        this.file2ExtractedSource = new HashMap<File, List<Map.Entry<SortableLocation, JavaDocData>>>();
+        this.cache = cacheDirectoryOrNull == null ? null : new JavaDocCache(cacheDirectoryOrNull);
     }
 
     /**
      * Adds the supplied sourceCodeFiles for processing by this JavaDocExtractor.
+     * The files are parsed concurrently.
      *
      * @param sourceCodeFiles The non-null List of source code files to add.
      * @return This JavaDocExtractor, for call chaining.
@@ -89,13 +132,20 @@ public class JavaDocExtractor {
         Validate.notNull(sourceCodeFiles, "addSourceFiles");
 
         // Add the files.
+        final List<String> sourceIndex = new ArrayList<String>();
         for (File current : sourceCodeFiles) {
-            try {
-                builder.addSource(current);
-            } catch (IOException e) {
-                throw new IllegalArgumentException("Could not add file ["
-                        + FileSystemUtilities.getCanonicalPath(current) + "]", e);
-            }
+            sourceIndex.add(FileSystemUtilities.getCanonicalPath(current));
+        }
+        final String sourceIndexKey = getSourceIndexKey(sourceIndex);
+
+        final List<ExtractionTask> tasks = new ArrayList<ExtractionTask>();
+        for (File current : sourceCodeFiles) {
+            tasks.add(new ExtractionTask(current, null, sourceIndexKey));
+        }
+
+        final List<List<Map.Entry<SortableLocation, JavaDocData>>> extracted = extractAll(tasks);
+        for (int i = 0; i < extracted.size(); i++) {
+            file2ExtractedSource.put(sourceCodeFiles.get(i), extracted.get(i));
         }
 
         // All done.
@@ -104,6 +154,7 @@ public class JavaDocExtractor {
 
     /**
      * Adds the supplied sourceCodeFiles for processing by this JavaDocExtractor.
+     * The URLs are parsed concurrently.
      *
      * @param sourceCodeURLs The non-null List of source code URLs to add.
      * @return This JavaDocExtractor, for call chaining.
@@ -115,18 +166,59 @@ public class JavaDocExtractor {
         Validate.notNull(sourceCodeURLs, "sourceCodeURLs");
 
         // Add the URLs
+        final List<String> sourceIndex = new ArrayList<String>();
         for (URL current : sourceCodeURLs) {
-            try {
-                builder.addSource(current);
-            } catch (IOException e) {
-                throw new IllegalArgumentException("Could not add URL [" + current.toString() + "]", e);
-            }
+            sourceIndex.add(current.toString());
+        }
+        final String sourceIndexKey = getSourceIndexKey(sourceIndex);
+
+        final List<ExtractionTask> tasks = new ArrayList<ExtractionTask>();
+        for (URL current : sourceCodeURLs) {
+            tasks.add(new ExtractionTask(null, current, sourceIndexKey));
         }
+        extractAll(tasks);
 
         // All done
         return this;
     }
 
+    /**
+     * Retrieves the fully qualified names of all top-level classes found within the supplied source code file,
+     * which permits using this JavaDocExtractor as the parsed model of the Java sources without parsing them again.
+     *
+     * @param sourceCodeFile A source code file previously added using {@link #addSourceFiles(List)}.
+     * @return The fully qualified names of all top-level classes within the supplied source code file,
+     * in the order they were declared.
+     * @throws IllegalArgumentException if the supplied source code file was not added to this JavaDocExtractor.
+     * @since 2.2
+     */
+    public List<String> getClassNames(final File sourceCodeFile) throws IllegalArgumentException {
+
+        // Check sanity
+        Validate.notNull(sourceCodeFile, "sourceCodeFile");
+
+        final List<Map.Entry<SortableLocation, JavaDocData>> extracted = file2ExtractedSource.get(sourceCodeFile);
+        Validate.isTrue(extracted != null, "File [" + FileSystemUtilities.getCanonicalPath(sourceCodeFile)
+                + "] was not added to this JavaDocExtractor.");
+
+        final List<String> toReturn = new ArrayList<String>();
+        for (Map.Entry<SortableLocation, JavaDocData> current : extracted) {
+
+            final SortableLocation location = current.getKey();
+            if (location.getClass() == ClassLocation.class) {
+
+                final ClassLocation classLocation = (ClassLocation) location;
+                final String packageName = classLocation.getPackageName();
+                toReturn.add(packageName.isEmpty()
+                        ? classLocation.getClassName()
+                        : packageName + "." + classLocation.getClassName());
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
     /**
      * Processes all supplied Java source Files and URLs to extract JavaDocData for all ClassLocations from which
      * JavaDoc has been collected.
@@ -137,76 +229,153 @@ public class JavaDocExtractor {
 
         // Start processing.
         final SortedMap<SortableLocation, JavaDocData> dataHolder = new TreeMap<SortableLocation, JavaDocData>();
-        final Collection<JavaSource> sources = builder.getSources();
 
         if (log.isInfoEnabled()) {
-            log.info("Processing [" + sources.size() + "] java sources.");
+            log.info("Processing [" + extractedSources.size() + "] java sources.");
         }
 
-        for (JavaSource current : sources) {
+        for (List<Map.Entry<SortableLocation, JavaDocData>> currentSource : extractedSources) {
+            for (Map.Entry<SortableLocation, JavaDocData> current : currentSource) {
 
-            // Add the package-level JavaDoc
-            final JavaPackage currentPackage = current.getPackage();
-            final String packageName = currentPackage.getName();
-            addEntry(dataHolder, new PackageLocation(packageName), currentPackage);
+                final SortableLocation location = current.getKey();
+                addEntry(dataHolder, location, current.getValue());
 
-            if (log.isDebugEnabled()) {
-                log.debug("Added package-level JavaDoc for [" + packageName + "]");
+                if (log.isDebugEnabled()) {
+                    if (location instanceof MethodLocation) {
+                        log.debug("Added method-level JavaDoc for [" + location + "]");
+                    } else if (location instanceof FieldLocation) {
+                        log.debug("Added field-level JavaDoc for [" + location + "]");
+                    } else if (location instanceof ClassLocation) {
+                        log.debug("Added class-level JavaDoc for [" + location + "]");
+                    } else {
+                        log.debug("Added package-level JavaDoc for ["
+                                + ((PackageLocation) location).getPackageName() + "]");
+                    }
+                }
             }
+        }
 
-            for (JavaClass currentClass : current.getClasses()) {
+        // All done.
+        return new ReadOnlySearchableDocumentation(dataHolder);
+    }
 
-                // Add the class-level JavaDoc
-                final String simpleClassName = currentClass.getName();
-                final ClassLocation classLocation = new ClassLocation(packageName, simpleClassName);
-                addEntry(dataHolder, classLocation, currentClass);
+    //
+    // Private helpers
+    //
 
-                if (log.isDebugEnabled()) {
-                    log.debug("Added class-level JavaDoc for [" + classLocation + "]");
+    private List<List<Map.Entry<SortableLocation, JavaDocData>>> extractAll(final List<ExtractionTask> tasks) {
+
+        final List<List<Map.Entry<SortableLocation, JavaDocData>>> toReturn
+                = new ArrayList<List<Map.Entry<SortableLocation, JavaDocData>>>();
+        final int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), tasks.size());
+        if (numThreads <= 1) {
+
+            // No need for a thread pool.
+            for (ExtractionTask current : tasks) {
+                toReturn.add(current.call());
+            }
+        } else {
+
+            final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                for (Future<List<Map.Entry<SortableLocation, JavaDocData>>> current : executor.invokeAll(tasks)) {
+                    toReturn.add(current.get());
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while extracting JavaDoc.", e);
+            } catch (ExecutionException e) {
+
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Could not extract JavaDoc.", cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Log any cache problems within the calling thread.
+        for (ExtractionTask current : tasks) {
+            if (current.cacheWriteFailure != null && log.isWarnEnabled()) {
+                log.warn("Could not cache JavaDoc for [" + current + "]: " + current.cacheWriteFailure.getMessage());
+            }
+        }
+
+        // Remove all cache entries not used by this JavaDocExtractor, to prevent the cache from growing.
+        if (cache != null) {
+            final int numPruned = cache.prune();
+            if (numPruned > 0 && log.isDebugEnabled()) {
+                log.debug("Removed " + numPruned + " obsolete JavaDoc cache entries.");
+            }
+        }
 
-                for (JavaField currentField : currentClass.getFields()) {
+        // All done.
+        extractedSources.addAll(toReturn);
+        return toReturn;
+    }
 
-                    // Add the field-level JavaDoc
-                    final FieldLocation fieldLocation = new FieldLocation(
-                            packageName,
-                            simpleClassName,
-                            currentField.getName());
+    private static String getSourceIndexKey(final List<String> sourcePaths) {
 
-                    addEntry(dataHolder, fieldLocation, currentField);
+        // The extracted JavaDoc of a source depends on which other sources exist, as
+        // the types referenced within method signatures are resolved against them.
+        final List<String> sortedPaths = new ArrayList<String>(sourcePaths);
+        Collections.sort(sortedPaths);
+        return BuildCache.createKey(sortedPaths);
+    }
 
-                    if (log.isDebugEnabled()) {
-                        log.debug("Added field-level JavaDoc for [" + fieldLocation + "]");
-                    }
-                }
+    private static List<Map.Entry<SortableLocation, JavaDocData>> extract(final JavaSource source) {
 
-                for (JavaMethod currentMethod : currentClass.getMethods()) {
+        final List<Map.Entry<SortableLocation, JavaDocData>> toReturn
+                = new ArrayList<Map.Entry<SortableLocation, JavaDocData>>();
 
-                    // Add the method-level JavaDoc
-                    final MethodLocation location = new MethodLocation(packageName,
-                            simpleClassName,
-                            currentMethod.getName(),
-                            currentMethod.getParameters());
-                    addEntry(dataHolder, location, currentMethod);
+        // Add the package-level JavaDoc
+        final JavaPackage currentPackage = source.getPackage();
+        final String packageName = currentPackage.getName();
+        addExtracted(toReturn, new PackageLocation(packageName), currentPackage);
 
-                    if (log.isDebugEnabled()) {
-                        log.debug("Added method-level JavaDoc for [" + location + "]");
-                    }
-                }
+        for (JavaClass currentClass : source.getClasses()) {
+
+            // Add the class-level JavaDoc
+            final String simpleClassName = currentClass.getName();
+            addExtracted(toReturn, new ClassLocation(packageName, simpleClassName), currentClass);
+
+            for (JavaField currentField : currentClass.getFields()) {
+
+                // Add the field-level JavaDoc
+                final FieldLocation fieldLocation = new FieldLocation(
+                        packageName,
+                        simpleClassName,
+                        currentField.getName());
+                addExtracted(toReturn, fieldLocation, currentField);
+            }
+
+            for (JavaMethod currentMethod : currentClass.getMethods()) {
+
+                // Add the method-level JavaDoc
+                final MethodLocation location = new MethodLocation(packageName,
+                        simpleClassName,
+                        currentMethod.getName(),
+                        currentMethod.getParameters());
+                addExtracted(toReturn, location, currentMethod);
             }
         }
 
         // All done.
-        return new ReadOnlySearchableDocumentation(dataHolder);
+        return toReturn;
     }
 
-    //
-    // Private helpers
-    //
+    private static void addExtracted(final List<Map.Entry<SortableLocation, JavaDocData>> list,
+                                     final SortableLocation key,
+                                     final JavaAnnotatedElement value) {
+        list.add(new AbstractMap.SimpleImmutableEntry<SortableLocation, JavaDocData>(key,
+                new JavaDocData(value.getComment(), value.getTags())));
+    }
 
     private void addEntry(final SortedMap<SortableLocation, JavaDocData> map,
                           final SortableLocation key,
-                          final JavaAnnotatedElement value) {
+                          final JavaDocData value) {
 
         // Check sanity
         if (map.containsKey(key)) {
@@ -231,7 +400,7 @@ public class JavaDocExtractor {
                     }
                 }
             } else {
-                final String given = "[" + value.getClass().getName() + "]: " + value.getComment();
+                final String given = "[" + key.getClass().getName() + "]: " + value.getComment();
                 throw new IllegalArgumentException("Not processing duplicate SortableLocation [" + key + "]. "
                         + "\n Existing: " + existing
                         + ".\n Given: [" + given + "]");
@@ -241,7 +410,88 @@ public class JavaDocExtractor {
         // Validate.isTrue(!map.containsKey(key), "Found duplicate SortableLocation [" + key + "] in map. "
         //         + "Current map keySet: " + map.keySet() + ". Got comment: [" + value.getComment() + "]");
 
-        map.put(key, new JavaDocData(value.getComment(), value.getTags()));
+        map.put(key, value);
+    }
+
+    /**
+     * Task parsing a single Java source File or URL - or retrieving its previously extracted JavaDoc from the
+     * cache - using a private JavaProjectBuilder, to permit parsing several sources concurrently. Referenced
+     * types are resolved against the source folders of the JavaDocExtractor, implying that types declared in
+     * other sources are resolved as if all sources were parsed by a single JavaProjectBuilder.
+     */
+    private class ExtractionTask implements Callable<List<Map.Entry<SortableLocation, JavaDocData>>> {
+
+        // Internal state
+        private File file;
+        private URL url;
+        private String sourceIndexKey;
+        private IOException cacheWriteFailure;
+
+        ExtractionTask(final File file, final URL url, final String sourceIndexKey) {
+            this.file = file;
+            this.url = url;
+            this.sourceIndexKey = sourceIndexKey;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Map.Entry<SortableLocation, JavaDocData>> call() throws IllegalArgumentException {
+
+            try {
+
+                // Do we have previously extracted JavaDoc for identical content and sources?
+                String digest = null;
+                if (cache != null) {
+                    digest = BuildCache.createKey(Arrays.asList(
+                            StalenessManifest.digest(file != null ? new FileInputStream(file) : url.openStream()),
+                            sourceIndexKey,
+                            String.valueOf(encoding)));
+
+                    final List<Map.Entry<SortableLocation, JavaDocData>> cached = cache.read(digest);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
+
+                final JavaProjectBuilder builder = new JavaProjectBuilder();
+                if (encoding != null) {
+                    builder.setEncoding(encoding);
+                }
+                for (File current : sourceFolders) {
+                    builder.addSourceFolder(current);
+                }
+
+                final List<Map.Entry<SortableLocation, JavaDocData>> toReturn = extract(file != null
+                        ? builder.addSource(file)
+                        : builder.addSource(url));
+
+                if (cache != null) {
+                    try {
+                        cache.write(digest, toReturn);
+                    } catch (IOException e) {
+                        cacheWriteFailure = e;
+                    }
+                }
+
+                // All done.
+                return toReturn;
+
+            } catch (IOException e) {
+                throw new IllegalArgumentException(file != null
+                        ? "Could not add file [" + FileSystemUtilities.getCanonicalPath(file) + "]"
+                        : "Could not add URL [" + url.toString() + "]", e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return file != null ? FileSystemUtilities.getCanonicalPath(file) : url.toString();
+        }
     }
 
     /**
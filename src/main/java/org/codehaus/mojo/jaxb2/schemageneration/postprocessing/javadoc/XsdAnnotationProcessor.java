@@ -33,8 +33,11 @@ import org.w3c.dom.Node;
 import javax.xml.XMLConstants;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 
@@ -125,6 +128,9 @@ public class XsdAnnotationProcessor implements NodeProcessor {
     private SortedMap<ClassLocation, JavaDocData> classJavaDocs;
     private SortedMap<FieldLocation, JavaDocData> fieldJavaDocs;
     private SortedMap<MethodLocation, JavaDocData> methodJavaDocs;
+    private Map<String, ClassLocation> classLocationIndex;
+    private Map<String, FieldLocation> fieldLocationIndex;
+    private Map<String, MethodLocation> methodLocationIndex;
     private JavaDocRenderer renderer;
 
     /**
@@ -145,6 +151,11 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         this.fieldJavaDocs = docs.getAll(FieldLocation.class);
         this.methodJavaDocs = docs.getAll(MethodLocation.class);
         this.renderer = renderer;
+
+        // Index all locations once, to avoid scanning all locations for each processed Node.
+        this.classLocationIndex = createIndex(classJavaDocs.keySet(), true);
+        this.fieldLocationIndex = createIndex(fieldJavaDocs.keySet(), false);
+        this.methodLocationIndex = createIndex(methodJavaDocs.keySet(), false);
     }
 
     /**
@@ -179,11 +190,11 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         // Only process nodes corresponding to Types we have any JavaDoc for.
         // TODO: How should we handle PackageLocations and package documentation.
         boolean toReturn = false;
-        if (getMethodLocation(aNode, methodJavaDocs.keySet()) != null) {
+        if (getMethodLocation(aNode, methodLocationIndex) != null) {
             toReturn = true;
-        } else if (getFieldLocation(aNode, fieldJavaDocs.keySet()) != null) {
+        } else if (getFieldLocation(aNode, fieldLocationIndex) != null) {
             toReturn = true;
-        } else if (getClassLocation(aNode, classJavaDocs.keySet()) != null) {
+        } else if (getClassLocation(aNode, classLocationIndex) != null) {
             toReturn = true;
         }
 
@@ -201,19 +212,19 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         SortableLocation location = null;
 
         // Insert the documentation annotation into the current Node.
-        final ClassLocation classLocation = getClassLocation(aNode, classJavaDocs.keySet());
+        final ClassLocation classLocation = getClassLocation(aNode, classLocationIndex);
         if (classLocation != null) {
             javaDocData = classJavaDocs.get(classLocation);
             location = classLocation;
         } else {
 
-            final FieldLocation fieldLocation = getFieldLocation(aNode, fieldJavaDocs.keySet());
+            final FieldLocation fieldLocation = getFieldLocation(aNode, fieldLocationIndex);
             if (fieldLocation != null) {
                 javaDocData = fieldJavaDocs.get(fieldLocation);
                 location = fieldLocation;
             } else {
 
-                final MethodLocation methodLocation = getMethodLocation(aNode, methodJavaDocs.keySet());
+                final MethodLocation methodLocation = getMethodLocation(aNode, methodLocationIndex);
                 if (methodLocation != null) {
                     javaDocData = methodJavaDocs.get(methodLocation);
                     location = methodLocation;
@@ -255,11 +266,71 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         docElement.appendChild(xsdDocumentation);
     }
 
+    /**
+     * Retrieves the rendered documentation for an XSD element, identified without using a DOM model.
+     * The same JavaDoc lookup rules as for DOM Nodes apply, implying that documentation is only found for named
+     * complexType, element and attribute elements.
+     *
+     * @param localName           The local name of the XSD element, such as "complexType" or "element".
+     * @param name                The value of the "name" attribute of the XSD element, or {@code null} if none
+     *                            was given.
+     * @param containingClassName The value of the "name" attribute of the closest complexType element enclosing the
+     *                            XSD element, or {@code null} if there is no such named complexType.
+     * @return The rendered and trimmed documentation for the XSD element, or {@code null} if no JavaDoc was found.
+     * @since 2.2
+     */
+    public String getDocumentation(final String localName, final String name, final String containingClassName) {
+
+        // Check sanity
+        Validate.notEmpty(localName, "localName");
+
+        if (name == null) {
+            return null;
+        }
+
+        SortableLocation location = null;
+        JavaDocData javaDocData = null;
+
+        final String trimmedName = name.trim();
+        if ("complexType".equalsIgnoreCase(localName)) {
+
+            final ClassLocation classLocation = getClassLocation(trimmedName, classLocationIndex);
+            if (classLocation != null) {
+                location = classLocation;
+                javaDocData = classJavaDocs.get(classLocation);
+            }
+        } else if (FIELD_METHOD_ELEMENT_NAMES.contains(localName.toLowerCase()) && containingClassName != null) {
+
+            final String className = containingClassName.trim();
+            final FieldLocation fieldLocation = getFieldOrMethodLocationIfValid(trimmedName,
+                    className,
+                    fieldLocationIndex);
+            if (fieldLocation != null) {
+                location = fieldLocation;
+                javaDocData = fieldJavaDocs.get(fieldLocation);
+            } else {
+
+                final MethodLocation methodLocation = getFieldOrMethodLocationIfValid(trimmedName,
+                        className,
+                        methodLocationIndex);
+                if (methodLocation != null
+                        && MethodLocation.NO_PARAMETERS.equalsIgnoreCase(methodLocation.getParametersAsString())) {
+                    location = methodLocation;
+                    javaDocData = methodJavaDocs.get(methodLocation);
+                }
+            }
+        }
+
+        // All done.
+        return javaDocData == null ? null : renderer.render(javaDocData, location).trim();
+    }
+
     //
     // Private helpers
     //
 
-    private static MethodLocation getMethodLocation(final Node aNode, final Set<MethodLocation> methodLocations) {
+    private static MethodLocation getMethodLocation(final Node aNode,
+                                                    final Map<String, MethodLocation> methodLocationIndex) {
 
         MethodLocation toReturn = null;
 
@@ -267,7 +338,7 @@ public class XsdAnnotationProcessor implements NodeProcessor {
 
             final MethodLocation validLocation = getFieldOrMethodLocationIfValid(aNode,
                     getContainingClassOrNull(aNode),
-                    methodLocations);
+                    methodLocationIndex);
 
             // The MethodLocation should represent a normal getter; no arguments should be present.
             if (validLocation != null
@@ -280,12 +351,13 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         return toReturn;
     }
 
-    private static FieldLocation getFieldLocation(final Node aNode, final Set<FieldLocation> fieldLocations) {
+    private static FieldLocation getFieldLocation(final Node aNode,
+                                                  final Map<String, FieldLocation> fieldLocationIndex) {
 
         FieldLocation toReturn = null;
 
         if (aNode != null && FIELD_METHOD_ELEMENT_NAMES.contains(aNode.getLocalName().toLowerCase())) {
-            toReturn = getFieldOrMethodLocationIfValid(aNode, getContainingClassOrNull(aNode), fieldLocations);
+            toReturn = getFieldOrMethodLocationIfValid(aNode, getContainingClassOrNull(aNode), fieldLocationIndex);
         }
 
         // All done.
@@ -295,60 +367,84 @@ public class XsdAnnotationProcessor implements NodeProcessor {
     private static <T extends FieldLocation> T getFieldOrMethodLocationIfValid(
             final Node aNode,
             final Node containingClassNode,
-            final Set<? extends FieldLocation> locations) {
-
-        T toReturn = null;
-
-        if (containingClassNode != null) {
-
-            // Do we have a FieldLocation corresponding to the supplied Node?
-            for (FieldLocation current : locations) {
-
-                // Validate that the field and class names match the FieldLocation's corresponding values.
-                // Note that we cannot match package names here, as the generated XSD does not contain package
-                // information directly. Instead, we must get the Namespace for the generated Class, and compare
-                // it to the effective Namespace of the current Node.
-                //
-                // However, this is a computational-expensive operation, implying we would rather
-                // do it at processing time when the number of nodes are (considerably?) reduced.
-
-                final String fieldName = current.getMemberName();
-                final String className = current.getClassName();
-
-                try {
-                    if (fieldName.equalsIgnoreCase(getName(aNode))
-                            && className.equalsIgnoreCase(getName(containingClassNode))) {
-                        toReturn = (T) current;
-                    }
-                } catch (Exception e) {
-                    throw new IllegalStateException("Could not acquire FieldLocation for fieldName ["
-                            + fieldName + "] and className [" + className + "]", e);
-                }
-            }
+            final Map<String, T> locationIndex) {
+
+        if (containingClassNode == null) {
+            return null;
         }
 
-        // All done.
-        return toReturn;
+        return getFieldOrMethodLocationIfValid(getName(aNode), getName(containingClassNode), locationIndex);
     }
 
-    private static ClassLocation getClassLocation(final Node aNode, final Set<ClassLocation> classLocations) {
+    private static <T extends FieldLocation> T getFieldOrMethodLocationIfValid(
+            final String memberName,
+            final String containingClassName,
+            final Map<String, T> locationIndex) {
+
+        // Note that we cannot match package names here, as the generated XSD does not contain package
+        // information directly. Instead, we would need to get the Namespace for the generated Class, and compare
+        // it to the effective Namespace of the current Node.
+        if (memberName == null || containingClassName == null) {
+            return null;
+        }
 
-        if (aNode != null && "complexType".equalsIgnoreCase(aNode.getLocalName())) {
+        return locationIndex.get(getIndexKey(containingClassName, memberName));
+    }
 
-            final String nodeClassName = getName(aNode);
-            for (ClassLocation current : classLocations) {
+    private static ClassLocation getClassLocation(final Node aNode,
+                                                  final Map<String, ClassLocation> classLocationIndex) {
 
-                // TODO: Ensure that the namespace of the supplied aNode matches the expected namespace.
-                if (current.getClassName().equalsIgnoreCase(nodeClassName)) {
-                    return current;
-                }
-            }
+        if (aNode != null && "complexType".equalsIgnoreCase(aNode.getLocalName())) {
+            return getClassLocation(getName(aNode), classLocationIndex);
         }
 
         // Nothing found
         return null;
     }
 
+    private static ClassLocation getClassLocation(final String className,
+                                                  final Map<String, ClassLocation> classLocationIndex) {
+
+        // TODO: Ensure that the namespace of the supplied aNode matches the expected namespace.
+        return className == null ? null : classLocationIndex.get(getIndexKey(className, null));
+    }
+
+    /**
+     * Creates a case-insensitive index of the supplied locations. Should several locations share
+     * the same index key, the first (for ClassLocations) or last (for FieldLocations and MethodLocations)
+     * location in sort order is indexed, as was done by the original linear lookup.
+     *
+     * @param locations  The sorted locations to index.
+     * @param keepFirst  if {@code true}, the first location for each index key is kept.
+     *                   Otherwise, the last location is kept.
+     * @param <T>        The ClassLocation subtype.
+     * @return A Map relating index keys to locations.
+     */
+    private static <T extends ClassLocation> Map<String, T> createIndex(final Set<T> locations,
+                                                                        final boolean keepFirst) {
+
+        final Map<String, T> toReturn = new HashMap<String, T>();
+        for (T current : locations) {
+
+            final String key = current instanceof FieldLocation
+                    ? getIndexKey(current.getClassName(), ((FieldLocation) current).getMemberName())
+                    : getIndexKey(current.getClassName(), null);
+
+            if (!keepFirst || !toReturn.containsKey(key)) {
+                toReturn.put(key, current);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static String getIndexKey(final String className, final String memberName) {
+
+        final String classKey = className.toLowerCase(Locale.ENGLISH);
+        return memberName == null ? classKey : classKey + "#" + memberName.toLowerCase(Locale.ENGLISH);
+    }
+
     private static String getName(final Node aNode) {
 
         final NamedNodeMap attributes = aNode.getAttributes();
@@ -66,6 +66,29 @@ public class MethodLocation extends FieldLocation {
         }
     }
 
+    /**
+     * Creates a MethodLocation with the supplied, already stringified, parameter types.
+     *
+     * @param packageName        The name of the package holding the method.
+     * @param className          The simple name of the class holding the method.
+     * @param memberName         The name of the method.
+     * @param parametersAsString The parameter types of the method, as returned by {@link #getParametersAsString()}.
+     * @since 2.2
+     */
+    public MethodLocation(final String packageName,
+                          final String className,
+                          final String memberName,
+                          final String parametersAsString) {
+
+        super(packageName, className, memberName);
+
+        // Check sanity
+        Validate.notEmpty(parametersAsString, "parametersAsString");
+
+        // Assign internal state
+        this.parameters = parametersAsString;
+    }
+
     /**
      * {@inheritDoc}
      */
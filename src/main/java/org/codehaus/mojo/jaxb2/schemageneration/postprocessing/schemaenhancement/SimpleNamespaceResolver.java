@@ -29,6 +29,9 @@ import org.w3c.dom.Node;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
@@ -79,6 +82,59 @@ public class SimpleNamespaceResolver implements NamespaceContext {
         }
     }
 
+    /**
+     * Creates a new SimpleNamespaceResolver which collects namespace data
+     * from the provided, already parsed, XML document.
+     *
+     * @param sourceFilename The name of the file from which the document was parsed, should not be null.
+     * @param document       The parsed XML document from which to collect namespace data, should not be null.
+     * @since 2.2
+     */
+    public SimpleNamespaceResolver(final String sourceFilename, final Document document) {
+        this.sourceFilename = sourceFilename;
+
+        // Process the DOM model.
+        XsdGeneratorHelper.process(document.getFirstChild(), true, new NamespaceAttributeNodeProcessor());
+    }
+
+    /**
+     * Creates a new SimpleNamespaceResolver which collects namespace data by streaming through
+     * the remainder of the XML document read by the supplied XMLStreamReader. No DOM model is built.
+     *
+     * @param sourceFilename The name of the file from which the document is read, should not be null.
+     * @param reader         The XMLStreamReader from which to collect namespace data, should not be null.
+     * @since 2.2
+     */
+    public SimpleNamespaceResolver(final String sourceFilename, final XMLStreamReader reader) {
+        this.sourceFilename = sourceFilename;
+
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+
+                    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                        final String prefix = reader.getNamespacePrefix(i);
+                        addNamespace(prefix == null || XMLConstants.DEFAULT_NS_PREFIX.equals(prefix)
+                                ? DEFAULT_NS
+                                : prefix, reader.getNamespaceURI(i));
+                    }
+
+                    // Is this the schema element holding the targetNamespace attribute?
+                    if (XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(reader.getNamespaceURI())
+                            && SCHEMA.equalsIgnoreCase(reader.getLocalName())) {
+
+                        final String targetNamespace = reader.getAttributeValue(null, TARGET_NAMESPACE);
+                        if (targetNamespace != null) {
+                            this.localNamespaceURI = targetNamespace;
+                        }
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Could not read namespaces from [" + sourceFilename + "]", e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -193,23 +249,32 @@ public class SimpleNamespaceResolver implements NamespaceContext {
             // If we have no namespace, use the DEFAULT_NS as the prefix
             final String cacheKey =
                     (XMLConstants.XMLNS_ATTRIBUTE.equals(aNode.getNodeName())) ? DEFAULT_NS : aNode.getLocalName();
-            final String nodeValue = aNode.getNodeValue();
 
-            // Cache the namespace in both caches.
-            final String oldUriValue = prefix2Uri.put(cacheKey, nodeValue);
-            final String oldPrefixValue = uri2Prefix.put(nodeValue, cacheKey);
+            addNamespace(cacheKey, aNode.getNodeValue());
+        }
+    }
 
-            // Check sanity; we should not be overwriting values here.
-            if (oldUriValue != null) {
-                throw new IllegalStateException(
-                        "Replaced URI [" + oldUriValue + "] with [" + aNode.getNodeValue() + "] for prefix [" + cacheKey
-                                + "]");
-            }
-            if (oldPrefixValue != null) {
-                throw new IllegalStateException(
-                        "Replaced prefix [" + oldPrefixValue + "] with [" + cacheKey + "] for URI [" + aNode.getNodeValue()
-                                + "]");
-            }
+    /**
+     * Caches the supplied namespace in both caches.
+     *
+     * @param cacheKey     The namespace prefix, or DEFAULT_NS for the default namespace.
+     * @param namespaceURI The namespace URI.
+     */
+    private void addNamespace(final String cacheKey, final String namespaceURI) {
+
+        final String oldUriValue = prefix2Uri.put(cacheKey, namespaceURI);
+        final String oldPrefixValue = uri2Prefix.put(namespaceURI, cacheKey);
+
+        // Check sanity; we should not be overwriting values here.
+        if (oldUriValue != null) {
+            throw new IllegalStateException(
+                    "Replaced URI [" + oldUriValue + "] with [" + namespaceURI + "] for prefix [" + cacheKey
+                            + "]");
+        }
+        if (oldPrefixValue != null) {
+            throw new IllegalStateException(
+                    "Replaced prefix [" + oldPrefixValue + "] with [" + cacheKey + "] for URI [" + namespaceURI
+                            + "]");
         }
     }
 }
\ No newline at end of file
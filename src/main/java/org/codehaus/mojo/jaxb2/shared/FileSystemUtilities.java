@@ -12,14 +12,27 @@ import org.codehaus.plexus.util.StringUtils;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The Jaxb2 Maven Plugin needs to fiddle with the filesystem a great deal, to create and optionally prune
@@ -71,7 +84,34 @@ public final class FileSystemUtilities {
     private static final String[] INVALID_CHARACTERS_FOR_WINDOWS_FILE_NAME = {":", "*", "?", "\"", "<", ">", "|"};
 
     /**
-     * Acquires the canonical File for the supplied file.
+     * Directories within this many levels below the root of a walk are walked as separate fork/join tasks.
+     */
+    private static final int WALK_FORK_DEPTH = 2;
+    private static final ForkJoinPool WALK_POOL = new ForkJoinPool();
+
+    /**
+     * The maximum number of canonical paths retained by the canonical path cache.
+     */
+    public static final int CANONICAL_PATH_CACHE_SIZE = 4096;
+
+    // Internal state
+    private static final Object CANONICAL_PATH_LOCK = new Object();
+    private static final Map<String, String> CANONICAL_PATHS = new LinkedHashMap<String, String>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > CANONICAL_PATH_CACHE_SIZE;
+        }
+    };
+    private static final AtomicLong CANONICAL_PATH_HITS = new AtomicLong();
+    private static final AtomicLong CANONICAL_PATH_MISSES = new AtomicLong();
+    private static WeakReference<Object> canonicalPathScope = new WeakReference<Object>(null);
+
+    /**
+     * <p>Acquires the canonical File for the supplied file.</p>
+     * <p>Canonical paths are cached (up to {@value #CANONICAL_PATH_CACHE_SIZE} paths, least recently used are
+     * evicted first) within the scope assigned by {@link #setCanonicalPathCacheScope(Object)}. Cached paths
+     * at or below a directory are invalidated when the directory is created or cleaned by
+     * {@link #createDirectory(File, boolean)}.</p>
      *
      * @param file A non-null File for which the canonical File should be retrieved.
      * @return The canonical File of the supplied file.
@@ -81,15 +121,77 @@ public final class FileSystemUtilities {
         // Check sanity
         Validate.notNull(file, "file");
 
+        final String absolutePath = file.getAbsolutePath();
+        synchronized (CANONICAL_PATH_LOCK) {
+
+            final String cachedPath = CANONICAL_PATHS.get(absolutePath);
+            if (cachedPath != null) {
+                CANONICAL_PATH_HITS.incrementAndGet();
+                return new File(cachedPath);
+            }
+        }
+
         // All done
         try {
-            return file.getCanonicalFile();
+
+            final File toReturn = file.getCanonicalFile();
+            CANONICAL_PATH_MISSES.incrementAndGet();
+            synchronized (CANONICAL_PATH_LOCK) {
+                CANONICAL_PATHS.put(absolutePath, toReturn.getPath());
+            }
+            return toReturn;
+
         } catch (IOException e) {
             throw new IllegalArgumentException("Could not acquire the canonical file for ["
-                    + file.getAbsolutePath() + "]", e);
+                    + absolutePath + "]", e);
+        }
+    }
+
+    /**
+     * Assigns the scope (typically the active MavenSession) within which canonical paths are cached.
+     * All cached canonical paths are discarded if the supplied scope differs from the current one.
+     *
+     * @param scope The non-null scope within which canonical paths may be cached.
+     */
+    public static void setCanonicalPathCacheScope(final Object scope) {
+
+        // Check sanity
+        Validate.notNull(scope, "scope");
+
+        synchronized (CANONICAL_PATH_LOCK) {
+            if (canonicalPathScope.get() != scope) {
+                canonicalPathScope = new WeakReference<Object>(scope);
+                CANONICAL_PATHS.clear();
+            }
         }
     }
 
+    /**
+     * @return The number of canonical path lookups served by the canonical path cache.
+     */
+    public static long getCanonicalPathCacheHits() {
+        return CANONICAL_PATH_HITS.get();
+    }
+
+    /**
+     * @return The number of canonical path lookups which required resolving the path through the file system.
+     */
+    public static long getCanonicalPathCacheMisses() {
+        return CANONICAL_PATH_MISSES.get();
+    }
+
+    /**
+     * Discards all cached canonical paths, and resets the hit and miss counters.
+     */
+    public static void clearCanonicalPathCache() {
+
+        synchronized (CANONICAL_PATH_LOCK) {
+            CANONICAL_PATHS.clear();
+        }
+        CANONICAL_PATH_HITS.set(0);
+        CANONICAL_PATH_MISSES.set(0);
+    }
+
     /**
      * <p>Retrieves the canonical File matching the supplied path in the following order or priority:</p>
      * <ol>
@@ -409,7 +511,12 @@ public final class FileSystemUtilities {
                 if (isAcceptedFile) {
                     toReturn.add(current);
                 } else if (isAcceptedDirectory) {
-                    recurseAndPopulate(toReturn, effectiveExclusions, current, true, log);
+                    toReturn.addAll(walkFileTree(current, new FileFilter() {
+                        @Override
+                        public boolean accept(final File candidate) {
+                            return isAccepted(candidate, effectiveExclusions, true, log);
+                        }
+                    }, log));
                 }
             }
         }
@@ -418,6 +525,33 @@ public final class FileSystemUtilities {
         return toReturn;
     }
 
+    /**
+     * <p>Walks the supplied directory recursively, and retrieves all regular files within it which are accepted
+     * by the supplied FileFilter. Directories rejected by the FileFilter are pruned, implying that their content
+     * is never listed. Directories close to the supplied root directory are walked in parallel.</p>
+     * <p>Symbolic links are followed; file system loops and unreadable files are ignored.</p>
+     *
+     * @param directory The directory to walk. Cannot be null.
+     * @param filter    The FileFilter which must accept a file (and all directories containing it, below the
+     *                  supplied directory) for that file to be included in the result. Cannot be null.
+     * @param log       The active Maven Log. Cannot be null.
+     * @return All regular files below the supplied directory accepted by the supplied FileFilter.
+     */
+    public static List<File> walkFileTree(final File directory, final FileFilter filter, final Log log) {
+
+        // Check sanity
+        Validate.notNull(directory, "directory");
+        Validate.notNull(filter, "filter");
+        Validate.notNull(log, "log");
+
+        if (!EXISTING_DIRECTORY.accept(directory)) {
+            return new ArrayList<File>();
+        }
+
+        // All done.
+        return WALK_POOL.invoke(new FileTreeWalkTask(directory.toPath(), filter, 0, log));
+    }
+
     /**
      * Convenience method to successfully create a directory - or throw an exception if failing to create it.
      *
@@ -433,6 +567,9 @@ public final class FileSystemUtilities {
         Validate.notNull(aDirectory, "aDirectory");
         validateFileOrDirectoryName(aDirectory);
 
+        // The canonical paths of the directory (and anything within it) may change.
+        invalidateCanonicalPaths(aDirectory);
+
         // Clean an existing directory?
         if (cleanBeforeCreate) {
             try {
@@ -554,22 +691,58 @@ public final class FileSystemUtilities {
         // [Include Operation]: all files will be rejected
         // [Exclude Operation]: all files will be included
         //
+        if (isAccepted(current, fileFilters, excludeFilterOperation, log)) {
+            toPopulate.add(current);
+        }
+    }
+
+    private static boolean isAccepted(final File current,
+                                      final List<Filter<File>> fileFilters,
+                                      final boolean excludeFilterOperation,
+                                      final Log log) {
+
         final boolean noFilters = fileFilters == null || fileFilters.isEmpty();
-        final boolean addFile = excludeFilterOperation
+        final boolean toReturn = excludeFilterOperation
                 ? noFilters || Filters.rejectAtLeastOnce(current, fileFilters)
                 : noFilters || Filters.matchAtLeastOnce(current, fileFilters);
-        final String logPrefix = (addFile ? "Accepted " : "Rejected ")
-                + (current.isDirectory() ? "directory" : "file") + " [";
 
-        if (addFile) {
-            toPopulate.add(current);
+        if (log.isDebugEnabled()) {
+            log.debug((toReturn ? "Accepted " : "Rejected ") + (current.isDirectory() ? "directory" : "file")
+                    + " [" + getCanonicalPath(current) + "]");
         }
 
-        if (log.isDebugEnabled()) {
-            log.debug(logPrefix + getCanonicalPath(current) + "]");
+        // All done.
+        return toReturn;
+    }
+
+    private static void invalidateCanonicalPaths(final File aDirectory) {
+
+        // Cached paths are keyed by their absolute path, which may hold '.' or '..' segments. These are not removed
+        // from the keys themselves, since resolving '..' after a symbolic link differs from removing it lexically.
+        final Path directoryPath = normalize(aDirectory.getAbsolutePath());
+        Path canonicalDirectoryPath = directoryPath;
+        try {
+            canonicalDirectoryPath = aDirectory.getCanonicalFile().toPath();
+        } catch (IOException e) {
+            // Ignore this; the normalized path is used instead.
+        }
+
+        synchronized (CANONICAL_PATH_LOCK) {
+            for (Iterator<Map.Entry<String, String>> it = CANONICAL_PATHS.entrySet().iterator(); it.hasNext(); ) {
+
+                final Map.Entry<String, String> current = it.next();
+                if (normalize(current.getKey()).startsWith(directoryPath)
+                        || normalize(current.getValue()).startsWith(canonicalDirectoryPath)) {
+                    it.remove();
+                }
+            }
         }
     }
 
+    private static Path normalize(final String path) {
+        return new File(path).toPath().normalize();
+    }
+
     private static void validateFileOrDirectoryName(final File fileOrDir) {
 
         if (Os.isFamily(Os.FAMILY_WINDOWS) && !FileUtils.isValidWindowsFileName(fileOrDir)) {
@@ -579,21 +752,107 @@ public final class FileSystemUtilities {
         }
     }
 
-    private static void recurseAndPopulate(final List<File> toPopulate,
-                                           final List<Filter<File>> fileFilters,
-                                           final File aDirectory,
-                                           final boolean excludeOperation,
-                                           final Log log) {
+    /**
+     * Fork/join task walking a directory tree, pruning directories rejected by its FileFilter. Subdirectories
+     * immediately below the walked directory are forked into separate tasks unless the walked directory is
+     * more than {@value #WALK_FORK_DEPTH} levels below the root of the walk; deeper subtrees are walked
+     * sequentially within the task. The results of forked subtrees are merged in directory listing order,
+     * implying that files are returned in the same (depth-first) order as when walking sequentially.
+     */
+    private static final class FileTreeWalkTask extends RecursiveTask<List<File>> {
+
+        // Internal state
+        private final Path directory;
+        private final FileFilter filter;
+        private final int depth;
+        private final Log log;
+
+        FileTreeWalkTask(final Path directory, final FileFilter filter, final int depth, final Log log) {
+            this.directory = directory;
+            this.filter = filter;
+            this.depth = depth;
+            this.log = log;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<File> compute() {
+
+            // Holds accepted Files and forked FileTreeWalkTasks, in directory listing order.
+            final List<Object> filesAndForkedTasks = new ArrayList<Object>();
+
+            try {
+                Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                        new SimpleFileVisitor<Path>() {
+
+                            @Override
+                            public FileVisitResult preVisitDirectory(final Path dir,
+                                                                     final BasicFileAttributes attributes) {
+
+                                if (dir.equals(directory)) {
+                                    return FileVisitResult.CONTINUE;
+                                }
+
+                                // Prune excluded subtrees before descending into them.
+                                if (!filter.accept(dir.toFile())) {
+                                    return FileVisitResult.SKIP_SUBTREE;
+                                }
 
-        final List<File> files = listFiles(aDirectory, fileFilters, excludeOperation, log);
-        for (File current : files) {
-            if (EXISTING_FILE.accept(current)) {
-                toPopulate.add(current);
+                                if (depth < WALK_FORK_DEPTH && directory.equals(dir.getParent())) {
+
+                                    final FileTreeWalkTask subtreeTask = new FileTreeWalkTask(
+                                            dir, filter, depth + 1, log);
+                                    subtreeTask.fork();
+                                    filesAndForkedTasks.add(subtreeTask);
+                                    return FileVisitResult.SKIP_SUBTREE;
+                                }
+
+                                return FileVisitResult.CONTINUE;
+                            }
+
+                            @Override
+                            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+
+                                if (attributes.isRegularFile()) {
+
+                                    final File candidate = file.toFile();
+                                    if (filter.accept(candidate)) {
+                                        filesAndForkedTasks.add(candidate);
+                                    }
+                                }
+
+                                return FileVisitResult.CONTINUE;
+                            }
+
+                            @Override
+                            public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+
+                                if (log.isDebugEnabled()) {
+                                    log.debug("Ignored unreadable file or directory [" + file + "]: "
+                                            + e.getMessage());
+                                }
+
+                                return FileVisitResult.CONTINUE;
+                            }
+                        });
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not walk directory [" + directory + "]", e);
             }
 
-            if (EXISTING_DIRECTORY.accept(current)) {
-                recurseAndPopulate(toPopulate, fileFilters, current, excludeOperation, log);
+            // Merge the results of the forked subtree walks in place.
+            final List<File> toReturn = new ArrayList<File>();
+            for (Object current : filesAndForkedTasks) {
+                if (current instanceof FileTreeWalkTask) {
+                    toReturn.addAll(((FileTreeWalkTask) current).join());
+                } else {
+                    toReturn.add((File) current);
+                }
             }
+
+            // All done.
+            return toReturn;
         }
     }
 }
@@ -0,0 +1,275 @@
+package org.codehaus.mojo.jaxb2.shared.cache;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * <p>Local, content-addressed cache holding directory trees generated by JAXB tool executions.
+ * Each cache entry is a directory named by its key (a SHA-256 digest of everything that defines the
+ * generated result), implying that entries are never updated once written. Entries are written to a
+ * temporary directory and then moved into place, so concurrent builds sharing a cache directory
+ * never observe partially written entries.</p>
+ * <p>Files are restored by copying or, optionally, by hard-linking them from the cache entry.
+ * Copied files are given a current modification timestamp, to ensure that incremental compilers
+ * do not consider them older than previously compiled classes. Hard-linked files share their inode
+ * (and hence their content and timestamp) with the cache entry, and are therefore left untouched;
+ * such restored files must be treated as read-only, since any in-place modification would also
+ * corrupt the cache entry for all other builds using it.</p>
+ *
+ * @since 2.2
+ */
+public class BuildCache {
+
+    // Internal state
+    private static final String KEY_ALGORITHM = "SHA-256";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private File cacheDirectory;
+    private boolean useHardLinks;
+    private Log log;
+
+    /**
+     * Creates a new BuildCache using the supplied cache directory.
+     *
+     * @param cacheDirectory The root directory of this BuildCache. Created when the first entry is stored.
+     * @param useHardLinks   if {@code true}, restored files are hard-linked from the cache entries where
+     *                       the file system permits it, and copied otherwise.
+     * @param log            The active Maven Log.
+     */
+    public BuildCache(final File cacheDirectory, final boolean useHardLinks, final Log log) {
+
+        // Check sanity
+        Validate.notNull(cacheDirectory, "cacheDirectory");
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.cacheDirectory = cacheDirectory;
+        this.useHardLinks = useHardLinks;
+        this.log = log;
+    }
+
+    /**
+     * Synthesizes a cache key from the supplied key parts.
+     *
+     * @param keyParts The non-null strings which - in order - define the generated result to be cached.
+     * @return A lowercase, hexadecimal SHA-256 digest of the supplied key parts.
+     */
+    public static String createKey(final List<String> keyParts) {
+
+        // Check sanity
+        Validate.notNull(keyParts, "keyParts");
+
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(KEY_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Required digest algorithm [" + KEY_ALGORITHM + "] not available.", e);
+        }
+
+        for (String current : keyParts) {
+            try {
+                digest.update(String.valueOf(current).getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException("UTF-8 encoding not supported.", e);
+            }
+
+            // Separate the parts, to distinguish ["ab", "c"] from ["a", "bc"].
+            digest.update((byte) 0);
+        }
+
+        final byte[] bytes = digest.digest();
+        final char[] toReturn = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            toReturn[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            toReturn[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(toReturn);
+    }
+
+    /**
+     * Restores the content of the cache entry with the supplied key into the given target directory.
+     *
+     * @param key             The cache key, as created by {@link #createKey(List)}.
+     * @param targetDirectory The directory into which the cached files should be restored.
+     * @return {@code true} if the cache held an entry for the supplied key, which was restored.
+     * @throws IOException if the cache entry existed but could not be restored.
+     */
+    public boolean restore(final String key, final File targetDirectory) throws IOException {
+
+        // Check sanity
+        Validate.notEmpty(key, "key");
+        Validate.notNull(targetDirectory, "targetDirectory");
+
+        final File entry = getEntryDirectory(key);
+        if (!entry.isDirectory()) {
+
+            if (log.isDebugEnabled()) {
+                log.debug("Build cache miss for key [" + key + "]");
+            }
+            return false;
+        }
+
+        final int numFiles = transferTree(entry, targetDirectory, useHardLinks);
+        if (log.isInfoEnabled()) {
+            log.info("Restored " + numFiles + " files from build cache entry ["
+                    + FileSystemUtilities.getCanonicalPath(entry) + "]");
+        }
+
+        // All done.
+        return true;
+    }
+
+    /**
+     * Stores the content of the supplied source directory as the cache entry with the given key.
+     * Nothing is stored if an entry with the given key already exists.
+     *
+     * @param key             The cache key, as created by {@link #createKey(List)}.
+     * @param sourceDirectory The directory holding the generated files to cache.
+     * @throws IOException if the cache entry could not be stored.
+     */
+    public void store(final String key, final File sourceDirectory) throws IOException {
+
+        // Check sanity
+        Validate.notEmpty(key, "key");
+        Validate.notNull(sourceDirectory, "sourceDirectory");
+
+        final File entry = getEntryDirectory(key);
+        if (entry.isDirectory() || !sourceDirectory.isDirectory()) {
+            return;
+        }
+
+        // Write the entry to a temporary directory, and move it into place when completed.
+        final File temporaryEntry = new File(entry.getParentFile(),
+                key + "." + System.nanoTime() + TEMPORARY_SUFFIX);
+        try {
+
+            final int numFiles = transferTree(sourceDirectory, temporaryEntry, false);
+            moveIntoPlace(temporaryEntry, entry);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Stored " + numFiles + " files in build cache entry ["
+                        + FileSystemUtilities.getCanonicalPath(entry) + "]");
+            }
+        } catch (IOException e) {
+
+            // Did another build store the same entry concurrently?
+            if (!entry.isDirectory()) {
+                throw e;
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Build cache entry [" + key + "] was stored concurrently. Discarding our copy.");
+            }
+        } finally {
+            if (temporaryEntry.exists()) {
+                FileUtils.deleteDirectory(temporaryEntry);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the directory holding the cache entry with the supplied key.
+     * Entries are spread over subdirectories named by the first two characters of their keys.
+     *
+     * @param key The cache key.
+     * @return The directory holding the cache entry with the supplied key, which may not exist.
+     */
+    public File getEntryDirectory(final String key) {
+        return new File(new File(cacheDirectory, key.substring(0, 2)), key);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static void moveIntoPlace(final File temporaryEntry, final File entry) throws IOException {
+        try {
+            Files.move(temporaryEntry.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryEntry.toPath(), entry.toPath());
+        }
+    }
+
+    private static int transferTree(final File sourceDirectory,
+                                    final File targetDirectory,
+                                    final boolean tryHardLinks) throws IOException {
+
+        if (!targetDirectory.isDirectory() && !targetDirectory.mkdirs()) {
+            throw new IOException("Could not create directory ["
+                    + FileSystemUtilities.getCanonicalPath(targetDirectory) + "]");
+        }
+
+        int toReturn = 0;
+        final File[] children = sourceDirectory.listFiles();
+        if (children == null) {
+            throw new IOException("Could not list directory ["
+                    + FileSystemUtilities.getCanonicalPath(sourceDirectory) + "]");
+        }
+
+        for (File current : children) {
+
+            final File target = new File(targetDirectory, current.getName());
+            if (current.isDirectory()) {
+                toReturn += transferTree(current, target, tryHardLinks);
+            } else {
+
+                boolean linked = false;
+                if (tryHardLinks) {
+                    try {
+                        Files.deleteIfExists(target.toPath());
+                        Files.createLink(target.toPath(), current.toPath());
+                        linked = true;
+                    } catch (IOException e) {
+                        // Fall back to copying; the file system may not support hard links.
+                    } catch (UnsupportedOperationException e) {
+                        // Fall back to copying; the file system may not support hard links.
+                    }
+                }
+
+                if (!linked) {
+                    Files.copy(current.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+                    // Give the copied file a current timestamp.
+                    // Linked files are left untouched, as they share their inode with the cache entry.
+                    target.setLastModified(System.currentTimeMillis());
+                }
+                toReturn++;
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+}
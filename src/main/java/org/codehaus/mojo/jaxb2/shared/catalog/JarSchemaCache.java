@@ -0,0 +1,315 @@
+package org.codehaus.mojo.jaxb2.shared.catalog;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * <p>On-disk cache of schema resources (such as XSDs, XJBs, WSDLs and DTDs) hosted within JAR files. Each JAR is
+ * opened and indexed once per process; all its schema resources are extracted into a cache directory of its own,
+ * whose name is a digest of the path, size and modification timestamp of the JAR. Thus, a modified JAR is
+ * extracted into a new directory, while unmodified JARs are never extracted again.</p>
+ * <p>All schema resources of a JAR are extracted together, implying that relative references between them are
+ * resolvable from the extracted copies. Reading {@code jar:} URLs through their extracted copies avoids
+ * re-opening (and re-scanning the central directory of) the JAR for each resource.</p>
+ *
+ * @since 2.2
+ */
+public class JarSchemaCache {
+
+    /**
+     * The (lowercase) file suffixes of JAR entries extracted into the cache.
+     */
+    public static final List<String> EXTRACTED_SUFFIXES = Collections.unmodifiableList(
+            Arrays.asList(".xsd", ".xjb", ".wsdl", ".dtd", ".ent", ".mod", ".xml", ".cat"));
+
+    // Internal state
+    private static final Map<String, Set<String>> INDEXED_JARS = new HashMap<String, Set<String>>();
+    private File cacheDirectory;
+    private Log log;
+
+    /**
+     * Creates a new JarSchemaCache extracting schema resources into the supplied cache directory.
+     *
+     * @param cacheDirectory The root directory of the cache. Cannot be null. Can be shared between projects
+     *                       and concurrent builds on the same machine.
+     * @param log            The active Maven Log. Cannot be null.
+     */
+    public JarSchemaCache(final File cacheDirectory, final Log log) {
+
+        // Check sanity
+        Validate.notNull(cacheDirectory, "cacheDirectory");
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.cacheDirectory = cacheDirectory;
+        this.log = log;
+    }
+
+    /**
+     * Retrieves the extracted copy of the JAR entry referred to by the supplied URL, indexing and extracting
+     * the schema resources of its JAR file unless already done.
+     *
+     * @param url The URL of a resource. Cannot be null.
+     * @return The extracted copy of the resource, or {@code null} if the supplied URL does not refer to a schema
+     * resource within a local JAR file.
+     * @throws IOException if the JAR file could not be indexed or extracted.
+     */
+    public File getLocalFile(final URL url) throws IOException {
+
+        // Check sanity
+        Validate.notNull(url, "url");
+
+        final EntryLocation location = locate(url);
+        if (location == null) {
+            return null;
+        }
+
+        final Set<String> extractedEntries = getExtractedEntries(location.jarFile, location.extractionDirectory);
+
+        // All done.
+        return extractedEntries.contains(location.entryName) ? location.getLocalFile() : null;
+    }
+
+    /**
+     * Retrieves the location of the extracted copy of the JAR entry referred to by the supplied URL, without
+     * indexing or extracting its JAR file. The location is only valid if the JAR file holds the entry.
+     *
+     * @param url The URL of a resource. Cannot be null.
+     * @return The location of the extracted copy of the resource, or {@code null} if the supplied URL does not
+     * refer to a schema resource within a local JAR file.
+     * @throws IOException if the supplied URL could not be parsed.
+     */
+    public File getLocalFileLocation(final URL url) throws IOException {
+
+        // Check sanity
+        Validate.notNull(url, "url");
+
+        final EntryLocation location = locate(url);
+        return location == null || !isExtracted(location.entryName) ? null : location.getLocalFile();
+    }
+
+    /**
+     * Retrieves a local {@code file:} URL for the supplied URL, if it refers to a schema resource within a local
+     * JAR file.
+     *
+     * @param url The URL of a resource. Cannot be null.
+     * @return A {@code file:} URL to the extracted copy of the resource, or the supplied URL if it does not refer
+     * to a schema resource within a local JAR file.
+     * @throws IOException if the JAR file could not be indexed or extracted.
+     */
+    public URL localize(final URL url) throws IOException {
+
+        final File localFile = getLocalFile(url);
+        return localFile == null ? url : FileSystemUtilities.getUrlFor(localFile);
+    }
+
+    /**
+     * @return The number of JAR files indexed within this process. Intended for testing.
+     */
+    static int getNumberOfIndexedJars() {
+        synchronized (INDEXED_JARS) {
+            return INDEXED_JARS.size();
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private EntryLocation locate(final URL url) throws IOException {
+
+        if (!"jar".equalsIgnoreCase(url.getProtocol())) {
+            return null;
+        }
+
+        // Parse the URL; no connection to the JAR is made.
+        final URLConnection connection = url.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            return null;
+        }
+        final URL jarFileUrl = ((JarURLConnection) connection).getJarFileURL();
+        final String entryName = ((JarURLConnection) connection).getEntryName();
+        if (entryName == null || !"file".equalsIgnoreCase(jarFileUrl.getProtocol())) {
+            return null;
+        }
+
+        final File jarFile = FileSystemUtilities.getCanonicalFile(FileSystemUtilities.getFileFor(jarFileUrl, "UTF-8"));
+        if (!jarFile.isFile()) {
+            return null;
+        }
+
+        // All done.
+        return new EntryLocation(jarFile, entryName, new File(cacheDirectory, getDirectoryName(jarFile)));
+    }
+
+    private Set<String> getExtractedEntries(final File jarFile, final File extractionDirectory) throws IOException {
+
+        final String key = extractionDirectory.getAbsolutePath();
+        synchronized (INDEXED_JARS) {
+
+            Set<String> toReturn = INDEXED_JARS.get(key);
+            if (toReturn == null) {
+
+                toReturn = Collections.unmodifiableSet(extract(jarFile, extractionDirectory));
+                INDEXED_JARS.put(key, toReturn);
+            }
+
+            // All done.
+            return toReturn;
+        }
+    }
+
+    private Set<String> extract(final File jarFile, final File extractionDirectory) throws IOException {
+
+        final Set<String> toReturn = new TreeSet<String>();
+        final String directoryPath = FileSystemUtilities.getCanonicalPath(extractionDirectory) + File.separator;
+        int numExtracted = 0;
+
+        final JarFile jar = new JarFile(jarFile);
+        try {
+
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+
+                final JarEntry current = entries.nextElement();
+                if (current.isDirectory() || !isExtracted(current.getName())) {
+                    continue;
+                }
+
+                // Never extract entries outside of the extraction directory.
+                final File target = new File(extractionDirectory, current.getName());
+                if (!FileSystemUtilities.getCanonicalPath(target).startsWith(directoryPath)) {
+                    log.warn("Ignoring JAR entry [" + current.getName() + "] within [" + jarFile + "].");
+                    continue;
+                }
+
+                // Entries extracted by an earlier build (or a concurrent one) are already in place.
+                if (!target.isFile() || target.length() != current.getSize()) {
+
+                    Files.createDirectories(target.getParentFile().toPath());
+                    final File temporaryFile = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+                    final InputStream in = jar.getInputStream(current);
+                    try {
+                        Files.copy(in, temporaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    } finally {
+                        in.close();
+                    }
+                    moveIntoPlace(temporaryFile, target);
+                    numExtracted++;
+                }
+
+                toReturn.add(current.getName());
+            }
+        } finally {
+            jar.close();
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Indexed " + toReturn.size() + " schema resources within [" + jarFile + "], extracting "
+                    + numExtracted + " of them into [" + extractionDirectory + "]");
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static boolean isExtracted(final String entryName) {
+
+        final String lowerCaseName = entryName.toLowerCase();
+        for (String current : EXTRACTED_SUFFIXES) {
+            if (lowerCaseName.endsWith(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getDirectoryName(final File canonicalJarFile) {
+
+        final String key = canonicalJarFile.getPath() + "|" + canonicalJarFile.length()
+                + "|" + canonicalJarFile.lastModified();
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes("UTF-8"));
+            final StringBuilder builder = new StringBuilder(canonicalJarFile.getName()).append("-");
+            for (int i = 0; i < 8; i++) {
+                builder.append(String.format("%02x", digest[i]));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 digests not supported by this JVM.", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("UTF-8 not supported by this JVM.", e);
+        }
+    }
+
+    private static void moveIntoPlace(final File temporaryFile, final File target) throws IOException {
+        try {
+            Files.move(temporaryFile.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The JAR file and entry referred to by a jar URL, and the directory into which the JAR file is extracted.
+     */
+    private static final class EntryLocation {
+
+        // Internal state
+        private File jarFile;
+        private String entryName;
+        private File extractionDirectory;
+
+        EntryLocation(final File jarFile, final String entryName, final File extractionDirectory) {
+            this.jarFile = jarFile;
+            this.entryName = entryName;
+            this.extractionDirectory = extractionDirectory;
+        }
+
+        File getLocalFile() {
+            return new File(extractionDirectory, entryName);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package org.codehaus.mojo.jaxb2.shared.catalog;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.cache.BuildCache;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * <p>Plugin-managed, on-disk mirror of remote schema resources (such as XSDs, WSDLs and DTDs). Each remote
+ * resource is stored at a path derived from its URL, i.e. {@code [mirrorDirectory]/[protocol]/[host]/[path]},
+ * implying that relative references between mirrored resources resolve to mirrored resources as well.
+ * The HTTP validators (ETag and Last-Modified) of each mirrored resource are stored in a properties file
+ * next to it, and used to issue conditional requests when the resource is fetched again.</p>
+ * <p>In offline mode, resources are served only from the mirror; no network access is attempted.
+ * When online, the mirrored copy is used (with a warning) if the remote resource can not be fetched.</p>
+ * <p>The resources fetched by a SchemaMirror can be exposed to XJC through an OASIS XML catalog, written by
+ * {@link #writeCatalog(File)}.</p>
+ *
+ * @since 2.2
+ */
+public class SchemaMirror {
+
+    /**
+     * The suffix of the properties files holding the validators of mirrored resources.
+     */
+    public static final String VALIDATOR_SUFFIX = ".jaxb2-mirror.properties";
+
+    // Internal state
+    private static final String URL_KEY = "url";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final int CONNECT_TIMEOUT_MILLIS = 30000;
+    private static final int READ_TIMEOUT_MILLIS = 60000;
+
+    private File mirrorDirectory;
+    private boolean offline;
+    private Proxy proxy;
+    private String proxyAuthorization;
+    private Log log;
+    private final SortedMap<String, File> fetched = new TreeMap<String, File>();
+
+    /**
+     * Creates a new SchemaMirror storing its resources within the supplied directory.
+     *
+     * @param mirrorDirectory The root directory of the mirror. Created when the first resource is stored.
+     * @param offline         if {@code true}, resources are served only from the mirror.
+     * @param proxyOrNull     The proxy used to fetch remote resources, or {@code null} for a direct connection.
+     * @param proxyUserOrNull The username used to authenticate to the proxy, or {@code null}.
+     * @param proxyPassword   The password used to authenticate to the proxy. Ignored unless a username is given.
+     * @param log             The active Maven Log.
+     */
+    public SchemaMirror(final File mirrorDirectory,
+                        final boolean offline,
+                        final Proxy proxyOrNull,
+                        final String proxyUserOrNull,
+                        final String proxyPassword,
+                        final Log log) {
+
+        // Check sanity
+        Validate.notNull(mirrorDirectory, "mirrorDirectory");
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.mirrorDirectory = mirrorDirectory;
+        this.offline = offline;
+        this.proxy = proxyOrNull == null ? Proxy.NO_PROXY : proxyOrNull;
+        this.log = log;
+
+        if (proxyUserOrNull != null) {
+            try {
+                final String credentials = proxyUserOrNull + ":" + (proxyPassword == null ? "" : proxyPassword);
+                this.proxyAuthorization = "Basic " + DatatypeConverter.printBase64Binary(
+                        credentials.getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException("UTF-8 encoding not supported.", e);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if this SchemaMirror serves resources only from the mirror.
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Retrieves the file within this SchemaMirror where the supplied remote resource is - or would be - stored.
+     *
+     * @param remoteResource The URL of a remote resource. Cannot be null.
+     * @return The file within the mirror directory corresponding to the supplied URL.
+     */
+    public File getMirroredFile(final URL remoteResource) {
+
+        // Check sanity
+        Validate.notNull(remoteResource, "remoteResource");
+
+        String path;
+        try {
+            path = remoteResource.toURI().normalize().getPath();
+        } catch (URISyntaxException e) {
+            path = remoteResource.getPath();
+        }
+        if (path == null || !path.startsWith("/")) {
+            path = "/" + (path == null ? "" : path);
+        }
+        if (path.endsWith("/")) {
+            path = path + "index";
+        }
+
+        // Paths escaping the host directory, as well as queries, are replaced by a digest.
+        if (path.contains("..") || remoteResource.getQuery() != null) {
+            final String key = BuildCache.createKey(Collections.singletonList(remoteResource.toString()));
+            path = "/_/" + key.substring(0, 16) + "-" + new File(path).getName().replace("..", "_");
+        }
+
+        final String host = remoteResource.getHost() + (remoteResource.getPort() == -1
+                ? ""
+                : "_" + remoteResource.getPort());
+        final File hostDirectory = new File(new File(mirrorDirectory, remoteResource.getProtocol().toLowerCase()),
+                host.toLowerCase());
+
+        // All done.
+        return new File(hostDirectory, path.substring(1).replace('/', File.separatorChar));
+    }
+
+    /**
+     * Retrieves a local copy of the supplied remote resource. Unless offline, the remote resource is fetched
+     * (using a conditional request if a copy is already mirrored) the first time this method is invoked for it.
+     *
+     * @param remoteResource The URL of a remote resource. Cannot be null.
+     * @return The mirrored file holding the content of the supplied remote resource.
+     * @throws IOException if the resource was not mirrored, and could not be fetched.
+     */
+    public synchronized File fetch(final URL remoteResource) throws IOException {
+
+        // Check sanity
+        Validate.notNull(remoteResource, "remoteResource");
+
+        final String key = remoteResource.toString();
+        if (fetched.containsKey(key)) {
+            return fetched.get(key);
+        }
+
+        final File toReturn = getMirroredFile(remoteResource);
+        if (offline) {
+            if (!toReturn.isFile()) {
+                throw new IOException("Resource [" + key + "] is not mirrored in ["
+                        + FileSystemUtilities.getCanonicalPath(mirrorDirectory) + "], and offline mode is active.");
+            }
+        } else {
+            try {
+                download(remoteResource, toReturn);
+            } catch (IOException e) {
+
+                if (!toReturn.isFile()) {
+                    throw e;
+                }
+                log.warn("Could not fetch [" + key + "] (" + e.getMessage() + "). Using mirrored copy ["
+                        + FileSystemUtilities.getCanonicalPath(toReturn) + "]");
+            }
+        }
+
+        // All done.
+        fetched.put(key, toReturn);
+        return toReturn;
+    }
+
+    /**
+     * @return An unmodifiable SortedMap relating the URL of each remote resource fetched by this SchemaMirror
+     * to its mirrored file.
+     */
+    public synchronized SortedMap<String, File> getFetched() {
+        return Collections.unmodifiableSortedMap(new TreeMap<String, File>(fetched));
+    }
+
+    /**
+     * Writes an OASIS XML catalog mapping the system identifier of each resource fetched by this SchemaMirror
+     * to its mirrored file. If no resources were fetched, an empty catalog is written, implying that the
+     * catalog file can always be supplied to XJC.
+     *
+     * @param catalogFile The file to which the catalog should be written. Cannot be null.
+     * @return {@code true} if the catalog holds any resources, and {@code false} if no resources were fetched.
+     * @throws IOException if the catalog could not be written.
+     */
+    public boolean writeCatalog(final File catalogFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(catalogFile, "catalogFile");
+
+        final SortedMap<String, File> fetchedResources = getFetched();
+        final StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        builder.append("<!-- Generated by the jaxb2-maven-plugin. Maps remote resources to mirrored copies. -->\n");
+        builder.append("<catalog xmlns=\"").append(XmlCatalog.CATALOG_NAMESPACE).append("\">\n");
+        for (Map.Entry<String, File> current : fetchedResources.entrySet()) {
+
+            final String mirrored = FileSystemUtilities.getUrlFor(current.getValue()).toString();
+            builder.append("    <system systemId=\"").append(escape(current.getKey()))
+                    .append("\" uri=\"").append(escape(mirrored)).append("\"/>\n");
+            builder.append("    <uri name=\"").append(escape(current.getKey()))
+                    .append("\" uri=\"").append(escape(mirrored)).append("\"/>\n");
+        }
+        builder.append("</catalog>\n");
+
+        final File parentDirectory = catalogFile.getParentFile();
+        if (parentDirectory != null && !parentDirectory.isDirectory() && !parentDirectory.mkdirs()) {
+            throw new IOException("Could not create directory ["
+                    + FileSystemUtilities.getCanonicalPath(parentDirectory) + "]");
+        }
+
+        final Writer out = new OutputStreamWriter(new FileOutputStream(catalogFile), "UTF-8");
+        try {
+            out.write(builder.toString());
+        } finally {
+            out.close();
+        }
+
+        // All done.
+        return !fetchedResources.isEmpty();
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void download(final URL remoteResource, final File target) throws IOException {
+
+        final File validatorFile = new File(target.getParentFile(), target.getName() + VALIDATOR_SUFFIX);
+        final Properties validators = target.isFile() ? readProperties(validatorFile) : new Properties();
+
+        final URLConnection connection = remoteResource.openConnection(proxy);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        try {
+
+            final boolean isHttp = connection instanceof HttpURLConnection;
+            if (isHttp) {
+
+                if (proxyAuthorization != null && proxy != Proxy.NO_PROXY) {
+                    connection.setRequestProperty("Proxy-Authorization", proxyAuthorization);
+                }
+                if (validators.getProperty(ETAG_KEY) != null) {
+                    connection.setRequestProperty("If-None-Match", validators.getProperty(ETAG_KEY));
+                }
+                if (validators.getProperty(LAST_MODIFIED_KEY) != null) {
+                    connection.setIfModifiedSince(Long.parseLong(validators.getProperty(LAST_MODIFIED_KEY)));
+                }
+            }
+            connection.connect();
+
+            if (isHttp) {
+
+                final int responseCode = ((HttpURLConnection) connection).getResponseCode();
+                if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && target.isFile()) {
+
+                    if (log.isDebugEnabled()) {
+                        log.debug("Mirrored copy of [" + remoteResource + "] is up to date.");
+                    }
+                    return;
+                }
+                if (responseCode != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Server responded " + responseCode + " for [" + remoteResource + "]");
+                }
+            }
+
+            // Write the content to a temporary file, and move it into place when completed.
+            if (!target.getParentFile().isDirectory() && !target.getParentFile().mkdirs()) {
+                throw new IOException("Could not create directory ["
+                        + FileSystemUtilities.getCanonicalPath(target.getParentFile()) + "]");
+            }
+            final File temporaryFile = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+            try {
+                copy(connection.getInputStream(), temporaryFile);
+                moveIntoPlace(temporaryFile, target);
+            } finally {
+                if (temporaryFile.exists() && !temporaryFile.delete()) {
+                    temporaryFile.deleteOnExit();
+                }
+            }
+
+            final Properties newValidators = new Properties();
+            newValidators.setProperty(URL_KEY, remoteResource.toString());
+            if (isHttp && connection.getHeaderField("ETag") != null) {
+                newValidators.setProperty(ETAG_KEY, connection.getHeaderField("ETag"));
+            }
+            if (connection.getLastModified() > 0) {
+                newValidators.setProperty(LAST_MODIFIED_KEY, "" + connection.getLastModified());
+            }
+            writeProperties(newValidators, validatorFile);
+
+            if (log.isInfoEnabled()) {
+                log.info("Mirrored [" + remoteResource + "] to [" + FileSystemUtilities.getCanonicalPath(target) + "]");
+            }
+
+        } finally {
+            if (connection instanceof HttpURLConnection) {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    private static Properties readProperties(final File file) {
+
+        final Properties toReturn = new Properties();
+        if (file.isFile()) {
+            try {
+                final InputStream in = new BufferedInputStream(new FileInputStream(file));
+                try {
+                    toReturn.load(in);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                // Unreadable validators imply an unconditional request.
+                toReturn.clear();
+            }
+        }
+        return toReturn;
+    }
+
+    private static void writeProperties(final Properties props, final File file) throws IOException {
+
+        final File temporaryFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            final OutputStream out = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+            try {
+                props.store(out, "jaxb2-maven-plugin schema mirror validators");
+            } finally {
+                out.close();
+            }
+            moveIntoPlace(temporaryFile, file);
+        } finally {
+            if (temporaryFile.exists() && !temporaryFile.delete()) {
+                temporaryFile.deleteOnExit();
+            }
+        }
+    }
+
+    private static void copy(final InputStream stream, final File target) throws IOException {
+
+        final InputStream in = new BufferedInputStream(stream);
+        try {
+            final OutputStream out = new BufferedOutputStream(new FileOutputStream(target));
+            try {
+                final byte[] buffer = new byte[8192];
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void moveIntoPlace(final File temporaryFile, final File target) throws IOException {
+        try {
+            Files.move(temporaryFile.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String escape(final String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+    }
+}
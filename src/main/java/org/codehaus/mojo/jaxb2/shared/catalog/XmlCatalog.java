@@ -0,0 +1,389 @@
+package org.codehaus.mojo.jaxb2.shared.catalog;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Read-only model of the entity catalog supplied to XJC through its {@code catalog} argument, capable of
+ * resolving public and system identifiers the way XJC does. Both OASIS XML catalogs and the TR9401 (SOCAT)
+ * text format are understood, although only the entries relevant for resolving XML schemas are used:</p>
+ * <ul>
+ * <li><strong>XML catalogs</strong>: {@code public}, {@code system}, {@code rewriteSystem},
+ * {@code systemSuffix}, {@code uri}, {@code rewriteURI}, {@code uriSuffix} and {@code nextCatalog}.
+ * Entries within {@code group} elements are treated as top-level entries.</li>
+ * <li><strong>TR9401 catalogs</strong>: {@code PUBLIC}, {@code SYSTEM}, {@code REWRITE_SYSTEM} and
+ * {@code CATALOG}.</li>
+ * </ul>
+ *
+ * @since 2.2
+ */
+public final class XmlCatalog {
+
+    /**
+     * The namespace of OASIS XML catalogs.
+     */
+    public static final String CATALOG_NAMESPACE = "urn:oasis:names:tc:entity:xmlns:xml:catalog";
+
+    // Internal state
+    private static final int MAX_NEXT_CATALOG_DEPTH = 16;
+
+    private final URL location;
+    private final Map<String, String> publicEntries = new LinkedHashMap<String, String>();
+    private final Map<String, String> systemEntries = new LinkedHashMap<String, String>();
+    private final Map<String, String> rewriteSystemEntries = new LinkedHashMap<String, String>();
+    private final Map<String, String> systemSuffixEntries = new LinkedHashMap<String, String>();
+    private final Map<String, String> uriEntries = new LinkedHashMap<String, String>();
+    private final Map<String, String> rewriteUriEntries = new LinkedHashMap<String, String>();
+    private final Map<String, String> uriSuffixEntries = new LinkedHashMap<String, String>();
+    private final List<XmlCatalog> nextCatalogs = new ArrayList<XmlCatalog>();
+
+    private XmlCatalog(final URL location) {
+        this.location = location;
+    }
+
+    /**
+     * Reads the catalog found at the supplied location, as well as any catalogs it delegates to.
+     *
+     * @param location The URL of an OASIS XML catalog or a TR9401 text catalog. Cannot be null.
+     * @return The XmlCatalog read from the supplied location.
+     * @throws IOException if the catalog (or any catalog it delegates to) could not be read or parsed.
+     */
+    public static XmlCatalog read(final URL location) throws IOException {
+
+        // Check sanity
+        Validate.notNull(location, "location");
+
+        // All done.
+        return read(location, new HashSet<String>(), 0);
+    }
+
+    /**
+     * @return The URL from which this XmlCatalog was read.
+     */
+    public URL getLocation() {
+        return location;
+    }
+
+    /**
+     * Resolves the supplied identifiers using the entries of this XmlCatalog. System identifiers are
+     * resolved before public identifiers, as preferred by XML catalogs by default. As XJC uses the
+     * namespace URI as public identifier for {@code xs:import}s lacking a {@code schemaLocation},
+     * public identifiers are also matched against {@code uri} entries.
+     *
+     * @param publicIdOrNull The public identifier (or namespace URI) to resolve, or {@code null}.
+     * @param systemIdOrNull The system identifier (or schemaLocation) to resolve, or {@code null}.
+     * @return The absolute URI resolved from the supplied identifiers, or {@code null} if this XmlCatalog
+     * (and the catalogs it delegates to) held no matching entry.
+     */
+    public String resolve(final String publicIdOrNull, final String systemIdOrNull) {
+
+        if (systemIdOrNull != null) {
+
+            String toReturn = resolve(systemIdOrNull, systemEntries, rewriteSystemEntries, systemSuffixEntries);
+            if (toReturn == null) {
+                toReturn = resolve(systemIdOrNull, uriEntries, rewriteUriEntries, uriSuffixEntries);
+            }
+            if (toReturn != null) {
+                return toReturn;
+            }
+        }
+
+        if (publicIdOrNull != null) {
+
+            final String publicId = normalizePublicId(publicIdOrNull);
+            if (publicEntries.containsKey(publicId)) {
+                return publicEntries.get(publicId);
+            }
+            if (uriEntries.containsKey(publicIdOrNull)) {
+                return uriEntries.get(publicIdOrNull);
+            }
+        }
+
+        // Delegate to the next catalogs, in document order.
+        for (XmlCatalog current : nextCatalogs) {
+
+            final String toReturn = current.resolve(publicIdOrNull, systemIdOrNull);
+            if (toReturn != null) {
+                return toReturn;
+            }
+        }
+
+        // Nothing found.
+        return null;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static XmlCatalog read(final URL location, final Set<String> visited, final int depth)
+            throws IOException {
+
+        final XmlCatalog toReturn = new XmlCatalog(location);
+        if (!visited.add(location.toString()) || depth > MAX_NEXT_CATALOG_DEPTH) {
+
+            // Cyclic or runaway delegation; simply ignore the repeated catalog.
+            return toReturn;
+        }
+
+        final byte[] content = readFully(location.openStream());
+        final List<String> nextCatalogLocations = isXmlContent(content)
+                ? toReturn.parseXmlCatalog(content)
+                : toReturn.parseTextCatalog(new String(content, "UTF-8"));
+
+        for (String current : nextCatalogLocations) {
+            toReturn.nextCatalogs.add(read(new URL(current), visited, depth + 1));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<String> parseXmlCatalog(final byte[] content) throws IOException {
+
+        final List<String> toReturn = new ArrayList<String>();
+
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(new ByteArrayInputStream(content));
+            while (reader.hasNext()) {
+
+                if (reader.next() != XMLStreamConstants.START_ELEMENT
+                        || !CATALOG_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    continue;
+                }
+
+                final String name = reader.getLocalName();
+                if ("public".equals(name)) {
+                    putEntry(publicEntries, normalizePublicId(reader.getAttributeValue(null, "publicId")),
+                            absolute(reader.getAttributeValue(null, "uri")));
+                } else if ("system".equals(name)) {
+                    putEntry(systemEntries, reader.getAttributeValue(null, "systemId"),
+                            absolute(reader.getAttributeValue(null, "uri")));
+                } else if ("rewriteSystem".equals(name)) {
+                    putEntry(rewriteSystemEntries, reader.getAttributeValue(null, "systemIdStartString"),
+                            absolute(reader.getAttributeValue(null, "rewritePrefix")));
+                } else if ("systemSuffix".equals(name)) {
+                    putEntry(systemSuffixEntries, reader.getAttributeValue(null, "systemIdSuffix"),
+                            absolute(reader.getAttributeValue(null, "uri")));
+                } else if ("uri".equals(name)) {
+                    putEntry(uriEntries, reader.getAttributeValue(null, "name"),
+                            absolute(reader.getAttributeValue(null, "uri")));
+                } else if ("rewriteURI".equals(name)) {
+                    putEntry(rewriteUriEntries, reader.getAttributeValue(null, "uriStartString"),
+                            absolute(reader.getAttributeValue(null, "rewritePrefix")));
+                } else if ("uriSuffix".equals(name)) {
+                    putEntry(uriSuffixEntries, reader.getAttributeValue(null, "uriSuffix"),
+                            absolute(reader.getAttributeValue(null, "uri")));
+                } else if ("nextCatalog".equals(name)) {
+                    toReturn.add(absolute(reader.getAttributeValue(null, "catalog")));
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not parse XML catalog [" + location + "]", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed entry in XML catalog [" + location + "]", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Ignore this.
+                }
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<String> parseTextCatalog(final String content) throws IOException {
+
+        final List<String> toReturn = new ArrayList<String>();
+        final List<String> tokens = tokenize(content);
+
+        for (int i = 0; i < tokens.size(); i++) {
+
+            final String keyword = tokens.get(i).toUpperCase();
+            try {
+                if ("PUBLIC".equals(keyword) && i + 2 < tokens.size()) {
+                    publicEntries.put(normalizePublicId(tokens.get(++i)), absolute(tokens.get(++i)));
+                } else if ("SYSTEM".equals(keyword) && i + 2 < tokens.size()) {
+                    systemEntries.put(tokens.get(++i), absolute(tokens.get(++i)));
+                } else if ("REWRITE_SYSTEM".equals(keyword) && i + 2 < tokens.size()) {
+                    rewriteSystemEntries.put(tokens.get(++i), absolute(tokens.get(++i)));
+                } else if ("CATALOG".equals(keyword) && i + 1 < tokens.size()) {
+                    toReturn.add(absolute(tokens.get(++i)));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed entry in text catalog [" + location + "]", e);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private String absolute(final String uriOrNull) {
+
+        if (uriOrNull == null) {
+            return null;
+        }
+
+        try {
+            return location.toURI().resolve(new URI(uriOrNull.trim())).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Could not resolve URI [" + uriOrNull + "]", e);
+        }
+    }
+
+    private static void putEntry(final Map<String, String> entries, final String key, final String value) {
+
+        // Ignore entries lacking required attributes.
+        if (key != null && value != null) {
+            entries.put(key, value);
+        }
+    }
+
+    private static String resolve(final String identifier,
+                                  final Map<String, String> exactEntries,
+                                  final Map<String, String> rewriteEntries,
+                                  final Map<String, String> suffixEntries) {
+
+        // Exact matches win.
+        if (exactEntries.containsKey(identifier)) {
+            return exactEntries.get(identifier);
+        }
+
+        // ... followed by the longest matching prefix ...
+        String bestPrefix = null;
+        for (String current : rewriteEntries.keySet()) {
+            if (identifier.startsWith(current) && (bestPrefix == null || current.length() > bestPrefix.length())) {
+                bestPrefix = current;
+            }
+        }
+        if (bestPrefix != null) {
+            return rewriteEntries.get(bestPrefix) + identifier.substring(bestPrefix.length());
+        }
+
+        // ... and the longest matching suffix.
+        String bestSuffix = null;
+        for (String current : suffixEntries.keySet()) {
+            if (identifier.endsWith(current) && (bestSuffix == null || current.length() > bestSuffix.length())) {
+                bestSuffix = current;
+            }
+        }
+        return bestSuffix == null ? null : suffixEntries.get(bestSuffix);
+    }
+
+    private static String normalizePublicId(final String publicIdOrNull) {
+        return publicIdOrNull == null ? null : publicIdOrNull.trim().replaceAll("\\s+", " ");
+    }
+
+    private static List<String> tokenize(final String content) {
+
+        final List<String> toReturn = new ArrayList<String>();
+        int index = 0;
+        while (index < content.length()) {
+
+            final char current = content.charAt(index);
+            if (Character.isWhitespace(current)) {
+                index++;
+            } else if (content.startsWith("--", index)) {
+
+                // Skip the comment.
+                final int end = content.indexOf("--", index + 2);
+                index = end == -1 ? content.length() : end + 2;
+
+            } else if (current == '"' || current == '\'') {
+
+                final int end = content.indexOf(current, index + 1);
+                toReturn.add(content.substring(index + 1, end == -1 ? content.length() : end));
+                index = end == -1 ? content.length() : end + 1;
+
+            } else {
+
+                int end = index;
+                while (end < content.length() && !Character.isWhitespace(content.charAt(end))) {
+                    end++;
+                }
+                toReturn.add(content.substring(index, end));
+                index = end;
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static boolean isXmlContent(final byte[] content) {
+
+        for (byte current : content) {
+
+            // Skip any byte order mark and leading whitespace.
+            if (current == '<') {
+                return true;
+            }
+            if (!Character.isWhitespace((char) current) && (current & 0x80) == 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] readFully(final InputStream stream) throws IOException {
+
+        final InputStream in = new BufferedInputStream(stream);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            final byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return out.toByteArray();
+    }
+}
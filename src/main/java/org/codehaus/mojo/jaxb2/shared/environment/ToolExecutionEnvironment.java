@@ -29,8 +29,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Compound EnvironmentFacet implementation which is used to set up and use a collection
- * of other EnvironmentFacet instances during the run of the JAXB2 Maven Plugin.
+ * <p>Compound EnvironmentFacet implementation which is used to set up and use a collection
+ * of other EnvironmentFacet instances during the run of the JAXB2 Maven Plugin.</p>
+ * <p>The ThreadContext ClassLoader is assigned to the Thread invoking {@code setup()}, and JUL log records are
+ * redirected to the Maven Log for that Thread only. Hence, several ToolExecutionEnvironments may be active
+ * concurrently, provided that each is set up and restored by the same Thread.</p>
  *
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
  */
@@ -0,0 +1,274 @@
+package org.codehaus.mojo.jaxb2.shared.environment.classloading;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Cache of URLClassLoaders (and their classpath arguments) built by ThreadContextClassLoaderBuilders. Executions
+ * using identical classpaths within the same scope (typically the active MavenSession) share a ClassLoader
+ * instead of re-opening all JARs, re-defining all classes and re-warming the JIT.</p>
+ * <p>ClassLoaders are keyed by their scope, their parent ClassLoader and the ordered List of their URLs, including
+ * the size and modification timestamp of each file or directory referred to by the URLs. Cached ClassLoaders are
+ * reference counted, and are only closed when evicted while not in use. Idle ClassLoaders are evicted when
+ * ClassLoaders are acquired for another scope, or when more than {@value #MAX_IDLE_ENTRIES} ClassLoaders are idle
+ * (least recently used first).</p>
+ *
+ * @since 2.2
+ */
+public final class ClassLoaderCache {
+
+    /**
+     * The maximum number of idle ClassLoaders retained by the cache.
+     */
+    public static final int MAX_IDLE_ENTRIES = 8;
+
+    // Internal state
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    /*
+     * Hide constructor for utility classes.
+     */
+    private ClassLoaderCache() {
+        // Do nothing
+    }
+
+    /**
+     * Acquires a cached ClassLoader for the supplied scope, parent ClassLoader and URLs, or creates one if no
+     * matching ClassLoader is cached. Each acquired Entry must be released using {@link #release(Entry, Log)}.
+     *
+     * @param scope  The scope within which the ClassLoader may be shared, such as the active MavenSession.
+     * @param parent The parent ClassLoader. Cannot be null.
+     * @param urls   The ordered List of URLs from which the ClassLoader should load classes. Cannot be null.
+     * @param log    The active Maven Log. Cannot be null.
+     * @return A non-null cache Entry holding the ClassLoader.
+     */
+    public static synchronized Entry acquire(final Object scope,
+                                             final ClassLoader parent,
+                                             final List<URL> urls,
+                                             final Log log) {
+
+        // Check sanity
+        Validate.notNull(scope, "scope");
+        Validate.notNull(parent, "parent");
+        Validate.notNull(urls, "urls");
+        Validate.notNull(log, "log");
+
+        // ClassLoaders are never shared between scopes.
+        for (Iterator<Entry> it = ENTRIES.values().iterator(); it.hasNext(); ) {
+
+            final Entry current = it.next();
+            if (current.scope.get() != scope && current.references == 0) {
+                it.remove();
+                close(current, log);
+            }
+        }
+
+        final String key = getKey(scope, parent, urls);
+        Entry toReturn = ENTRIES.get(key);
+        if (toReturn != null && toReturn.scope.get() == scope && toReturn.classLoader.getParent() == parent) {
+
+            if (log.isDebugEnabled()) {
+                log.debug("Re-using cached ClassLoader for " + urls.size() + " URLs.");
+            }
+
+        } else {
+
+            // Replace any colliding entry; it is closed when no longer in use.
+            if (toReturn != null) {
+                toReturn.evicted = true;
+                if (toReturn.references == 0) {
+                    close(toReturn, log);
+                }
+            }
+
+            toReturn = new Entry(scope, new URLClassLoader(urls.toArray(new URL[urls.size()]), parent));
+            ENTRIES.put(key, toReturn);
+        }
+
+        // All done.
+        toReturn.references++;
+        return toReturn;
+    }
+
+    /**
+     * Releases an Entry acquired from {@link #acquire(Object, ClassLoader, List, Log)}.
+     *
+     * @param entry The Entry to release. Cannot be null.
+     * @param log   The active Maven Log. Cannot be null.
+     */
+    public static synchronized void release(final Entry entry, final Log log) {
+
+        // Check sanity
+        Validate.notNull(entry, "entry");
+        Validate.notNull(log, "log");
+
+        if (entry.references <= 0) {
+            throw new IllegalStateException("Cannot release a ClassLoader cache entry which is not acquired.");
+        }
+
+        entry.references--;
+        if (entry.references == 0 && entry.evicted) {
+            close(entry, log);
+        }
+
+        // Evict the least recently used idle entries.
+        int numIdle = 0;
+        for (Entry current : ENTRIES.values()) {
+            numIdle += current.references == 0 ? 1 : 0;
+        }
+
+        for (Iterator<Entry> it = ENTRIES.values().iterator(); it.hasNext() && numIdle > MAX_IDLE_ENTRIES; ) {
+
+            final Entry current = it.next();
+            if (current.references == 0) {
+                it.remove();
+                close(current, log);
+                numIdle--;
+            }
+        }
+    }
+
+    /**
+     * A cached ClassLoader, along with its lazily synthesized classpath argument.
+     */
+    public static final class Entry {
+
+        // Internal state
+        private final WeakReference<Object> scope;
+        private final URLClassLoader classLoader;
+        private String classPathArgument;
+        private int references;
+        private boolean evicted;
+
+        private Entry(final Object scope, final URLClassLoader classLoader) {
+            this.scope = new WeakReference<Object>(scope);
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * @return The cached ClassLoader.
+         */
+        public URLClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        /**
+         * @return The classpath argument synthesized from the cached ClassLoader, or {@code null} if not yet known.
+         */
+        public synchronized String getClassPathArgument() {
+            return classPathArgument;
+        }
+
+        /**
+         * Assigns the classpath argument synthesized from the cached ClassLoader.
+         *
+         * @param classPathArgument The non-null classpath argument.
+         */
+        public synchronized void setClassPathArgument(final String classPathArgument) {
+            this.classPathArgument = classPathArgument;
+        }
+    }
+
+    /**
+     * @return The number of ClassLoaders currently cached. Intended for testing.
+     */
+    static synchronized int size() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * Closes all idle ClassLoaders, and evicts all ClassLoaders from the cache. Intended for testing.
+     *
+     * @param log The active Maven Log.
+     */
+    static synchronized void clear(final Log log) {
+
+        final List<Entry> entries = new ArrayList<Entry>(ENTRIES.values());
+        ENTRIES.clear();
+        for (Entry current : entries) {
+
+            current.evicted = true;
+            if (current.references == 0) {
+                close(current, log);
+            }
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static String getKey(final Object scope, final ClassLoader parent, final List<URL> urls) {
+
+        final StringBuilder builder = new StringBuilder();
+        builder.append(System.identityHashCode(scope)).append("|").append(System.identityHashCode(parent));
+
+        for (URL current : urls) {
+
+            builder.append("|").append(current.toString());
+            if ("file".equalsIgnoreCase(current.getProtocol())) {
+
+                // Changed JARs (and directories) must not be served by ClassLoaders built before the change.
+                final File file = toFile(current);
+                builder.append("@").append(file.length()).append(",").append(file.lastModified());
+            }
+        }
+
+        // All done.
+        return builder.toString();
+    }
+
+    private static File toFile(final URL fileUrl) {
+
+        // URL paths are percent-encoded, and hence cannot be used as file names.
+        try {
+            return new File(fileUrl.toURI());
+        } catch (URISyntaxException e) {
+            return FileSystemUtilities.getFileFor(fileUrl, "UTF-8");
+        } catch (IllegalArgumentException e) {
+            return FileSystemUtilities.getFileFor(fileUrl, "UTF-8");
+        }
+    }
+
+    private static void close(final Entry entry, final Log log) {
+        try {
+            entry.classLoader.close();
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not close cached ClassLoader.", e);
+            }
+        }
+    }
+}
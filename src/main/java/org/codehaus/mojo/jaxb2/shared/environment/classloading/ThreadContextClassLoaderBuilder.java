@@ -65,6 +65,7 @@ public class ThreadContextClassLoaderBuilder {
     private ClassLoader originalClassLoader;
     private List<URL> urlList;
     private Log log;
+    private Object cacheScope;
 
     private ThreadContextClassLoaderBuilder(final ClassLoader classLoader, final Log aLog) {
         log = aLog;
@@ -161,6 +162,20 @@ public class ThreadContextClassLoaderBuilder {
         return this;
     }
 
+    /**
+     * Permits re-using a ClassLoader (and its classpath argument) built for identical URLs within the supplied
+     * scope, as found within the {@link ClassLoaderCache}.
+     *
+     * @param scopeOrNull The scope within which built ClassLoaders may be shared (typically the active
+     *                    MavenSession), or {@code null} to always build a new ClassLoader.
+     * @return This ThreadContextClassLoaderBuilder, for builder pattern chaining.
+     * @since 2.2
+     */
+    public ThreadContextClassLoaderBuilder withCacheScope(final Object scopeOrNull) {
+        this.cacheScope = scopeOrNull;
+        return this;
+    }
+
     /**
      * <p>This method performs 2 things in order:</p>
      * <ol>
@@ -176,38 +191,53 @@ public class ThreadContextClassLoaderBuilder {
      */
     public ThreadContextClassLoaderHolder buildAndSet() {
 
-        // Create the URLClassLoader from the supplied URLs
+        // Create the URLClassLoader from the supplied URLs, or re-use a cached one.
+        final ClassLoaderCache.Entry cacheEntry = cacheScope == null
+                ? null
+                : ClassLoaderCache.acquire(cacheScope, originalClassLoader, urlList, log);
         final URL[] allURLs = new URL[urlList.size()];
         urlList.toArray(allURLs);
-        final URLClassLoader classLoader = new URLClassLoader(allURLs, originalClassLoader);
+        final URLClassLoader classLoader = cacheEntry == null
+                ? new URLClassLoader(allURLs, originalClassLoader)
+                : cacheEntry.getClassLoader();
 
         // Assign the ThreadContext ClassLoader
         final Thread currentThread = Thread.currentThread();
         currentThread.setContextClassLoader(classLoader);
 
-        // Build the classpath argument
-        StringBuilder builder = new StringBuilder();
-        try {
-            for (URL current : Collections.list(classLoader.getResources(""))) {
+        // Build the classpath argument, unless known by the cache.
+        String classPathString = cacheEntry == null ? null : cacheEntry.getClassPathArgument();
+        if (classPathString == null) {
 
-                final String toAppend = getClassPathElement(current);
-                if (toAppend != null) {
-                    builder.append(toAppend).append(File.pathSeparator);
+            StringBuilder builder = new StringBuilder();
+            try {
+                for (URL current : Collections.list(classLoader.getResources(""))) {
+
+                    final String toAppend = getClassPathElement(current);
+                    if (toAppend != null) {
+                        builder.append(toAppend).append(File.pathSeparator);
+                    }
                 }
+            } catch (IOException e) {
+
+                // Restore the original ClassLoader to the active thread before failing.
+                currentThread.setContextClassLoader(originalClassLoader);
+                if (cacheEntry != null) {
+                    ClassLoaderCache.release(cacheEntry, log);
+                }
+                throw new IllegalStateException("Could not synthesize classPath from original ClassLoader.", e);
             }
-        } catch (IOException e) {
 
-            // Restore the original ClassLoader to the active thread before failing.
-            currentThread.setContextClassLoader(originalClassLoader);
-            throw new IllegalStateException("Could not synthesize classPath from original ClassLoader.", e);
+            classPathString = builder.length() > 0
+                    ? builder.toString().substring(0, builder.length() - File.pathSeparator.length())
+                    : "";
+            if (cacheEntry != null) {
+                cacheEntry.setClassPathArgument(classPathString);
+            }
         }
 
-        final String classPathString = builder.length() > 0
-                ? builder.toString().substring(0, builder.length() - File.pathSeparator.length())
-                : "";
-
         // All done.
-        return new DefaultHolder(currentThread, this.originalClassLoader, classPathString);
+        return new DefaultHolder(currentThread, this.originalClassLoader, classLoader, classPathString, cacheEntry);
     }
 
     /**
@@ -335,28 +365,37 @@ public class ThreadContextClassLoaderBuilder {
     /**
      * Default implementation of the ThreadContextClassLoaderCleaner specification,
      * with added finalizer to ensure we release the Thread reference no matter
-     * what happens with any DefaultCleaner objects.
+     * what happens with any DefaultCleaner objects. The finalizer only restores the original
+     * ClassLoader if the affected Thread still uses the ClassLoader assigned by this DefaultHolder,
+     * since the Thread may since have been re-used by another (concurrent) plugin execution.
      */
     class DefaultHolder implements ThreadContextClassLoaderHolder {
 
         // Internal state
         private Thread affectedThread;
         private ClassLoader originalClassLoader;
+        private ClassLoader assignedClassLoader;
         private String classPathArgument;
+        private ClassLoaderCache.Entry cacheEntry;
 
         public DefaultHolder(final Thread affectedThread,
                              final ClassLoader originalClassLoader,
-                             final String classPathArgument) {
+                             final ClassLoader assignedClassLoader,
+                             final String classPathArgument,
+                             final ClassLoaderCache.Entry cacheEntryOrNull) {
 
             // Check sanity
             Validate.notNull(affectedThread, "affectedThread");
             Validate.notNull(originalClassLoader, "originalClassLoader");
+            Validate.notNull(assignedClassLoader, "assignedClassLoader");
             Validate.notNull(classPathArgument, "classPathArgument");
 
             // Assign internal state
             this.affectedThread = affectedThread;
             this.originalClassLoader = originalClassLoader;
+            this.assignedClassLoader = assignedClassLoader;
             this.classPathArgument = classPathArgument;
+            this.cacheEntry = cacheEntryOrNull;
         }
 
         /**
@@ -369,9 +408,13 @@ public class ThreadContextClassLoaderBuilder {
                 // Restore original state
                 affectedThread.setContextClassLoader(originalClassLoader);
 
+                // Release the cached ClassLoader, permitting it to be closed when evicted.
+                releaseCacheEntry();
+
                 // Null out the internal state
                 affectedThread = null;
                 originalClassLoader = null;
+                assignedClassLoader = null;
                 classPathArgument = null;
             }
         }
@@ -384,6 +427,13 @@ public class ThreadContextClassLoaderBuilder {
             return classPathArgument;
         }
 
+        private synchronized void releaseCacheEntry() {
+            if (cacheEntry != null) {
+                ClassLoaderCache.release(cacheEntry, log);
+                cacheEntry = null;
+            }
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -391,7 +441,10 @@ public class ThreadContextClassLoaderBuilder {
         protected void finalize() throws Throwable {
             try {
                 // First, release all resources held by this object.
-                restoreClassLoaderAndReleaseThread();
+                if (affectedThread != null && affectedThread.getContextClassLoader() == assignedClassLoader) {
+                    restoreClassLoaderAndReleaseThread();
+                }
+                releaseCacheEntry();
             } finally {
                 // Now, perform standard finalization.
                 super.finalize();
@@ -24,14 +24,24 @@ import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
 import org.codehaus.mojo.jaxb2.shared.Validate;
 import org.codehaus.mojo.jaxb2.shared.environment.AbstractLogAwareFacet;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 /**
- * EnvironmentFacet for replacing Handlers from Java Util Logging with a Maven Log.
+ * <p>EnvironmentFacet for replacing Handlers from Java Util Logging with a Maven Log.</p>
+ * <p>Since the JUL root Logger is shared by all executions within the JVM, the original root Logger Handlers
+ * are replaced by a single dispatching Handler while at least one LoggingHandlerEnvironmentFacet is set up.
+ * The dispatching Handler emits each LogRecord to the MavenLogHandler of the execution running within the
+ * logging Thread, which permits concurrent executions (such as within parallel Maven builds) to log onto their
+ * respective Maven Logs. LogRecords from other Threads are emitted to the original root Logger Handlers.
+ * The original root Logger state is restored when the last active LoggingHandlerEnvironmentFacet is restored.</p>
  *
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
  * @since 2.1
@@ -43,11 +53,17 @@ public class LoggingHandlerEnvironmentFacet extends AbstractLogAwareFacet {
      */
     public static final String[] DEFAULT_LOGGER_NAMES = new String[]{"com.sun", "javax.xml", "javax.tools"};
 
+    // Shared state, guarding the JUL root Logger.
+    private static final Object ROOT_LOGGER_LOCK = new Object();
+    private static final Map<Thread, MavenLogHandler> ACTIVE_HANDLERS
+            = new ConcurrentHashMap<Thread, MavenLogHandler>();
+    private static final DispatchingHandler DISPATCHING_HANDLER = new DispatchingHandler();
+    private static Level originalRootLoggerLevel;
+
     // Internal state
     private boolean restored;
     private Logger rootLogger;
-    private Level originalRootLoggerLevel;
-    private List<Handler> originalHandlers;
+    private Thread affectedThread;
     private MavenLogHandler mavenLogHandler;
 
     private String logPrefix;
@@ -76,10 +92,8 @@ public class LoggingHandlerEnvironmentFacet extends AbstractLogAwareFacet {
         Validate.notNull(loggerNamePrefixes, "loggerNamePrefixes");
 
         // Assign internal state
-        this.originalHandlers = new ArrayList<Handler>();
         this.logPrefix = logPrefix;
         rootLogger = Logger.getLogger("");
-        originalRootLoggerLevel = rootLogger.getLevel();
         this.encoding = encoding;
         this.loggerNamePrefixes = loggerNamePrefixes;
     }
@@ -91,40 +105,58 @@ public class LoggingHandlerEnvironmentFacet extends AbstractLogAwareFacet {
     @Override
     public void setup() {
 
-        // Redirect the JUL Logging statements to the Maven Log.
-        rootLogger.setLevel(MavenLogHandler.getJavaUtilLoggingLevelFor(log));
+        // Redirect the JUL Logging statements from the active Thread to the Maven Log.
         this.mavenLogHandler = new MavenLogHandler(log, logPrefix, encoding, loggerNamePrefixes);
+        this.affectedThread = Thread.currentThread();
 
-        for (Handler current : rootLogger.getHandlers()) {
+        synchronized (ROOT_LOGGER_LOCK) {
 
-            // Stash the original handlers from the RootLogger.
-            originalHandlers.add(current);
+            if (ACTIVE_HANDLERS.isEmpty()) {
 
-            // Remove the original handler from the RootLogger.
-            rootLogger.removeHandler(current);
-        }
+                // Stash the original state of the RootLogger, and replace its handlers.
+                originalRootLoggerLevel = rootLogger.getLevel();
+                final List<Handler> originalHandlers = Arrays.asList(rootLogger.getHandlers());
+                for (Handler current : originalHandlers) {
+                    rootLogger.removeHandler(current);
+                }
+
+                DISPATCHING_HANDLER.originalHandlers = originalHandlers;
+                rootLogger.addHandler(DISPATCHING_HANDLER);
+            }
 
-        // Add the new Maven Log handler.
-        rootLogger.addHandler(this.mavenLogHandler);
+            ACTIVE_HANDLERS.put(affectedThread, mavenLogHandler);
+            rootLogger.setLevel(getMostVerboseActiveLevel());
+        }
     }
 
     /**
-     * Restores the original root Logger state, including Level and Handlers.
+     * Restores the original root Logger state, including Level and Handlers, unless other
+     * LoggingHandlerEnvironmentFacets are still active.
      */
     public void restore() {
 
-        if (!restored) {
+        if (!restored && affectedThread != null) {
 
-            // Remove the extra Handler from the RootLogger
-            rootLogger.removeHandler(mavenLogHandler);
+            synchronized (ROOT_LOGGER_LOCK) {
 
-            // Restore the original state to the Root logger
-            rootLogger.setLevel(originalRootLoggerLevel);
-            for (Handler current : originalHandlers) {
-                rootLogger.addHandler(current);
+                ACTIVE_HANDLERS.remove(affectedThread);
+                if (ACTIVE_HANDLERS.isEmpty()) {
+
+                    // Restore the original state to the Root logger
+                    rootLogger.removeHandler(DISPATCHING_HANDLER);
+                    rootLogger.setLevel(originalRootLoggerLevel);
+                    for (Handler current : DISPATCHING_HANDLER.originalHandlers) {
+                        rootLogger.addHandler(current);
+                    }
+
+                    DISPATCHING_HANDLER.originalHandlers = Collections.emptyList();
+                } else {
+                    rootLogger.setLevel(getMostVerboseActiveLevel());
+                }
             }
 
             // All done.
+            affectedThread = null;
             restored = true;
         }
     }
@@ -154,4 +186,65 @@ public class LoggingHandlerEnvironmentFacet extends AbstractLogAwareFacet {
         // All done.
         return new LoggingHandlerEnvironmentFacet(logPrefix, mavenLog, encoding, DEFAULT_LOGGER_NAMES);
     }
+
+    //
+    // Private helpers
+    //
+
+    private static Level getMostVerboseActiveLevel() {
+
+        Level toReturn = Level.OFF;
+        for (MavenLogHandler current : ACTIVE_HANDLERS.values()) {
+            if (current.getLevel().intValue() < toReturn.intValue()) {
+                toReturn = current.getLevel();
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Handler emitting LogRecords to the MavenLogHandler of the execution running within the logging Thread,
+     * or to the original root Logger Handlers for LogRecords emitted by other Threads.
+     */
+    static class DispatchingHandler extends Handler {
+
+        // Internal state
+        private volatile List<Handler> originalHandlers = Collections.emptyList();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void publish(final LogRecord record) {
+
+            final MavenLogHandler activeHandler = ACTIVE_HANDLERS.get(Thread.currentThread());
+            if (activeHandler != null) {
+                activeHandler.publish(record);
+            } else {
+                for (Handler current : originalHandlers) {
+                    current.publish(record);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush() {
+            for (Handler current : originalHandlers) {
+                current.flush();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws SecurityException {
+            // Do nothing; the original Handlers are restored to the root Logger.
+        }
+    }
 }
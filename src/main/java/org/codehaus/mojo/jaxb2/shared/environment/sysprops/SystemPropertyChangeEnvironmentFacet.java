@@ -26,10 +26,15 @@ import org.codehaus.mojo.jaxb2.shared.environment.AbstractLogAwareFacet;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * EnvironmentFacet which changes
- * system property key and two values (original and new values).
+ * <p>EnvironmentFacet which changes
+ * system property key and two values (original and new values).</p>
+ * <p>Since System properties are shared by all executions within the JVM, a SystemPropertyChangeEnvironmentFacet
+ * holds a JVM-wide lock from {@code setup()} until {@code restore()}. Hence, concurrent executions (such as within
+ * parallel Maven builds) which change System properties are serialized, and never observe each other's changes.
+ * Both {@code setup()} and {@code restore()} must be invoked by the same Thread.</p>
  *
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
  * @since 2.1
@@ -61,6 +66,9 @@ public class SystemPropertyChangeEnvironmentFacet extends AbstractLogAwareFacet
         CHANGE
     }
 
+    // Shared state, serializing all changes to the System properties.
+    private static final ReentrantLock SYSTEM_PROPERTIES_LOCK = new ReentrantLock(true);
+
     // Internal state
     private ChangeType type;
     private String key;
@@ -100,9 +108,8 @@ public class SystemPropertyChangeEnvironmentFacet extends AbstractLogAwareFacet
 
         // Assign internal state
         this.key = key;
-        this.originalValue = System.getProperty(key);
         this.newValue = newValue;
-        this.type = existsAsSystemProperty(key) ? ChangeType.CHANGE : ChangeType.ADD;
+        this.type = ChangeType.ADD;
     }
 
     /**
@@ -111,6 +118,15 @@ public class SystemPropertyChangeEnvironmentFacet extends AbstractLogAwareFacet
     @Override
     public void setup() {
 
+        // Wait for any other executions changing System properties to complete.
+        SYSTEM_PROPERTIES_LOCK.lock();
+
+        // Stash the original value, which may have been changed since this facet was created.
+        this.originalValue = System.getProperty(key);
+        if (type != ChangeType.REMOVE) {
+            this.type = existsAsSystemProperty(key) ? ChangeType.CHANGE : ChangeType.ADD;
+        }
+
         if (type == ChangeType.REMOVE) {
             System.clearProperty(key);
         } else {
@@ -128,14 +144,23 @@ public class SystemPropertyChangeEnvironmentFacet extends AbstractLogAwareFacet
     @Override
     public void restore() {
 
-        if (type == ChangeType.ADD) {
-            System.clearProperty(key);
-        } else {
-            System.setProperty(key, originalValue);
+        // Were we set up by the active Thread?
+        if (!SYSTEM_PROPERTIES_LOCK.isHeldByCurrentThread()) {
+            return;
         }
 
-        if(log.isDebugEnabled()) {
-            log.debug("Restored " + toString());
+        try {
+            if (type == ChangeType.ADD || originalValue == null) {
+                System.clearProperty(key);
+            } else {
+                System.setProperty(key, originalValue);
+            }
+
+            if(log.isDebugEnabled()) {
+                log.debug("Restored " + toString());
+            }
+        } finally {
+            SYSTEM_PROPERTIES_LOCK.unlock();
         }
     }
 
@@ -87,6 +87,7 @@ public final class Filters {
         for (Filter<T> current : filters) {
             if (current.accept(object)) {
                 matchedAtLeastOnce = true;
+                break;
             }
         }
 
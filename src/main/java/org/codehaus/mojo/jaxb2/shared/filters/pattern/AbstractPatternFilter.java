@@ -7,6 +7,7 @@ import org.codehaus.mojo.jaxb2.shared.filters.AbstractFilter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * <p>AbstractFilter implementation containing a Java Pattern which should be used to determine if candidate T objects
@@ -22,9 +23,11 @@ import java.util.regex.Pattern;
 public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
 
     // Internal state
+    private static final Pattern UNCOMBINABLE_CONSTRUCTS = Pattern.compile("\\\\(\\d|k<|Q)|#");
     private boolean acceptCandidateOnPatternMatch;
     private StringConverter<T> converter;
     private List<Pattern> regularExpressions;
+    private Pattern combinedExpression;
     private String patternPrefix;
     private List<String> patterns;
 
@@ -143,6 +146,7 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
         } else {
             // Complete internal state
             regularExpressions = convert(patterns, patternPrefix);
+            combinedExpression = combine(regularExpressions);
         }
     }
 
@@ -185,7 +189,12 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
         final String candidateString = convert(nonNullCandidate);
         boolean atLeastOnePatternMatched = false;
 
-        if (regularExpressions != null) {
+        if (combinedExpression != null && !log.isDebugEnabled()) {
+
+            // A single pass suffices unless the matching Pattern should be logged.
+            atLeastOnePatternMatched = combinedExpression.matcher(candidateString).matches();
+
+        } else if (regularExpressions != null) {
             for (Pattern current : regularExpressions) {
                 if (current.matcher(candidateString).matches()) {
 
@@ -247,6 +256,40 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
         return toReturn;
     }
 
+    /**
+     * Combines the supplied Patterns into a single alternation Pattern, which matches a candidate String if
+     * (and only if) at least one of the supplied Patterns matches it. Evaluating the combined Pattern requires
+     * a single pass over each candidate String, instead of one pass per Pattern.
+     *
+     * @param patterns The Patterns to combine.
+     * @return A Pattern combining all supplied Patterns, or {@code null} if the supplied Patterns are empty, use
+     * different flags or contain constructs (such as back references or quotations) which cannot safely be
+     * combined.
+     */
+    public static Pattern combine(final List<Pattern> patterns) {
+
+        if (patterns == null || patterns.isEmpty()) {
+            return null;
+        }
+
+        final int flags = patterns.get(0).flags();
+        final StringBuilder builder = new StringBuilder();
+        for (Pattern current : patterns) {
+
+            if (current.flags() != flags || UNCOMBINABLE_CONSTRUCTS.matcher(current.pattern()).find()) {
+                return null;
+            }
+
+            builder.append(builder.length() == 0 ? "" : "|").append("(?:").append(current.pattern()).append(")");
+        }
+
+        try {
+            return Pattern.compile(builder.toString(), flags);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,292 @@
+package org.codehaus.mojo.jaxb2.shared.staging;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Staging area for generated files, enabling a write-if-changed output mode. Tools write their generated files
+ * into the staging directory, which is then published into the output directory. Only staged files whose content
+ * differs from the corresponding file within the output directory are moved into it; unchanged files in the
+ * output directory retain their modification timestamps. This prevents incremental compilers and IDEs from
+ * recompiling generated code (and all code depending on it) which was not actually changed.</p>
+ * <p>XJC writes the time of generation into each generated Java file, within its header comment (unless its
+ * {@code no-header} flag is given) and within its {@code @Generated} annotations (if its {@code mark-generated}
+ * flag is given). Generated Java files are therefore considered unchanged if they differ only by a single line
+ * within their leading comment block, and by the {@code date} attributes of {@code @Generated} annotations.</p>
+ * <p>Stale files (i.e. files generated by an earlier execution, but not by this one) are removed from the
+ * output directory when publishing.</p>
+ *
+ * @since 2.2
+ */
+public class OutputStaging {
+
+    // Internal state
+    private static final int BUFFER_SIZE = 8192;
+    private static final String JAVA_SUFFIX = ".java";
+    private static final String GENERATED_ANNOTATION = "@Generated(";
+    private static final Pattern GENERATED_DATE = Pattern.compile("date\\s*=\\s*\"[^\"]*\"");
+
+    private File stagingDirectory;
+    private File outputDirectory;
+    private Log log;
+    private final SortedSet<String> stagedFiles = new TreeSet<String>();
+    private final List<File> changedFiles = new ArrayList<File>();
+
+    /**
+     * Creates a new OutputStaging, using the supplied staging directory for the given output directory.
+     *
+     * @param stagingDirectory The directory into which generated files should be written. Cannot be null.
+     *                         Should reside on the same file system as the output directory.
+     * @param outputDirectory  The output directory into which changed files should be published. Cannot be null.
+     * @param log              The active Maven Log.
+     */
+    public OutputStaging(final File stagingDirectory, final File outputDirectory, final Log log) {
+
+        // Check sanity
+        Validate.notNull(stagingDirectory, "stagingDirectory");
+        Validate.notNull(outputDirectory, "outputDirectory");
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.stagingDirectory = stagingDirectory;
+        this.outputDirectory = outputDirectory;
+        this.log = log;
+    }
+
+    /**
+     * @return The directory into which generated files should be written.
+     */
+    public File getStagingDirectory() {
+        return stagingDirectory;
+    }
+
+    /**
+     * Creates an empty staging directory, removing any files left within it by an earlier execution.
+     *
+     * @throws IOException if the staging directory could not be cleared or created.
+     */
+    public void prepare() throws IOException {
+
+        FileUtils.deleteDirectory(stagingDirectory);
+        FileUtils.forceMkdir(stagingDirectory);
+    }
+
+    /**
+     * Publishes the staged files into the output directory, and removes the staging directory.
+     *
+     * @param staleCandidatesOrNull The paths (relative to the output directory, using '/' as separator) of files
+     *                              generated by an earlier execution, which should be removed from the output
+     *                              directory unless staged again. {@code null} indicates that all files within
+     *                              the output directory which were not staged should be removed.
+     * @throws IOException if the staged files could not be published.
+     */
+    public void publish(final Collection<String> staleCandidatesOrNull) throws IOException {
+
+        final SortedMap<String, File> staged = new TreeMap<String, File>();
+        addFiles(stagingDirectory, "", staged);
+
+        int numUnchanged = 0;
+        for (SortedMap.Entry<String, File> current : staged.entrySet()) {
+
+            final File target = new File(outputDirectory, current.getKey().replace('/', File.separatorChar));
+            stagedFiles.add(current.getKey());
+
+            if (target.isFile() && hasSameContent(current.getValue(), target)) {
+                numUnchanged++;
+                continue;
+            }
+
+            // Move the changed file into place.
+            FileUtils.forceMkdir(target.getParentFile());
+            Files.move(current.getValue().toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            changedFiles.add(target);
+        }
+
+        // Remove stale files.
+        final Collection<String> staleCandidates;
+        if (staleCandidatesOrNull == null) {
+            final SortedMap<String, File> existing = new TreeMap<String, File>();
+            addFiles(outputDirectory, "", existing);
+            staleCandidates = existing.keySet();
+        } else {
+            staleCandidates = staleCandidatesOrNull;
+        }
+
+        int numRemoved = 0;
+        for (String current : staleCandidates) {
+
+            final File staleFile = new File(outputDirectory, current.replace('/', File.separatorChar));
+            if (!stagedFiles.contains(current) && staleFile.isFile()) {
+
+                if (!staleFile.delete()) {
+                    throw new IOException("Could not delete stale generated file ["
+                            + FileSystemUtilities.getCanonicalPath(staleFile) + "]");
+                }
+                changedFiles.add(staleFile);
+                numRemoved++;
+            }
+        }
+
+        FileUtils.deleteDirectory(stagingDirectory);
+
+        if (log.isInfoEnabled()) {
+            log.info("Write-if-changed: " + (staged.size() - numUnchanged) + " of " + staged.size()
+                    + " generated files changed, " + numRemoved + " stale files removed.");
+        }
+    }
+
+    /**
+     * @return An unmodifiable SortedSet holding the paths (relative to the output directory, using '/' as
+     * separator) of all files staged, whether they were changed or not.
+     */
+    public SortedSet<String> getStagedFiles() {
+        return Collections.unmodifiableSortedSet(stagedFiles);
+    }
+
+    /**
+     * @return An unmodifiable List holding the files within the output directory which were created, modified
+     * or removed when publishing the staged files.
+     */
+    public List<File> getChangedFiles() {
+        return Collections.unmodifiableList(changedFiles);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static void addFiles(final File directory, final String relativePath, final SortedMap<String, File> files) {
+
+        final File[] children = directory.listFiles();
+        if (children != null) {
+            for (File current : children) {
+
+                final String currentPath = relativePath + current.getName();
+                if (current.isDirectory()) {
+                    addFiles(current, currentPath + "/", files);
+                } else {
+                    files.put(currentPath, current);
+                }
+            }
+        }
+    }
+
+    private static boolean hasSameContent(final File file1, final File file2) throws IOException {
+
+        if (file1.getName().endsWith(JAVA_SUFFIX)) {
+            return hasSameGeneratedJavaContent(file1, file2);
+        }
+
+        if (file1.length() != file2.length()) {
+            return false;
+        }
+
+        final InputStream in1 = new BufferedInputStream(new FileInputStream(file1));
+        try {
+            final InputStream in2 = new BufferedInputStream(new FileInputStream(file2));
+            try {
+
+                final byte[] buffer1 = new byte[BUFFER_SIZE];
+                final byte[] buffer2 = new byte[BUFFER_SIZE];
+                for (int read1 = in1.read(buffer1); read1 != -1; read1 = in1.read(buffer1)) {
+
+                    // Fill the second buffer with the same number of bytes.
+                    int read2 = 0;
+                    while (read2 < read1) {
+                        final int read = in2.read(buffer2, read2, read1 - read2);
+                        if (read == -1) {
+                            return false;
+                        }
+                        read2 += read;
+                    }
+
+                    for (int i = 0; i < read1; i++) {
+                        if (buffer1[i] != buffer2[i]) {
+                            return false;
+                        }
+                    }
+                }
+
+                // All bytes were equal; the file sizes were checked above.
+                return true;
+
+            } finally {
+                in2.close();
+            }
+        } finally {
+            in1.close();
+        }
+    }
+
+    private static boolean hasSameGeneratedJavaContent(final File file1, final File file2) throws IOException {
+
+        // ISO-8859-1 maps each byte to a single character, irrespective of the encoding of the files.
+        final String[] lines1 = FileUtils.fileRead(file1, "ISO-8859-1").split("\n", -1);
+        final String[] lines2 = FileUtils.fileRead(file2, "ISO-8859-1").split("\n", -1);
+        if (lines1.length != lines2.length) {
+            return false;
+        }
+
+        boolean withinHeader = true;
+        int numDifferingHeaderLines = 0;
+        for (int i = 0; i < lines1.length; i++) {
+
+            withinHeader = withinHeader && lines1[i].startsWith("//") && lines2[i].startsWith("//");
+            if (lines1[i].equals(lines2[i])) {
+                continue;
+            }
+
+            // Disregard the generation timestamps written by XJC.
+            if (withinHeader) {
+                if (++numDifferingHeaderLines > 1) {
+                    return false;
+                }
+            } else if (!lines1[i].contains(GENERATED_ANNOTATION)
+                    || !GENERATED_DATE.matcher(lines1[i]).replaceAll("")
+                    .equals(GENERATED_DATE.matcher(lines2[i]).replaceAll(""))) {
+                return false;
+            }
+        }
+
+        // All done.
+        return true;
+    }
+}
@@ -0,0 +1,671 @@
+package org.codehaus.mojo.jaxb2.shared.staleness;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.catalog.JarSchemaCache;
+import org.codehaus.mojo.jaxb2.shared.catalog.SchemaMirror;
+import org.codehaus.mojo.jaxb2.shared.catalog.XmlCatalog;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Resolves the transitive closure of resources referenced by a set of XML schema and JAXB binding files,
+ * i.e. the files reached through {@code xs:include}, {@code xs:import}, {@code xs:redefine} and
+ * {@code xs:override} in XSDs, as well as through the {@code schemaLocation} attribute of JAXB
+ * {@code bindings} elements. References are resolved using the XJC catalog (if any) before being resolved
+ * relative to the referencing document, mimicking the resolution performed by XJC itself.</p>
+ * <p>WSDL files are supported as well, in which case {@code wsdl:import}s and schema references within
+ * embedded schemas are followed. DTDs referenced by {@code DOCTYPE} declarations are also reported.</p>
+ * <p>Only local resources ({@code file} and {@code jar} URLs) are reported as dependencies, as fingerprinting
+ * remote resources would require network access during each staleness check. Remote resources are only
+ * followed if a {@link SchemaMirror} is supplied, in which case they are fetched into (or read from) it.</p>
+ * <p>The resolved references can also be used to {@link #partition(List)} a set of source files into groups
+ * which can be compiled independently of each other, or to {@link #partitionByNamespace(List)} in namespace
+ * dependency order.</p>
+ *
+ * @since 2.2
+ */
+public class SchemaDependencyResolver {
+
+    /**
+     * The namespace of JAXB binding files.
+     */
+    public static final String JAXB_NAMESPACE = "http://java.sun.com/xml/ns/jaxb";
+
+    /**
+     * The namespace of WSDL 1.1 files.
+     */
+    public static final String WSDL_NAMESPACE = "http://schemas.xmlsoap.org/wsdl/";
+
+    // Internal state
+    private static final List<String> SCHEMA_REFERENCE_ELEMENTS = Arrays.asList(
+            "include", "import", "redefine", "override");
+    private static final List<String> LOCAL_PROTOCOLS = Arrays.asList("file", "jar");
+    private static final Pattern DOCTYPE_IDENTIFIERS = Pattern.compile(
+            "<!DOCTYPE\\s+\\S+\\s+(?:SYSTEM|PUBLIC\\s+(\"[^\"]*\"|'[^']*'))\\s+(\"[^\"]*\"|'[^']*')");
+
+    private XmlCatalog catalog;
+    private SchemaMirror mirror;
+    private JarSchemaCache jarCache;
+    private XMLInputFactory inputFactory;
+    private Log log;
+    private Map<String, String> targetNamespaces = new HashMap<String, String>();
+
+    /**
+     * Creates a new SchemaDependencyResolver using the supplied catalog.
+     *
+     * @param catalogOrNull The XmlCatalog used by XJC to resolve schema references, or {@code null} if none.
+     * @param log           The active Maven Log.
+     */
+    public SchemaDependencyResolver(final XmlCatalog catalogOrNull, final Log log) {
+        this(catalogOrNull, null, log);
+    }
+
+    /**
+     * Creates a new SchemaDependencyResolver using the supplied catalog, and following remote references
+     * through the supplied SchemaMirror.
+     *
+     * @param catalogOrNull The XmlCatalog used by XJC to resolve schema references, or {@code null} if none.
+     * @param mirrorOrNull  The SchemaMirror used to fetch remote resources, or {@code null} to leave remote
+     *                      resources unresolved.
+     * @param log           The active Maven Log.
+     */
+    public SchemaDependencyResolver(final XmlCatalog catalogOrNull,
+                                    final SchemaMirror mirrorOrNull,
+                                    final Log log) {
+        this(catalogOrNull, mirrorOrNull, null, log);
+    }
+
+    /**
+     * Creates a new SchemaDependencyResolver using the supplied catalog, following remote references through
+     * the supplied SchemaMirror and reading resources within JAR files through the supplied JarSchemaCache.
+     *
+     * @param catalogOrNull  The XmlCatalog used by XJC to resolve schema references, or {@code null} if none.
+     * @param mirrorOrNull   The SchemaMirror used to fetch remote resources, or {@code null} to leave remote
+     *                       resources unresolved.
+     * @param jarCacheOrNull The JarSchemaCache used to read resources within JAR files, or {@code null} to read
+     *                       them directly from their JAR files.
+     * @param log            The active Maven Log.
+     */
+    public SchemaDependencyResolver(final XmlCatalog catalogOrNull,
+                                    final SchemaMirror mirrorOrNull,
+                                    final JarSchemaCache jarCacheOrNull,
+                                    final Log log) {
+
+        // Check sanity
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.catalog = catalogOrNull;
+        this.mirror = mirrorOrNull;
+        this.jarCache = jarCacheOrNull;
+        this.log = log;
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    /**
+     * Retrieves the resources transitively referenced by the supplied root resources.
+     *
+     * @param roots The URLs to the XSD and XJB files supplied to XJC. Cannot be null.
+     * @return A Map relating the URL of each resource (roots excluded) transitively referenced by the supplied
+     * roots to the URLs of the resources directly referencing it, in discovery order.
+     */
+    public Map<URL, List<URL>> resolve(final List<URL> roots) {
+
+        // Check sanity
+        Validate.notNull(roots, "roots");
+
+        final Set<String> rootForms = new LinkedHashSet<String>();
+        final List<URL> toProcess = new ArrayList<URL>();
+        for (URL current : roots) {
+
+            final URL normalized = normalize(current);
+            if (rootForms.add(normalized.toString()) && isFollowed(normalized)) {
+                toProcess.add(normalized);
+            }
+        }
+
+        // Traverse the references breadth first; each resource is parsed at most once.
+        final Map<String, URL> dependencies = new LinkedHashMap<String, URL>();
+        final Map<String, List<URL>> referencedBy = new LinkedHashMap<String, List<URL>>();
+        for (int i = 0; i < toProcess.size(); i++) {
+
+            final URL current = toProcess.get(i);
+            for (URL currentReference : getReferences(current)) {
+
+                final String key = currentReference.toString();
+                if (rootForms.contains(key)) {
+                    continue;
+                }
+
+                if (!dependencies.containsKey(key)) {
+                    dependencies.put(key, currentReference);
+                    referencedBy.put(key, new ArrayList<URL>());
+                    if (isFollowed(currentReference)) {
+                        toProcess.add(currentReference);
+                    }
+                }
+
+                final List<URL> referrers = referencedBy.get(key);
+                if (!referrers.contains(current)) {
+                    referrers.add(current);
+                }
+            }
+        }
+
+        final Map<URL, List<URL>> toReturn = new LinkedHashMap<URL, List<URL>>();
+        for (Map.Entry<String, URL> current : dependencies.entrySet()) {
+            if (isLocal(current.getValue())) {
+                toReturn.put(current.getValue(), Collections.unmodifiableList(referencedBy.get(current.getKey())));
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Found " + toReturn.size() + " schema dependencies of " + rootForms.size()
+                    + " source files.");
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * <p>Partitions the supplied roots into groups which can be compiled independently of each other. Two roots
+     * belong to the same group if their transitive closures of referenced resources intersect (for instance by
+     * including or importing the same XSD, or by one root referencing another), or if their closures hold
+     * schemas with the same target namespace (which would otherwise generate classes into the same package).</p>
+     *
+     * @param roots The URLs to the XSD and XJB files supplied to XJC. Cannot be null.
+     * @return A List holding the groups of the supplied roots, each in the order the roots were supplied.
+     * The groups are sorted in the order of their first root.
+     */
+    public List<List<URL>> partition(final List<URL> roots) {
+
+        // Check sanity
+        Validate.notNull(roots, "roots");
+
+        // Union the roots sharing any resource or target namespace within their closures.
+        final Map<String, List<URL>> references = new HashMap<String, List<URL>>();
+        final Map<String, Integer> owners = new HashMap<String, Integer>();
+        final int[] parents = new int[roots.size()];
+        for (int i = 0; i < roots.size(); i++) {
+
+            parents[i] = i;
+            for (String currentKey : getPartitionKeys(normalize(roots.get(i)), references)) {
+
+                final Integer owner = owners.get(currentKey);
+                if (owner == null) {
+                    owners.put(currentKey, i);
+                } else {
+                    parents[find(parents, i)] = find(parents, owner);
+                }
+            }
+        }
+
+        final Map<Integer, List<URL>> groups = new LinkedHashMap<Integer, List<URL>>();
+        for (int i = 0; i < roots.size(); i++) {
+
+            final Integer group = find(parents, i);
+            if (!groups.containsKey(group)) {
+                groups.put(group, new ArrayList<URL>());
+            }
+            groups.get(group).add(roots.get(i));
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Partitioned " + roots.size() + " source files into " + groups.size()
+                    + " independent groups.");
+        }
+
+        // All done.
+        return new ArrayList<List<URL>>(groups.values());
+    }
+
+    /**
+     * <p>Partitions the supplied roots by target namespace, in namespace dependency order. Each partition holds the
+     * roots defining schemas with the same target namespace. Roots lacking a target namespace of their own (such as
+     * binding files) join the partitions of the namespaces they refer to, and partitions whose namespaces import
+     * each other (directly or transitively) are merged.</p>
+     *
+     * @param roots The URLs to the XSD and XJB files supplied to XJC. Cannot be null.
+     * @return A List holding the partitions of the supplied roots, each in the order the roots were supplied.
+     * Each partition succeeds all partitions holding namespaces imported (directly or transitively) by it.
+     */
+    public List<List<URL>> partitionByNamespace(final List<URL> roots) {
+
+        // Check sanity
+        Validate.notNull(roots, "roots");
+
+        // Find the target namespace of each root, and the target namespaces within its closure.
+        final int numRoots = roots.size();
+        final Map<String, List<URL>> references = new HashMap<String, List<URL>>();
+        final List<String> ownNamespaces = new ArrayList<String>();
+        final List<Set<String>> closureNamespaces = new ArrayList<Set<String>>();
+        for (URL current : roots) {
+
+            final URL normalized = normalize(current);
+            final Set<String> namespaces = new HashSet<String>();
+            for (String currentKey : getPartitionKeys(normalized, references)) {
+                if (currentKey.startsWith("{")) {
+                    namespaces.add(currentKey.substring(1, currentKey.length() - 1));
+                }
+            }
+
+            ownNamespaces.add(targetNamespaces.get(normalized.toString()));
+            closureNamespaces.add(namespaces);
+        }
+
+        // Union the roots sharing their target namespace, and the roots lacking
+        // a target namespace of their own with the roots they refer to.
+        final int[] parents = new int[numRoots];
+        final Map<String, Integer> namespaceOwners = new HashMap<String, Integer>();
+        for (int i = 0; i < numRoots; i++) {
+
+            parents[i] = i;
+            final String ownNamespace = ownNamespaces.get(i);
+            if (ownNamespace != null) {
+
+                final Integer owner = namespaceOwners.get(ownNamespace);
+                if (owner == null) {
+                    namespaceOwners.put(ownNamespace, i);
+                } else {
+                    parents[find(parents, i)] = find(parents, owner);
+                }
+            }
+        }
+        for (int i = 0; i < numRoots; i++) {
+            if (ownNamespaces.get(i) == null) {
+                for (String current : closureNamespaces.get(i)) {
+
+                    final Integer owner = namespaceOwners.get(current);
+                    if (owner != null) {
+                        parents[find(parents, i)] = find(parents, owner);
+                    }
+                }
+            }
+        }
+
+        // Find which partitions reach which others through their closures.
+        final List<Integer> representatives = new ArrayList<Integer>();
+        final int[] partitionOf = new int[numRoots];
+        for (int i = 0; i < numRoots; i++) {
+
+            final Integer representative = find(parents, i);
+            if (!representatives.contains(representative)) {
+                representatives.add(representative);
+            }
+            partitionOf[i] = representatives.indexOf(representative);
+        }
+
+        final int numPartitions = representatives.size();
+        final boolean[][] reaches = new boolean[numPartitions][numPartitions];
+        for (int i = 0; i < numRoots; i++) {
+            for (String current : closureNamespaces.get(i)) {
+
+                final Integer owner = namespaceOwners.get(current);
+                if (owner != null) {
+                    reaches[partitionOf[i]][partitionOf[owner]] = true;
+                }
+            }
+        }
+        for (int k = 0; k < numPartitions; k++) {
+            for (int a = 0; a < numPartitions; a++) {
+                if (reaches[a][k]) {
+                    for (int b = 0; b < numPartitions; b++) {
+                        reaches[a][b] |= reaches[k][b];
+                    }
+                }
+            }
+        }
+
+        // Partitions whose namespaces import each other must be compiled together.
+        final int[] components = new int[numPartitions];
+        int numComponents = 0;
+        for (int a = 0; a < numPartitions; a++) {
+
+            components[a] = a;
+            for (int b = 0; b < a; b++) {
+                if (reaches[a][b] && reaches[b][a]) {
+                    components[a] = components[b];
+                    break;
+                }
+            }
+            numComponents += components[a] == a ? 1 : 0;
+        }
+
+        // Emit each component after all components it depends on, retaining the order of the roots otherwise.
+        final List<List<URL>> toReturn = new ArrayList<List<URL>>();
+        final boolean[] emitted = new boolean[numPartitions];
+        while (toReturn.size() < numComponents) {
+            for (int a = 0; a < numPartitions; a++) {
+
+                if (emitted[a] || components[a] != a || !isReady(a, components, reaches, emitted)) {
+                    continue;
+                }
+
+                final List<URL> partition = new ArrayList<URL>();
+                for (int i = 0; i < numRoots; i++) {
+                    if (components[partitionOf[i]] == a) {
+                        partition.add(roots.get(i));
+                    }
+                }
+                toReturn.add(partition);
+                emitted[a] = true;
+                break;
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Partitioned " + numRoots + " source files into " + toReturn.size()
+                    + " namespace partitions.");
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static boolean isReady(final int component,
+                                   final int[] components,
+                                   final boolean[][] reaches,
+                                   final boolean[] emitted) {
+
+        for (int a = 0; a < components.length; a++) {
+            if (components[a] == component) {
+                for (int b = 0; b < components.length; b++) {
+                    if (reaches[a][b] && components[b] != component && !emitted[components[b]]) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        // All done.
+        return true;
+    }
+
+    private Set<String> getPartitionKeys(final URL root, final Map<String, List<URL>> references) {
+
+        // Traverse the closure of the root, parsing each resource at most once across all roots.
+        final Set<String> toReturn = new LinkedHashSet<String>();
+        final List<URL> toProcess = new ArrayList<URL>();
+        toReturn.add(root.toString());
+        toProcess.add(root);
+
+        for (int i = 0; i < toProcess.size(); i++) {
+
+            final URL current = toProcess.get(i);
+            if (!isFollowed(current)) {
+                continue;
+            }
+
+            List<URL> currentReferences = references.get(current.toString());
+            if (currentReferences == null) {
+                currentReferences = getReferences(current);
+                references.put(current.toString(), currentReferences);
+            }
+
+            for (URL currentReference : currentReferences) {
+                if (toReturn.add(currentReference.toString())) {
+                    toProcess.add(currentReference);
+                }
+            }
+        }
+
+        // Included schemas lacking a target namespace adopt the namespace of their includer.
+        // Hence, only the root may contribute the empty namespace.
+        for (URL current : toProcess) {
+
+            final String targetNamespace = targetNamespaces.get(current.toString());
+            if (targetNamespace != null && (current == root || !targetNamespace.isEmpty())) {
+                toReturn.add("{" + targetNamespace + "}");
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static int find(final int[] parents, final int index) {
+
+        int current = index;
+        while (parents[current] != current) {
+            parents[current] = parents[parents[current]];
+            current = parents[current];
+        }
+        return current;
+    }
+
+    private InputStream openLocal(final URL document) throws IOException {
+
+        // Read resources within JAR files from their extracted copies, if available.
+        final File extractedFile = jarCache == null ? null : jarCache.getLocalFile(document);
+        return extractedFile == null ? document.openStream() : new FileInputStream(extractedFile);
+    }
+
+    private List<URL> getReferences(final URL document) {
+
+        final List<URL> toReturn = new ArrayList<URL>();
+
+        XMLStreamReader reader = null;
+        InputStream in = null;
+        try {
+
+            // Read remote documents from the mirror, while resolving their references relative to their URL.
+            in = isLocal(document) ? openLocal(document) : new FileInputStream(mirror.fetch(document));
+            reader = inputFactory.createXMLStreamReader(document.toString(), in);
+
+            int depth = 0;
+            boolean isSchema = false;
+            while (reader.hasNext()) {
+
+                final int event = reader.next();
+                if (event == XMLStreamConstants.DTD) {
+                    addDoctypeReference(toReturn, document, reader.getText());
+                    continue;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                depth++;
+                final String namespace = reader.getNamespaceURI();
+                final String name = reader.getLocalName();
+                final boolean isSchemaReference = XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(namespace)
+                        && SCHEMA_REFERENCE_ELEMENTS.contains(name);
+
+                if (depth == 1) {
+                    isSchema = XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(namespace) && "schema".equals(name);
+                    if (isSchema) {
+                        final String targetNamespace = reader.getAttributeValue(null, "targetNamespace");
+                        targetNamespaces.put(document.toString(), targetNamespace == null ? "" : targetNamespace);
+                    }
+                } else if (isSchema && depth == 2 && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(namespace)
+                        && !isSchemaReference && !"annotation".equals(name)) {
+
+                    // References must precede all other top-level schema components.
+                    break;
+                }
+
+                if (isSchemaReference) {
+
+                    final String publicId = "import".equals(name)
+                            ? reader.getAttributeValue(null, "namespace")
+                            : null;
+                    addReference(toReturn, document, publicId, reader.getAttributeValue(null, "schemaLocation"));
+
+                } else if (JAXB_NAMESPACE.equals(namespace) && "bindings".equals(name)) {
+                    addReference(toReturn, document, null, reader.getAttributeValue(null, "schemaLocation"));
+                } else if (WSDL_NAMESPACE.equals(namespace) && "import".equals(name)) {
+                    addReference(toReturn, document, null, reader.getAttributeValue(null, "location"));
+                }
+            }
+
+        } catch (IOException e) {
+            log.warn("Could not read [" + document + "]. Ignoring its schema references: " + e.getMessage());
+        } catch (XMLStreamException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not parse [" + document + "]. Ignoring its schema references.", e);
+            }
+        } finally {
+            close(reader, in);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private void addDoctypeReference(final List<URL> references, final URL document, final String doctype) {
+
+        final Matcher matcher = DOCTYPE_IDENTIFIERS.matcher(doctype == null ? "" : doctype);
+        if (matcher.find()) {
+
+            final String publicId = matcher.group(1) == null ? null : unquote(matcher.group(1));
+            addReference(references, document, publicId, unquote(matcher.group(2)));
+        }
+    }
+
+    private void addReference(final List<URL> references,
+                              final URL document,
+                              final String publicIdOrNull,
+                              final String schemaLocationOrNull) {
+
+        final String schemaLocation = schemaLocationOrNull == null || schemaLocationOrNull.trim().isEmpty()
+                ? null
+                : schemaLocationOrNull.trim();
+        if (schemaLocation == null && publicIdOrNull == null) {
+            return;
+        }
+
+        try {
+
+            // Resolve the reference using the catalog as XJC does, and fall back to
+            // resolving the schemaLocation relative to the referencing document.
+            final String systemId = schemaLocation == null ? null : resolveRelative(document, schemaLocation);
+            final String resolved = catalog == null ? systemId : catalog.resolve(publicIdOrNull, systemId);
+            final String effective = resolved == null ? systemId : resolved;
+            if (effective == null) {
+                return;
+            }
+
+            final URL reference = normalize(new URL(effective));
+            if (isFollowed(reference)) {
+                references.add(reference);
+            } else if (log.isDebugEnabled()) {
+                log.debug("Not following non-local schema reference [" + reference + "] from [" + document + "]");
+            }
+
+        } catch (MalformedURLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Ignoring malformed schema reference [" + schemaLocation + "] in [" + document + "]", e);
+            }
+        }
+    }
+
+    private boolean isFollowed(final URL url) {
+        return mirror != null || isLocal(url);
+    }
+
+    private static boolean isLocal(final URL url) {
+        return LOCAL_PROTOCOLS.contains(url.getProtocol().toLowerCase());
+    }
+
+    private static String unquote(final String quoted) {
+        return quoted.substring(1, quoted.length() - 1);
+    }
+
+    private static String resolveRelative(final URL document, final String schemaLocation)
+            throws MalformedURLException {
+
+        // java.net.URI cannot resolve relative references within opaque jar: URIs; java.net.URL can.
+        return new URL(document, schemaLocation).toString();
+    }
+
+    private static URL normalize(final URL url) {
+
+        if ("file".equalsIgnoreCase(url.getProtocol())) {
+            try {
+                return FileSystemUtilities.getUrlFor(
+                        FileSystemUtilities.getCanonicalFile(new File(url.toURI())));
+            } catch (URISyntaxException e) {
+                // Use the URL as-is.
+            } catch (IllegalArgumentException e) {
+                // Use the URL as-is.
+            }
+        }
+
+        // All done.
+        return url;
+    }
+
+    private static void close(final XMLStreamReader reader, final InputStream in) {
+
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // Ignore this.
+            }
+        }
+
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Ignore this.
+            }
+        }
+    }
+}
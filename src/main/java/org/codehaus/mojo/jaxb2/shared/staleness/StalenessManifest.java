@@ -0,0 +1,824 @@
+package org.codehaus.mojo.jaxb2.shared.staleness;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Manifest holding a content fingerprint (size, modification timestamp and SHA-256 digest) of each
+ * input resource used by a JAXB tool execution, as well as the effective arguments of that execution.
+ * The manifest is persisted as the stale file of an execution, and used to decide if re-generation is
+ * required by comparing the content of the inputs rather than their modification timestamps only.
+ * Hence, touching or re-checking out unchanged sources does not imply that JAXB re-generation is required.</p>
+ * <p>Content digests are only re-calculated for resources whose size or modification timestamp
+ * differs from the values found in the previous manifest.</p>
+ * <p>Apart from the resources supplied directly to the tool, the manifest holds fingerprints of resources on
+ * which these depend (such as XSDs reached through {@code xs:include} or {@code xs:import}). Dependencies are
+ * recorded when the tool is executed, and re-fingerprinted when checking for staleness.</p>
+ * <p>Remote resources are probed concurrently, using conditional requests ({@code If-None-Match} and
+ * {@code If-Modified-Since}) with the validators recorded in the previous manifest for HTTP resources.
+ * Unchanged remote resources are hence neither transferred nor digested.</p>
+ * <p>Finally, the manifest holds fingerprints of the files produced by the tool execution, relative to its
+ * output directory. These are used to detect deleted or modified generated files, in which case
+ * re-generation is required even if all inputs are unchanged.</p>
+ *
+ * @since 2.2
+ */
+public final class StalenessManifest {
+
+    /**
+     * The version of the persisted manifest format.
+     * Manifests written in another format are ignored (i.e. treated as stale).
+     */
+    public static final String FORMAT_VERSION = "1";
+
+    /**
+     * The digest algorithm used to fingerprint the content of input resources.
+     */
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Value indicating that a size or modification timestamp could not be determined.
+     */
+    public static final long UNKNOWN = -1L;
+
+    /**
+     * Digest value of output Fingerprints whose content was not digested.
+     */
+    public static final String NOT_DIGESTED = "-";
+
+    // Internal state
+    private static final String VERSION_KEY = "manifest.version";
+    private static final String ARGUMENT_PREFIX = "argument.";
+    private static final String RESOURCE_PREFIX = "resource.";
+    private static final String DEPENDENCY_PREFIX = "dependency.";
+    private static final String VALIDATOR_PREFIX = "validator.";
+    private static final String OUTPUT_PREFIX = "output.";
+    private static final String FINGERPRINT_SEPARATOR = ",";
+    private static final int BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final List<String> arguments;
+    private final SortedMap<String, Fingerprint> resources;
+    private final SortedMap<String, Fingerprint> dependencies;
+    private final SortedMap<String, Fingerprint> outputs;
+
+    /**
+     * Creates a new StalenessManifest holding the supplied tool arguments and no resources.
+     *
+     * @param arguments The effective arguments for the tool execution. Cannot be null.
+     */
+    public StalenessManifest(final List<String> arguments) {
+
+        // Check sanity
+        Validate.notNull(arguments, "arguments");
+
+        // Assign internal state
+        this.arguments = Collections.unmodifiableList(new ArrayList<String>(arguments));
+        this.resources = new TreeMap<String, Fingerprint>();
+        this.dependencies = new TreeMap<String, Fingerprint>();
+        this.outputs = new TreeMap<String, Fingerprint>();
+    }
+
+    /**
+     * Adds a Fingerprint for the supplied resource to this StalenessManifest. If the previous manifest holds a
+     * Fingerprint for the same resource with identical size and modification timestamp, its content digest
+     * is re-used instead of reading the resource.
+     *
+     * @param resource       The URL to the input resource. Cannot be null.
+     * @param previousOrNull The previously persisted StalenessManifest, or {@code null} if none is available.
+     * @return The Fingerprint created for the supplied resource.
+     * @throws IOException if the resource could not be read.
+     */
+    public Fingerprint addResource(final URL resource, final StalenessManifest previousOrNull) throws IOException {
+
+        // Check sanity
+        Validate.notNull(resource, "resource");
+
+        final String key = resource.toString();
+        final Fingerprint current = createFingerprint(resource,
+                previousOrNull == null ? null : previousOrNull.resources.get(key));
+
+        // All done.
+        resources.put(key, current);
+        return current;
+    }
+
+    /**
+     * Adds Fingerprints for all supplied resources to this StalenessManifest, as if calling
+     * {@link #addResource(URL, StalenessManifest)} for each of them. Local files are fingerprinted
+     * in the calling thread, whereas other resources (typically remote schemas) are probed concurrently.
+     *
+     * @param inputs                The URLs to the input resources. Cannot be null.
+     * @param previousOrNull        The previously persisted StalenessManifest, or {@code null} if none is available.
+     * @param maxConcurrentRequests The maximum number of non-file resources probed concurrently.
+     *                              Values less than 1 imply probing the resources one at a time.
+     * @throws IOException if any resource could not be read.
+     */
+    public void addResources(final List<URL> inputs,
+                             final StalenessManifest previousOrNull,
+                             final int maxConcurrentRequests) throws IOException {
+
+        // Check sanity
+        Validate.notNull(inputs, "inputs");
+
+        final List<URL> remoteResources = new ArrayList<URL>();
+        for (URL current : inputs) {
+            if ("file".equalsIgnoreCase(current.getProtocol())) {
+                addResource(current, previousOrNull);
+            } else {
+                remoteResources.add(current);
+            }
+        }
+
+        final int numThreads = Math.min(remoteResources.size(), maxConcurrentRequests);
+        if (numThreads <= 1) {
+            for (URL current : remoteResources) {
+                addResource(current, previousOrNull);
+            }
+            return;
+        }
+
+        final List<Callable<Fingerprint>> tasks = new ArrayList<Callable<Fingerprint>>();
+        for (final URL current : remoteResources) {
+
+            final Fingerprint previous = previousOrNull == null
+                    ? null
+                    : previousOrNull.resources.get(current.toString());
+            tasks.add(new Callable<Fingerprint>() {
+                @Override
+                public Fingerprint call() throws Exception {
+                    return createFingerprint(current, previous);
+                }
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+
+            final List<Future<Fingerprint>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    resources.put(remoteResources.get(i).toString(), results.get(i).get());
+                } catch (ExecutionException e) {
+
+                    // Re-throw the failure of the first failing resource.
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException("Could not fingerprint resource [" + remoteResources.get(i) + "]", cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fingerprinting resources.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds a Fingerprint for a resource on which the input resources of this StalenessManifest depend.
+     * Content digests are re-used from the previous manifest in the same way as for
+     * {@link #addResource(URL, StalenessManifest)}.
+     *
+     * @param dependency     The URL to the dependency resource. Cannot be null.
+     * @param previousOrNull The previously persisted StalenessManifest, or {@code null} if none is available.
+     * @return The Fingerprint created for the supplied dependency.
+     * @throws IOException if the dependency could not be read.
+     */
+    public Fingerprint addDependency(final URL dependency, final StalenessManifest previousOrNull)
+            throws IOException {
+
+        // Check sanity
+        Validate.notNull(dependency, "dependency");
+
+        final String key = dependency.toString();
+        final Fingerprint current = createFingerprint(dependency,
+                previousOrNull == null ? null : previousOrNull.dependencies.get(key));
+
+        // All done.
+        dependencies.put(key, current);
+        return current;
+    }
+
+    /**
+     * Removes all dependencies from this StalenessManifest, typically prior to recording
+     * the dependencies found during a tool execution.
+     */
+    public void clearDependencies() {
+        dependencies.clear();
+    }
+
+    /**
+     * Adds a Fingerprint for a file produced by the tool execution to this StalenessManifest.
+     *
+     * @param relativePath  The path of the produced file relative to the output directory, using '/' as separator.
+     *                      Cannot be null or empty.
+     * @param outputFile    The produced file. Cannot be null.
+     * @param includeDigest if {@code true}, the content of the produced file is digested. Otherwise, the
+     *                      Fingerprint holds the digest {@link #NOT_DIGESTED}.
+     * @return The Fingerprint created for the supplied output file.
+     * @throws IOException if the output file could not be read.
+     */
+    public Fingerprint addOutput(final String relativePath, final File outputFile, final boolean includeDigest)
+            throws IOException {
+
+        // Check sanity
+        Validate.notEmpty(relativePath, "relativePath");
+        Validate.notNull(outputFile, "outputFile");
+
+        final Fingerprint toReturn = new Fingerprint(outputFile.length(), outputFile.lastModified(),
+                includeDigest ? digest(new FileInputStream(outputFile)) : NOT_DIGESTED);
+
+        // All done.
+        outputs.put(relativePath, toReturn);
+        return toReturn;
+    }
+
+    /**
+     * Replaces the output Fingerprints of this StalenessManifest with the ones of the supplied manifest.
+     *
+     * @param other The StalenessManifest whose output Fingerprints should be copied. Cannot be null.
+     */
+    public void copyOutputs(final StalenessManifest other) {
+
+        // Check sanity
+        Validate.notNull(other, "other");
+
+        outputs.clear();
+        outputs.putAll(other.outputs);
+    }
+
+    /**
+     * Removes all output Fingerprints from this StalenessManifest.
+     */
+    public void clearOutputs() {
+        outputs.clear();
+    }
+
+    /**
+     * Retrieves human-readable descriptions of all differences between the output files recorded in this
+     * StalenessManifest and the files currently found within the supplied output directory. Outputs are
+     * verified by existence and size. If digests were recorded and {@code verifyDigests} is {@code true},
+     * the content of outputs whose modification timestamp differs from the recorded one is digested as well.
+     *
+     * @param outputDirectory The directory holding the produced files. Cannot be null.
+     * @param verifyDigests   if {@code true}, the content of outputs with changed timestamps is verified.
+     * @return A non-null List holding descriptions of each missing or modified output file.
+     */
+    public List<String> getOutputDifferences(final File outputDirectory, final boolean verifyDigests) {
+
+        // Check sanity
+        Validate.notNull(outputDirectory, "outputDirectory");
+
+        final List<String> toReturn = new ArrayList<String>();
+        for (Map.Entry<String, Fingerprint> current : outputs.entrySet()) {
+
+            final File outputFile = new File(outputDirectory, current.getKey().replace('/', File.separatorChar));
+            final Fingerprint recorded = current.getValue();
+
+            if (!outputFile.isFile()) {
+                toReturn.add("Missing output [" + current.getKey() + "]");
+            } else if (outputFile.length() != recorded.getSize()) {
+                toReturn.add("Changed output [" + current.getKey() + "]");
+            } else if (verifyDigests
+                    && !NOT_DIGESTED.equals(recorded.getDigest())
+                    && outputFile.lastModified() != recorded.getLastModified()) {
+
+                try {
+                    if (!recorded.getDigest().equals(digest(new FileInputStream(outputFile)))) {
+                        toReturn.add("Changed output [" + current.getKey() + "]");
+                    }
+                } catch (IOException e) {
+                    toReturn.add("Unreadable output [" + current.getKey() + "]");
+                }
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * @return An unmodifiable List holding the effective tool arguments of this StalenessManifest.
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @return An unmodifiable SortedMap relating the string form of each resource URL to its Fingerprint.
+     */
+    public SortedMap<String, Fingerprint> getResources() {
+        return Collections.unmodifiableSortedMap(resources);
+    }
+
+    /**
+     * @return An unmodifiable SortedMap relating the string form of each dependency URL to its Fingerprint.
+     */
+    public SortedMap<String, Fingerprint> getDependencies() {
+        return Collections.unmodifiableSortedMap(dependencies);
+    }
+
+    /**
+     * @return An unmodifiable SortedMap relating the relative path of each produced file to its Fingerprint.
+     */
+    public SortedMap<String, Fingerprint> getOutputs() {
+        return Collections.unmodifiableSortedMap(outputs);
+    }
+
+    /**
+     * Retrieves human-readable descriptions of all differences between this StalenessManifest and the supplied
+     * one. Differences in modification timestamps are not reported unless the content of the resource differs.
+     *
+     * @param previousOrNull The previously persisted StalenessManifest, or {@code null} if none is available.
+     * @return A non-null List holding descriptions of each difference found. An empty List indicates that no
+     * re-generation is required.
+     */
+    public List<String> getDifferences(final StalenessManifest previousOrNull) {
+
+        final List<String> toReturn = new ArrayList<String>();
+
+        if (previousOrNull == null) {
+            toReturn.add("No previous staleness manifest found.");
+            return toReturn;
+        }
+
+        if (!arguments.equals(previousOrNull.arguments)) {
+            toReturn.add("Tool arguments differ.");
+        }
+
+        addDifferences(toReturn, "resource", resources, previousOrNull.resources);
+        addDifferences(toReturn, "dependency", dependencies, previousOrNull.dependencies);
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Writes this StalenessManifest to the supplied file, creating its parent directory if required.
+     *
+     * @param manifestFile The file to which this StalenessManifest should be written. Cannot be null.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(final File manifestFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(manifestFile, "manifestFile");
+
+        final Properties props = new Properties();
+        props.setProperty(VERSION_KEY, FORMAT_VERSION);
+
+        for (int i = 0; i < arguments.size(); i++) {
+            props.setProperty(ARGUMENT_PREFIX + padIndex(i), arguments.get(i));
+        }
+        for (Map.Entry<String, Fingerprint> current : resources.entrySet()) {
+            props.setProperty(RESOURCE_PREFIX + current.getKey(), current.getValue().toString());
+            if (current.getValue().getEntityTag() != null) {
+                props.setProperty(VALIDATOR_PREFIX + current.getKey(), current.getValue().getEntityTag());
+            }
+        }
+        for (Map.Entry<String, Fingerprint> current : dependencies.entrySet()) {
+            props.setProperty(DEPENDENCY_PREFIX + current.getKey(), current.getValue().toString());
+        }
+        for (Map.Entry<String, Fingerprint> current : outputs.entrySet()) {
+            props.setProperty(OUTPUT_PREFIX + current.getKey(), current.getValue().toString());
+        }
+
+        final File parentDirectory = manifestFile.getParentFile();
+        if (parentDirectory != null && !parentDirectory.isDirectory() && !parentDirectory.mkdirs()) {
+            throw new IOException("Could not create directory ["
+                    + FileSystemUtilities.getCanonicalPath(parentDirectory) + "]");
+        }
+
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(manifestFile));
+        try {
+            props.store(out, "jaxb2-maven-plugin staleness manifest");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a StalenessManifest from the supplied file.
+     *
+     * @param manifestFile The file from which a StalenessManifest should be read. Cannot be null.
+     * @return The StalenessManifest read, or {@code null} if the file did not exist, could not be read or
+     * contained a manifest in another format (such as the empty stale file written by earlier plugin versions).
+     */
+    public static StalenessManifest read(final File manifestFile) {
+
+        // Check sanity
+        Validate.notNull(manifestFile, "manifestFile");
+
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+
+        final Properties props = new Properties();
+        try {
+            final InputStream in = new BufferedInputStream(new FileInputStream(manifestFile));
+            try {
+                props.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        if (!FORMAT_VERSION.equals(props.getProperty(VERSION_KEY))) {
+            return null;
+        }
+
+        // Extract the arguments in order, and the resource fingerprints.
+        final SortedMap<String, String> sortedArguments = new TreeMap<String, String>();
+        final SortedMap<String, Fingerprint> fingerprints = new TreeMap<String, Fingerprint>();
+        final SortedMap<String, Fingerprint> dependencyFingerprints = new TreeMap<String, Fingerprint>();
+        final SortedMap<String, Fingerprint> outputFingerprints = new TreeMap<String, Fingerprint>();
+        for (String current : props.stringPropertyNames()) {
+
+            if (current.startsWith(ARGUMENT_PREFIX)) {
+                sortedArguments.put(current, props.getProperty(current));
+            } else if (current.startsWith(OUTPUT_PREFIX)) {
+
+                final Fingerprint fingerprint = Fingerprint.parse(props.getProperty(current));
+                if (fingerprint == null) {
+                    return null;
+                }
+                outputFingerprints.put(current.substring(OUTPUT_PREFIX.length()), fingerprint);
+
+            } else if (current.startsWith(RESOURCE_PREFIX) || current.startsWith(DEPENDENCY_PREFIX)) {
+
+                final Fingerprint fingerprint = Fingerprint.parse(props.getProperty(current));
+                if (fingerprint == null) {
+                    return null;
+                }
+
+                if (current.startsWith(RESOURCE_PREFIX)) {
+
+                    final String key = current.substring(RESOURCE_PREFIX.length());
+                    fingerprints.put(key, fingerprint.withEntityTag(props.getProperty(VALIDATOR_PREFIX + key)));
+                } else {
+                    dependencyFingerprints.put(current.substring(DEPENDENCY_PREFIX.length()), fingerprint);
+                }
+            }
+        }
+
+        final StalenessManifest toReturn = new StalenessManifest(new ArrayList<String>(sortedArguments.values()));
+        toReturn.resources.putAll(fingerprints);
+        toReturn.dependencies.putAll(dependencyFingerprints);
+        toReturn.outputs.putAll(outputFingerprints);
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Calculates the hexadecimal {@link #DIGEST_ALGORITHM} digest of the supplied stream, and closes it.
+     *
+     * @param stream The non-null stream to digest.
+     * @return The lowercase hexadecimal digest of all bytes read from the supplied stream.
+     * @throws IOException if the stream could not be read.
+     */
+    public static String digest(final InputStream stream) throws IOException {
+
+        // Check sanity
+        Validate.notNull(stream, "stream");
+
+        final MessageDigest digest = createMessageDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            for (int read = stream.read(buffer); read != -1; read = stream.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            stream.close();
+        }
+
+        // All done.
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Fingerprint of the content of a single input resource.
+     */
+    public static final class Fingerprint {
+
+        // Internal state
+        private final long size;
+        private final long lastModified;
+        private final String digest;
+        private final String entityTag;
+
+        /**
+         * Creates a new Fingerprint from the supplied data.
+         *
+         * @param size         The size of the resource in bytes, or {@link #UNKNOWN}.
+         * @param lastModified The modification timestamp of the resource, or {@link #UNKNOWN}.
+         * @param digest       The hexadecimal content digest of the resource. Cannot be null or empty.
+         */
+        public Fingerprint(final long size, final long lastModified, final String digest) {
+            this(size, lastModified, digest, null);
+        }
+
+        /**
+         * Creates a new Fingerprint from the supplied data.
+         *
+         * @param size            The size of the resource in bytes, or {@link #UNKNOWN}.
+         * @param lastModified    The modification timestamp of the resource, or {@link #UNKNOWN}.
+         * @param digest          The hexadecimal content digest of the resource. Cannot be null or empty.
+         * @param entityTagOrNull The HTTP ETag validator of the resource, or {@code null} if not available.
+         */
+        public Fingerprint(final long size, final long lastModified, final String digest,
+                           final String entityTagOrNull) {
+
+            // Check sanity
+            Validate.notEmpty(digest, "digest");
+
+            // Assign internal state
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.entityTag = entityTagOrNull;
+        }
+
+        /**
+         * @return The size of the resource in bytes, or {@link #UNKNOWN}.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return The modification timestamp of the resource, or {@link #UNKNOWN}.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return The hexadecimal content digest of the resource.
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * @return The HTTP ETag validator of the resource, or {@code null} if not available.
+         */
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * Checks if the supplied Fingerprint has the same content as this one.
+         *
+         * @param that The Fingerprint to compare with.
+         * @return {@code true} if the content digests are equal.
+         */
+        public boolean hasSameContent(final Fingerprint that) {
+            return that != null && digest.equals(that.digest);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Fingerprint)) {
+                return false;
+            }
+
+            final Fingerprint that = (Fingerprint) obj;
+            return size == that.size
+                    && lastModified == that.lastModified
+                    && digest.equals(that.digest)
+                    && (entityTag == null ? that.entityTag == null : entityTag.equals(that.entityTag));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return digest.hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return size + FINGERPRINT_SEPARATOR + lastModified + FINGERPRINT_SEPARATOR + digest;
+        }
+
+        //
+        // Private helpers
+        //
+
+        private Fingerprint withEntityTag(final String entityTagOrNull) {
+            return entityTagOrNull == null ? this : new Fingerprint(size, lastModified, digest, entityTagOrNull);
+        }
+
+        private boolean hasMetadata(final long size, final long lastModified) {
+            return this.size == size && this.lastModified == lastModified;
+        }
+
+        private static Fingerprint parse(final String value) {
+
+            final String[] parts = value == null ? new String[0] : value.split(FINGERPRINT_SEPARATOR);
+            if (parts.length != 3) {
+                return null;
+            }
+
+            try {
+                return new Fingerprint(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static Fingerprint createFingerprint(final URL resource, final Fingerprint previous)
+            throws IOException {
+
+        final Fingerprint current;
+
+        if ("file".equalsIgnoreCase(resource.getProtocol())) {
+
+            // File URLs are percent-encoded; their paths cannot be used as file names.
+            final File file;
+            try {
+                file = new File(resource.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Resource [" + resource + "] is not a valid file URI.", e);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Resource [" + resource + "] is not a valid file URI.", e);
+            }
+            if (!file.isFile()) {
+                throw new IOException("Resource [" + resource + "] is not an existing file.");
+            }
+
+            final long size = file.length();
+            final long lastModified = file.lastModified();
+            current = previous != null && previous.hasMetadata(size, lastModified)
+                    ? previous
+                    : new Fingerprint(size, lastModified, digest(new FileInputStream(file)));
+
+        } else {
+
+            final URLConnection connection = resource.openConnection();
+            try {
+
+                // Use the validators of the previous fingerprint to issue a conditional request.
+                final boolean isHttp = connection instanceof HttpURLConnection;
+                if (isHttp && previous != null) {
+                    if (previous.getEntityTag() != null) {
+                        connection.setRequestProperty("If-None-Match", previous.getEntityTag());
+                    }
+                    if (previous.getLastModified() > 0) {
+                        connection.setIfModifiedSince(previous.getLastModified());
+                    }
+                }
+                connection.connect();
+
+                if (isHttp && previous != null
+                        && ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return previous;
+                }
+
+                final long size = connection.getContentLength();
+                final long lastModified = connection.getLastModified();
+                final boolean canReuseDigest = previous != null
+                        && size != UNKNOWN
+                        && lastModified > 0
+                        && previous.hasMetadata(size, lastModified);
+
+                final String entityTag = isHttp ? connection.getHeaderField("ETag") : null;
+                current = canReuseDigest && (entityTag == null || entityTag.equals(previous.getEntityTag()))
+                        ? previous
+                        : new Fingerprint(size, lastModified, digest(connection.getInputStream()), entityTag);
+            } finally {
+                if (connection instanceof HttpURLConnection) {
+                    ((HttpURLConnection) connection).disconnect();
+                }
+            }
+        }
+
+        // All done.
+        return current;
+    }
+
+    private static void addDifferences(final List<String> differences,
+                                       final String kind,
+                                       final SortedMap<String, Fingerprint> now,
+                                       final SortedMap<String, Fingerprint> then) {
+
+        final SortedSet<String> allKeys = new TreeSet<String>(now.keySet());
+        allKeys.addAll(then.keySet());
+
+        for (String current : allKeys) {
+
+            final Fingerprint nowFingerprint = now.get(current);
+            final Fingerprint thenFingerprint = then.get(current);
+
+            if (thenFingerprint == null) {
+                differences.add("Added " + kind + " [" + current + "]");
+            } else if (nowFingerprint == null) {
+                differences.add("Removed " + kind + " [" + current + "]");
+            } else if (!nowFingerprint.hasSameContent(thenFingerprint)) {
+                differences.add("Changed " + kind + " [" + current + "]");
+            }
+        }
+    }
+
+    private static String padIndex(final int index) {
+
+        // Pad the index to keep the arguments sorted in their original order.
+        final String toReturn = "" + index;
+        final StringBuilder builder = new StringBuilder();
+        for (int i = toReturn.length(); i < 6; i++) {
+            builder.append('0');
+        }
+        return builder.append(toReturn).toString();
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Required digest algorithm [" + DIGEST_ALGORITHM
+                    + "] not available.", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+
+        final char[] toReturn = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            toReturn[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            toReturn[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(toReturn);
+    }
+}
@@ -0,0 +1,185 @@
+package org.codehaus.mojo.jaxb2.shared.watch;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Watches a set of directories for created, modified and deleted files using a {@link WatchService}.
+ * Changes are debounced, implying that a burst of changes (such as an editor saving several files, or
+ * writing a file in several steps) is reported as a single batch of changed files.</p>
+ * <p>Directories created within a watched directory are watched as well.</p>
+ *
+ * @since 2.2
+ */
+public class DirectoryWatcher implements Closeable {
+
+    // Internal state
+    private WatchService watchService;
+    private Map<WatchKey, Path> watchedDirectories;
+    private Log log;
+
+    /**
+     * Creates a new DirectoryWatcher using the default FileSystem.
+     *
+     * @param log The active Maven Log. Cannot be null.
+     * @throws IOException if the WatchService could not be created.
+     */
+    public DirectoryWatcher(final Log log) throws IOException {
+
+        // Check sanity
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.log = log;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchedDirectories = new HashMap<WatchKey, Path>();
+    }
+
+    /**
+     * Starts watching the supplied directories, unless they are already watched.
+     * Files and non-existent directories are ignored.
+     *
+     * @param directories The directories to watch. Cannot be null.
+     * @throws IOException if a directory could not be registered with the WatchService.
+     */
+    public void register(final Collection<File> directories) throws IOException {
+
+        // Check sanity
+        Validate.notNull(directories, "directories");
+
+        for (File current : directories) {
+            if (FileSystemUtilities.EXISTING_DIRECTORY.accept(current)) {
+                register(current.toPath());
+            }
+        }
+    }
+
+    /**
+     * @return The number of directories currently watched.
+     */
+    public int getNumberOfWatchedDirectories() {
+        return watchedDirectories.size();
+    }
+
+    /**
+     * Blocks until at least one file within a watched directory is changed, and thereafter until no further
+     * changes occur during the supplied debounce period.
+     *
+     * @param debounceMillis The number of milliseconds without further changes required before the changes
+     *                       are reported.
+     * @return The changed files. If the WatchService overflowed, the directories whose changes were lost are
+     * included instead.
+     * @throws InterruptedException if the current thread was interrupted while waiting for changes.
+     */
+    public SortedSet<File> awaitChanges(final long debounceMillis) throws InterruptedException {
+
+        // Check sanity
+        Validate.isTrue(debounceMillis >= 0, "debounceMillis cannot be negative.");
+
+        final SortedSet<File> toReturn = new TreeSet<File>();
+        for (WatchKey key = watchService.take(); key != null;
+             key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) {
+
+            final Path directory = watchedDirectories.get(key);
+            for (WatchEvent<?> current : key.pollEvents()) {
+
+                if (current.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    toReturn.add(directory.toFile());
+                    continue;
+                }
+
+                final Path changedPath = directory.resolve((Path) current.context());
+                toReturn.add(changedPath.toFile());
+
+                // Watch created directories as well.
+                if (current.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    try {
+                        if (changedPath.toFile().isDirectory()) {
+                            register(changedPath);
+                        }
+                    } catch (IOException e) {
+                        log.warn("Could not watch created directory [" + changedPath + "]: " + e.getMessage());
+                    }
+                }
+            }
+
+            // Stop watching directories which no longer exist.
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Detected " + toReturn.size() + " changed files: " + toReturn);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Closes the underlying WatchService, cancelling all watches.
+     *
+     * @throws IOException if the WatchService could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void register(final Path directory) throws IOException {
+
+        if (!watchedDirectories.containsValue(directory)) {
+
+            final WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, directory);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Watching directory [" + directory + "]");
+            }
+        }
+    }
+}
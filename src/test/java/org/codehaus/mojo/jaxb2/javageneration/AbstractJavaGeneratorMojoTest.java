@@ -0,0 +1,153 @@
+package org.codehaus.mojo.jaxb2.javageneration;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+public class AbstractJavaGeneratorMojoTest {
+
+    // Shared state
+    private File sourceDirectory;
+    private File targetDirectory;
+
+    /**
+     * Bytes which are not valid UTF-8, as well as both line separator styles.
+     */
+    private static final byte[] BINARY_CONTENT = new byte[]{
+            '<', 'x', 's', 'd', '/', '>', '\r', '\n', (byte) 0x00, (byte) 0xC3, (byte) 0x28, (byte) 0xFF, '\n'};
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        final File workDirectory = new File(new File(getClass().getClassLoader().getResource("testdata").getPath())
+                .getParentFile().getParentFile(), "copy-sources-test");
+        FileUtils.deleteDirectory(workDirectory);
+
+        sourceDirectory = new File(workDirectory, "source");
+        targetDirectory = new File(workDirectory, "target");
+        Assert.assertTrue(sourceDirectory.mkdirs());
+        Assert.assertTrue(targetDirectory.mkdirs());
+    }
+
+    @Test
+    public void validateUnchangedTargetFileIsNotRewritten() throws IOException {
+
+        // Assemble
+        final File source = writeFile(sourceDirectory, "unchanged.xsd", BINARY_CONTENT);
+        final File target = writeFile(targetDirectory, "unchanged.xsd", BINARY_CONTENT);
+        Assert.assertTrue(target.setLastModified(1000L));
+
+        // Act
+        final boolean copied = AbstractJavaGeneratorMojo.copySource(source.toURI().toURL(), null, "UTF-8", target);
+
+        // Assert
+        Assert.assertFalse(copied);
+        Assert.assertEquals(1000L, target.lastModified());
+    }
+
+    @Test
+    public void validateChangedTargetFileIsRewritten() throws IOException {
+
+        // Assemble
+        final byte[] previousContent = new byte[BINARY_CONTENT.length];
+        System.arraycopy(BINARY_CONTENT, 0, previousContent, 0, BINARY_CONTENT.length);
+        previousContent[previousContent.length - 2] = (byte) 0xFE;
+
+        final File source = writeFile(sourceDirectory, "changed.xsd", BINARY_CONTENT);
+        final File target = writeFile(targetDirectory, "changed.xsd", previousContent);
+
+        // Act
+        final boolean copied = AbstractJavaGeneratorMojo.copySource(source.toURI().toURL(), null, "UTF-8", target);
+
+        // Assert
+        Assert.assertTrue(copied);
+        Assert.assertArrayEquals(BINARY_CONTENT, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void validateBinaryContentIsPreservedWhenCopyingFromFilesAndJars() throws IOException {
+
+        // Assemble
+        final File source = writeFile(sourceDirectory, "binary.xsd", BINARY_CONTENT);
+        final File jar = new File(sourceDirectory, "schemas.jar");
+        final JarOutputStream jarOut = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            jarOut.putNextEntry(new JarEntry("some/path/binary.xsd"));
+            jarOut.write(BINARY_CONTENT);
+            jarOut.closeEntry();
+        } finally {
+            jarOut.close();
+        }
+
+        final URL jarEntryURL = new URL("jar:" + jar.toURI().toURL() + "!/some/path/binary.xsd");
+        final File fileTarget = new File(targetDirectory, "fromFile.xsd");
+        final File jarTarget = new File(targetDirectory, "fromJar.xsd");
+
+        // Act
+        final boolean copiedFile = AbstractJavaGeneratorMojo.copySource(
+                source.toURI().toURL(), null, "UTF-8", fileTarget);
+        final boolean copiedJarEntry;
+        final JarFile jarFile = new JarFile(jar);
+        try {
+            copiedJarEntry = AbstractJavaGeneratorMojo.copySource(jarEntryURL, jarFile, "UTF-8", jarTarget);
+        } finally {
+            jarFile.close();
+        }
+
+        // Assert
+        Assert.assertTrue(copiedFile);
+        Assert.assertTrue(copiedJarEntry);
+        Assert.assertArrayEquals(BINARY_CONTENT, Files.readAllBytes(fileTarget.toPath()));
+        Assert.assertArrayEquals(BINARY_CONTENT, Files.readAllBytes(jarTarget.toPath()));
+    }
+
+    @Test
+    public void validateFileNamesOfSourcesAreDecoded() throws Exception {
+
+        // Assemble
+        final File source = writeFile(sourceDirectory, "some schema.xsd", BINARY_CONTENT);
+        final File jar = new File(sourceDirectory, "schemas.jar");
+        final JarOutputStream jarOut = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            jarOut.putNextEntry(new JarEntry("some path/other schema.xsd"));
+            jarOut.write(BINARY_CONTENT);
+            jarOut.closeEntry();
+        } finally {
+            jarOut.close();
+        }
+
+        final URL fileURL = source.toURI().toURL();
+        final URL jarEntryURL = new URL("jar:" + jar.toURI().toURL() + "!/some%20path/other%20schema.xsd");
+
+        // Act
+        final String fileName = AbstractJavaGeneratorMojo.getFileName(fileURL, "UTF-8");
+        final String jarEntryName = AbstractJavaGeneratorMojo.getFileName(jarEntryURL, "UTF-8");
+
+        // Assert
+        Assert.assertTrue(fileURL.toString().contains("%20"));
+        Assert.assertEquals("some schema.xsd", fileName);
+        Assert.assertEquals("other schema.xsd", jarEntryName);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static File writeFile(final File directory, final String fileName, final byte[] content)
+            throws IOException {
+
+        final File toReturn = new File(directory, fileName);
+        Files.write(toReturn.toPath(), content);
+        return toReturn;
+    }
+}
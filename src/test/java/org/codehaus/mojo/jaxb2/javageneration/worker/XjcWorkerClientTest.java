@@ -0,0 +1,76 @@
+package org.codehaus.mojo.jaxb2.javageneration.worker;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class XjcWorkerClientTest {
+
+    @Test
+    public void validateRelativePathsAreResolvedAgainstBaseDirectory() {
+
+        // Assemble
+        final File baseDirectory = new File("some/basedir").getAbsoluteFile();
+        final File absoluteFile = new File("absolute.xjb").getAbsoluteFile();
+        final List<String> arguments = Arrays.asList(
+                "-Xfluent-api",
+                "-b", "bindings.xjb",
+                "-b", absoluteFile.getPath(),
+                "-p", "se.west",
+                "-classpath", "lib/a.jar" + File.pathSeparator + absoluteFile.getPath(),
+                "-target", "2.1",
+                "schema.xsd",
+                "http://www.example.com/remote.xsd");
+
+        // Act
+        final List<String> result = XjcWorkerClient.resolveRelativePaths(arguments, baseDirectory);
+
+        // Assert
+        Assert.assertEquals(Arrays.asList(
+                "-Xfluent-api",
+                "-b", new File(baseDirectory, "bindings.xjb").getAbsolutePath(),
+                "-b", absoluteFile.getPath(),
+                "-p", "se.west",
+                "-classpath", new File(baseDirectory, "lib/a.jar").getAbsolutePath()
+                        + File.pathSeparator + absoluteFile.getPath(),
+                "-target", "2.1",
+                new File(baseDirectory, "schema.xsd").getAbsolutePath(),
+                "http://www.example.com/remote.xsd"), result);
+    }
+
+    @Test
+    public void validateForwardedSystemPropertiesAffectFingerprint() {
+
+        // Assemble
+        final String propertyName = "javax.xml.accessExternalSchema";
+        final String originalValue = System.getProperty(propertyName);
+        final File workerDirectory = new File("workers").getAbsoluteFile();
+        final List<URL> classPath = Collections.emptyList();
+
+        // Act
+        final String fingerprint;
+        final String otherFingerprint;
+        try {
+            System.setProperty(propertyName, "file");
+            fingerprint = new XjcWorkerClient(workerDirectory, classPath, 10, new BufferingLog()).getFingerprint();
+            System.setProperty(propertyName, "all");
+            otherFingerprint = new XjcWorkerClient(workerDirectory, classPath, 10, new BufferingLog())
+                    .getFingerprint();
+        } finally {
+            if (originalValue == null) {
+                System.clearProperty(propertyName);
+            } else {
+                System.setProperty(propertyName, originalValue);
+            }
+        }
+
+        // Assert
+        Assert.assertNotEquals(fingerprint, otherFingerprint);
+    }
+}
@@ -0,0 +1,109 @@
+package org.codehaus.mojo.jaxb2.javageneration.worker;
+
+import com.sun.tools.xjc.XJCListener;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.SAXParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class XjcWorkerProtocolTest {
+
+    @Test
+    public void validateForwardedEventsAndExitCode() throws IOException {
+
+        // Assemble
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final XjcWorker.ForwardingListener forwarder = new XjcWorker.ForwardingListener(out);
+
+        forwarder.generatedFile("se/west/Foo.java", 1, 2);
+        forwarder.warning(new SAXParseException("Some warning", null, "file:/some.xsd", 3, 4));
+        out.writeByte(XjcWorkerProtocol.EXIT_CODE);
+        out.writeInt(42);
+        out.flush();
+
+        final List<String> events = new ArrayList<String>();
+        final XJCListener receiver = new RecordingListener(events);
+
+        // Act
+        final int result = XjcWorkerProtocol.readResponse(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), receiver);
+
+        // Assert
+        Assert.assertEquals(42, result);
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals("generatedFile: se/west/Foo.java [1/2]", events.get(0));
+        Assert.assertEquals("warning: Some warning @ file:/some.xsd [3,4]", events.get(1));
+    }
+
+    @Test
+    public void validateLongStringsSurviveRoundTrip() throws IOException {
+
+        // Assemble
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            builder.append("å");
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // Act
+        XjcWorkerProtocol.writeString(new DataOutputStream(bytes), builder.toString());
+        XjcWorkerProtocol.writeString(new DataOutputStream(bytes), null);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        // Assert
+        Assert.assertEquals(builder.toString(), XjcWorkerProtocol.readString(in));
+        Assert.assertNull(XjcWorkerProtocol.readString(in));
+    }
+
+    //
+    // Private helpers
+    //
+
+    static class RecordingListener extends XJCListener {
+
+        // Internal state
+        private List<String> events;
+
+        RecordingListener(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void generatedFile(final String fileName, final int current, final int total) {
+            events.add("generatedFile: " + fileName + " [" + current + "/" + total + "]");
+        }
+
+        @Override
+        public void error(final SAXParseException exception) {
+            record("error", exception);
+        }
+
+        @Override
+        public void fatalError(final SAXParseException exception) {
+            record("fatalError", exception);
+        }
+
+        @Override
+        public void warning(final SAXParseException exception) {
+            record("warning", exception);
+        }
+
+        @Override
+        public void info(final SAXParseException exception) {
+            record("info", exception);
+        }
+
+        private void record(final String type, final SAXParseException e) {
+            events.add(type + ": " + e.getMessage() + " @ " + e.getSystemId()
+                    + " [" + e.getLineNumber() + "," + e.getColumnNumber() + "]");
+        }
+    }
+}
@@ -9,10 +9,13 @@ import java.util.Map;
 
 import javax.xml.transform.TransformerFactory;
 
+import org.codehaus.mojo.jaxb2.BufferingLog;
 import org.codehaus.mojo.jaxb2.schemageneration.XsdGeneratorHelper;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.PostProcessingMode;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.ChangeNamespacePrefixProcessor;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.SimpleNamespaceResolver;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -236,10 +239,70 @@ public class XsdGeneratorHelperTest
         Assert.assertEquals( "xs", schema3NamespaceURI2PrefixMap.get( "http://www.w3.org/2001/XMLSchema" ) );
     }
 
+    @Test
+    public void validateDomPostProcessingOfGeneratedSchemas()
+        throws Exception
+    {
+        validatePostProcessingOfGeneratedSchemas( PostProcessingMode.DOM, 1 );
+    }
+
+    @Test
+    public void validateStreamingPostProcessingOfGeneratedSchemas()
+        throws Exception
+    {
+        validatePostProcessingOfGeneratedSchemas( PostProcessingMode.STREAMING, 1 );
+    }
+
+    @Test
+    public void validateParallelPostProcessingOfGeneratedSchemas()
+        throws Exception
+    {
+        validatePostProcessingOfGeneratedSchemas( PostProcessingMode.DOM, 3 );
+        validatePostProcessingOfGeneratedSchemas( PostProcessingMode.STREAMING, 3 );
+    }
+
     //
     // Private helpers
     //
 
+    private void validatePostProcessingOfGeneratedSchemas( final PostProcessingMode mode, final int numThreads )
+        throws Exception
+    {
+        // Assemble
+        final URL schema1 = getClass().getClassLoader().getResource( "generated/schema/schema1.xsd" );
+        final File sourceDirectory = new File( schema1.getPath() ).getParentFile();
+        final File targetDirectory = new File( getClass().getClassLoader().getResource( "testdata" ).getPath() )
+            .getParentFile().getParentFile();
+        final File outputDirectory = new File( targetDirectory, "postprocessing-" + mode + "-" + numThreads + "-test" );
+        FileUtils.deleteDirectory( outputDirectory );
+        FileUtils.copyDirectory( sourceDirectory, outputDirectory );
+
+        final List<TransformSchema> transformSchemas = new ArrayList<TransformSchema>();
+        transformSchemas.add( new TransformSchema( "http://some/namespace", "some", "some_schema.xsd" ) );
+        transformSchemas.add( new TransformSchema( "http://another/namespace", "another", "another_schema.xsd" ) );
+
+        // Act
+        final int result = XsdGeneratorHelper.postProcessGeneratedSchemas(
+            new BufferingLog( BufferingLog.LogLevel.DEBUG ), outputDirectory, null, null, transformSchemas, mode,
+            numThreads );
+
+        // Assert
+        Assert.assertEquals( 3, result );
+        Assert.assertTrue( new File( outputDirectory, "schema1.xsd" ).exists() );
+        Assert.assertFalse( new File( outputDirectory, "schema2.xsd" ).exists() );
+        Assert.assertFalse( new File( outputDirectory, "schema3.xsd" ).exists() );
+
+        final String anotherSchema = FileUtils.fileRead( new File( outputDirectory, "another_schema.xsd" ), "UTF-8" );
+        Assert.assertTrue( anotherSchema.contains( "xmlns:some=\"http://some/namespace\"" ) );
+        Assert.assertTrue( anotherSchema.contains( "ref=\"some:anOptionalElementInSomeNamespace\"" ) );
+        Assert.assertTrue( anotherSchema.contains( "schemaLocation=\"some_schema.xsd\"" ) );
+        Assert.assertTrue( anotherSchema.contains( "schemaLocation=\"schema1.xsd\"" ) );
+
+        final String someSchema = FileUtils.fileRead( new File( outputDirectory, "some_schema.xsd" ), "UTF-8" );
+        Assert.assertTrue( someSchema.contains( "xmlns:another=\"http://another/namespace\"" ) );
+        Assert.assertTrue( someSchema.contains( "schemaLocation=\"another_schema.xsd\"" ) );
+    }
+
     private String getXmlDocumentSample( final String namespace )
     {
         return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
@@ -5,15 +5,18 @@ import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.PackageLocation;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 
 /**
@@ -174,4 +177,108 @@ public class JavaDocExtractorTest {
         Assert.assertEquals("<code>true</code> if the provided Node should be processed by this NodeProcessor.",
                 methodTag2ValueMap.get("return"));
     }
+
+    @Test
+    public void validateClassNamesOfAddedSourceFiles() {
+
+        // Assemble
+        final JavaDocExtractor unitUnderTest = new JavaDocExtractor(log);
+        final List<File> sourceDirs = Arrays.asList(javaDocBasicDir);
+        final List<File> sourceFiles = FileSystemUtilities.resolveRecursively(sourceDirs, null, log);
+
+        // Act
+        unitUnderTest.addSourceFiles(sourceFiles);
+        final List<String> result = unitUnderTest.getClassNames(sourceFiles.get(0));
+
+        // Assert
+        Assert.assertEquals(Arrays.asList("basic.NodeProcessor"), result);
+    }
+
+    @Test
+    public void validateCachedJavaDocDataIsIdenticalToParsedJavaDocData() throws IOException {
+
+        // Assemble
+        final URL testdataDir = getClass().getClassLoader().getResource("testdata");
+        final File cacheDirectory = new File(
+                new File(testdataDir.getPath()).getParentFile().getParentFile(), "javadoc-cache-test");
+        FileUtils.deleteDirectory(cacheDirectory);
+
+        final List<File> sourceDirs = Arrays.asList(javaDocBasicDir);
+        final List<File> sourceFiles = FileSystemUtilities.resolveRecursively(sourceDirs, null, log);
+        final SearchableDocumentation parsed = new JavaDocExtractor(log).addSourceFiles(sourceFiles).process();
+
+        // Act
+        final List<File> sourceFolders = Arrays.asList(javaDocBasicDir.getParentFile());
+        final SearchableDocumentation written = new JavaDocExtractor(log, cacheDirectory, sourceFolders, "UTF-8")
+                .addSourceFiles(sourceFiles)
+                .process();
+        final SearchableDocumentation cached = new JavaDocExtractor(log, cacheDirectory, sourceFolders, "UTF-8")
+                .addSourceFiles(sourceFiles)
+                .process();
+
+        // Assert
+        Assert.assertEquals(1, cacheDirectory.list().length);
+        for (SearchableDocumentation current : Arrays.asList(written, cached)) {
+
+            Assert.assertEquals(parsed.getPaths(), current.getPaths());
+            for (Map.Entry<SortableLocation, JavaDocData> expected : parsed.getAll().entrySet()) {
+
+                final String path = expected.getKey().getPath();
+                Assert.assertEquals(expected.getKey().getClass(), current.getLocation(path).getClass());
+                Assert.assertEquals(expected.getValue().getComment(), current.getJavaDoc(path).getComment());
+                Assert.assertEquals(expected.getValue().getTag2ValueMap(),
+                        current.getJavaDoc(path).getTag2ValueMap());
+            }
+        }
+    }
+
+    @Test
+    public void validateObsoleteCacheEntriesAreRemoved() throws IOException {
+
+        // Assemble
+        final URL testdataDir = getClass().getClassLoader().getResource("testdata");
+        final File cacheDirectory = new File(
+                new File(testdataDir.getPath()).getParentFile().getParentFile(), "javadoc-cache-prune-test");
+        FileUtils.deleteDirectory(cacheDirectory);
+        FileUtils.forceMkdir(cacheDirectory);
+
+        final File obsoleteEntry = new File(cacheDirectory, "obsolete.properties");
+        final File unrelatedFile = new File(cacheDirectory, "unrelated.txt");
+        FileUtils.fileWrite(obsoleteEntry, "UTF-8", "cache.version=1");
+        FileUtils.fileWrite(unrelatedFile, "UTF-8", "Not a cache entry");
+
+        final List<File> sourceFolders = Arrays.asList(javaDocBasicDir.getParentFile());
+        final List<File> sourceFiles = FileSystemUtilities.resolveRecursively(
+                Arrays.asList(javaDocBasicDir), null, log);
+
+        // Act
+        new JavaDocExtractor(log, cacheDirectory, sourceFolders, "UTF-8").addSourceFiles(sourceFiles);
+
+        // Assert
+        Assert.assertFalse(obsoleteEntry.exists());
+        Assert.assertTrue(unrelatedFile.exists());
+        Assert.assertEquals(2, cacheDirectory.list().length);
+    }
+
+    @Test
+    public void validateTypesDeclaredInOtherSourcesAreFullyQualified() {
+
+        // Assemble
+        final File crossReferenceDir = new File(javaDocBasicDir.getParentFile(), "crossreference");
+        final List<File> sourceFiles = FileSystemUtilities.resolveRecursively(
+                Arrays.asList(crossReferenceDir), null, log);
+        final JavaDocExtractor unitUnderTest = new JavaDocExtractor(log, null,
+                Arrays.asList(javaDocBasicDir.getParentFile()), "UTF-8");
+
+        // Act
+        final SearchableDocumentation result = unitUnderTest.addSourceFiles(sourceFiles).process();
+
+        // Assert
+        final String setValuePath = "crossreference.Owner#setValue(crossreference.Value)";
+        final MethodLocation setValueLocation = result.getLocation(setValuePath);
+        Assert.assertNotNull(setValueLocation);
+        Assert.assertEquals("(crossreference.Value)", setValueLocation.getParametersAsString());
+        Assert.assertEquals("Assigns the Value of this Owner.",
+                result.getJavaDoc(setValuePath).getComment());
+    }
 }
@@ -1,13 +1,17 @@
 package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
 
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.StreamingSchemaProcessor;
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.TreeMap;
 
 /**
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
@@ -40,6 +44,28 @@ public class XsdAnnotationProcessorTest extends AbstractSourceCodeAwareNodeProce
         LoggerFactory.getLogger(XsdAnnotationProcessorTest.class);
     }
 
+    @Test
+    public void validateStreamingProcessingInVanillaXSD() throws Exception {
+
+        // Assemble
+        final String path = "testdata/schemageneration/javadoc/expectedTransformedSomewhatNamedPerson.xml";
+        final String expected = readFully(path);
+        final String vanillaXsd = namespace2GeneratedSchemaMap.get(SomewhatNamedPerson.NAMESPACE);
+
+        final StreamingSchemaProcessor unitUnderTest = new StreamingSchemaProcessor(
+                new XsdAnnotationProcessor(docs, renderer),
+                new TreeMap<String, String>(),
+                new TreeMap<String, String>());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        unitUnderTest.process(new ByteArrayInputStream(vanillaXsd.getBytes("UTF-8")), out);
+
+        // Assert
+        final String processed = out.toString("UTF-8");
+        Assert.assertTrue(compareXmlIgnoringWhitespace(expected, processed).identical());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -9,6 +9,7 @@ import org.junit.Test;
 import org.jvnet.staxex.StreamingDataHandler;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
@@ -254,6 +255,103 @@ public class FileSystemUtilitiesTest {
         Assert.assertTrue(canonicalPathsForAllFiles.contains("/filefilter/exclusion/AnXmlFile.xml"));
     }
 
+    @Test
+    public void validateExcludedDirectoriesArePrunedWhenWalkingFileTree() {
+
+        // Assemble
+        final File sharedDir = fsUtilitiesDirectory.getParentFile();
+        final List<File> offeredCandidates = Collections.synchronizedList(new ArrayList<File>());
+        final FileFilter excludeFileFilterDirectory = new FileFilter() {
+            @Override
+            public boolean accept(final File candidate) {
+                offeredCandidates.add(candidate);
+                return !candidate.getName().equals("filefilter");
+            }
+        };
+
+        // Act
+        final List<File> result = FileSystemUtilities.walkFileTree(sharedDir, excludeFileFilterDirectory, log);
+
+        // Assert
+        final List<String> relativePaths = getRelativeCanonicalPaths(result, sharedDir);
+        Assert.assertTrue(relativePaths.contains("/deps1.properties"));
+        Assert.assertTrue(relativePaths.contains("/filesystemutilities/canonicals/TestFile1.txt"));
+
+        for (File current : offeredCandidates) {
+            Assert.assertFalse("Pruned subtree was walked: " + current,
+                    current.getParentFile().getName().equals("filefilter"));
+        }
+        for (String current : relativePaths) {
+            Assert.assertFalse(current.startsWith("/filefilter/"));
+        }
+    }
+
+    @Test
+    public void validateFileTreeIsWalkedInDepthFirstListingOrder() {
+
+        // Assemble
+        final File sharedDir = fsUtilitiesDirectory.getParentFile();
+        final FileFilter acceptAll = new FileFilter() {
+            @Override
+            public boolean accept(final File candidate) {
+                return true;
+            }
+        };
+        final List<File> expected = new ArrayList<File>();
+        addDepthFirst(sharedDir, expected);
+
+        // Act
+        final List<File> result = FileSystemUtilities.walkFileTree(sharedDir, acceptAll, log);
+
+        // Assert
+        Assert.assertEquals(getRelativeCanonicalPaths(expected, sharedDir),
+                getRelativeCanonicalPaths(result, sharedDir));
+    }
+
+    @Test
+    public void validateCanonicalPathsAreCachedAndInvalidated() throws Exception {
+
+        // Assemble
+        final File directory = new File(srcTestResources.getParentFile(), "canonical-path-cache-test");
+        final File file = new File(directory, "subdir/../aFile.txt");
+        FileSystemUtilities.clearCanonicalPathCache();
+
+        // Act
+        final String firstPath = FileSystemUtilities.getCanonicalPath(file);
+        final String secondPath = FileSystemUtilities.getCanonicalPath(file);
+        final long hitsBeforeInvalidation = FileSystemUtilities.getCanonicalPathCacheHits();
+        FileSystemUtilities.createDirectory(directory, true);
+        final String thirdPath = FileSystemUtilities.getCanonicalPath(file);
+
+        // Assert
+        Assert.assertEquals(firstPath, secondPath);
+        Assert.assertEquals(firstPath, thirdPath);
+        Assert.assertEquals(1L, hitsBeforeInvalidation);
+        Assert.assertEquals(1L, FileSystemUtilities.getCanonicalPathCacheHits());
+        Assert.assertEquals(2L, FileSystemUtilities.getCanonicalPathCacheMisses());
+    }
+
+    @Test
+    public void validateCanonicalPathsHoldingDotSegmentsAreInvalidated() throws Exception {
+
+        // Assemble
+        final File directory = new File(srcTestResources.getParentFile(), "canonical-path-cache-dots-test");
+        final File file = new File(srcTestResources, "../canonical-path-cache-dots-test/./aFile.txt");
+        final File directoryWithDots = new File(srcTestResources, "./../canonical-path-cache-dots-test");
+        FileSystemUtilities.clearCanonicalPathCache();
+
+        // Act
+        FileSystemUtilities.getCanonicalPath(file);
+        FileSystemUtilities.createDirectory(directory, true);
+        FileSystemUtilities.getCanonicalPath(file);
+        FileSystemUtilities.createDirectory(directoryWithDots, true);
+        FileSystemUtilities.getCanonicalPath(file);
+
+        // Assert
+        Assert.assertEquals(0L, FileSystemUtilities.getCanonicalPathCacheHits());
+        Assert.assertEquals(3L, FileSystemUtilities.getCanonicalPathCacheMisses());
+    }
+
     @Test
     public void validateBufferingLog() {
 
@@ -403,6 +501,20 @@ public class FileSystemUtilitiesTest {
     // Private helpers
     //
 
+    private static void addDepthFirst(final File directory, final List<File> toPopulate) {
+
+        final File[] children = directory.listFiles();
+        if (children != null) {
+            for (File current : children) {
+                if (current.isFile()) {
+                    toPopulate.add(current);
+                } else if (current.isDirectory()) {
+                    addDepthFirst(current, toPopulate);
+                }
+            }
+        }
+    }
+
     private List<String> getRelativeCanonicalPaths(final List<File> fileList, final File cutoff) {
 
         final String cutoffPath = FileSystemUtilities.getCanonicalPath(cutoff);
@@ -0,0 +1,125 @@
+package org.codehaus.mojo.jaxb2.shared.cache;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+
+public class BuildCacheTest {
+
+    // Shared state
+    private File cacheDirectory;
+    private File generatedDirectory;
+    private File restoreDirectory;
+    private BufferingLog log;
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        final URL testdataDir = getClass().getClassLoader().getResource("testdata");
+        final File workDirectory = new File(
+                new File(testdataDir.getPath()).getParentFile().getParentFile(), "build-cache-test");
+        FileUtils.deleteDirectory(workDirectory);
+
+        cacheDirectory = new File(workDirectory, "cache");
+        generatedDirectory = new File(workDirectory, "generated");
+        restoreDirectory = new File(workDirectory, "restored");
+
+        FileUtils.forceMkdir(new File(generatedDirectory, "se/west"));
+        FileUtils.forceMkdir(new File(generatedDirectory, "META-INF"));
+        FileUtils.fileWrite(new File(generatedDirectory, "se/west/Foo.java"), "UTF-8", "class Foo {}");
+        FileUtils.fileWrite(new File(generatedDirectory, "META-INF/sun-jaxb.episode"), "UTF-8", "<bindings/>");
+    }
+
+    @Test
+    public void validateKeyIsStableAndSeparatesParts() {
+
+        // Assemble
+        final String key1 = BuildCache.createKey(Arrays.asList("-npa", "-d", "target/foo"));
+        final String key2 = BuildCache.createKey(Arrays.asList("-npa", "-d", "target/foo"));
+        final String key3 = BuildCache.createKey(Arrays.asList("-npa", "-dtarget/foo"));
+
+        // Act & Assert
+        Assert.assertEquals(64, key1.length());
+        Assert.assertEquals(key1, key2);
+        Assert.assertFalse(key1.equals(key3));
+    }
+
+    @Test
+    public void validateMissOnEmptyCache() throws IOException {
+
+        // Assemble
+        final BuildCache unitUnderTest = new BuildCache(cacheDirectory, false, log);
+        final String key = BuildCache.createKey(Arrays.asList("someArgument"));
+
+        // Act
+        final boolean result = unitUnderTest.restore(key, restoreDirectory);
+
+        // Assert
+        Assert.assertFalse(result);
+        Assert.assertFalse(restoreDirectory.exists());
+    }
+
+    @Test
+    public void validateStoreAndRestoreByCopying() throws IOException {
+        validateStoreAndRestore(false);
+    }
+
+    @Test
+    public void validateStoreAndRestoreByHardLinking() throws IOException {
+        validateStoreAndRestore(true);
+    }
+
+    @Test
+    public void validateRestoringByHardLinkingLeavesCacheEntryUntouched() throws IOException {
+
+        // Assemble
+        final BuildCache unitUnderTest = new BuildCache(cacheDirectory, true, log);
+        final String key = BuildCache.createKey(Arrays.asList("someArgument"));
+        unitUnderTest.store(key, generatedDirectory);
+
+        final File cachedFile = new File(unitUnderTest.getEntryDirectory(key), "se/west/Foo.java");
+        Assert.assertTrue(cachedFile.setLastModified(1000L));
+
+        // Act
+        final boolean result = unitUnderTest.restore(key, restoreDirectory);
+
+        // Assert
+        Assert.assertTrue(result);
+        Assert.assertEquals(1000L, cachedFile.lastModified());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void validateStoreAndRestore(final boolean useHardLinks) throws IOException {
+
+        // Assemble
+        final BuildCache unitUnderTest = new BuildCache(cacheDirectory, useHardLinks, log);
+        final String key = BuildCache.createKey(Arrays.asList("someArgument", "anotherArgument"));
+
+        // Act
+        unitUnderTest.store(key, generatedDirectory);
+        final boolean result = unitUnderTest.restore(key, restoreDirectory);
+
+        // Assert
+        Assert.assertTrue(result);
+        Assert.assertTrue(unitUnderTest.getEntryDirectory(key).isDirectory());
+        Assert.assertEquals("class Foo {}",
+                FileUtils.fileRead(new File(restoreDirectory, "se/west/Foo.java"), "UTF-8"));
+        Assert.assertEquals("<bindings/>",
+                FileUtils.fileRead(new File(restoreDirectory, "META-INF/sun-jaxb.episode"), "UTF-8"));
+
+        // No temporary entries should remain in the cache.
+        Assert.assertEquals(1, unitUnderTest.getEntryDirectory(key).getParentFile().list().length);
+    }
+}
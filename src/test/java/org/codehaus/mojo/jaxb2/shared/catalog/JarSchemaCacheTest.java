@@ -0,0 +1,125 @@
+package org.codehaus.mojo.jaxb2.shared.catalog;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+public class JarSchemaCacheTest {
+
+    // Shared state
+    private File cacheDirectory;
+    private File jarFile;
+    private BufferingLog log;
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        final File workDirectory = new File(new File(getClass().getClassLoader().getResource("testdata").getPath())
+                .getParentFile().getParentFile(), "jar-schema-cache-test");
+        FileUtils.deleteDirectory(workDirectory);
+        FileUtils.forceMkdir(workDirectory);
+
+        cacheDirectory = new File(workDirectory, "cache");
+        jarFile = new File(workDirectory, "schemas.jar");
+
+        final JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile));
+        try {
+            addEntry(out, "schemas/root.xsd", "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                    + "<xs:include schemaLocation=\"common/types.xsd\"/></xs:schema>");
+            addEntry(out, "schemas/common/types.xsd", "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"/>");
+            addEntry(out, "org/example/SomeClass.class", "Not a schema");
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void validateSchemaResourcesAreExtractedTogether() throws IOException {
+
+        // Assemble
+        final String jarUrl = "jar:" + FileSystemUtilities.getUrlFor(jarFile) + "!/";
+        final JarSchemaCache unitUnderTest = new JarSchemaCache(cacheDirectory, log);
+
+        // Act
+        final File root = unitUnderTest.getLocalFile(new URL(jarUrl + "schemas/root.xsd"));
+
+        // Assert
+        Assert.assertNotNull(root);
+        Assert.assertTrue(FileUtils.fileRead(root, "UTF-8").contains("common/types.xsd"));
+        Assert.assertTrue(new File(root.getParentFile(), "common/types.xsd").isFile());
+        Assert.assertNull(unitUnderTest.getLocalFile(new URL(jarUrl + "org/example/SomeClass.class")));
+    }
+
+    @Test
+    public void validateJarFilesAreIndexedOnce() throws IOException {
+
+        // Assemble
+        final URL typesUrl = new URL("jar:" + FileSystemUtilities.getUrlFor(jarFile) + "!/schemas/common/types.xsd");
+        final File firstResult = new JarSchemaCache(cacheDirectory, log).getLocalFile(typesUrl);
+        final int numIndexedJars = JarSchemaCache.getNumberOfIndexedJars();
+
+        // Act
+        final File secondResult = new JarSchemaCache(cacheDirectory, log).getLocalFile(typesUrl);
+
+        // Assert
+        Assert.assertEquals(firstResult, secondResult);
+        Assert.assertEquals(numIndexedJars, JarSchemaCache.getNumberOfIndexedJars());
+    }
+
+    @Test
+    public void validateLocalFileLocationDoesNotExtract() throws IOException {
+
+        // Assemble
+        final String jarUrl = "jar:" + FileSystemUtilities.getUrlFor(jarFile) + "!/";
+        final URL rootUrl = new URL(jarUrl + "schemas/root.xsd");
+        final JarSchemaCache unitUnderTest = new JarSchemaCache(cacheDirectory, log);
+
+        // Act
+        final File location = unitUnderTest.getLocalFileLocation(rootUrl);
+        final boolean existedBeforeExtraction = cacheDirectory.exists();
+        final File extracted = unitUnderTest.getLocalFile(rootUrl);
+
+        // Assert
+        Assert.assertFalse(existedBeforeExtraction);
+        Assert.assertEquals(extracted, location);
+        Assert.assertNull(unitUnderTest.getLocalFileLocation(new URL(jarUrl + "org/example/SomeClass.class")));
+    }
+
+    @Test
+    public void validateNonJarUrlsAreNotLocalized() throws IOException {
+
+        // Assemble
+        final URL fileUrl = FileSystemUtilities.getUrlFor(jarFile);
+        final JarSchemaCache unitUnderTest = new JarSchemaCache(cacheDirectory, log);
+
+        // Act
+        final URL result = unitUnderTest.localize(fileUrl);
+
+        // Assert
+        Assert.assertSame(fileUrl, result);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static void addEntry(final JarOutputStream out, final String name, final String content)
+            throws IOException {
+
+        out.putNextEntry(new JarEntry(name));
+        out.write(content.getBytes("UTF-8"));
+        out.closeEntry();
+    }
+}
@@ -0,0 +1,170 @@
+package org.codehaus.mojo.jaxb2.shared.catalog;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.staleness.SchemaDependencyResolver;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SchemaMirrorTest {
+
+    // Shared state
+    private File mirrorDirectory;
+    private File catalogFile;
+    private HttpServer server;
+    private String baseUrl;
+    private AtomicInteger numFullResponses;
+    private BufferingLog log;
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        final URL testdataDir = getClass().getClassLoader().getResource("testdata");
+        final File workDirectory = new File(
+                new File(testdataDir.getPath()).getParentFile().getParentFile(), "schema-mirror-test");
+        FileUtils.deleteDirectory(workDirectory);
+
+        mirrorDirectory = new File(workDirectory, "mirror");
+        catalogFile = new File(workDirectory, "mirrorCatalog.xml");
+
+        final Map<String, String> content = new HashMap<String, String>();
+        content.put("/schemas/root.xsd", "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                + "<xs:include schemaLocation=\"common/types.xsd\"/></xs:schema>");
+        content.put("/schemas/common/types.xsd", "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"/>");
+
+        numFullResponses = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+
+                final String path = exchange.getRequestURI().getPath();
+                final String entityTag = "\"" + path.hashCode() + "\"";
+
+                if (!content.containsKey(path)) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else if (entityTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+
+                    final byte[] bytes = content.get(path).getBytes("UTF-8");
+                    exchange.getResponseHeaders().add("ETag", entityTag);
+                    exchange.sendResponseHeaders(200, bytes.length);
+                    exchange.getResponseBody().write(bytes);
+                    numFullResponses.incrementAndGet();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void teardownSharedState() {
+        server.stop(0);
+    }
+
+    @Test
+    public void validateRemoteClosureIsMirroredAndExposedThroughCatalog() throws IOException {
+
+        // Assemble
+        final URL rootSchema = new URL(baseUrl + "/schemas/root.xsd");
+        final URL typesSchema = new URL(baseUrl + "/schemas/common/types.xsd");
+        final SchemaMirror unitUnderTest = new SchemaMirror(mirrorDirectory, false, null, null, null, log);
+
+        // Act
+        final Map<URL, List<URL>> dependencies = new SchemaDependencyResolver(null, unitUnderTest, log)
+                .resolve(Collections.singletonList(rootSchema));
+        unitUnderTest.writeCatalog(catalogFile);
+        final XmlCatalog catalog = XmlCatalog.read(FileSystemUtilities.getUrlFor(catalogFile));
+
+        // Assert
+        Assert.assertEquals(0, dependencies.size());
+        Assert.assertEquals(2, numFullResponses.get());
+        Assert.assertEquals(2, unitUnderTest.getFetched().size());
+
+        final File mirroredTypes = unitUnderTest.getMirroredFile(typesSchema);
+        Assert.assertTrue(mirroredTypes.isFile());
+        Assert.assertTrue(mirroredTypes.getPath().endsWith(
+                "schemas" + File.separator + "common" + File.separator + "types.xsd"));
+        Assert.assertEquals(FileSystemUtilities.getUrlFor(mirroredTypes).toString(),
+                catalog.resolve(null, typesSchema.toString()));
+    }
+
+    @Test
+    public void validateEmptyCatalogIsWrittenIfNoResourcesWereFetched() throws IOException {
+
+        // Assemble
+        FileUtils.forceMkdir(catalogFile.getParentFile());
+        FileUtils.fileWrite(catalogFile, "UTF-8", "<catalog/>");
+        final SchemaMirror unitUnderTest = new SchemaMirror(mirrorDirectory, false, null, null, null, log);
+
+        // Act
+        final boolean result = unitUnderTest.writeCatalog(catalogFile);
+
+        // Assert
+        Assert.assertFalse(result);
+        Assert.assertTrue(catalogFile.isFile());
+        Assert.assertNull(XmlCatalog.read(FileSystemUtilities.getUrlFor(catalogFile))
+                .resolve(null, "http://www.example.com/some.xsd"));
+        Assert.assertEquals(0, numFullResponses.get());
+    }
+
+    @Test
+    public void validateUnchangedResourcesAreNotTransferredAgain() throws IOException {
+
+        // Assemble
+        final URL rootSchema = new URL(baseUrl + "/schemas/root.xsd");
+        new SchemaMirror(mirrorDirectory, false, null, null, null, log).fetch(rootSchema);
+
+        // Act
+        final File result = new SchemaMirror(mirrorDirectory, false, null, null, null, log).fetch(rootSchema);
+
+        // Assert
+        Assert.assertEquals(1, numFullResponses.get());
+        Assert.assertTrue(FileUtils.fileRead(result, "UTF-8").contains("common/types.xsd"));
+    }
+
+    @Test
+    public void validateOfflineModeServesOnlyMirroredResources() throws IOException {
+
+        // Assemble
+        final URL rootSchema = new URL(baseUrl + "/schemas/root.xsd");
+        final URL typesSchema = new URL(baseUrl + "/schemas/common/types.xsd");
+        new SchemaMirror(mirrorDirectory, false, null, null, null, log).fetch(rootSchema);
+        server.stop(0);
+
+        final SchemaMirror unitUnderTest = new SchemaMirror(mirrorDirectory, true, null, null, null, log);
+
+        // Act
+        final File result = unitUnderTest.fetch(rootSchema);
+
+        // Assert
+        Assert.assertTrue(result.isFile());
+        try {
+            unitUnderTest.fetch(typesSchema);
+            Assert.fail("Offline SchemaMirror should not serve resources which are not mirrored.");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+}
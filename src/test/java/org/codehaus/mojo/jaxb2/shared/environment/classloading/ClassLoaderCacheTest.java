@@ -0,0 +1,139 @@
+package org.codehaus.mojo.jaxb2.shared.environment.classloading;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+
+public class ClassLoaderCacheTest {
+
+    // Shared state
+    private List<URL> urls;
+    private ClassLoader parent;
+    private BufferingLog log;
+
+    @Before
+    public void setupSharedState() throws Exception {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+        parent = getClass().getClassLoader();
+
+        final File testdataDir = new File(getClass().getClassLoader().getResource("testdata").getPath());
+        urls = Arrays.asList(testdataDir.toURI().toURL());
+
+        ClassLoaderCache.clear(log);
+    }
+
+    @After
+    public void teardownSharedState() {
+        ClassLoaderCache.clear(log);
+    }
+
+    @Test
+    public void validateClassLoadersAreSharedWithinScope() {
+
+        // Assemble
+        final Object scope = new Object();
+        final ThreadContextClassLoaderHolder holder = ThreadContextClassLoaderBuilder.createFor(parent, log)
+                .withCacheScope(scope)
+                .addURL(urls.get(0))
+                .buildAndSet();
+        final ClassLoader firstClassLoader = Thread.currentThread().getContextClassLoader();
+        final String firstClassPath = holder.getClassPathAsArgument();
+        holder.restoreClassLoaderAndReleaseThread();
+
+        // Act
+        final ThreadContextClassLoaderHolder secondHolder = ThreadContextClassLoaderBuilder.createFor(parent, log)
+                .withCacheScope(scope)
+                .addURL(urls.get(0))
+                .buildAndSet();
+        final ClassLoader secondClassLoader = Thread.currentThread().getContextClassLoader();
+        final String secondClassPath = secondHolder.getClassPathAsArgument();
+        secondHolder.restoreClassLoaderAndReleaseThread();
+
+        // Assert
+        Assert.assertSame(firstClassLoader, secondClassLoader);
+        Assert.assertEquals(firstClassPath, secondClassPath);
+        Assert.assertEquals(1, ClassLoaderCache.size());
+    }
+
+    @Test
+    public void validateClassLoadersAreNotSharedBetweenScopes() {
+
+        // Assemble
+        final ClassLoaderCache.Entry first = ClassLoaderCache.acquire(new Object(), parent, urls, log);
+        ClassLoaderCache.release(first, log);
+
+        // Act
+        final ClassLoaderCache.Entry second = ClassLoaderCache.acquire(new Object(), parent, urls, log);
+
+        // Assert
+        Assert.assertNotSame(first.getClassLoader(), second.getClassLoader());
+        Assert.assertEquals(1, ClassLoaderCache.size());
+        ClassLoaderCache.release(second, log);
+    }
+
+    @Test
+    public void validateIdleClassLoadersAreEvicted() throws Exception {
+
+        // Assemble
+        final Object scope = new Object();
+        final File testdataDir = new File(urls.get(0).toURI());
+        final File[] children = testdataDir.getParentFile().listFiles();
+        Assert.assertNotNull(children);
+
+        // Act
+        int numAcquired = 0;
+        for (File current : children) {
+
+            ClassLoaderCache.release(ClassLoaderCache.acquire(
+                    scope, parent, Arrays.asList(current.toURI().toURL()), log), log);
+            numAcquired++;
+        }
+
+        // Assert
+        Assert.assertEquals(Math.min(numAcquired, ClassLoaderCache.MAX_IDLE_ENTRIES), ClassLoaderCache.size());
+    }
+
+    @Test
+    public void validateChangedJarsWithinPathsContainingSpacesAreNotServedFromCache() throws Exception {
+
+        // Assemble
+        final Object scope = new Object();
+        final File testdataDir = new File(urls.get(0).toURI());
+        final File jarFile = new File(testdataDir.getParentFile(), "class loader cache test/some.jar");
+        FileUtils.forceMkdir(jarFile.getParentFile());
+        FileUtils.fileWrite(jarFile, "UTF-8", "Not really a JAR");
+        final List<URL> jarUrls = Arrays.asList(FileSystemUtilities.getUrlFor(jarFile));
+
+        final ClassLoaderCache.Entry first = ClassLoaderCache.acquire(scope, parent, jarUrls, log);
+        ClassLoaderCache.release(first, log);
+
+        // Act
+        FileUtils.fileWrite(jarFile, "UTF-8", "Not really a JAR either");
+        final ClassLoaderCache.Entry second = ClassLoaderCache.acquire(scope, parent, jarUrls, log);
+        ClassLoaderCache.release(second, log);
+
+        // Assert
+        Assert.assertNotSame(first.getClassLoader(), second.getClassLoader());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void validateExceptionOnReleasingUnacquiredEntry() {
+
+        // Assemble
+        final ClassLoaderCache.Entry entry = ClassLoaderCache.acquire(new Object(), parent, urls, log);
+        ClassLoaderCache.release(entry, log);
+
+        // Act & Assert
+        ClassLoaderCache.release(entry, log);
+    }
+}
@@ -0,0 +1,76 @@
+package org.codehaus.mojo.jaxb2.shared.environment.logging;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+public class LoggingHandlerEnvironmentFacetTest {
+
+    @Test
+    public void validateConcurrentFacetsLogToTheirOwnMavenLogs() throws Exception {
+
+        // Assemble
+        final Logger rootLogger = Logger.getLogger("");
+        final List<Handler> originalHandlers = Arrays.asList(rootLogger.getHandlers());
+        final CyclicBarrier bothActive = new CyclicBarrier(2);
+
+        final BufferingLog log1 = new BufferingLog(BufferingLog.LogLevel.INFO);
+        final BufferingLog log2 = new BufferingLog(BufferingLog.LogLevel.INFO);
+        final List<Throwable> failures = new ArrayList<Throwable>();
+
+        // Act
+        final Thread thread1 = createLoggingThread(log1, "fromThread1", bothActive, failures);
+        final Thread thread2 = createLoggingThread(log2, "fromThread2", bothActive, failures);
+        thread1.start();
+        thread2.start();
+        thread1.join();
+        thread2.join();
+
+        // Assert
+        Assert.assertEquals(0, failures.size());
+        Assert.assertEquals(1, log1.getLogBuffer().size());
+        Assert.assertEquals(1, log2.getLogBuffer().size());
+        Assert.assertTrue(log1.getLogBuffer().firstKey().contains("fromThread1"));
+        Assert.assertTrue(log2.getLogBuffer().firstKey().contains("fromThread2"));
+        Assert.assertEquals(originalHandlers, Arrays.asList(rootLogger.getHandlers()));
+    }
+
+    //
+    // Private helpers
+    //
+
+    private Thread createLoggingThread(final BufferingLog log,
+                                       final String message,
+                                       final CyclicBarrier bothActive,
+                                       final List<Throwable> failures) {
+
+        return new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                final LoggingHandlerEnvironmentFacet unitUnderTest = new LoggingHandlerEnvironmentFacet(
+                        "XJC", log, "UTF-8", LoggingHandlerEnvironmentFacet.DEFAULT_LOGGER_NAMES);
+                try {
+                    unitUnderTest.setup();
+                    bothActive.await();
+
+                    Logger.getLogger("com.sun.tools.xjc").info(message);
+                    bothActive.await();
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                } finally {
+                    unitUnderTest.restore();
+                }
+            }
+        });
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.List;
 import java.util.SortedMap;
+import java.util.regex.Pattern;
 
 /**
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
@@ -99,4 +100,41 @@ public class T_AbstractPatternFilterTest {
         Assert.assertEquals("third", invocations.get(2)[0]);
         Assert.assertEquals(false, Boolean.parseBoolean(invocations.get(2)[1]));
     }
+
+    @Test
+    public void validateCombinedPatternsMatchAsIndividualPatterns() {
+
+        // Assemble
+        final List<String> patterns = Arrays.asList("f.*t", "th.rd", "[0-9]+");
+        final List<String> candidates = Arrays.asList("first", "third", "123", "fourth", "thirdly", "");
+        final BufferingLog infoLog = new BufferingLog(BufferingLog.LogLevel.INFO);
+
+        final DebugPatternFilter debugFilter = new DebugPatternFilter(
+                false, patterns, UNITY_STRING_CONVERTER, true);
+        final DebugPatternFilter combinedFilter = new DebugPatternFilter(
+                false, patterns, UNITY_STRING_CONVERTER, true);
+
+        // Act
+        debugFilter.initialize(log);
+        combinedFilter.initialize(infoLog);
+
+        // Assert
+        Assert.assertNotNull(AbstractPatternFilter.combine(AbstractPatternFilter.convert(patterns, null)));
+        for (String current : candidates) {
+            Assert.assertEquals(current, debugFilter.accept(current), combinedFilter.accept(current));
+        }
+    }
+
+    @Test
+    public void validatePatternsWithBackReferencesAreNotCombined() {
+
+        // Assemble
+        final List<String> patterns = Arrays.asList("(a)\\1", "b");
+
+        // Act
+        final Pattern result = AbstractPatternFilter.combine(AbstractPatternFilter.convert(patterns, null));
+
+        // Assert
+        Assert.assertNull(result);
+    }
 }
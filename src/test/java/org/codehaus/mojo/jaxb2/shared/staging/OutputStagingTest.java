@@ -0,0 +1,141 @@
+package org.codehaus.mojo.jaxb2.shared.staging;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class OutputStagingTest {
+
+    // Shared state
+    private File stagingDirectory;
+    private File outputDirectory;
+    private BufferingLog log;
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        final File workDirectory = new File(new File(getClass().getClassLoader().getResource("testdata").getPath())
+                .getParentFile().getParentFile(), "output-staging-test");
+        FileUtils.deleteDirectory(workDirectory);
+
+        stagingDirectory = new File(workDirectory, "staging");
+        outputDirectory = new File(workDirectory, "output");
+    }
+
+    @Test
+    public void validateOnlyChangedFilesArePublished() throws IOException {
+
+        // Assemble
+        final File unchanged = writeFile(outputDirectory, "foo/Unchanged.java", "class Unchanged {}");
+        final File changed = writeFile(outputDirectory, "foo/Changed.java", "class Changed {}");
+        Assert.assertTrue(unchanged.setLastModified(1000L));
+
+        final OutputStaging unitUnderTest = new OutputStaging(stagingDirectory, outputDirectory, log);
+        unitUnderTest.prepare();
+        writeFile(stagingDirectory, "foo/Unchanged.java", "class Unchanged {}");
+        writeFile(stagingDirectory, "foo/Changed.java", "class Changed { int i; }");
+        writeFile(stagingDirectory, "bar/Created.java", "class Created {}");
+
+        // Act
+        unitUnderTest.publish(Collections.<String>emptyList());
+
+        // Assert
+        Assert.assertEquals(1000L, unchanged.lastModified());
+        Assert.assertEquals("class Changed { int i; }", FileUtils.fileRead(changed, "UTF-8"));
+        Assert.assertTrue(new File(outputDirectory, "bar/Created.java").isFile());
+        Assert.assertEquals(Arrays.asList("bar/Created.java", "foo/Changed.java", "foo/Unchanged.java"),
+                Arrays.asList(unitUnderTest.getStagedFiles().toArray()));
+        Assert.assertEquals(2, unitUnderTest.getChangedFiles().size());
+        Assert.assertFalse(stagingDirectory.exists());
+    }
+
+    @Test
+    public void validateGenerationTimestampsAreDisregardedForJavaFiles() throws IOException {
+
+        // Assemble
+        final String template = "//\n// This file was generated by XJC\n// Generated on: %s\n//\n\n"
+                + "package foo;\n\n@Generated(value = \"com.sun.tools.xjc.Driver\", date = \"%s\")\n"
+                + "public class %s {}\n";
+        final File unchanged = writeFile(outputDirectory, "foo/Unchanged.java",
+                String.format(template, "2015.03.27 at 09:30:45 AM CET", "2015-03-27T09:30:45", "Unchanged"));
+        final File changed = writeFile(outputDirectory, "foo/Changed.java",
+                String.format(template, "2015.03.27 at 09:30:45 AM CET", "2015-03-27T09:30:45", "Changed"));
+        Assert.assertTrue(unchanged.setLastModified(1000L));
+        Assert.assertTrue(changed.setLastModified(1000L));
+
+        final OutputStaging unitUnderTest = new OutputStaging(stagingDirectory, outputDirectory, log);
+        unitUnderTest.prepare();
+        writeFile(stagingDirectory, "foo/Unchanged.java",
+                String.format(template, "2015.03.27 at 10:15:00 AM CET", "2015-03-27T10:15:00", "Unchanged"));
+        writeFile(stagingDirectory, "foo/Changed.java",
+                String.format(template, "2015.03.27 at 10:15:00 AM CET", "2015-03-27T10:15:00", "Changes"));
+
+        // Act
+        unitUnderTest.publish(Collections.<String>emptyList());
+
+        // Assert
+        Assert.assertEquals(1000L, unchanged.lastModified());
+        Assert.assertTrue(FileUtils.fileRead(unchanged, "UTF-8").contains("09:30:45 AM"));
+        Assert.assertEquals(Arrays.asList(changed), unitUnderTest.getChangedFiles());
+    }
+
+    @Test
+    public void validateStaleFilesAreRemoved() throws IOException {
+
+        // Assemble
+        final File stale = writeFile(outputDirectory, "foo/Stale.java", "class Stale {}");
+        final File userFile = writeFile(outputDirectory, "foo/UserFile.txt", "Not generated");
+
+        final OutputStaging unitUnderTest = new OutputStaging(stagingDirectory, outputDirectory, log);
+        unitUnderTest.prepare();
+        writeFile(stagingDirectory, "foo/Current.java", "class Current {}");
+
+        // Act
+        unitUnderTest.publish(Arrays.asList("foo/Stale.java", "foo/Current.java"));
+
+        // Assert
+        Assert.assertFalse(stale.exists());
+        Assert.assertTrue(userFile.exists());
+        Assert.assertTrue(unitUnderTest.getChangedFiles().contains(stale));
+    }
+
+    @Test
+    public void validateAllUnstagedFilesAreRemovedForClearedOutputDirectory() throws IOException {
+
+        // Assemble
+        final File userFile = writeFile(outputDirectory, "foo/UserFile.txt", "Not generated");
+
+        final OutputStaging unitUnderTest = new OutputStaging(stagingDirectory, outputDirectory, log);
+        unitUnderTest.prepare();
+        writeFile(stagingDirectory, "foo/Current.java", "class Current {}");
+
+        // Act
+        unitUnderTest.publish(null);
+
+        // Assert
+        Assert.assertFalse(userFile.exists());
+        Assert.assertTrue(new File(outputDirectory, "foo/Current.java").isFile());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static File writeFile(final File directory, final String relativePath, final String content)
+            throws IOException {
+
+        final File toReturn = new File(directory, relativePath);
+        FileUtils.forceMkdir(toReturn.getParentFile());
+        FileUtils.fileWrite(toReturn, "UTF-8", content);
+        return toReturn;
+    }
+}
@@ -0,0 +1,153 @@
+package org.codehaus.mojo.jaxb2.shared.staleness;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.catalog.XmlCatalog;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class SchemaDependencyResolverTest {
+
+    // Shared state
+    private File dependenciesDirectory;
+    private URL rootSchema;
+    private URL fragmentSchema;
+    private URL typesSchema;
+    private URL externalSchema;
+    private BufferingLog log;
+
+    @Before
+    public void setupSharedState() {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        final URL dependenciesDir = getClass().getClassLoader().getResource("testdata/shared/staleness/dependencies");
+        dependenciesDirectory = new File(dependenciesDir.getPath());
+
+        rootSchema = getUrlFor("root.xsd");
+        fragmentSchema = getUrlFor("common/fragment.xsd");
+        typesSchema = getUrlFor("common/types.xsd");
+        externalSchema = getUrlFor("external/external.xsd");
+    }
+
+    @Test
+    public void validateTransitiveIncludesWithoutCatalog() {
+
+        // Assemble
+        final SchemaDependencyResolver unitUnderTest = new SchemaDependencyResolver(null, log);
+
+        // Act
+        final Map<URL, List<URL>> result = unitUnderTest.resolve(Collections.singletonList(rootSchema));
+
+        // Assert
+        Assert.assertEquals(Arrays.asList(fragmentSchema, typesSchema), new ArrayList<URL>(result.keySet()));
+        Assert.assertEquals(Arrays.asList(rootSchema, typesSchema), result.get(fragmentSchema));
+        Assert.assertEquals(Collections.singletonList(fragmentSchema), result.get(typesSchema));
+    }
+
+    @Test
+    public void validateCatalogResolvedImportsAndBindingReferences() throws Exception {
+
+        // Assemble
+        final XmlCatalog catalog = XmlCatalog.read(getUrlFor("catalog.xml"));
+        final SchemaDependencyResolver unitUnderTest = new SchemaDependencyResolver(catalog, log);
+
+        // Act
+        final Map<URL, List<URL>> result = unitUnderTest.resolve(
+                Arrays.asList(rootSchema, getUrlFor("bindings.xjb")));
+
+        // Assert
+        Assert.assertEquals(Arrays.asList(fragmentSchema, externalSchema, typesSchema),
+                new ArrayList<URL>(result.keySet()));
+        Assert.assertEquals(Arrays.asList(rootSchema, getUrlFor("bindings.xjb")), result.get(externalSchema));
+    }
+
+    @Test
+    public void validateRootsAreNotReportedAsDependencies() {
+
+        // Assemble
+        final SchemaDependencyResolver unitUnderTest = new SchemaDependencyResolver(null, log);
+
+        // Act
+        final Map<URL, List<URL>> result = unitUnderTest.resolve(Arrays.asList(rootSchema, typesSchema));
+
+        // Assert
+        Assert.assertEquals(Collections.singletonList(fragmentSchema), new ArrayList<URL>(result.keySet()));
+    }
+
+    @Test
+    public void validatePartitioningIntoIndependentGroups() {
+
+        // Assemble
+        final URL independentSchema = getUrlFor("independent/independent.xsd");
+        final URL sameNamespaceSchema = getUrlFor("independent/sameNamespace.xsd");
+        final URL bindings = getUrlFor("bindings.xjb");
+        final SchemaDependencyResolver unitUnderTest = new SchemaDependencyResolver(null, log);
+
+        // Act
+        final List<List<URL>> result = unitUnderTest.partition(
+                Arrays.asList(rootSchema, externalSchema, independentSchema, sameNamespaceSchema, bindings));
+
+        // Assert
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(Arrays.asList(rootSchema, sameNamespaceSchema), result.get(0));
+        Assert.assertEquals(Arrays.asList(externalSchema, bindings), result.get(1));
+        Assert.assertEquals(Collections.singletonList(independentSchema), result.get(2));
+    }
+
+    @Test
+    public void validatePartitioningByNamespaceInDependencyOrder() throws Exception {
+
+        // Assemble
+        final URL independentSchema = getUrlFor("independent/independent.xsd");
+        final URL bindings = getUrlFor("bindings.xjb");
+        final XmlCatalog catalog = XmlCatalog.read(getUrlFor("catalog.xml"));
+        final SchemaDependencyResolver unitUnderTest = new SchemaDependencyResolver(catalog, log);
+
+        // Act
+        final List<List<URL>> result = unitUnderTest.partitionByNamespace(
+                Arrays.asList(rootSchema, independentSchema, externalSchema, bindings));
+
+        // Assert
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(Collections.singletonList(independentSchema), result.get(0));
+        Assert.assertEquals(Arrays.asList(externalSchema, bindings), result.get(1));
+        Assert.assertEquals(Collections.singletonList(rootSchema), result.get(2));
+    }
+
+    @Test
+    public void validateMutuallyImportingNamespacesArePartitionedTogether() {
+
+        // Assemble
+        final URL firstSchema = getUrlFor("cycle/first.xsd");
+        final URL secondSchema = getUrlFor("cycle/second.xsd");
+        final SchemaDependencyResolver unitUnderTest = new SchemaDependencyResolver(null, log);
+
+        // Act
+        final List<List<URL>> result = unitUnderTest.partitionByNamespace(
+                Arrays.asList(firstSchema, secondSchema, externalSchema));
+
+        // Assert
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(Arrays.asList(firstSchema, secondSchema), result.get(0));
+        Assert.assertEquals(Collections.singletonList(externalSchema), result.get(1));
+    }
+
+    //
+    // Private helpers
+    //
+
+    private URL getUrlFor(final String relativePath) {
+        return FileSystemUtilities.getUrlFor(
+                FileSystemUtilities.getCanonicalFile(new File(dependenciesDirectory, relativePath)));
+    }
+}
@@ -0,0 +1,309 @@
+package org.codehaus.mojo.jaxb2.shared.staleness;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StalenessManifestTest {
+
+    // Shared state
+    private File workDirectory;
+    private File manifestFile;
+    private File source1;
+    private File source2;
+    private List<String> arguments;
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        final URL testdataDir = getClass().getClassLoader().getResource("testdata");
+        final File targetDirectory = new File(testdataDir.getPath()).getParentFile().getParentFile();
+
+        workDirectory = new File(targetDirectory, "staleness-manifest-test");
+        manifestFile = new File(workDirectory, "manifest/.someExecution-xjcStaleFlag");
+        if (manifestFile.exists()) {
+            Assert.assertTrue(manifestFile.delete());
+        }
+
+        source1 = writeFile("source1.xsd", "<schema/>");
+        source2 = writeFile("source2.xsd", "<anotherSchema/>");
+        arguments = Arrays.asList("-xmlschema", "-encoding", "UTF-8", "-d", "some/output/dir");
+    }
+
+    @Test
+    public void validateNoDifferencesAfterWritingAndReadingManifest() throws IOException {
+
+        // Assemble
+        final StalenessManifest unitUnderTest = createManifest(null);
+
+        // Act
+        unitUnderTest.write(manifestFile);
+        final StalenessManifest result = StalenessManifest.read(manifestFile);
+
+        // Assert
+        Assert.assertNotNull(result);
+        Assert.assertEquals(arguments, result.getArguments());
+        Assert.assertEquals(unitUnderTest.getResources(), result.getResources());
+        Assert.assertEquals(0, createManifest(result).getDifferences(result).size());
+    }
+
+    @Test
+    public void validateTouchedButUnchangedSourceIsNotStale() throws IOException {
+
+        // Assemble
+        createManifest(null).write(manifestFile);
+        final StalenessManifest previous = StalenessManifest.read(manifestFile);
+        Assert.assertTrue(source1.setLastModified(source1.lastModified() + 10000L));
+
+        // Act
+        final StalenessManifest current = createManifest(previous);
+        final List<String> differences = current.getDifferences(previous);
+
+        // Assert
+        Assert.assertEquals(0, differences.size());
+        Assert.assertFalse(previous.getResources().equals(current.getResources()));
+    }
+
+    @Test
+    public void validateChangedContentIsStale() throws IOException {
+
+        // Assemble
+        createManifest(null).write(manifestFile);
+        final StalenessManifest previous = StalenessManifest.read(manifestFile);
+        writeFile("source2.xsd", "<aChangedSchema/>");
+
+        // Act
+        final List<String> differences = createManifest(previous).getDifferences(previous);
+
+        // Assert
+        Assert.assertEquals(1, differences.size());
+        Assert.assertTrue(differences.get(0).startsWith("Changed resource"));
+    }
+
+    @Test
+    public void validateChangedArgumentsAndRemovedResourceAreStale() throws IOException {
+
+        // Assemble
+        createManifest(null).write(manifestFile);
+        final StalenessManifest previous = StalenessManifest.read(manifestFile);
+        final StalenessManifest current = new StalenessManifest(Arrays.asList("-xmlschema", "-npa"));
+        current.addResource(FileSystemUtilities.getUrlFor(source1), previous);
+
+        // Act
+        final List<String> differences = current.getDifferences(previous);
+
+        // Assert
+        Assert.assertEquals(2, differences.size());
+        Assert.assertEquals("Tool arguments differ.", differences.get(0));
+        Assert.assertTrue(differences.get(1).startsWith("Removed resource"));
+    }
+
+    @Test
+    public void validateChangedDependencyIsStale() throws IOException {
+
+        // Assemble
+        final File dependency = writeFile("dependency.xsd", "<includedSchema/>");
+        final StalenessManifest original = createManifest(null);
+        original.addDependency(FileSystemUtilities.getUrlFor(dependency), null);
+        original.write(manifestFile);
+
+        final StalenessManifest previous = StalenessManifest.read(manifestFile);
+        writeFile("dependency.xsd", "<aChangedIncludedSchema/>");
+
+        // Act
+        final StalenessManifest current = createManifest(previous);
+        current.addDependency(FileSystemUtilities.getUrlFor(dependency), previous);
+        final List<String> differences = current.getDifferences(previous);
+
+        // Assert
+        Assert.assertEquals(original.getDependencies(), previous.getDependencies());
+        Assert.assertEquals(1, differences.size());
+        Assert.assertTrue(differences.get(0).startsWith("Changed dependency"));
+    }
+
+    @Test
+    public void validateRemoteResourcesAreProbedUsingConditionalRequests() throws Exception {
+
+        // Assemble
+        final AtomicInteger numFullResponses = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+
+                final String entityTag = "\"" + exchange.getRequestURI().getPath() + "\"";
+                exchange.getResponseHeaders().add("ETag", entityTag);
+
+                if (entityTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+
+                    final byte[] content = "<schema/>".getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, content.length);
+                    exchange.getResponseBody().write(content);
+                    numFullResponses.incrementAndGet();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+
+            final String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            final List<URL> remoteSchemas = new ArrayList<URL>();
+            for (int i = 0; i < 5; i++) {
+                remoteSchemas.add(new URL(baseUrl + "/schema" + i + ".xsd"));
+            }
+
+            final StalenessManifest original = new StalenessManifest(arguments);
+            original.addResources(remoteSchemas, null, 3);
+            original.write(manifestFile);
+            final StalenessManifest previous = StalenessManifest.read(manifestFile);
+
+            // Act
+            final StalenessManifest current = new StalenessManifest(arguments);
+            current.addResources(remoteSchemas, previous, 3);
+
+            // Assert
+            Assert.assertEquals(5, numFullResponses.get());
+            Assert.assertEquals("\"/schema0.xsd\"",
+                    previous.getResources().get(remoteSchemas.get(0).toString()).getEntityTag());
+            Assert.assertEquals(previous.getResources(), current.getResources());
+            Assert.assertEquals(0, current.getDifferences(previous).size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void validateDeletedOrModifiedOutputsAreDetected() throws IOException {
+
+        // Assemble
+        final File outputDirectory = new File(workDirectory, "output");
+        final File output1 = writeFile("output/se/west/Foo.java", "class Foo {}");
+        final File output2 = writeFile("output/se/west/Bar.java", "class Bar {}");
+        final File output3 = writeFile("output/se/west/Gnat.java", "class Gnat {}");
+
+        final StalenessManifest original = createManifest(null);
+        original.addOutput("se/west/Foo.java", output1, true);
+        original.addOutput("se/west/Bar.java", output2, false);
+        original.addOutput("se/west/Gnat.java", output3, true);
+        original.write(manifestFile);
+        final StalenessManifest previous = StalenessManifest.read(manifestFile);
+
+        // Act
+        final List<String> intactDifferences = previous.getOutputDifferences(outputDirectory, true);
+        Assert.assertTrue(output1.delete());
+        writeFile("output/se/west/Bar.java", "class Bar { int i; }");
+        writeFile("output/se/west/Gnat.java", "class Gnus {}");
+        Assert.assertTrue(output3.setLastModified(output3.lastModified() + 10000L));
+        final List<String> cheapDifferences = previous.getOutputDifferences(outputDirectory, false);
+        final List<String> digestDifferences = previous.getOutputDifferences(outputDirectory, true);
+
+        // Assert
+        Assert.assertEquals(original.getOutputs(), previous.getOutputs());
+        Assert.assertEquals(StalenessManifest.NOT_DIGESTED,
+                previous.getOutputs().get("se/west/Bar.java").getDigest());
+        Assert.assertEquals(0, intactDifferences.size());
+        Assert.assertEquals(Arrays.asList("Changed output [se/west/Bar.java]", "Missing output [se/west/Foo.java]"),
+                cheapDifferences);
+        Assert.assertEquals(Arrays.asList("Changed output [se/west/Bar.java]", "Missing output [se/west/Foo.java]",
+                "Changed output [se/west/Gnat.java]"), digestDifferences);
+    }
+
+    @Test
+    public void validateLegacyEmptyStaleFileIsIgnored() throws IOException {
+
+        // Assemble
+        Assert.assertTrue(manifestFile.getParentFile().isDirectory() || manifestFile.getParentFile().mkdirs());
+        Assert.assertTrue(manifestFile.createNewFile());
+
+        // Act
+        final StalenessManifest result = StalenessManifest.read(manifestFile);
+
+        // Assert
+        Assert.assertNull(result);
+        Assert.assertEquals(1, createManifest(result).getDifferences(result).size());
+    }
+
+    @Test
+    public void validateDigestOfKnownContent() throws IOException {
+
+        // Assemble
+        final File emptyFile = writeFile("empty.txt", "");
+
+        // Act
+        final StalenessManifest unitUnderTest = new StalenessManifest(arguments);
+        final StalenessManifest.Fingerprint result = unitUnderTest.addResource(
+                FileSystemUtilities.getUrlFor(emptyFile), null);
+
+        // Assert
+        Assert.assertEquals(0L, result.getSize());
+        Assert.assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", result.getDigest());
+    }
+
+    @Test
+    public void validateFileUrlsOfPathsContainingSpacesAreFingerprinted() throws IOException {
+
+        // Assemble
+        final File source = writeFile("directory with spaces/some source.xsd", "<schema/>");
+        final URL sourceUrl = FileSystemUtilities.getUrlFor(source);
+        Assert.assertTrue(sourceUrl.toString().contains("%20"));
+
+        // Act
+        final StalenessManifest unitUnderTest = new StalenessManifest(arguments);
+        final StalenessManifest.Fingerprint result = unitUnderTest.addResource(sourceUrl, null);
+
+        // Assert
+        Assert.assertEquals(source.length(), result.getSize());
+        Assert.assertEquals(source.lastModified(), result.getLastModified());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private StalenessManifest createManifest(final StalenessManifest previous) throws IOException {
+
+        final StalenessManifest toReturn = new StalenessManifest(arguments);
+        toReturn.addResource(FileSystemUtilities.getUrlFor(source1), previous);
+        toReturn.addResource(FileSystemUtilities.getUrlFor(source2), previous);
+        return toReturn;
+    }
+
+    private File writeFile(final String fileName, final String content) throws IOException {
+
+        if (!workDirectory.exists()) {
+            Assert.assertTrue(workDirectory.mkdirs());
+        }
+
+        final File toReturn = new File(workDirectory, fileName);
+        if (!toReturn.getParentFile().exists()) {
+            Assert.assertTrue(toReturn.getParentFile().mkdirs());
+        }
+
+        final FileWriter out = new FileWriter(toReturn);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+
+        return toReturn;
+    }
+}
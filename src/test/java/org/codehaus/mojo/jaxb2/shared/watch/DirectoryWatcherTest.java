@@ -0,0 +1,70 @@
+package org.codehaus.mojo.jaxb2.shared.watch;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SortedSet;
+
+public class DirectoryWatcherTest {
+
+    // Shared state
+    private File watchedDirectory;
+    private DirectoryWatcher unitUnderTest;
+
+    @Before
+    public void setupSharedState() throws IOException {
+
+        watchedDirectory = new File(new File(getClass().getClassLoader().getResource("testdata").getPath())
+                .getParentFile().getParentFile(), "directory-watcher-test");
+        FileUtils.deleteDirectory(watchedDirectory);
+        FileUtils.forceMkdir(watchedDirectory);
+
+        unitUnderTest = new DirectoryWatcher(new BufferingLog(BufferingLog.LogLevel.DEBUG));
+    }
+
+    @After
+    public void teardownSharedState() throws IOException {
+        unitUnderTest.close();
+    }
+
+    @Test
+    public void validateBurstOfChangesIsReportedAsOneBatch() throws Exception {
+
+        // Assemble
+        unitUnderTest.register(Arrays.asList(watchedDirectory, new File(watchedDirectory, "nonexistent")));
+        final File first = new File(watchedDirectory, "first.xsd");
+        final File second = new File(watchedDirectory, "second.xsd");
+
+        // Act
+        FileUtils.fileWrite(first, "UTF-8", "<schema/>");
+        FileUtils.fileWrite(second, "UTF-8", "<schema/>");
+        final SortedSet<File> result = unitUnderTest.awaitChanges(500L);
+
+        // Assert
+        Assert.assertEquals(1, unitUnderTest.getNumberOfWatchedDirectories());
+        Assert.assertTrue(result.contains(first));
+        Assert.assertTrue(result.contains(second));
+    }
+
+    @Test
+    public void validateCreatedDirectoriesAreWatched() throws Exception {
+
+        // Assemble
+        unitUnderTest.register(Arrays.asList(watchedDirectory));
+        final File subDirectory = new File(watchedDirectory, "sub");
+
+        // Act
+        FileUtils.forceMkdir(subDirectory);
+        unitUnderTest.awaitChanges(200L);
+
+        // Assert
+        Assert.assertEquals(2, unitUnderTest.getNumberOfWatchedDirectories());
+    }
+}